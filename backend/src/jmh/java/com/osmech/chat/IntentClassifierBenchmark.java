@@ -0,0 +1,104 @@
+package com.osmech.chat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.osmech.chat.service.IntentClassifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Assistente local: cadeia anterior de {@code String.matches} (uma regex compilada por
+ * chamada, em ordem) contra o autômato do IntentClassifier, sobre o mesmo corpus do teste
+ * de paridade (IntentClassifierTest). Cada operação classifica o corpus inteiro.
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="IntentClassifierBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IntentClassifierBenchmark {
+
+    /** Regexes de gerarRespostaLocal antes do IntentClassifier, na ordem em que eram testadas */
+    private static final String[][] REGEX_ANTERIOR = {
+            {"saudacao", ".*(oi|ola|bom dia|boa tarde|boa noite|eai|e ai|hey|hello).*"},
+            {"ordem_servico", ".*(ordem de servico|ordem de serviço|\\bos\\b|criar os|abrir os|status os|fechar os).*"},
+            {"estoque", ".*(estoque|peca|peça|reposicao|reposição|falt).*"},
+            {"financeiro", ".*(financ|pagamento|receita|despesa|fluxo|caixa|cobr).*"},
+            {"motor", ".*(motor|aquec|superaquec|ferveu|fumaca|fumaça|barulho motor|batendo).*"},
+            {"freios", ".*(freio|frear|frenagem|pastilha|disco|pedal duro|pedal mole).*"},
+            {"suspensao", ".*(suspens|amortec|balanc|alinhamento|barulho roda|estalo).*"},
+            {"eletrica", ".*(eletric|bateria|alternador|motor partida|nao liga|não liga|luz|farol|fusivel|fusível).*"},
+            {"planos", ".*(plano|assinatura|pro|premium|upgrade).*"}
+    };
+
+    private static final List<String> CORPUS = List.of(
+            "Bom dia",
+            "Como abrir uma ordem de serviço?",
+            "Quero ver o status da OS",
+            "Falta peça no estoque",
+            "Como está o fluxo de caixa deste mês?",
+            "O carro está superaquecendo e saindo fumaça branca",
+            "Pedal mole ao frear",
+            "Barulho na suspensão quando passo no buraco",
+            "A bateria descarrega rapido",
+            "Quero fazer upgrade para o premium",
+            "Qual o melhor óleo para esse carro?"
+    );
+
+    private IntentClassifier classifier;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        classifier = new IntentClassifier(new ObjectMapper(), new DefaultResourceLoader());
+        ReflectionTestUtils.setField(classifier, "arquivo", "classpath:chat/intencoes.json");
+        classifier.carregar();
+    }
+
+    @Benchmark
+    public void regexAnterior(Blackhole bh) {
+        for (String mensagem : CORPUS) {
+            bh.consume(anterior(mensagem));
+        }
+    }
+
+    @Benchmark
+    public void classificar(Blackhole bh) {
+        for (String mensagem : CORPUS) {
+            bh.consume(classifier.classificar(mensagem));
+        }
+    }
+
+    @Benchmark
+    public void responder(Blackhole bh) {
+        for (String mensagem : CORPUS) {
+            bh.consume(classifier.responder(mensagem));
+        }
+    }
+
+    private static String anterior(String mensagem) {
+        String lower = mensagem.toLowerCase().trim();
+        for (String[] regra : REGEX_ANTERIOR) {
+            if (lower.matches(regra[1])) {
+                return regra[0];
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,71 @@
+package com.osmech.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contenção no SlidingWindowRateLimiter (rodar com várias threads, ex.: {@code -t 8}):
+ * todas as threads na mesma chave (CAS disputado), chaves espalhadas pela tabela
+ * (sondagem e ocupação de slots) e cliente já bloqueado (caminho de recusa, só leitura).
+ *
+ * mvn -Pbenchmark test-compile exec:exec
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SlidingWindowRateLimiterBenchmark {
+
+    private static final long JANELA_MS = 60_000;
+    private static final int CLIENTES = 10_000;
+
+    private SlidingWindowRateLimiter limiter;
+    private long[] chaves;
+    private long chaveQuente;
+    private long chaveBloqueada;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        limiter = new SlidingWindowRateLimiter(16_384);
+        chaves = new long[CLIENTES];
+        for (int i = 0; i < CLIENTES; i++) {
+            chaves[i] = SlidingWindowRateLimiter.chave("10.0." + (i >> 8) + "." + (i & 0xFF), 0);
+        }
+        chaveQuente = SlidingWindowRateLimiter.chave("10.1.1.1", 0);
+        chaveBloqueada = SlidingWindowRateLimiter.chave("10.2.2.2", 0);
+        long agora = System.currentTimeMillis();
+        while (limiter.tentarConsumir(chaveBloqueada, 10, JANELA_MS, 1, agora)) {
+            // esgota a cota do cliente bloqueado
+        }
+    }
+
+    @Benchmark
+    public boolean mesmaChave() {
+        return limiter.tentarConsumir(chaveQuente, Integer.MAX_VALUE, JANELA_MS, 1, System.currentTimeMillis());
+    }
+
+    @Benchmark
+    public boolean chavesDistintas() {
+        long chave = chaves[ThreadLocalRandom.current().nextInt(CLIENTES)];
+        return limiter.tentarConsumir(chave, Integer.MAX_VALUE, JANELA_MS, 1, System.currentTimeMillis());
+    }
+
+    @Benchmark
+    public boolean clienteBloqueado() {
+        return limiter.tentarConsumir(chaveBloqueada, 10, JANELA_MS, 1, System.currentTimeMillis());
+    }
+}
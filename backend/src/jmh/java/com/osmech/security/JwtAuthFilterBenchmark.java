@@ -0,0 +1,180 @@
+package com.osmech.security;
+
+import com.osmech.user.entity.Usuario;
+import com.osmech.user.repository.UsuarioRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * JwtAuthFilter com token válido: usuário no PrincipalCache (compartilhado entre as
+ * threads), cache vazio (uma consulta ao repositório por requisição) e o fluxo anterior
+ * (três parses do token, cada um montando o parser, mais {@code findByEmail} sempre).
+ * O repositório é simulado; {@code latenciaBancoUs} imita a ida ao banco.
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="-t 8 JwtAuthFilterBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthFilterBenchmark {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef-bench";
+    private static final String EMAIL = "oficina@teste.com";
+    private static final FilterChain NADA = (request, response) -> { };
+
+    @Param({"0", "200"})
+    public long latenciaBancoUs;
+
+    private UsuarioRepository usuarioRepository;
+    private JwtUtil jwtUtil;
+    private SecretKey key;
+    private String header;
+    private JwtAuthFilter filtroComCache;
+
+    /** Cache por thread, esvaziado a cada requisição: mede o filtro novo sem hit */
+    @State(Scope.Thread)
+    public static class SemCache {
+        PrincipalCache principalCache;
+        JwtAuthFilter filtro;
+
+        @Setup(Level.Trial)
+        public void preparar(JwtAuthFilterBenchmark b) {
+            principalCache = b.principalCache();
+            filtro = new JwtAuthFilter(b.jwtUtil, principalCache);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void preparar() throws Exception {
+        Usuario usuario = Usuario.builder().id(1L).email(EMAIL).role("OFICINA").plano("PRO").ativo(true).build();
+        long latenciaNs = TimeUnit.MICROSECONDS.toNanos(latenciaBancoUs);
+        usuarioRepository = (UsuarioRepository) Proxy.newProxyInstance(UsuarioRepository.class.getClassLoader(),
+                new Class<?>[]{UsuarioRepository.class}, (proxy, metodo, args) -> {
+                    if (!metodo.getName().equals("findByEmail")) {
+                        throw new UnsupportedOperationException(metodo.getName());
+                    }
+                    if (latenciaNs > 0) {
+                        LockSupport.parkNanos(latenciaNs);
+                    }
+                    return EMAIL.equals(args[0]) ? Optional.of(usuario) : Optional.empty();
+                });
+        jwtUtil = new JwtUtil(SECRET, 3_600_000);
+        key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        header = "Bearer " + jwtUtil.generateToken(EMAIL, "OFICINA", 1L);
+        filtroComCache = new JwtAuthFilter(jwtUtil, principalCache());
+
+        // Confere que os três caminhos autenticam antes de medir
+        SemCache semCache = new SemCache();
+        semCache.preparar(this);
+        if (cacheHit() == null || cacheMiss(semCache) == null || anterior() == null) {
+            throw new IllegalStateException("Token de referência não autenticou");
+        }
+    }
+
+    @Benchmark
+    public Authentication cacheHit() throws Exception {
+        return filtrar(filtroComCache);
+    }
+
+    @Benchmark
+    public Authentication cacheMiss(SemCache semCache) throws Exception {
+        semCache.principalCache.invalidar(EMAIL);
+        return filtrar(semCache.filtro);
+    }
+
+    /** Corpo do JwtAuthFilter antes do PrincipalCache */
+    @Benchmark
+    public Authentication anterior() {
+        MockHttpServletRequest request = requisicao();
+        String h = request.getHeader("Authorization");
+        try {
+            if (h != null && h.startsWith("Bearer ")) {
+                String token = h.substring(7);
+                if (validarToken(token)) {
+                    String email = claims(token).getSubject();
+                    String role = claims(token).get("role", String.class);
+                    Usuario usuario = usuarioRepository.findByEmail(email).orElse(null);
+                    if (usuario != null && Boolean.TRUE.equals(usuario.getAtivo())) {
+                        var authorities = List.of(new SimpleGrantedAuthority("ROLE_" + role));
+                        SecurityContextHolder.getContext()
+                                .setAuthentication(new UsernamePasswordAuthenticationToken(email, null, authorities));
+                    }
+                }
+            }
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private Authentication filtrar(JwtAuthFilter filtro) throws Exception {
+        try {
+            filtro.doFilter(requisicao(), new MockHttpServletResponse(), NADA);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    /** Requisição nova a cada chamada: o OncePerRequestFilter marca a que já passou por ele */
+    private MockHttpServletRequest requisicao() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/os");
+        request.addHeader("Authorization", header);
+        return request;
+    }
+
+    private PrincipalCache principalCache() {
+        PrincipalCache cache = new PrincipalCache(usuarioRepository, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "ttlSegundos", 60L);
+        ReflectionTestUtils.setField(cache, "maxItens", 10_000);
+        cache.iniciar();
+        return cache;
+    }
+
+    private boolean validarToken(String token) {
+        try {
+            claims(token);
+            return true;
+        } catch (JwtException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private Claims claims(String token) {
+        return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+    }
+}
@@ -0,0 +1,130 @@
+package com.osmech.audit;
+
+import com.osmech.security.TenantContext;
+import com.osmech.security.UsuarioAutenticado;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Busca nos logs de auditoria, do mais recente para o mais antigo.
+ *
+ * Paginação por keyset em (criado_em, id): o cursor devolvido aponta o último item da
+ * página, e cada página custa o mesmo independente da profundidade. O período é sempre
+ * limitado (padrão: últimos {@code DIAS_PADRAO} dias) para que só as partições do período
+ * sejam lidas. Oficinas só veem os próprios eventos; ADMIN pode filtrar qualquer usuário.
+ */
+@Service
+@RequiredArgsConstructor
+public class AuditConsultaService {
+
+    static final int DIAS_PADRAO = 30;
+    static final int LIMITE_MAXIMO = 200;
+
+    private static final String SQL_BASE =
+            "SELECT id, audit_id, acao, entidade, entidade_id, usuario_email, detalhes, ip_address, criado_em " +
+            "FROM audit_logs WHERE criado_em >= ? AND criado_em < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TenantContext tenantContext;
+
+    /** Filtros da busca (todos opcionais) */
+    public record Filtro(String acao, String entidade, Long entidadeId, String usuario,
+                         LocalDateTime de, LocalDateTime ate, String cursor, Integer limite) {}
+
+    /**
+     * @throws IllegalArgumentException com período invertido ou cursor inválido
+     */
+    public AuditLogPagina buscar(String emailUsuario, Filtro filtro) {
+        UsuarioAutenticado usuario = tenantContext.getUsuarioAutenticado(emailUsuario);
+        String usuarioFiltro = "ADMIN".equals(usuario.role()) ? vazioParaNull(filtro.usuario()) : usuario.email();
+
+        LocalDateTime ate = filtro.ate() != null ? filtro.ate() : LocalDateTime.now();
+        LocalDateTime de = filtro.de() != null ? filtro.de() : ate.minusDays(DIAS_PADRAO);
+        if (!de.isBefore(ate)) {
+            throw new IllegalArgumentException("Periodo invalido: 'de' deve ser anterior a 'ate'");
+        }
+        int limite = filtro.limite() == null ? 50 : Math.min(Math.max(filtro.limite(), 1), LIMITE_MAXIMO);
+
+        StringBuilder sql = new StringBuilder(SQL_BASE);
+        List<Object> params = new ArrayList<>();
+        params.add(Timestamp.valueOf(de));
+        params.add(Timestamp.valueOf(ate));
+        if (vazioParaNull(filtro.acao()) != null) {
+            sql.append(" AND acao = ?");
+            params.add(filtro.acao().strip());
+        }
+        if (vazioParaNull(filtro.entidade()) != null) {
+            sql.append(" AND entidade = ?");
+            params.add(filtro.entidade().strip());
+        }
+        if (filtro.entidadeId() != null) {
+            sql.append(" AND entidade_id = ?");
+            params.add(filtro.entidadeId());
+        }
+        if (usuarioFiltro != null) {
+            sql.append(" AND usuario_email = ?");
+            params.add(usuarioFiltro);
+        }
+        Cursor cursor = decodificar(filtro.cursor());
+        if (cursor != null) {
+            sql.append(" AND (criado_em, id) < (?, ?)");
+            params.add(Timestamp.valueOf(cursor.criadoEm()));
+            params.add(cursor.id());
+        }
+        sql.append(" ORDER BY criado_em DESC, id DESC LIMIT ?");
+        params.add(limite + 1);
+
+        List<AuditLogResponse> itens = jdbcTemplate.query(sql.toString(), (rs, i) -> AuditLogResponse.builder()
+                .id(rs.getLong("id"))
+                .auditId(rs.getString("audit_id"))
+                .acao(rs.getString("acao"))
+                .entidade(rs.getString("entidade"))
+                .entidadeId(rs.getObject("entidade_id", Long.class))
+                .usuarioEmail(rs.getString("usuario_email"))
+                .detalhes(rs.getString("detalhes"))
+                .ipAddress(rs.getString("ip_address"))
+                .criadoEm(rs.getTimestamp("criado_em").toLocalDateTime())
+                .build(), params.toArray());
+
+        String proximo = null;
+        if (itens.size() > limite) {
+            itens = new ArrayList<>(itens.subList(0, limite));
+            AuditLogResponse ultimo = itens.get(limite - 1);
+            proximo = codificar(new Cursor(ultimo.getCriadoEm(), ultimo.getId()));
+        }
+        return AuditLogPagina.builder().itens(itens).proximoCursor(proximo).build();
+    }
+
+    record Cursor(LocalDateTime criadoEm, long id) {}
+
+    static String codificar(Cursor cursor) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((cursor.criadoEm() + "|" + cursor.id()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Cursor decodificar(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String texto = new String(Base64.getUrlDecoder().decode(cursor.strip()), StandardCharsets.UTF_8);
+            int sep = texto.indexOf('|');
+            return new Cursor(LocalDateTime.parse(texto.substring(0, sep)), Long.parseLong(texto.substring(sep + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Cursor invalido");
+        }
+    }
+
+    private static String vazioParaNull(String valor) {
+        return valor == null || valor.isBlank() ? null : valor.strip();
+    }
+}
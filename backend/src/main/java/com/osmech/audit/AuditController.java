@@ -0,0 +1,35 @@
+package com.osmech.audit;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/audit/logs")
+@RequiredArgsConstructor
+public class AuditController {
+
+    private final AuditConsultaService consultaService;
+
+    /**
+     * GET /api/audit/logs - Eventos de auditoria do período (padrão: últimos 30 dias), mais recentes primeiro.
+     * A próxima página vem com o {@code cursor} devolvido em {@code proximoCursor}.
+     */
+    @GetMapping
+    public ResponseEntity<AuditLogPagina> buscar(Authentication auth,
+                                                 @RequestParam(required = false) String acao,
+                                                 @RequestParam(required = false) String entidade,
+                                                 @RequestParam(required = false) Long entidadeId,
+                                                 @RequestParam(required = false) String usuario,
+                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime de,
+                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime ate,
+                                                 @RequestParam(required = false) String cursor,
+                                                 @RequestParam(required = false) Integer limite) {
+        return ResponseEntity.ok(consultaService.buscar(auth.getName(),
+                new AuditConsultaService.Filtro(acao, entidade, entidadeId, usuario, de, ate, cursor, limite)));
+    }
+}
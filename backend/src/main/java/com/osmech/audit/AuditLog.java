@@ -6,9 +6,13 @@ import java.time.LocalDateTime;
 
 /**
  * Entidade para persistencia de logs de auditoria.
+ * A tabela e particionada por mes de criado_em (ver AuditParticaoService); por isso a
+ * unicidade de audit_id inclui criado_em.
  */
 @Entity
-@Table(name = "audit_logs")
+@Table(name = "audit_logs", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_audit_logs_audit_id", columnNames = {"audit_id", "criado_em"})
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -20,7 +24,7 @@ public class AuditLog {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(name = "audit_id", nullable = false, unique = true, length = 64)
+    @Column(name = "audit_id", nullable = false, length = 64)
     private String auditId;
 
     @Column(name = "acao", nullable = false, length = 100)
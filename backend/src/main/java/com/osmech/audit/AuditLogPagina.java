@@ -0,0 +1,15 @@
+package com.osmech.audit;
+
+import lombok.*;
+
+import java.util.List;
+
+/** Página da busca de auditoria; {@code proximoCursor} é null na última página */
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@Builder
+public class AuditLogPagina {
+
+    private List<AuditLogResponse> itens;
+    private String proximoCursor;
+}
@@ -0,0 +1,21 @@
+package com.osmech.audit;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@Builder
+public class AuditLogResponse {
+
+    private Long id;
+    private String auditId;
+    private String acao;
+    private String entidade;
+    private Long entidadeId;
+    private String usuarioEmail;
+    private String detalhes;
+    private String ipAddress;
+    private LocalDateTime criadoEm;
+}
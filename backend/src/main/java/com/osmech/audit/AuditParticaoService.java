@@ -0,0 +1,122 @@
+package com.osmech.audit;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Partições mensais de audit_logs (audit_logs_pAAAAMM, criadas pela V15).
+ *
+ * Mantém os próximos meses criados e expira os meses fora da retenção de uma vez:
+ * DROP da partição, ou DETACH e renomeação para audit_logs_arquivo_AAAAMM (tabela avulsa
+ * para exportar/arquivar fora do banco). Se audit_logs não for particionada (ambiente
+ * criado pelo Hibernate, sem Flyway), a retenção vira um único DELETE por data.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AuditParticaoService {
+
+    static final String TABELA = "audit_logs";
+    static final String PADRAO = "audit_logs_padrao";
+    private static final Pattern NOME_PARTICAO = Pattern.compile("audit_logs_p(\\d{6})");
+    private static final DateTimeFormatter AAAAMM = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private static final String SQL_PARTICIONADA =
+            "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table pt JOIN pg_class c ON c.oid = pt.partrelid " +
+            "WHERE c.relname = ? AND pg_table_is_visible(c.oid))";
+
+    private static final String SQL_PARTICOES =
+            "SELECT c.relname FROM pg_inherits i " +
+            "JOIN pg_class c ON c.oid = i.inhrelid JOIN pg_class p ON p.oid = i.inhparent " +
+            "WHERE p.relname = ? AND pg_table_is_visible(p.oid) ORDER BY c.relname";
+
+    public enum Modo { DROP, ARQUIVAR }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public boolean particionada() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(SQL_PARTICIONADA, Boolean.class, TABELA));
+    }
+
+    /** Meses com partição anexada a audit_logs, em ordem */
+    public List<YearMonth> meses() {
+        List<YearMonth> meses = new ArrayList<>();
+        for (String nome : jdbcTemplate.queryForList(SQL_PARTICOES, String.class, TABELA)) {
+            Matcher m = NOME_PARTICAO.matcher(nome);
+            if (m.matches()) {
+                meses.add(YearMonth.parse(m.group(1), AAAAMM));
+            }
+        }
+        return meses;
+    }
+
+    /** Cria (se faltarem) as partições de {@code de} até {@code de + quantidade - 1} */
+    public int criarParticoes(YearMonth de, int quantidade) {
+        List<YearMonth> existentes = meses();
+        int criadas = 0;
+        for (int i = 0; i < quantidade; i++) {
+            YearMonth mes = de.plusMonths(i);
+            if (existentes.contains(mes)) {
+                continue;
+            }
+            try {
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + particao(mes) + " PARTITION OF " + TABELA +
+                        " FOR VALUES FROM ('" + mes.atDay(1) + "') TO ('" + mes.plusMonths(1).atDay(1) + "')");
+                criadas++;
+                log.info("Particao {} criada", particao(mes));
+            } catch (DataAccessException e) {
+                // Ex.: linhas desse mes ja gravadas na particao padrao
+                log.error("Falha ao criar particao {}: {}", particao(mes), e.getMessage());
+            }
+        }
+        return criadas;
+    }
+
+    /**
+     * Expira os meses anteriores a {@code corte}.
+     *
+     * @return partições removidas ou arquivadas
+     */
+    public int expirar(YearMonth corte, Modo modo) {
+        int expiradas = 0;
+        for (YearMonth mes : meses()) {
+            if (!mes.isBefore(corte)) {
+                break;
+            }
+            String nome = particao(mes);
+            if (modo == Modo.DROP) {
+                jdbcTemplate.execute("DROP TABLE " + nome);
+            } else {
+                jdbcTemplate.execute("ALTER TABLE " + TABELA + " DETACH PARTITION " + nome);
+                jdbcTemplate.execute("ALTER TABLE " + nome + " RENAME TO audit_logs_arquivo_" + mes.format(AAAAMM));
+            }
+            expiradas++;
+            log.info("Particao de auditoria {} expirada ({})", nome, modo);
+        }
+        // Linhas antigas que caíram na partição padrão (normalmente nenhuma)
+        jdbcTemplate.update("DELETE FROM " + PADRAO + " WHERE criado_em < ?",
+                Timestamp.valueOf(corte.atDay(1).atStartOfDay()));
+        return expiradas;
+    }
+
+    /** Retenção sem partições: um único DELETE por data */
+    public int expirarSemParticoes(YearMonth corte) {
+        return jdbcTemplate.update("DELETE FROM " + TABELA + " WHERE criado_em < ?",
+                Timestamp.valueOf(corte.atDay(1).atStartOfDay()));
+    }
+
+    static String particao(YearMonth mes) {
+        return "audit_logs_p" + mes.format(AAAAMM);
+    }
+}
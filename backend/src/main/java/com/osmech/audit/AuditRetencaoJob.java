@@ -0,0 +1,55 @@
+package com.osmech.audit;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+
+/**
+ * Job diário das partições de auditoria: garante os próximos {@code meses-a-frente} meses
+ * criados e expira os meses anteriores à retenção ({@code audit.retencao.meses}).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AuditRetencaoJob {
+
+    private final AuditParticaoService particaoService;
+
+    @Value("${audit.retencao.enabled:true}")
+    private boolean enabled;
+
+    @Value("${audit.retencao.meses:12}")
+    private int meses;
+
+    @Value("${audit.retencao.meses-a-frente:3}")
+    private int mesesAFrente;
+
+    @Value("${audit.retencao.modo:ARQUIVAR}")
+    private AuditParticaoService.Modo modo;
+
+    @Scheduled(cron = "${audit.retencao.cron:0 15 3 * * *}")
+    public void executar() {
+        if (!enabled) {
+            return;
+        }
+        YearMonth atual = YearMonth.now();
+        YearMonth corte = atual.minusMonths(meses);
+        try {
+            if (!particaoService.particionada()) {
+                int removidos = particaoService.expirarSemParticoes(corte);
+                log.warn("audit_logs nao particionada (migracoes Flyway nao aplicadas); {} registros anteriores a {} removidos",
+                        removidos, corte);
+                return;
+            }
+            particaoService.criarParticoes(atual, mesesAFrente + 1);
+            int expiradas = particaoService.expirar(corte, modo);
+            log.info("Retencao de auditoria: {} particoes anteriores a {} expiradas ({})", expiradas, corte, modo);
+        } catch (Exception e) {
+            log.error("Erro na retencao de auditoria: {}", e.getMessage(), e);
+        }
+    }
+}
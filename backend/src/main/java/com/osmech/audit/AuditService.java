@@ -1,25 +1,30 @@
 package com.osmech.audit;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.UUID;
 
 /**
  * Servico de auditoria para registrar operacoes sensiveis no sistema.
  * Inclui: alteracoes de assinatura, pagamentos, mudancas de plano, etc.
  * 
- * Os logs sao persistidos no banco de dados e tambem registrados no log.
+ * Registrar nao faz I/O: o evento entra na fila do AuditWriter, que grava em lotes
+ * no banco (ou no arquivo de contingencia) e no log.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AuditService {
 
-    private final AuditLogRepository auditLogRepository;
+    private final AuditWriter auditWriter;
+    private final ObjectMapper objectMapper;
 
     /**
      * Registra uma operacao de auditoria.
@@ -31,42 +36,20 @@ public class AuditService {
      * @param detalhes Detalhes adicionais em formato JSON
      */
     public void registrar(String acao, String entidade, Long entidadeId, String usuarioEmail, String detalhes) {
-        String auditId = UUID.randomUUID().toString();
-        
-        try {
-            // Persiste no banco de dados
-            AuditLog auditLog = AuditLog.builder()
-                    .auditId(auditId)
-                    .acao(acao)
-                    .entidade(entidade)
-                    .entidadeId(entidadeId)
-                    .usuarioEmail(usuarioEmail)
-                    .detalhes(detalhes)
-                    .criadoEm(LocalDateTime.now())
-                    .build();
-            
-            auditLogRepository.save(auditLog);
-            
-            log.info("AUDIT[{}] acao={} entidade={} entidadeId={} usuario={} detalhes={}",
-                    auditId, acao, entidade, entidadeId, usuarioEmail, detalhes);
-        } catch (Exception e) {
-            // Se falhar persistencia, ainda registra no log
-            log.error("Falha ao persistir audit log: {}", e.getMessage());
-            log.warn("AUDIT[FALLBACK] acao={} entidade={} entidadeId={} usuario={} detalhes={}",
-                    acao, entidade, entidadeId, usuarioEmail, detalhes);
-        }
+        auditWriter.enfileirar(new AuditWriter.Evento(UUID.randomUUID().toString(), acao, entidade, entidadeId,
+                usuarioEmail, detalhes, null, LocalDateTime.now()));
     }
 
     // Metodos de conveniencia para operacoes comuns
 
     public void registrarAssinaturaCriada(Long assinaturaId, String usuarioEmail, String planoCodigo) {
         registrar("ASSINATURA_CRIADA", "ASSINATURA", assinaturaId, usuarioEmail, 
-                "{\"plano\":\"" + planoCodigo + "\"}");
+                json("plano", planoCodigo));
     }
 
     public void registrarAssinaturaAtivada(Long assinaturaId, String usuarioEmail, Long pagamentoId) {
         registrar("ASSINATURA_ATIVADA", "ASSINATURA", assinaturaId, usuarioEmail,
-                "{\"pagamentoId\":" + pagamentoId + "}");
+                json("pagamentoId", pagamentoId));
     }
 
     public void registrarAssinaturaCancelada(Long assinaturaId, String usuarioEmail) {
@@ -75,22 +58,22 @@ public class AuditService {
 
     public void registrarPagamentoConfirmado(Long pagamentoId, String usuarioEmail, String valor) {
         registrar("PAGAMENTO_CONFIRMADO", "PAGAMENTO", pagamentoId, usuarioEmail,
-                "{\"valor\":\"" + valor + "\"}");
+                json("valor", valor));
     }
 
     public void registrarPagamentoFalhou(Long pagamentoId, String usuarioEmail, String motivo) {
         registrar("PAGAMENTO_FALHOU", "PAGAMENTO", pagamentoId, usuarioEmail,
-                "{\"motivo\":\"" + motivo + "\"}");
+                json("motivo", motivo));
     }
 
     public void registrarPlanoAlterado(String usuarioEmail, String planoAnterior, String novoPlano) {
         registrar("PLANO_ALTERADO", "USUARIO", null, usuarioEmail,
-                "{\"plano_anterior\":\"" + planoAnterior + "\",\"novo_plano\":\"" + novoPlano + "\"}");
+                json("plano_anterior", planoAnterior, "novo_plano", novoPlano));
     }
 
     public void registrarLogin(String usuarioEmail, boolean sucesso, String ip) {
         String acao = sucesso ? "LOGIN_SUCESSO" : "LOGIN_FALHA";
-        registrar(acao, "USUARIO", null, usuarioEmail, "{\"ip\":\"" + ip + "\",\"sucesso\":" + sucesso + "}");
+        registrar(acao, "USUARIO", null, usuarioEmail, json("ip", ip, "sucesso", sucesso));
     }
 
     public void registrarLogout(String usuarioEmail) {
@@ -99,6 +82,20 @@ public class AuditService {
 
     public void registrarTentativaLoginExcedida(String ip, String email) {
         registrar("LOGIN_TENTATIVAS_EXCEDIDAS", "USUARIO", null, email,
-                "{\"ip\":\"" + ip + "\",\"motivo\":\"muitas_tentativas\"}");
+                json("ip", ip, "motivo", "muitas_tentativas"));
+    }
+
+    /** Objeto JSON a partir de pares chave/valor (valores escapados pelo Jackson) */
+    private String json(Object... chaveValor) {
+        Map<String, Object> campos = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < chaveValor.length; i += 2) {
+            campos.put((String) chaveValor[i], chaveValor[i + 1]);
+        }
+        try {
+            return objectMapper.writeValueAsString(campos);
+        } catch (JsonProcessingException e) {
+            log.warn("Falha ao serializar detalhes de auditoria: {}", e.getMessage());
+            return "{}";
+        }
     }
 }
@@ -0,0 +1,330 @@
+package com.osmech.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gravação assíncrona dos logs de auditoria.
+ *
+ * Quem registra só coloca o evento numa fila circular limitada ({@code audit.writer.capacidade});
+ * uma única thread grava em lotes de até {@code tamanho-lote} eventos, ou o que houver após
+ * {@code intervalo-ms} do primeiro. Se o banco falhar, os lotes vão para um arquivo local
+ * (uma linha JSON por evento) por {@code retry-ms}, e o arquivo é reprocessado quando o banco
+ * volta; a unicidade de (audit_id, criado_em) torna o reprocessamento idempotente. Com a fila
+ * cheia o evento vai direto para o arquivo em vez de bloquear quem registra.
+ *
+ * Só falhas de conexão ou transitórias contam como banco fora. Qualquer outro erro (ex.: um
+ * campo maior que a coluna) vem de um evento ruim: o lote é regravado linha a linha e os
+ * eventos recusados vão para {@code arquivo-rejeitados}, para não travar o lote nem o
+ * reprocessamento do arquivo de contingência.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AuditWriter {
+
+    private static final String SQL_INSERIR =
+            "INSERT INTO audit_logs (audit_id, acao, entidade, entidade_id, usuario_email, detalhes, ip_address, criado_em) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT (audit_id, criado_em) DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${audit.writer.capacidade:10000}")
+    private int capacidade;
+
+    @Value("${audit.writer.tamanho-lote:200}")
+    private int tamanhoLote;
+
+    @Value("${audit.writer.intervalo-ms:500}")
+    private long intervaloMs;
+
+    @Value("${audit.writer.retry-ms:10000}")
+    private long retryMs;
+
+    @Value("${audit.writer.arquivo:./data/audit-spill.jsonl}")
+    private String arquivo;
+
+    @Value("${audit.writer.arquivo-rejeitados:./data/audit-rejeitados.jsonl}")
+    private String arquivoRejeitados;
+
+    /** Evento de auditoria como gravado em audit_logs (e no arquivo de contingência) */
+    public record Evento(String auditId, String acao, String entidade, Long entidadeId, String usuarioEmail,
+                         String detalhes, String ipAddress, LocalDateTime criadoEm) {}
+
+    private BlockingQueue<Evento> fila;
+    private Path spill;
+    private Path reprocessando;
+    private Path rejeitados;
+    private final Object arquivoLock = new Object();
+    private Thread escritor;
+    private volatile boolean ativo;
+
+    /** Só a thread do escritor lê e altera */
+    private long bancoIndisponivelAte;
+
+    private Counter gravadosBanco;
+    private Counter gravadosArquivo;
+    private Counter perdidos;
+    private Counter recusados;
+    private Counter filaCheia;
+
+    @PostConstruct
+    public void iniciar() {
+        preparar();
+        ativo = true;
+        escritor = Thread.ofPlatform().name("audit-writer").daemon(true).start(this::executar);
+    }
+
+    void preparar() {
+        fila = new ArrayBlockingQueue<>(capacidade);
+        spill = Path.of(arquivo);
+        reprocessando = spill.resolveSibling(spill.getFileName() + ".reprocessando");
+        rejeitados = Path.of(arquivoRejeitados);
+
+        Gauge.builder("audit.fila", fila, BlockingQueue::size).tag("estado", "ocupada").register(meterRegistry);
+        Gauge.builder("audit.fila", fila, f -> capacidade).tag("estado", "capacidade").register(meterRegistry);
+        gravadosBanco = meterRegistry.counter("audit.eventos", "destino", "banco");
+        gravadosArquivo = meterRegistry.counter("audit.eventos", "destino", "arquivo");
+        perdidos = meterRegistry.counter("audit.eventos", "destino", "perdido");
+        recusados = meterRegistry.counter("audit.eventos", "destino", "rejeitado");
+        filaCheia = meterRegistry.counter("audit.fila.cheia");
+    }
+
+    /** Esvazia a fila antes de encerrar (o que não couber no banco vai para o arquivo) */
+    @PreDestroy
+    public void encerrar() throws InterruptedException {
+        ativo = false;
+        if (escritor != null) {
+            escritor.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    /** Não bloqueia: com a fila cheia o evento vai direto para o arquivo */
+    public void enfileirar(Evento evento) {
+        if (!fila.offer(evento)) {
+            filaCheia.increment();
+            gravarArquivo(List.of(evento));
+        }
+    }
+
+    private void executar() {
+        while (ativo || !fila.isEmpty()) {
+            try {
+                ciclo();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("Erro inesperado no escritor de auditoria", e);
+            }
+        }
+        List<Evento> restantes = new ArrayList<>();
+        fila.drainTo(restantes);
+        if (!restantes.isEmpty()) {
+            gravar(restantes);
+        }
+    }
+
+    /**
+     * Uma rodada do escritor: espera o primeiro evento e completa o lote até o tamanho
+     * ou o prazo. Sem eventos, aproveita para reprocessar o arquivo de contingência.
+     */
+    void ciclo() throws InterruptedException {
+        Evento primeiro = fila.poll(intervaloMs, TimeUnit.MILLISECONDS);
+        if (primeiro == null) {
+            reprocessarArquivo();
+            return;
+        }
+        List<Evento> lote = new ArrayList<>(tamanhoLote);
+        lote.add(primeiro);
+        long prazo = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(intervaloMs);
+        while (lote.size() < tamanhoLote) {
+            if (fila.drainTo(lote, tamanhoLote - lote.size()) > 0) {
+                continue;
+            }
+            long resta = prazo - System.nanoTime();
+            Evento proximo = resta > 0 ? fila.poll(resta, TimeUnit.NANOSECONDS) : null;
+            if (proximo == null) {
+                break;
+            }
+            lote.add(proximo);
+        }
+        gravar(lote);
+    }
+
+    private void gravar(List<Evento> lote) {
+        if (System.currentTimeMillis() < bancoIndisponivelAte || !inserir(lote)) {
+            gravarArquivo(lote);
+            return;
+        }
+        for (Evento e : lote) {
+            log.info("AUDIT[{}] acao={} entidade={} entidadeId={} usuario={} detalhes={}",
+                    e.auditId(), e.acao(), e.entidade(), e.entidadeId(), e.usuarioEmail(), e.detalhes());
+        }
+        if (Files.exists(spill) || Files.exists(reprocessando)) {
+            reprocessarArquivo();
+        }
+    }
+
+    /**
+     * Grava o lote; eventos recusados pelo banco vão para o arquivo de rejeitados.
+     *
+     * @return false se o banco está fora (fica indisponível por {@code retry-ms})
+     */
+    private boolean inserir(List<Evento> lote) {
+        try {
+            jdbcTemplate.batchUpdate(SQL_INSERIR, lote.stream().map(AuditWriter::parametros).toList());
+            gravadosBanco.increment(lote.size());
+            return true;
+        } catch (TransientDataAccessException | DataAccessResourceFailureException e) {
+            return bancoFora(lote.size(), e);
+        } catch (DataAccessException e) {
+            log.warn("Lote de {} eventos de auditoria recusado, gravando um a um: {}", lote.size(), e.getMessage());
+        }
+
+        // ON CONFLICT DO NOTHING: as linhas do lote que já entraram não duplicam
+        List<Evento> recusadosNoLote = new ArrayList<>();
+        for (Evento evento : lote) {
+            try {
+                jdbcTemplate.update(SQL_INSERIR, parametros(evento));
+                gravadosBanco.increment();
+            } catch (TransientDataAccessException | DataAccessResourceFailureException e) {
+                return bancoFora(lote.size(), e);
+            } catch (DataAccessException e) {
+                log.error("Evento de auditoria {} recusado pelo banco, movido para {}: {}",
+                        evento.auditId(), rejeitados, e.getMessage());
+                recusadosNoLote.add(evento);
+            }
+        }
+        if (!recusadosNoLote.isEmpty()) {
+            gravarArquivo(rejeitados, recusadosNoLote, recusados);
+        }
+        return true;
+    }
+
+    private boolean bancoFora(int eventos, DataAccessException e) {
+        bancoIndisponivelAte = System.currentTimeMillis() + retryMs;
+        log.warn("Falha ao gravar {} eventos de auditoria; usando {} por {} ms: {}",
+                eventos, spill, retryMs, e.getMessage());
+        return false;
+    }
+
+    private static Object[] parametros(Evento e) {
+        return new Object[]{e.auditId(), e.acao(), e.entidade(), e.entidadeId(), e.usuarioEmail(),
+                e.detalhes(), e.ipAddress(), Timestamp.valueOf(e.criadoEm())};
+    }
+
+    private void gravarArquivo(List<Evento> eventos) {
+        gravarArquivo(spill, eventos, gravadosArquivo);
+    }
+
+    private void gravarArquivo(Path destino, List<Evento> eventos, Counter gravados) {
+        synchronized (arquivoLock) {
+            try {
+                if (destino.getParent() != null) {
+                    Files.createDirectories(destino.getParent());
+                }
+                try (BufferedWriter out = Files.newBufferedWriter(destino, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    for (Evento e : eventos) {
+                        out.write(objectMapper.writeValueAsString(e));
+                        out.newLine();
+                    }
+                }
+                gravados.increment(eventos.size());
+            } catch (IOException ex) {
+                // Último recurso: o log da aplicação
+                perdidos.increment(eventos.size());
+                log.error("Falha ao gravar auditoria em {}: {}", destino, ex.getMessage());
+                for (Evento e : eventos) {
+                    log.warn("AUDIT[FALLBACK] acao={} entidade={} entidadeId={} usuario={} detalhes={}",
+                            e.acao(), e.entidade(), e.entidadeId(), e.usuarioEmail(), e.detalhes());
+                }
+            }
+        }
+    }
+
+    /**
+     * Devolve ao banco os eventos do arquivo de contingência. O arquivo é renomeado antes
+     * (novos eventos vão para um arquivo novo); se o banco falhar no meio, o renomeado fica
+     * para a próxima tentativa, que regrava tudo sem duplicar.
+     */
+    void reprocessarArquivo() {
+        if (System.currentTimeMillis() < bancoIndisponivelAte) {
+            return;
+        }
+        try {
+            if (!Files.exists(reprocessando)) {
+                synchronized (arquivoLock) {
+                    if (!Files.exists(spill)) {
+                        return;
+                    }
+                    Files.move(spill, reprocessando, StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+            int total = 0;
+            try (BufferedReader in = Files.newBufferedReader(reprocessando, StandardCharsets.UTF_8)) {
+                List<Evento> lote = new ArrayList<>(tamanhoLote);
+                String linha;
+                while ((linha = in.readLine()) != null) {
+                    if (linha.isBlank()) {
+                        continue;
+                    }
+                    try {
+                        lote.add(objectMapper.readValue(linha, Evento.class));
+                    } catch (IOException e) {
+                        log.error("Linha invalida no arquivo de auditoria ignorada: {}", e.getMessage());
+                        continue;
+                    }
+                    if (lote.size() == tamanhoLote) {
+                        if (!inserir(lote)) {
+                            return;
+                        }
+                        total += lote.size();
+                        lote.clear();
+                    }
+                }
+                if (!lote.isEmpty()) {
+                    if (!inserir(lote)) {
+                        return;
+                    }
+                    total += lote.size();
+                }
+            }
+            Files.delete(reprocessando);
+            log.info("{} eventos de auditoria reprocessados de {}", total, spill);
+        } catch (IOException e) {
+            log.error("Falha ao reprocessar arquivo de auditoria {}: {}", spill, e.getMessage());
+        }
+    }
+}
@@ -4,10 +4,10 @@ import com.osmech.auth.dto.AuthResponse;
 import com.osmech.auth.dto.LoginRequest;
 import com.osmech.auth.dto.RegisterRequest;
 import com.osmech.security.JwtUtil;
+import com.osmech.security.PasswordHasher;
 import com.osmech.user.entity.Usuario;
 import com.osmech.user.repository.UsuarioRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,7 +19,7 @@ import org.springframework.transaction.annotation.Transactional;
 public class AuthService {
 
     private final UsuarioRepository usuarioRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final JwtUtil jwtUtil;
 
     /**
@@ -38,7 +38,7 @@ public class AuthService {
         Usuario usuario = Usuario.builder()
                 .nome(request.getNome())
                 .email(request.getEmail())
-                .senha(passwordEncoder.encode(request.getSenha()))
+                .senha(passwordHasher.hash(request.getSenha()))
                 .telefone(request.getTelefone())
                 .nomeOficina(request.getNomeOficina())
                 .role("OFICINA")
@@ -49,7 +49,7 @@ public class AuthService {
         usuarioRepository.save(usuario);
 
         // Gera token JWT
-        String token = jwtUtil.generateToken(usuario.getEmail(), usuario.getRole());
+        String token = jwtUtil.generateToken(usuario.getEmail(), usuario.getRole(), usuario.getId());
 
         return AuthResponse.builder()
                 .token(token)
@@ -71,7 +71,7 @@ public class AuthService {
                 .orElse(null);
 
         // Verifica senha - mensagem genérica em ambos os casos
-        if (usuario == null || !passwordEncoder.matches(request.getSenha(), usuario.getSenha())) {
+        if (usuario == null || !passwordHasher.confere(request.getSenha(), usuario.getSenha())) {
             // Introduz um pequeno delay para prevenir timing attacks
             try {
                 Thread.sleep(100);
@@ -86,8 +86,14 @@ public class AuthService {
             throw new IllegalArgumentException("Conta desativada. Entre em contato com o suporte.");
         }
 
+        // Hash gerado com custo antigo: atualiza enquanto a senha em claro está disponível
+        String novoHash = passwordHasher.rehashSeNecessario(request.getSenha(), usuario.getSenha());
+        if (novoHash != null) {
+            usuarioRepository.atualizarSenhaSeIgual(usuario.getId(), usuario.getSenha(), novoHash);
+        }
+
         // Gera token JWT
-        String token = jwtUtil.generateToken(usuario.getEmail(), usuario.getRole());
+        String token = jwtUtil.generateToken(usuario.getEmail(), usuario.getRole(), usuario.getId());
 
         return AuthResponse.builder()
                 .token(token)
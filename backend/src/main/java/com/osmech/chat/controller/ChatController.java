@@ -2,12 +2,15 @@ package com.osmech.chat.controller;
 
 import com.osmech.chat.dto.ChatRequest;
 import com.osmech.chat.dto.ChatResponse;
+import com.osmech.chat.dto.ChatSessionResponse;
 import com.osmech.chat.service.ChatService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Map;
@@ -26,6 +29,12 @@ public class ChatController {
         return ResponseEntity.ok(chatService.enviarMensagem(request, auth));
     }
 
+    /** POST /api/chat/stream - Enviar mensagem com resposta em streaming (SSE) */
+    @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter enviarMensagemStream(@Valid @RequestBody ChatRequest request, Authentication auth) {
+        return chatService.enviarMensagemStream(request, auth);
+    }
+
     /** GET /api/chat/session/{sessionId} - Histórico de uma sessão */
     @GetMapping("/session/{sessionId}")
     public ResponseEntity<List<ChatResponse>> getHistorico(@PathVariable String sessionId,
@@ -33,10 +42,20 @@ public class ChatController {
         return ResponseEntity.ok(chatService.getHistoricoSessao(sessionId, auth));
     }
 
-    /** GET /api/chat/sessions - Listar sessões do usuário */
+    /** GET /api/chat/sessions - Listar sessões do usuário (mais recentes primeiro) */
     @GetMapping("/sessions")
-    public ResponseEntity<List<String>> getSessoes(Authentication auth) {
-        return ResponseEntity.ok(chatService.getSessoes(auth));
+    public ResponseEntity<List<String>> getSessoes(Authentication auth,
+                                                   @RequestParam(defaultValue = "0") int page,
+                                                   @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(chatService.getSessoes(auth, page, size));
+    }
+
+    /** GET /api/chat/sessions/detalhes - Sessões com título, contagem e última atividade */
+    @GetMapping("/sessions/detalhes")
+    public ResponseEntity<List<ChatSessionResponse>> getSessoesDetalhadas(Authentication auth,
+                                                                          @RequestParam(defaultValue = "0") int page,
+                                                                          @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(chatService.getSessoesDetalhadas(auth, page, size));
     }
 
     /** DELETE /api/chat/session/{sessionId} - Deletar sessão */
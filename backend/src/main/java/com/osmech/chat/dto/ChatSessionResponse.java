@@ -0,0 +1,25 @@
+package com.osmech.chat.dto;
+
+import com.osmech.chat.entity.ChatSession;
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@Builder
+public class ChatSessionResponse {
+
+    private String sessionId;
+    private String titulo;
+    private Integer mensagens;
+    private LocalDateTime ultimaAtividade;
+
+    public static ChatSessionResponse fromEntity(ChatSession s) {
+        return ChatSessionResponse.builder()
+                .sessionId(s.getSessionId())
+                .titulo(s.getTitulo())
+                .mensagens(s.getMensagens())
+                .ultimaAtividade(s.getUltimaAtividade())
+                .build();
+    }
+}
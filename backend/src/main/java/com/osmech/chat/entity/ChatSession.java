@@ -0,0 +1,48 @@
+package com.osmech.chat.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Sessão de chat, mantida a cada mensagem gravada (contagem e última atividade).
+ * Guarda também o resumo das mensagens antigas que saíram da janela de histórico.
+ * A unicidade de (usuario_id, session_id) é o alvo do upsert de registrarMensagem.
+ */
+@Entity
+@Table(name = "chat_sessions", uniqueConstraints = @UniqueConstraint(
+        name = "uk_chat_sessions_usuario_session", columnNames = {"usuario_id", "session_id"}))
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@Builder
+public class ChatSession {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    @Column(name = "session_id", nullable = false, length = 64)
+    private String sessionId;
+
+    @Column(length = 80)
+    private String titulo;
+
+    @Column(nullable = false)
+    private Integer mensagens;
+
+    @Column(columnDefinition = "TEXT")
+    private String resumo;
+
+    /** Última mensagem já incorporada ao resumo */
+    @Column(name = "resumo_ate_id")
+    private Long resumoAteId;
+
+    @Column(name = "ultima_atividade", nullable = false)
+    private LocalDateTime ultimaAtividade;
+
+    @Column(name = "criado_em", nullable = false, updatable = false)
+    private LocalDateTime criadoEm;
+}
@@ -4,6 +4,7 @@ import com.osmech.chat.entity.ChatMessage;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -13,11 +14,14 @@ public interface ChatRepository extends JpaRepository<ChatMessage, Long> {
 
     List<ChatMessage> findByUsuarioIdAndSessionIdOrderByCriadoEmAsc(Long usuarioId, String sessionId);
 
-    @Query("SELECT DISTINCT c.sessionId FROM ChatMessage c WHERE c.usuarioId = :usuarioId ORDER BY c.sessionId DESC")
-    List<String> findSessionsByUsuarioId(Long usuarioId);
-
-    @Query("SELECT c FROM ChatMessage c WHERE c.usuarioId = :usuarioId AND c.sessionId = :sessionId ORDER BY c.criadoEm DESC")
-    List<ChatMessage> findRecentMessages(Long usuarioId, String sessionId, Pageable pageable);
+    /** Mensagens da sessão com id entre {@code depoisDe} e {@code antesDe} (exclusivos), mais novas primeiro */
+    @Query("SELECT c FROM ChatMessage c WHERE c.usuarioId = :usuarioId AND c.sessionId = :sessionId " +
+           "AND c.id < :antesDe AND c.id > :depoisDe ORDER BY c.id DESC")
+    List<ChatMessage> findAnteriores(@Param("usuarioId") Long usuarioId,
+                                     @Param("sessionId") String sessionId,
+                                     @Param("antesDe") Long antesDe,
+                                     @Param("depoisDe") Long depoisDe,
+                                     Pageable pageable);
 
     void deleteByUsuarioIdAndSessionId(Long usuarioId, String sessionId);
 }
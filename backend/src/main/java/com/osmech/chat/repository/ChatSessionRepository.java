@@ -0,0 +1,57 @@
+package com.osmech.chat.repository;
+
+import com.osmech.chat.entity.ChatSession;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ChatSessionRepository extends JpaRepository<ChatSession, Long> {
+
+    Optional<ChatSession> findByUsuarioIdAndSessionId(Long usuarioId, String sessionId);
+
+    /** Sessões do usuário, mais recentes primeiro (índice usuario_id, ultima_atividade) */
+    List<ChatSession> findByUsuarioIdOrderByUltimaAtividadeDescIdDesc(Long usuarioId, Pageable pageable);
+
+    @Query("SELECT s.sessionId FROM ChatSession s WHERE s.usuarioId = :usuarioId " +
+           "ORDER BY s.ultimaAtividade DESC, s.id DESC")
+    List<String> findSessionIds(@Param("usuarioId") Long usuarioId, Pageable pageable);
+
+    /**
+     * Conta uma mensagem na sessão, criando-a se for a primeira (upsert atômico).
+     * O título só é gravado se a sessão ainda não tiver um.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO chat_sessions (usuario_id, session_id, titulo, mensagens, ultima_atividade, criado_em) " +
+                   "VALUES (:usuarioId, :sessionId, :titulo, 1, :agora, :agora) " +
+                   "ON CONFLICT (usuario_id, session_id) DO UPDATE SET " +
+                   "mensagens = chat_sessions.mensagens + 1, " +
+                   "ultima_atividade = EXCLUDED.ultima_atividade, " +
+                   "titulo = COALESCE(chat_sessions.titulo, EXCLUDED.titulo)",
+           nativeQuery = true)
+    int registrarMensagem(@Param("usuarioId") Long usuarioId,
+                          @Param("sessionId") String sessionId,
+                          @Param("titulo") String titulo,
+                          @Param("agora") LocalDateTime agora);
+
+    /** Avança o resumo; não sobrescreve um resumo mais novo gravado por outra requisição */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ChatSession s SET s.resumo = :resumo, s.resumoAteId = :ateId " +
+           "WHERE s.id = :id AND (s.resumoAteId IS NULL OR s.resumoAteId < :ateId)")
+    int atualizarResumo(@Param("id") Long id, @Param("resumo") String resumo, @Param("ateId") Long ateId);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ChatSession s WHERE s.usuarioId = :usuarioId AND s.sessionId = :sessionId")
+    int deleteByUsuarioIdAndSessionId(@Param("usuarioId") Long usuarioId, @Param("sessionId") String sessionId);
+}
@@ -0,0 +1,128 @@
+package com.osmech.chat.service;
+
+import com.osmech.chat.entity.ChatMessage;
+import com.osmech.chat.entity.ChatSession;
+import com.osmech.chat.repository.ChatRepository;
+import com.osmech.chat.repository.ChatSessionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Monta as mensagens enviadas ao provedor de IA dentro de um orçamento de tokens.
+ *
+ * O histórico é lido das mensagens mais novas para as mais antigas (keyset por id) até o
+ * orçamento {@code ai.historico.max-tokens} acabar. O que fica de fora é incorporado ao
+ * resumo da sessão, gravado em chat_sessions e enviado como contexto; cada mensagem entra
+ * no resumo uma única vez. Tokens são estimados em 4 caracteres por token.
+ */
+@Component
+@RequiredArgsConstructor
+public class ChatHistoryBuilder {
+
+    private static final String PREFIXO_RESUMO = "Resumo da conversa anterior:\n";
+
+    private final ChatRepository chatRepository;
+    private final ChatSessionRepository chatSessionRepository;
+
+    @Value("${ai.historico.max-tokens:3000}")
+    private int maxTokens;
+
+    @Value("${ai.historico.pagina:20}")
+    private int pagina;
+
+    @Value("${ai.historico.max-resumir:200}")
+    private int maxResumir;
+
+    @Value("${ai.historico.resumo-max-caracteres:2000}")
+    private int resumoMaxCaracteres;
+
+    @Value("${ai.historico.trecho-resumo:160}")
+    private int trechoResumo;
+
+    /**
+     * @param perguntaId id da pergunta atual, já gravada (ela e as posteriores não entram no histórico)
+     */
+    public List<Map<String, String>> montar(Long usuarioId, String sessionId, Long perguntaId,
+                                            String systemPrompt, String pergunta) {
+        Optional<ChatSession> sessao = chatSessionRepository.findByUsuarioIdAndSessionId(usuarioId, sessionId);
+        String resumo = sessao.map(ChatSession::getResumo).orElse(null);
+        long resumoAteId = sessao.map(ChatSession::getResumoAteId).orElse(0L);
+
+        int restante = maxTokens - tokens(systemPrompt) - tokens(pergunta) - tokens(resumo);
+        List<ChatMessage> janela = new ArrayList<>();
+        Long corte = null;
+        long antesDe = perguntaId;
+
+        pagina:
+        while (true) {
+            List<ChatMessage> lote = chatRepository.findAnteriores(
+                    usuarioId, sessionId, antesDe, resumoAteId, PageRequest.of(0, pagina));
+            for (ChatMessage m : lote) {
+                int t = tokens(m.getContent());
+                if (t > restante) {
+                    corte = m.getId();
+                    break pagina;
+                }
+                restante -= t;
+                janela.add(m);
+            }
+            if (lote.size() < pagina) {
+                break;
+            }
+            antesDe = lote.get(lote.size() - 1).getId();
+        }
+
+        if (corte != null && sessao.isPresent()) {
+            // Mensagens entre o resumo atual e o corte (inclusive) passam a fazer parte do resumo
+            List<ChatMessage> sairam = new ArrayList<>(chatRepository.findAnteriores(
+                    usuarioId, sessionId, corte + 1, resumoAteId, PageRequest.of(0, maxResumir)));
+            Collections.reverse(sairam);
+            resumo = acumular(resumo, sairam);
+            chatSessionRepository.atualizarResumo(sessao.get().getId(), resumo, corte);
+        }
+
+        List<Map<String, String>> messages = new ArrayList<>(janela.size() + 3);
+        messages.add(Map.of("role", "system", "content", systemPrompt));
+        if (resumo != null && !resumo.isBlank()) {
+            messages.add(Map.of("role", "system", "content", PREFIXO_RESUMO + resumo));
+        }
+        for (int i = janela.size() - 1; i >= 0; i--) {
+            ChatMessage m = janela.get(i);
+            messages.add(Map.of("role", m.getRole(), "content", m.getContent()));
+        }
+        messages.add(Map.of("role", "user", "content", pergunta));
+        return messages;
+    }
+
+    /** Acrescenta uma linha curta por mensagem; acima do limite, as linhas mais antigas saem */
+    String acumular(String resumo, List<ChatMessage> mensagens) {
+        StringBuilder sb = new StringBuilder(resumo != null ? resumo : "");
+        for (ChatMessage m : mensagens) {
+            String texto = m.getContent().strip().replaceAll("\\s+", " ");
+            if (texto.length() > trechoResumo) {
+                texto = texto.substring(0, trechoResumo) + "...";
+            }
+            if (!sb.isEmpty()) {
+                sb.append('\n');
+            }
+            sb.append("user".equals(m.getRole()) ? "Usuário: " : "IA: ").append(texto);
+        }
+        if (sb.length() > resumoMaxCaracteres) {
+            int inicio = sb.indexOf("\n", sb.length() - resumoMaxCaracteres);
+            sb.delete(0, inicio >= 0 ? inicio + 1 : sb.length() - resumoMaxCaracteres);
+        }
+        return sb.toString();
+    }
+
+    static int tokens(String texto) {
+        return texto == null ? 0 : (texto.length() + 3) / 4;
+    }
+}
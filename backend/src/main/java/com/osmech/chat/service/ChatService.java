@@ -2,56 +2,74 @@ package com.osmech.chat.service;
 
 import com.osmech.chat.dto.ChatRequest;
 import com.osmech.chat.dto.ChatResponse;
+import com.osmech.chat.dto.ChatSessionResponse;
 import com.osmech.chat.entity.ChatMessage;
 import com.osmech.chat.repository.ChatRepository;
-import com.osmech.config.ResourceNotFoundException;
-import com.osmech.user.entity.Usuario;
-import com.osmech.user.repository.UsuarioRepository;
+import com.osmech.chat.repository.ChatSessionRepository;
+import com.osmech.security.TenantContext;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
+/**
+ * Chat com a IA da oficina.
+ *
+ * Nenhuma chamada ao provedor acontece dentro de transação: as mensagens são gravadas
+ * em transações curtas (mensagem + sessão) antes e depois da geração. O endpoint de
+ * streaming roda a geração num pool limitado e repassa os trechos via SSE. Primeiras
+ * perguntas de sessão passam antes pelo RespostaCache. O histórico enviado ao provedor
+ * vem do ChatHistoryBuilder (orçamento de tokens + resumo).
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ChatService {
 
     private final ChatRepository chatRepository;
-    private final UsuarioRepository userRepository;
-    private final RestTemplate restTemplate;
+    private final ChatSessionRepository chatSessionRepository;
+    private final ChatHistoryBuilder historyBuilder;
+    private final TenantContext tenantContext;
+    private final LlmClient llmClient;
+    private final IntentClassifier intentClassifier;
+    private final RespostaCache respostaCache;
+    private final TransactionTemplate transactionTemplate;
 
     @Value("${ai.enabled:false}")
     private boolean aiEnabled;
 
-    @Value("${ai.openai.api-key:}")
-    private String apiKey;
-
-    @Value("${ai.openai.model:gemini-2.0-flash}")
-    private String model;
-
     @Value("${ai.provider:gemini}")
     private String provider;
 
-    @Value("${ai.openai.base-url:https://generativelanguage.googleapis.com/v1beta/openai/chat/completions}")
-    private String chatCompletionsUrl;
+    @Value("${ai.bulkhead.max-concorrentes:8}")
+    private int maxStreams;
+
+    @Value("${ai.stream.timeout-ms:120000}")
+    private long streamTimeoutMs;
+
+    private static final int MAX_SESSOES_POR_PAGINA = 100;
+
+    private ThreadPoolExecutor streamExecutor;
 
     private static final String SYSTEM_PROMPT = """
             Voce e a IA Oficial do OSMECH, assistente especializado em oficinas mecanicas.
@@ -64,203 +82,246 @@ public class ChatService {
             5. Foque em oficina: diagnostico, OS, estoque, financeiro e planos.
             """;
 
-    @Transactional
-    public ChatResponse enviarMensagem(ChatRequest request, Authentication auth) {
-        Usuario user = getUsuario(auth);
+    @PostConstruct
+    public void iniciar() {
+        // Sem fila: com todas as threads ocupadas o stream é recusado na hora (503)
+        AtomicInteger seq = new AtomicInteger();
+        streamExecutor = new ThreadPoolExecutor(0, maxStreams, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+            Thread t = new Thread(r, "chat-stream-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
 
-        String sessionId = request.getSessionId();
-        if (sessionId == null || sessionId.isBlank()) {
-            sessionId = UUID.randomUUID().toString().substring(0, 8);
+    @PreDestroy
+    public void encerrar() {
+        if (streamExecutor != null) {
+            streamExecutor.shutdownNow();
         }
+    }
 
-        ChatMessage userMsg = ChatMessage.builder()
-                .usuarioId(user.getId())
-                .sessionId(sessionId)
-                .role("user")
-                .content(request.getMessage())
-                .build();
-        chatRepository.save(userMsg);
+    public ChatResponse enviarMensagem(ChatRequest request, Authentication auth) {
+        Long usuarioId = tenantContext.getUsuarioId(auth.getName());
+        String sessionId = resolverSessao(request);
 
-        String aiResponse = gerarResposta(user.getId(), sessionId, request.getMessage());
+        ChatMessage pergunta = gravar(usuarioId, sessionId, "user", request.getMessage());
 
-        ChatMessage aiMsg = ChatMessage.builder()
-                .usuarioId(user.getId())
-                .sessionId(sessionId)
-                .role("assistant")
-                .content(aiResponse)
-                .build();
-        chatRepository.save(aiMsg);
+        String aiResponse = gerarResposta(usuarioId, sessionId, pergunta);
 
+        ChatMessage aiMsg = gravar(usuarioId, sessionId, "assistant", aiResponse);
         return ChatResponse.fromEntity(aiMsg);
     }
 
+    /**
+     * Resposta em streaming (SSE). Eventos: "sessao" (id da sessão), "token" (trecho
+     * gerado), "erro" (falha no meio da geração) e "fim" (mensagem gravada).
+     *
+     * @throws IllegalStateException se não houver vaga para mais um stream
+     */
+    public SseEmitter enviarMensagemStream(ChatRequest request, Authentication auth) {
+        Long usuarioId = tenantContext.getUsuarioId(auth.getName());
+        String sessionId = resolverSessao(request);
+
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        AtomicBoolean encerrado = new AtomicBoolean();
+        // Cliente saiu: fecha a conexão com o provedor na hora, sem esperar o próximo trecho
+        LlmClient.Cancelamento cancelamento = new LlmClient.Cancelamento();
+        Runnable encerrar = () -> {
+            encerrado.set(true);
+            cancelamento.cancelar();
+        };
+        emitter.onCompletion(encerrar);
+        emitter.onTimeout(encerrar);
+        emitter.onError(e -> encerrar.run());
+
+        try {
+            streamExecutor.execute(() ->
+                    transmitirResposta(emitter, encerrado, cancelamento, usuarioId, sessionId, request.getMessage()));
+        } catch (RejectedExecutionException e) {
+            throw new IllegalStateException("Assistente de IA ocupado. Tente novamente em instantes.");
+        }
+        return emitter;
+    }
+
+    private void transmitirResposta(SseEmitter emitter, AtomicBoolean encerrado, LlmClient.Cancelamento cancelamento,
+                                    Long usuarioId, String sessionId, String mensagem) {
+        StringBuilder parcial = new StringBuilder();
+        try {
+            ChatMessage pergunta = gravar(usuarioId, sessionId, "user", mensagem);
+            enviar(emitter, encerrado, "sessao", sessionId);
+
+            String resposta = null;
+            if (aiEnabled && llmClient.isConfigurado()) {
+                List<Map<String, String>> mensagens = montarMensagens(usuarioId, sessionId, pergunta);
+                String chaveCache = chaveCache(mensagens, mensagem);
+                try {
+                    resposta = respostaCache.buscar(chaveCache);
+                    if (resposta != null) {
+                        enviar(emitter, encerrado, "token", resposta);
+                    } else {
+                        resposta = llmClient.transmitir(mensagens, trecho -> {
+                            parcial.append(trecho);
+                            enviar(emitter, encerrado, "token", trecho);
+                        }, cancelamento);
+                        respostaCache.guardar(chaveCache, resposta);
+                    }
+                } catch (LlmClient.GeracaoInterrompidaException e) {
+                    if (encerrado.get()) {
+                        throw e;
+                    }
+                    // Prazo da IA estourado com o cliente ainda conectado: entrega o parcial
+                    log.warn("Streaming da IA interrompido ({}): {}", sessionId, e.getMessage());
+                    if (!parcial.isEmpty()) {
+                        enviar(emitter, encerrado, "erro", "A resposta foi interrompida.");
+                        resposta = parcial.toString();
+                    }
+                } catch (Exception e) {
+                    log.error("Erro no streaming da IA externa: {}", e.getMessage());
+                    if (!parcial.isEmpty()) {
+                        enviar(emitter, encerrado, "erro", "A resposta foi interrompida.");
+                        resposta = parcial.toString();
+                    }
+                }
+            }
+            if (resposta == null || resposta.isBlank()) {
+                resposta = gerarRespostaLocal(mensagem);
+                enviar(emitter, encerrado, "token", resposta);
+            }
+
+            ChatMessage aiMsg = gravar(usuarioId, sessionId, "assistant", resposta);
+            enviar(emitter, encerrado, "fim", ChatResponse.fromEntity(aiMsg));
+            emitter.complete();
+        } catch (LlmClient.GeracaoInterrompidaException e) {
+            // Cliente saiu ou prazo estourou: guarda o que foi gerado para o histórico ficar coerente
+            if (!parcial.isEmpty()) {
+                gravar(usuarioId, sessionId, "assistant", parcial.toString());
+            }
+            log.debug("Stream do chat encerrado antes do fim ({}): {}", sessionId, e.getMessage());
+            emitter.complete();
+        } catch (Exception e) {
+            log.error("Erro no stream do chat {}: {}", sessionId, e.getMessage(), e);
+            emitter.completeWithError(e);
+        }
+    }
+
+    private void enviar(SseEmitter emitter, AtomicBoolean encerrado, String evento, Object dados) {
+        if (encerrado.get()) {
+            throw new LlmClient.GeracaoInterrompidaException("Cliente desconectado");
+        }
+        try {
+            emitter.send(SseEmitter.event().name(evento).data(dados));
+        } catch (IOException | IllegalStateException e) {
+            encerrado.set(true);
+            throw new LlmClient.GeracaoInterrompidaException("Cliente desconectado");
+        }
+    }
+
     @Transactional(readOnly = true)
     public List<ChatResponse> getHistoricoSessao(String sessionId, Authentication auth) {
-        Usuario user = getUsuario(auth);
-        return chatRepository.findByUsuarioIdAndSessionIdOrderByCriadoEmAsc(user.getId(), sessionId)
+        Long usuarioId = tenantContext.getUsuarioId(auth.getName());
+        return chatRepository.findByUsuarioIdAndSessionIdOrderByCriadoEmAsc(usuarioId, sessionId)
                 .stream()
                 .map(ChatResponse::fromEntity)
                 .collect(Collectors.toList());
     }
 
+    /** Ids das sessões, mais recentes primeiro */
+    @Transactional(readOnly = true)
+    public List<String> getSessoes(Authentication auth, int page, int size) {
+        Long usuarioId = tenantContext.getUsuarioId(auth.getName());
+        return chatSessionRepository.findSessionIds(usuarioId, paginaSessoes(page, size));
+    }
+
     @Transactional(readOnly = true)
-    public List<String> getSessoes(Authentication auth) {
-        Usuario user = getUsuario(auth);
-        return chatRepository.findSessionsByUsuarioId(user.getId());
+    public List<ChatSessionResponse> getSessoesDetalhadas(Authentication auth, int page, int size) {
+        Long usuarioId = tenantContext.getUsuarioId(auth.getName());
+        return chatSessionRepository.findByUsuarioIdOrderByUltimaAtividadeDescIdDesc(usuarioId, paginaSessoes(page, size))
+                .stream()
+                .map(ChatSessionResponse::fromEntity)
+                .collect(Collectors.toList());
     }
 
     @Transactional
     public void deletarSessao(String sessionId, Authentication auth) {
-        Usuario user = getUsuario(auth);
-        chatRepository.deleteByUsuarioIdAndSessionId(user.getId(), sessionId);
+        Long usuarioId = tenantContext.getUsuarioId(auth.getName());
+        chatRepository.deleteByUsuarioIdAndSessionId(usuarioId, sessionId);
+        chatSessionRepository.deleteByUsuarioIdAndSessionId(usuarioId, sessionId);
     }
 
-    private String gerarResposta(Long usuarioId, String sessionId, String userMessage) {
-        if (!aiEnabled || apiKey == null || apiKey.isBlank()) {
-            return gerarRespostaLocal(userMessage);
-        }
-
-        try {
-            return chamarOpenAI(usuarioId, sessionId, userMessage);
-        } catch (Exception e) {
-            log.error("Erro ao chamar IA externa: {}", e.getMessage());
-            return gerarRespostaLocal(userMessage);
-        }
+    private static PageRequest paginaSessoes(int page, int size) {
+        return PageRequest.of(Math.max(page, 0), Math.max(1, Math.min(size, MAX_SESSOES_POR_PAGINA)));
     }
 
-    @SuppressWarnings("unchecked")
-    private String chamarOpenAI(Long usuarioId, String sessionId, String userMessage) {
-        List<ChatMessage> history = chatRepository.findRecentMessages(usuarioId, sessionId, PageRequest.of(0, 20));
-        Collections.reverse(history);
-
-        List<Map<String, String>> messages = new ArrayList<>();
-        messages.add(Map.of("role", "system", "content", SYSTEM_PROMPT));
-
-        for (ChatMessage msg : history) {
-            if (!msg.getContent().equals(userMessage)) {
-                messages.add(Map.of("role", msg.getRole(), "content", msg.getContent()));
-            }
-        }
-        messages.add(Map.of("role", "user", "content", userMessage));
-
-        Map<String, Object> body = new HashMap<>();
-        body.put("model", model);
-        body.put("messages", messages);
-        body.put("max_tokens", 1500);
-        body.put("temperature", 0.7);
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setBearerAuth(apiKey);
-
-        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
-
-        ResponseEntity<Map> response = restTemplate.exchange(
-                chatCompletionsUrl,
-                HttpMethod.POST,
-                entity,
-                Map.class
-        );
-
-        if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-            List<Map<String, Object>> choices = (List<Map<String, Object>>) response.getBody().get("choices");
-            if (choices != null && !choices.isEmpty()) {
-                Map<String, Object> message = (Map<String, Object>) choices.get(0).get("message");
-                Object content = message.get("content");
-                if (content instanceof String text && !text.isBlank()) {
-                    return text;
-                }
-            }
+    private String resolverSessao(ChatRequest request) {
+        String sessionId = request.getSessionId();
+        if (sessionId == null || sessionId.isBlank()) {
+            sessionId = UUID.randomUUID().toString().substring(0, 8);
         }
-
-        return gerarRespostaLocal(userMessage);
+        return sessionId;
     }
 
-    private String gerarRespostaLocal(String msg) {
-        String lower = msg.toLowerCase().trim();
-
-        if (lower.matches(".*(oi|ola|bom dia|boa tarde|boa noite|eai|e ai|hey|hello).*")) {
-            return "Ola! Sou a IA do OSMECH, assistente da oficina.\n\n"
-                    + "Posso ajudar com:\n"
-                    + "- Duvidas tecnicas de veiculos\n"
-                    + "- Ordens de servico (OS)\n"
-                    + "- Estoque\n"
-                    + "- Financeiro\n\n"
-                    + "Como posso ajudar hoje?";
-        }
-
-        if (lower.matches(".*(ordem de servico|ordem de serviço|\\bos\\b|criar os|abrir os|status os|fechar os).*")) {
-            return "Ordens de Servico:\n\n"
-                    + "- Criar OS: menu Nova OS\n"
-                    + "- Consultar: menu Ordens de Servico\n"
-                    + "- Status: Orcamento -> Em andamento -> Concluida\n\n"
-                    + "Dica: descreva bem o problema para facilitar o diagnostico.";
-        }
-
-        if (lower.matches(".*(estoque|peca|peça|reposicao|reposição|falt).*")) {
-            return "Controle de Estoque:\n\n"
-                    + "- Cadastro de pecas\n"
-                    + "- Entrada e saida\n"
-                    + "- Alerta de estoque minimo\n"
-                    + "- Organizacao por categoria";
-        }
-
-        if (lower.matches(".*(financ|pagamento|receita|despesa|fluxo|caixa|cobr).*")) {
-            return "Financeiro:\n\n"
-                    + "- Visao de receitas e despesas\n"
-                    + "- Fluxo de caixa por periodo\n"
-                    + "- Historico de transacoes\n\n"
-                    + "Dica: registre todas as movimentacoes.";
-        }
+    /**
+     * Grava a mensagem e atualiza a sessão (contagem, última atividade e título) na mesma
+     * transação: se o upsert da sessão falhar, a mensagem não fica gravada pela metade.
+     */
+    private ChatMessage gravar(Long usuarioId, String sessionId, String role, String content) {
+        return transactionTemplate.execute(status -> {
+            ChatMessage salva = chatRepository.save(novaMensagem(usuarioId, sessionId, role, content));
+            chatSessionRepository.registrarMensagem(usuarioId, sessionId,
+                    "user".equals(role) ? titulo(content) : null, salva.getCriadoEm());
+            return salva;
+        });
+    }
 
-        if (lower.matches(".*(motor|aquec|superaquec|ferveu|fumaca|fumaça|barulho motor|batendo).*")) {
-            return "Possiveis causas (motor):\n\n"
-                    + "- Superaquecimento: radiador, bomba d'agua, termostato, ventoinha e nivel do liquido.\n"
-                    + "- Fumaca branca: junta de cabecote ou trinca.\n"
-                    + "- Fumaca preta: mistura rica (injecao, filtro, MAP/MAF).\n"
-                    + "- Fumaca azul: queima de oleo (aneis e retentores).\n"
-                    + "- Barulho: tensor, correia, biela ou tuchos.\n\n"
-                    + "Observacao: orientacao inicial. Confirmar com verificacao presencial.";
-        }
+    private static String titulo(String pergunta) {
+        String titulo = pergunta.strip().replaceAll("\\s+", " ");
+        return titulo.length() > 80 ? titulo.substring(0, 77) + "..." : titulo;
+    }
 
-        if (lower.matches(".*(freio|frear|frenagem|pastilha|disco|pedal duro|pedal mole).*")) {
-            return "Sistema de Freios:\n\n"
-                    + "- Pedal mole: ar no sistema, vazamento ou cilindro mestre.\n"
-                    + "- Pedal duro: servo-freio/hidrovacuo ou mangueira de vacuo.\n"
-                    + "- Vibracao: disco empenado.\n"
-                    + "- Ruido: pastilha gasta.\n"
-                    + "- Puxa para um lado: pinca travada ou desgaste irregular.";
-        }
+    private ChatMessage novaMensagem(Long usuarioId, String sessionId, String role, String content) {
+        return ChatMessage.builder()
+                .usuarioId(usuarioId)
+                .sessionId(sessionId)
+                .role(role)
+                .content(content)
+                .build();
+    }
 
-        if (lower.matches(".*(suspens|amortec|balanc|alinhamento|barulho roda|estalo).*")) {
-            return "Suspensao e Direcao:\n\n"
-                    + "- Barulho em buraco: amortecedor, bucha, bieleta, batente.\n"
-                    + "- Estalo ao virar: homocinetica.\n"
-                    + "- Volante tremendo: balanceamento/pneu/terminal.\n"
-                    + "- Carro puxando: alinhamento, pneu ou suspensao.";
+    private String gerarResposta(Long usuarioId, String sessionId, ChatMessage pergunta) {
+        String userMessage = pergunta.getContent();
+        if (!aiEnabled || !llmClient.isConfigurado()) {
+            return gerarRespostaLocal(userMessage);
         }
 
-        if (lower.matches(".*(eletric|bateria|alternador|motor partida|nao liga|não liga|luz|farol|fusivel|fusível).*")) {
-            return "Sistema Eletrico:\n\n"
-                    + "- Nao liga: bateria, terminais, partida, rele e fusivel.\n"
-                    + "- Luz falhando: fusivel, rele, aterramento, chicote.\n"
-                    + "- Bateria descarregando: consumo parasita, alternador, bateria antiga.";
+        try {
+            List<Map<String, String>> mensagens = montarMensagens(usuarioId, sessionId, pergunta);
+            String chaveCache = chaveCache(mensagens, userMessage);
+            String resposta = respostaCache.buscar(chaveCache);
+            if (resposta != null) {
+                return resposta;
+            }
+            resposta = llmClient.completar(mensagens);
+            if (resposta == null) {
+                return gerarRespostaLocal(userMessage);
+            }
+            respostaCache.guardar(chaveCache, resposta);
+            return resposta;
+        } catch (Exception e) {
+            log.error("Erro ao chamar IA externa: {}", e.getMessage());
+            return gerarRespostaLocal(userMessage);
         }
+    }
 
-        if (lower.matches(".*(plano|assinatura|pro|premium|upgrade).*")) {
-            return "Planos OSMECH:\n\n"
-                    + "- Basico\n"
-                    + "- PRO\n"
-                    + "- PRO+ (recursos avancados e IA ampliada)\n\n"
-                    + "Acesse a tela de Planos para detalhes.";
-        }
+    /** Só a primeira pergunta da sessão (prompt de sistema + pergunta) usa o cache */
+    private String chaveCache(List<Map<String, String>> mensagens, String pergunta) {
+        return mensagens.size() == 2 ? respostaCache.chave(provider, llmClient.getModel(), pergunta) : null;
+    }
 
-        return "Entendi sua pergunta. Posso ajudar com diagnostico tecnico, OS, estoque, financeiro e planos."
-                + " Se quiser, descreva o sintoma com mais detalhes (carro, ano, motor e quando ocorre).";
+    private List<Map<String, String>> montarMensagens(Long usuarioId, String sessionId, ChatMessage pergunta) {
+        return historyBuilder.montar(usuarioId, sessionId, pergunta.getId(), SYSTEM_PROMPT, pergunta.getContent());
     }
 
-    private Usuario getUsuario(Authentication auth) {
-        return userRepository.findByEmail(auth.getName())
-                .orElseThrow(() -> new ResourceNotFoundException("Usuario nao encontrado"));
+    private String gerarRespostaLocal(String msg) {
+        return intentClassifier.responder(msg);
     }
 }
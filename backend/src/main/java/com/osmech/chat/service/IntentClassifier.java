@@ -0,0 +1,250 @@
+package com.osmech.chat.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Classificador de intenções do assistente local (fallback sem IA externa).
+ *
+ * As palavras-chave do arquivo {@code ai.local.intencoes} são compiladas uma vez num
+ * autômato Aho-Corasick (DFA completo sobre a-z, 0-9 e separador); a mensagem é
+ * classificada numa única passada, sem regex e sem alocar por caractere. Acentos e
+ * caixa são ignorados. Limites de palavra entram no próprio autômato: cada palavra é
+ * inserida com um separador antes (e depois, quando não termina com '*').
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IntentClassifier {
+
+    private static final int SEPARADOR = 36;
+    private static final int ALFABETO = 37;
+    private static final byte[] SIMBOLOS = new byte[256];
+
+    static {
+        // a-z e 0-9; letras acentuadas do Latin-1 viram a letra base; o resto é separador
+        for (int c = 0; c < 256; c++) {
+            String base = Normalizer.normalize(String.valueOf((char) c), Normalizer.Form.NFD);
+            char b = Character.toLowerCase(base.charAt(0));
+            SIMBOLOS[c] = (byte) (b >= 'a' && b <= 'z' ? b - 'a'
+                    : b >= '0' && b <= '9' ? 26 + (b - '0')
+                    : SEPARADOR);
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final ResourceLoader resourceLoader;
+
+    @Value("${ai.local.intencoes:classpath:chat/intencoes.json}")
+    private String arquivo;
+
+    private volatile Automato automato;
+
+    /** Intenção reconhecida e sua pontuação */
+    public record Intencao(String nome, double pontuacao) {}
+
+    @PostConstruct
+    public void carregar() {
+        Resource resource = resourceLoader.getResource(arquivo);
+        try (InputStream in = resource.getInputStream()) {
+            automato = compilar(objectMapper.readTree(in));
+            log.info("Intenções do assistente local carregadas: {} intenções, {} estados",
+                    automato.nomes.length, automato.transicoes.length / ALFABETO);
+        } catch (IOException e) {
+            throw new IllegalStateException("Não foi possível carregar as intenções de " + arquivo, e);
+        }
+    }
+
+    /** Intenções presentes na mensagem, da mais para a menos provável */
+    public List<Intencao> classificar(String mensagem) {
+        Automato a = automato;
+        double[] pontos = pontuar(a, mensagem);
+        List<Intencao> resultado = new ArrayList<>();
+        for (int i = 0; i < pontos.length; i++) {
+            if (pontos[i] > 0) {
+                resultado.add(new Intencao(a.nomes[i], pontos[i]));
+            }
+        }
+        // Sort estável: empate mantém a ordem do arquivo
+        resultado.sort(Comparator.comparingDouble(Intencao::pontuacao).reversed());
+        return resultado;
+    }
+
+    /** Resposta da intenção mais provável, ou a resposta padrão */
+    public String responder(String mensagem) {
+        Automato a = automato;
+        double[] pontos = pontuar(a, mensagem);
+        int melhor = -1;
+        for (int i = 0; i < pontos.length; i++) {
+            if (pontos[i] > 0 && (melhor < 0 || pontos[i] > pontos[melhor])) {
+                melhor = i;
+            }
+        }
+        return melhor >= 0 ? a.respostas[melhor] : a.padrao;
+    }
+
+    private static double[] pontuar(Automato a, String mensagem) {
+        double[] pontos = new double[a.nomes.length];
+        boolean[] vistas = new boolean[a.intencaoDaPalavra.length];
+        int estado = a.transicoes[SEPARADOR]; // texto começa com separador implícito
+        int anterior = SEPARADOR;
+
+        for (int i = 0, n = mensagem.length(); i <= n; i++) {
+            int simbolo = i < n ? simbolo(mensagem.charAt(i)) : SEPARADOR; // e termina com outro
+            if (simbolo == SEPARADOR && anterior == SEPARADOR) {
+                continue; // separadores consecutivos contam como um
+            }
+            anterior = simbolo;
+            estado = a.transicoes[estado * ALFABETO + simbolo];
+            for (int palavra : a.saidas[estado]) {
+                if (!vistas[palavra]) {
+                    vistas[palavra] = true;
+                    pontos[a.intencaoDaPalavra[palavra]] += a.pontosDaPalavra[palavra];
+                }
+            }
+        }
+        return pontos;
+    }
+
+    private static int simbolo(char c) {
+        return c < 256 ? SIMBOLOS[c] : SEPARADOR;
+    }
+
+    /** Autômato compilado (imutável) */
+    private static final class Automato {
+        final int[] transicoes;
+        final int[][] saidas;
+        final int[] intencaoDaPalavra;
+        final double[] pontosDaPalavra;
+        final String[] nomes;
+        final String[] respostas;
+        final String padrao;
+
+        Automato(int[] transicoes, int[][] saidas, int[] intencaoDaPalavra, double[] pontosDaPalavra,
+                 String[] nomes, String[] respostas, String padrao) {
+            this.transicoes = transicoes;
+            this.saidas = saidas;
+            this.intencaoDaPalavra = intencaoDaPalavra;
+            this.pontosDaPalavra = pontosDaPalavra;
+            this.nomes = nomes;
+            this.respostas = respostas;
+            this.padrao = padrao;
+        }
+    }
+
+    private static Automato compilar(JsonNode raiz) {
+        JsonNode intencoes = raiz.path("intencoes");
+        int total = intencoes.size();
+        String[] nomes = new String[total];
+        String[] respostas = new String[total];
+
+        List<int[]> filhos = new ArrayList<>();
+        List<List<Integer>> saidas = new ArrayList<>();
+        List<Integer> intencaoDaPalavra = new ArrayList<>();
+        List<Double> pontosDaPalavra = new ArrayList<>();
+        novoEstado(filhos, saidas);
+
+        for (int i = 0; i < total; i++) {
+            JsonNode intencao = intencoes.get(i);
+            nomes[i] = intencao.path("nome").asText();
+            respostas[i] = intencao.path("resposta").asText();
+            double peso = intencao.path("peso").asDouble(1.0);
+
+            for (JsonNode p : intencao.path("palavras")) {
+                String palavra = p.asText().trim();
+                boolean prefixo = palavra.endsWith("*");
+                int[] simbolos = simbolos(prefixo ? palavra.substring(0, palavra.length() - 1) : palavra, !prefixo);
+                if (simbolos.length < 2) {
+                    continue;
+                }
+                int estado = 0;
+                for (int s : simbolos) {
+                    if (filhos.get(estado)[s] < 0) {
+                        filhos.get(estado)[s] = novoEstado(filhos, saidas);
+                    }
+                    estado = filhos.get(estado)[s];
+                }
+                saidas.get(estado).add(intencaoDaPalavra.size());
+                intencaoDaPalavra.add(i);
+                // Frases são mais específicas: valem pelo número de palavras
+                pontosDaPalavra.add(peso * palavra.trim().split("\\s+").length);
+            }
+        }
+
+        // Ligações de falha em largura, já resolvidas numa tabela de transições completa
+        int estados = filhos.size();
+        int[] transicoes = new int[estados * ALFABETO];
+        int[] falha = new int[estados];
+        ArrayDeque<Integer> fila = new ArrayDeque<>();
+        for (int s = 0; s < ALFABETO; s++) {
+            int filho = filhos.get(0)[s];
+            transicoes[s] = Math.max(filho, 0);
+            if (filho > 0) {
+                fila.add(filho);
+            }
+        }
+        while (!fila.isEmpty()) {
+            int u = fila.poll();
+            saidas.get(u).addAll(saidas.get(falha[u]));
+            for (int s = 0; s < ALFABETO; s++) {
+                int v = filhos.get(u)[s];
+                if (v < 0) {
+                    transicoes[u * ALFABETO + s] = transicoes[falha[u] * ALFABETO + s];
+                } else {
+                    falha[v] = transicoes[falha[u] * ALFABETO + s];
+                    transicoes[u * ALFABETO + s] = v;
+                    fila.add(v);
+                }
+            }
+        }
+
+        int[][] saidasCompiladas = new int[estados][];
+        for (int e = 0; e < estados; e++) {
+            saidasCompiladas[e] = saidas.get(e).stream().distinct().mapToInt(Integer::intValue).toArray();
+        }
+        return new Automato(transicoes, saidasCompiladas,
+                intencaoDaPalavra.stream().mapToInt(Integer::intValue).toArray(),
+                pontosDaPalavra.stream().mapToDouble(Double::doubleValue).toArray(),
+                nomes, respostas, raiz.path("padrao").asText());
+    }
+
+    private static int novoEstado(List<int[]> filhos, List<List<Integer>> saidas) {
+        int[] f = new int[ALFABETO];
+        Arrays.fill(f, -1);
+        filhos.add(f);
+        saidas.add(new ArrayList<>());
+        return filhos.size() - 1;
+    }
+
+    /** Palavra normalizada com separador antes (e depois, se for palavra inteira) */
+    private static int[] simbolos(String palavra, boolean inteira) {
+        List<Integer> lista = new ArrayList<>();
+        lista.add(SEPARADOR);
+        for (int i = 0; i < palavra.length(); i++) {
+            int s = simbolo(palavra.charAt(i));
+            if (s != SEPARADOR || lista.get(lista.size() - 1) != SEPARADOR) {
+                lista.add(s);
+            }
+        }
+        if (inteira && lista.get(lista.size() - 1) != SEPARADOR) {
+            lista.add(SEPARADOR);
+        }
+        return lista.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
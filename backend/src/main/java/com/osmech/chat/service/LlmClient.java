@@ -0,0 +1,318 @@
+package com.osmech.chat.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.osmech.config.OutboundHttpClients;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Cliente da API de chat completions (formato OpenAI; Gemini via endpoint compatível).
+ *
+ * Chamadas sem streaming usam o perfil "llm" de OutboundHttpClients (pool e métricas).
+ * Todas as chamadas passam por um bulkhead: no máximo {@code ai.bulkhead.max-concorrentes}
+ * gerações simultâneas; quem não consegue vaga em {@code espera-ms} recebe
+ * IllegalStateException. Cada geração tem prazo total de {@code ai.timeout-segundos},
+ * inclusive no modo streaming: ao fim do prazo o corpo da resposta é fechado, o que
+ * destrava uma leitura parada mesmo que o provedor pare de enviar no meio do stream.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LlmClient {
+
+    private final OutboundHttpClients httpClients;
+    private final ObjectMapper objectMapper;
+
+    @Value("${ai.openai.api-key:}")
+    private String apiKey;
+
+    @Value("${ai.openai.model:gemini-2.0-flash}")
+    private String model;
+
+    @Value("${ai.openai.base-url:https://generativelanguage.googleapis.com/v1beta/openai/chat/completions}")
+    private String chatCompletionsUrl;
+
+    @Value("${ai.bulkhead.max-concorrentes:8}")
+    private int maxConcorrentes;
+
+    @Value("${ai.bulkhead.espera-ms:200}")
+    private long esperaMs;
+
+    @Value("${ai.timeout-segundos:60}")
+    private int timeoutSegundos;
+
+    private Semaphore vagas;
+    private RestTemplate restTemplate;
+    private HttpClient httpClient;
+    private ScheduledThreadPoolExecutor prazos;
+
+    /** Geração interrompida: prazo estourado ou cliente desconectado */
+    public static class GeracaoInterrompidaException extends RuntimeException {
+        public GeracaoInterrompidaException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Permite abortar de outra thread uma geração em streaming (ex.: cliente SSE saiu).
+     * Cancelar antes da conexão abrir aborta assim que ela abrir.
+     */
+    public static class Cancelamento {
+        private Runnable acao;
+        private boolean cancelado;
+
+        public void cancelar() {
+            Runnable executar;
+            synchronized (this) {
+                if (cancelado) {
+                    return;
+                }
+                cancelado = true;
+                executar = acao;
+            }
+            if (executar != null) {
+                executar.run();
+            }
+        }
+
+        public synchronized boolean isCancelado() {
+            return cancelado;
+        }
+
+        void registrar(Runnable acao) {
+            boolean jaCancelado;
+            synchronized (this) {
+                this.acao = acao;
+                jaCancelado = cancelado;
+            }
+            if (jaCancelado) {
+                acao.run();
+            }
+        }
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        vagas = new Semaphore(maxConcorrentes);
+        restTemplate = httpClients.restTemplate("llm");
+        // Streaming fica no HttpClient do JDK: fechar o corpo aborta a geração na hora,
+        // enquanto o Apache HttpClient consumiria o restante do stream ao fechar
+        httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(httpClients.perfil("llm").getConnectTimeoutMs()))
+                .build();
+        prazos = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "llm-prazo");
+            t.setDaemon(true);
+            return t;
+        });
+        prazos.setRemoveOnCancelPolicy(true);
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        if (prazos != null) {
+            prazos.shutdownNow();
+        }
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public boolean isConfigurado() {
+        return apiKey != null && !apiKey.isBlank();
+    }
+
+    /** Resposta completa (sem streaming), ou null se o provedor não devolveu texto */
+    @SuppressWarnings("unchecked")
+    public String completar(List<Map<String, String>> messages) {
+        adquirirVaga();
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.setBearerAuth(apiKey);
+
+            ResponseEntity<Map> response = restTemplate.exchange(
+                    chatCompletionsUrl,
+                    HttpMethod.POST,
+                    new HttpEntity<>(corpo(messages, false), headers),
+                    Map.class
+            );
+
+            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+                List<Map<String, Object>> choices = (List<Map<String, Object>>) response.getBody().get("choices");
+                if (choices != null && !choices.isEmpty()) {
+                    Map<String, Object> message = (Map<String, Object>) choices.get(0).get("message");
+                    Object content = message.get("content");
+                    if (content instanceof String text && !text.isBlank()) {
+                        return text;
+                    }
+                }
+            }
+            return null;
+        } finally {
+            vagas.release();
+        }
+    }
+
+    /**
+     * Gera em streaming (SSE do provedor), entregando cada trecho a {@code aoReceber}
+     * assim que chega. Se o consumidor lançar exceção a conexão é fechada.
+     *
+     * @return texto completo gerado
+     */
+    public String transmitir(List<Map<String, String>> messages, Consumer<String> aoReceber) {
+        return transmitir(messages, aoReceber, new Cancelamento());
+    }
+
+    /**
+     * Como {@link #transmitir(List, Consumer)}, abortando a geração quando
+     * {@code cancelamento} for acionado.
+     *
+     * @throws GeracaoInterrompidaException com prazo estourado ou geração cancelada
+     */
+    public String transmitir(List<Map<String, String>> messages, Consumer<String> aoReceber,
+                             Cancelamento cancelamento) {
+        adquirirVaga();
+        long prazo = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSegundos);
+        AtomicBoolean prazoEstourado = new AtomicBoolean();
+        ScheduledFuture<?> alarme = null;
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(chatCompletionsUrl))
+                    .timeout(Duration.ofSeconds(timeoutSegundos))
+                    .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                    .header("Accept", MediaType.TEXT_EVENT_STREAM_VALUE)
+                    .header("Authorization", "Bearer " + apiKey)
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(corpo(messages, true))))
+                    .build();
+
+            HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            InputStream body = response.body();
+            // O timeout do HttpRequest só cobre a espera pelos headers; o restante do prazo
+            // e o cancelamento fecham o corpo, destravando o readLine
+            alarme = prazos.schedule(() -> {
+                prazoEstourado.set(true);
+                fechar(body);
+            }, prazo - System.nanoTime(), TimeUnit.NANOSECONDS);
+            cancelamento.registrar(() -> fechar(body));
+
+            try (body; BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+                if (response.statusCode() / 100 != 2) {
+                    throw new IllegalStateException("Provedor de IA respondeu HTTP " + response.statusCode());
+                }
+
+                StringBuilder texto = new StringBuilder();
+                String linha;
+                while ((linha = reader.readLine()) != null) {
+                    verificarInterrupcao(prazoEstourado, cancelamento);
+                    if (!linha.startsWith("data:")) {
+                        continue;
+                    }
+                    String dados = linha.substring(5).trim();
+                    if ("[DONE]".equals(dados)) {
+                        break;
+                    }
+                    String trecho = extrairTrecho(dados);
+                    if (trecho != null && !trecho.isEmpty()) {
+                        texto.append(trecho);
+                        aoReceber.accept(trecho);
+                    }
+                }
+                // Corpo fechado pelo alarme pode terminar como EOF em vez de exceção
+                verificarInterrupcao(prazoEstourado, cancelamento);
+                return texto.toString();
+            }
+        } catch (IOException e) {
+            verificarInterrupcao(prazoEstourado, cancelamento);
+            throw new IllegalStateException("Falha na comunicação com o provedor de IA: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GeracaoInterrompidaException("Geração interrompida");
+        } finally {
+            if (alarme != null) {
+                alarme.cancel(false);
+            }
+            vagas.release();
+        }
+    }
+
+    private static void verificarInterrupcao(AtomicBoolean prazoEstourado, Cancelamento cancelamento) {
+        if (prazoEstourado.get()) {
+            throw new GeracaoInterrompidaException("Tempo limite da IA excedido");
+        }
+        if (cancelamento.isCancelado()) {
+            throw new GeracaoInterrompidaException("Cliente desconectado");
+        }
+    }
+
+    private static void fechar(InputStream body) {
+        try {
+            body.close();
+        } catch (IOException e) {
+            log.debug("Falha ao fechar stream do provedor de IA: {}", e.getMessage());
+        }
+    }
+
+    private String extrairTrecho(String dados) throws IOException {
+        JsonNode choices = objectMapper.readTree(dados).path("choices");
+        if (!choices.isArray() || choices.isEmpty()) {
+            return null;
+        }
+        JsonNode content = choices.get(0).path("delta").path("content");
+        return content.isTextual() ? content.asText() : null;
+    }
+
+    private Map<String, Object> corpo(List<Map<String, String>> messages, boolean stream) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("model", model);
+        body.put("messages", messages);
+        body.put("max_tokens", 1500);
+        body.put("temperature", 0.7);
+        if (stream) {
+            body.put("stream", true);
+        }
+        return body;
+    }
+
+    private void adquirirVaga() {
+        try {
+            if (!vagas.tryAcquire(esperaMs, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Assistente de IA ocupado. Tente novamente em instantes.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Assistente de IA ocupado. Tente novamente em instantes.");
+        }
+    }
+}
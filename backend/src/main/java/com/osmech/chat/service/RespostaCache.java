@@ -0,0 +1,109 @@
+package com.osmech.chat.service;
+
+import com.osmech.config.TtlCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+
+/**
+ * Cache de respostas da IA para perguntas repetidas ("como abrir OS", "pastilha chiando").
+ *
+ * Só vale para a primeira mensagem de uma sessão (sem histórico que mude a resposta).
+ * A chave é provedor + modelo + pergunta normalizada (sem acento, caixa, pontuação e
+ * espaços repetidos). Perguntas longas ou com números (placa, valores, datas) não
+ * entram, por serem específicas da oficina. Limitado por TTL e tamanho (LRU).
+ */
+@Component
+@RequiredArgsConstructor
+public class RespostaCache {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${ai.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ai.cache.ttl-minutos:720}")
+    private long ttlMinutos;
+
+    @Value("${ai.cache.max-itens:5000}")
+    private int maxItens;
+
+    @Value("${ai.cache.max-caracteres:200}")
+    private int maxCaracteres;
+
+    private TtlCache<String, String> cache;
+
+    @PostConstruct
+    public void iniciar() {
+        cache = new TtlCache<>(ttlMinutos * 60_000, maxItens);
+        FunctionCounter.builder("chat.resposta.cache", cache, TtlCache::hits)
+                .tag("resultado", "hit").register(meterRegistry);
+        FunctionCounter.builder("chat.resposta.cache", cache, TtlCache::misses)
+                .tag("resultado", "miss").register(meterRegistry);
+        Gauge.builder("chat.resposta.cache.tamanho", cache, TtlCache::size).register(meterRegistry);
+    }
+
+    /** Chave da pergunta, ou null se ela não deve ser cacheada */
+    public String chave(String provider, String model, String pergunta) {
+        if (!enabled || pergunta == null || pergunta.length() > maxCaracteres) {
+            return null;
+        }
+        String normalizada = normalizar(pergunta);
+        if (normalizada.isEmpty()) {
+            return null;
+        }
+        for (int i = 0; i < normalizada.length(); i++) {
+            if (Character.isDigit(normalizada.charAt(i))) {
+                return null;
+            }
+        }
+        return provider + "|" + model + "|" + normalizada;
+    }
+
+    /** Resposta cacheada, ou null (chave null = pergunta não cacheável) */
+    public String buscar(String chave) {
+        return chave != null ? cache.get(chave) : null;
+    }
+
+    public void guardar(String chave, String resposta) {
+        if (chave != null && resposta != null && !resposta.isBlank()) {
+            cache.put(chave, resposta);
+        }
+    }
+
+    static String normalizar(String texto) {
+        String semAcento = Normalizer.normalize(texto, Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(semAcento.length());
+        boolean espaco = true;
+        for (int i = 0; i < semAcento.length(); i++) {
+            char c = semAcento.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(Character.toLowerCase(c));
+                espaco = false;
+            } else if (!espaco) {
+                sb.append(' ');
+                espaco = true;
+            }
+        }
+        int fim = sb.length();
+        if (fim > 0 && sb.charAt(fim - 1) == ' ') {
+            sb.setLength(fim - 1);
+        }
+        return sb.toString();
+    }
+
+    @Scheduled(fixedDelayString = "${ai.cache.limpeza-ms:600000}")
+    public void removerVencidos() {
+        cache.removerVencidas();
+    }
+}
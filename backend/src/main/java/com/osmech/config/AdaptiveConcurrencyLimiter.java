@@ -0,0 +1,99 @@
+package com.osmech.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limite de requisições simultâneas ajustado pela latência observada (gradiente).
+ *
+ * Mantém uma média longa da latência (referência "sem fila") e uma curta (atual).
+ * Enquanto a curta fica dentro da tolerância da longa o limite cresce devagar; quando
+ * a latência sobe, o limite cai na proporção longa/curta. Requisições caras só entram
+ * enquanto a ocupação estiver abaixo de {@code fracaoCaras} do limite, então são as
+ * primeiras recusadas quando o serviço satura.
+ *
+ * Sem dependência externa (mesma ideia do gradient limiter do Netflix concurrency-limits).
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double ALFA_LONGO = 0.01;
+    private static final double ALFA_CURTO = 0.2;
+    private static final double TOLERANCIA = 1.5;
+    private static final double SUAVIZACAO = 0.2;
+
+    private final AtomicInteger emCurso = new AtomicInteger();
+    private final int limiteMinimo;
+    private final int limiteMaximo;
+    private final double fracaoCaras;
+
+    private volatile double limite;
+    private double rttLongo;
+    private double rttCurto;
+
+    public AdaptiveConcurrencyLimiter(int limiteInicial, int limiteMinimo, int limiteMaximo, double fracaoCaras) {
+        this.limite = limiteInicial;
+        this.limiteMinimo = limiteMinimo;
+        this.limiteMaximo = limiteMaximo;
+        this.fracaoCaras = fracaoCaras;
+    }
+
+    /**
+     * Reserva uma vaga; quem recebe true deve chamar {@link #liberar} ao terminar.
+     *
+     * @return ocupação no momento da admissão (incluindo esta), ou -1 se recusada
+     */
+    public int tentarAdquirir(boolean cara) {
+        double teto = cara ? limite * fracaoCaras : limite;
+        while (true) {
+            int atual = emCurso.get();
+            if (atual >= teto) {
+                return -1;
+            }
+            if (emCurso.compareAndSet(atual, atual + 1)) {
+                return atual + 1;
+            }
+        }
+    }
+
+    /**
+     * Devolve a vaga. Só requisições comparáveis entre si (baratas e síncronas) devem
+     * passar {@code rttNanos > 0}: elas são o sinal de saturação.
+     *
+     * @param ocupacao valor devolvido por {@link #tentarAdquirir}
+     */
+    public void liberar(long rttNanos, int ocupacao) {
+        emCurso.decrementAndGet();
+        if (rttNanos > 0) {
+            registrar(rttNanos, ocupacao);
+        }
+    }
+
+    private synchronized void registrar(long rttNanos, int ocupacao) {
+        if (rttLongo == 0) {
+            rttLongo = rttNanos;
+            rttCurto = rttNanos;
+            return;
+        }
+        rttCurto = rttCurto * (1 - ALFA_CURTO) + rttNanos * ALFA_CURTO;
+        rttLongo = rttLongo * (1 - ALFA_LONGO) + rttNanos * ALFA_LONGO;
+        if (rttLongo > 2 * rttCurto) {
+            rttLongo *= 0.95; // a referência acompanha quedas duradouras de latência
+        }
+
+        double atual = limite;
+        double gradiente = Math.max(0.5, Math.min(1.0, TOLERANCIA * rttLongo / rttCurto));
+        if (gradiente >= 1.0 && ocupacao < atual / 2) {
+            return; // pouco uso: não há evidência para aumentar o limite
+        }
+        double novo = atual * gradiente + Math.sqrt(atual);
+        novo = atual * (1 - SUAVIZACAO) + novo * SUAVIZACAO;
+        limite = Math.max(limiteMinimo, Math.min(limiteMaximo, novo));
+    }
+
+    public int getLimite() {
+        return (int) limite;
+    }
+
+    public int getEmCurso() {
+        return emCurso.get();
+    }
+}
@@ -0,0 +1,104 @@
+package com.osmech.config;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.function.Predicate;
+
+/**
+ * Circuit breaker simples para integrações externas.
+ *
+ * FECHADO: chamadas passam; após {@code limiteFalhas} falhas consecutivas abre.
+ * ABERTO: chamadas falham imediatamente com {@link CircuitoAbertoException} até {@code tempoAbertoMs}.
+ * MEIO_ABERTO: uma chamada de teste passa; sucesso fecha, falha reabre.
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    public enum Estado { FECHADO, ABERTO, MEIO_ABERTO }
+
+    @FunctionalInterface
+    public interface Chamada<T> {
+        T executar() throws Exception;
+    }
+
+    /** Lançada quando o circuito está aberto (chamada nem é tentada) */
+    public static class CircuitoAbertoException extends IllegalStateException {
+        public CircuitoAbertoException(String nome) {
+            super("Integração temporariamente indisponível: " + nome);
+        }
+    }
+
+    private final String nome;
+    private final int limiteFalhas;
+    private final long tempoAbertoMs;
+    private final Predicate<Throwable> contaComoFalha;
+
+    private Estado estado = Estado.FECHADO;
+    private int falhasConsecutivas;
+    private long abertoEm;
+    private boolean testeEmAndamento;
+
+    public CircuitBreaker(String nome, int limiteFalhas, long tempoAbertoMs, Predicate<Throwable> contaComoFalha) {
+        this.nome = nome;
+        this.limiteFalhas = limiteFalhas;
+        this.tempoAbertoMs = tempoAbertoMs;
+        this.contaComoFalha = contaComoFalha;
+    }
+
+    public <T> T executar(Chamada<T> chamada) throws Exception {
+        liberarChamada();
+        try {
+            T resultado = chamada.executar();
+            registrarSucesso();
+            return resultado;
+        } catch (Exception e) {
+            if (contaComoFalha.test(e)) {
+                registrarFalha();
+            } else {
+                registrarSucesso();
+            }
+            throw e;
+        }
+    }
+
+    public synchronized Estado getEstado() {
+        return estado;
+    }
+
+    private synchronized void liberarChamada() {
+        if (estado == Estado.ABERTO) {
+            if (System.currentTimeMillis() - abertoEm < tempoAbertoMs) {
+                throw new CircuitoAbertoException(nome);
+            }
+            estado = Estado.MEIO_ABERTO;
+            testeEmAndamento = false;
+        }
+        if (estado == Estado.MEIO_ABERTO) {
+            if (testeEmAndamento) {
+                throw new CircuitoAbertoException(nome);
+            }
+            testeEmAndamento = true;
+        }
+    }
+
+    private synchronized void registrarSucesso() {
+        if (estado != Estado.FECHADO) {
+            log.info("Circuito {} fechado", nome);
+        }
+        estado = Estado.FECHADO;
+        falhasConsecutivas = 0;
+        testeEmAndamento = false;
+    }
+
+    private synchronized void registrarFalha() {
+        falhasConsecutivas++;
+        if (estado == Estado.MEIO_ABERTO || falhasConsecutivas >= limiteFalhas) {
+            if (estado != Estado.ABERTO) {
+                log.warn("Circuito {} aberto após {} falhas consecutivas", nome, falhasConsecutivas);
+            }
+            estado = Estado.ABERTO;
+            abertoEm = System.currentTimeMillis();
+            testeEmAndamento = false;
+        }
+    }
+}
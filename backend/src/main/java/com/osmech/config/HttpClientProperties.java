@@ -0,0 +1,67 @@
+package com.osmech.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Configuração dos clientes HTTP de saída (prefixo {@code http-cliente}).
+ *
+ * Cada integração usa um perfil com pool e timeouts próprios; campos não informados no
+ * perfil herdam de {@link #padrao}.
+ */
+@ConfigurationProperties(prefix = "http-cliente")
+@Getter
+@Setter
+public class HttpClientProperties {
+
+    private Perfil padrao = new Perfil(200, 20, 5000, 30000, 60000, 30, 30, 2000);
+
+    private Map<String, Perfil> perfis = new LinkedHashMap<>(Map.of(
+            "whatsapp", new Perfil(null, 20, null, 15000, 20000, null, null, null),
+            "llm", new Perfil(null, 16, null, 60000, 90000, null, null, null)));
+
+    /** Perfil com os campos ausentes preenchidos pelo padrão */
+    public Perfil perfil(String nome) {
+        Perfil p = perfis.get(nome);
+        if (p == null) {
+            return padrao;
+        }
+        return new Perfil(
+                p.maxConexoes != null ? p.maxConexoes : padrao.maxConexoes,
+                p.maxPorHost != null ? p.maxPorHost : padrao.maxPorHost,
+                p.connectTimeoutMs != null ? p.connectTimeoutMs : padrao.connectTimeoutMs,
+                p.readTimeoutMs != null ? p.readTimeoutMs : padrao.readTimeoutMs,
+                p.timeoutTotalMs != null ? p.timeoutTotalMs : padrao.timeoutTotalMs,
+                p.keepAliveSegundos != null ? p.keepAliveSegundos : padrao.keepAliveSegundos,
+                p.ociosaSegundos != null ? p.ociosaSegundos : padrao.ociosaSegundos,
+                p.esperaPoolMs != null ? p.esperaPoolMs : padrao.esperaPoolMs);
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Perfil {
+        /** Conexões no pool (todos os hosts) */
+        private Integer maxConexoes;
+        /** Conexões simultâneas por host */
+        private Integer maxPorHost;
+        private Integer connectTimeoutMs;
+        /** Tempo máximo sem receber dados */
+        private Integer readTimeoutMs;
+        /** Prazo da requisição inteira; ao estourar ela é cancelada (0 = sem prazo) */
+        private Integer timeoutTotalMs;
+        /** Teto do keep-alive, mesmo que o servidor anuncie mais */
+        private Integer keepAliveSegundos;
+        /** Conexões paradas há mais que isso são fechadas */
+        private Integer ociosaSegundos;
+        /** Espera por uma conexão livre no pool */
+        private Integer esperaPoolMs;
+    }
+}
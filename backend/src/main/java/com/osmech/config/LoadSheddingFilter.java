@@ -0,0 +1,93 @@
+package com.osmech.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Descarte de carga por concorrência adaptativa (ver AdaptiveConcurrencyLimiter).
+ *
+ * O peso da rota vem de rate-limit.custos: rotas a partir de {@code peso-caro}
+ * (exportações, relatórios, chat) são recusadas primeiro com 503 + Retry-After.
+ * A latência das rotas de peso 1 é o sinal usado para ajustar o limite.
+ */
+@Component
+@EnableConfigurationProperties(RateLimitProperties.class)
+@Slf4j
+public class LoadSheddingFilter extends OncePerRequestFilter {
+
+    private final RateLimitProperties properties;
+    private final RateLimitProperties.Concorrencia config;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final Counter descartadasCaras;
+    private final Counter descartadasLeves;
+
+    public LoadSheddingFilter(RateLimitProperties properties, ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        // Filtros entram nos testes de fatia web, onde não há MeterRegistry
+        MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable(SimpleMeterRegistry::new);
+        this.properties = properties;
+        this.config = properties.getConcorrencia();
+        this.limiter = new AdaptiveConcurrencyLimiter(config.getLimiteInicial(), config.getLimiteMinimo(),
+                config.getLimiteMaximo(), config.getFracaoCaras());
+
+        Gauge.builder("http.concorrencia.limite", limiter, AdaptiveConcurrencyLimiter::getLimite)
+                .description("Limite adaptativo de requisições simultâneas")
+                .register(meterRegistry);
+        Gauge.builder("http.concorrencia.em_curso", limiter, AdaptiveConcurrencyLimiter::getEmCurso)
+                .register(meterRegistry);
+        this.descartadasCaras = Counter.builder("http.concorrencia.descartadas").tag("classe", "cara")
+                .register(meterRegistry);
+        this.descartadasLeves = Counter.builder("http.concorrencia.descartadas").tag("classe", "leve")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !config.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        int peso = properties.custo(path);
+        boolean cara = peso >= config.getPesoCaro();
+
+        int ocupacao = limiter.tentarAdquirir(cara);
+        if (ocupacao < 0) {
+            (cara ? descartadasCaras : descartadasLeves).increment();
+            log.warn("Requisição descartada por sobrecarga ({} em curso, limite {}): {}",
+                    limiter.getEmCurso(), limiter.getLimite(), path);
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader("Retry-After", "1");
+            response.setContentType("application/json");
+            response.getWriter().write("{\"error\":\"Serviço sobrecarregado. Tente novamente em instantes.\"}");
+            return;
+        }
+
+        long inicio = System.nanoTime();
+        boolean amostrar = false;
+        try {
+            filterChain.doFilter(request, response);
+            amostrar = peso == 1 && !request.isAsyncStarted() && response.getStatus() < 500;
+        } finally {
+            limiter.liberar(amostrar ? System.nanoTime() - inicio : 0, ocupacao);
+        }
+    }
+
+    AdaptiveConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+}
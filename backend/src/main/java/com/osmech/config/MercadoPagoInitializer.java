@@ -26,6 +26,18 @@ public class MercadoPagoInitializer {
     @Value("${mercadopago.webhook-secret:}")
     private String webhookSecret;
 
+    @Value("${mercadopago.client.connect-timeout-ms:5000}")
+    private int connectTimeoutMs;
+
+    @Value("${mercadopago.client.read-timeout-ms:10000}")
+    private int readTimeoutMs;
+
+    @Value("${mercadopago.client.pool-timeout-ms:2000}")
+    private int poolTimeoutMs;
+
+    @Value("${mercadopago.client.max-connections:20}")
+    private int maxConnections;
+
     @PostConstruct
     public void init() {
         boolean isProd = Arrays.asList(environment.getActiveProfiles()).contains("prod");
@@ -36,5 +48,12 @@ public class MercadoPagoInitializer {
         if (accessToken != null && !accessToken.isBlank()) {
             MercadoPagoConfig.setAccessToken(accessToken);
         }
+
+        // Transporte HTTP compartilhado (pool) usado por todos os clients do SDK;
+        // precisa ser configurado antes do primeiro client ser criado (ver MercadoPagoGateway)
+        MercadoPagoConfig.setConnectionTimeout(connectTimeoutMs);
+        MercadoPagoConfig.setSocketTimeout(readTimeoutMs);
+        MercadoPagoConfig.setConnectionRequestTimeout(poolTimeoutMs);
+        MercadoPagoConfig.setMaxConnections(maxConnections);
     }
 }
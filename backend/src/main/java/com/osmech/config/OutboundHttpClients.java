@@ -0,0 +1,397 @@
+package com.osmech.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.ConnectTimeoutException;
+import org.apache.hc.client5.http.HttpHostConnectException;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Clientes HTTP de saída (WhatsApp, IA, ...), um por perfil de {@link HttpClientProperties}.
+ *
+ * Cada perfil tem seu pool (Apache HttpClient 5) com keep-alive limitado, máximo de
+ * conexões por host, timeouts de conexão, leitura e espera no pool, e um prazo total
+ * que cancela a requisição inteira. Os RestTemplates partem do RestTemplateBuilder do
+ * Spring Boot, então a latência aparece em {@code http.client.requests} por host
+ * (client.name). Aqui ficam as métricas do pool ({@code http.cliente.pool}) e dos
+ * erros de transporte ({@code http.cliente.erros}).
+ */
+@Component
+@EnableConfigurationProperties(HttpClientProperties.class)
+@Slf4j
+public class OutboundHttpClients {
+
+    private final HttpClientProperties properties;
+    private final RestTemplateBuilder builder;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, RestTemplate> templates = new ConcurrentHashMap<>();
+    private final Map<String, CloseableHttpClient> clientes = new ConcurrentHashMap<>();
+    private final ScheduledThreadPoolExecutor prazos = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread t = new Thread(r, "http-cliente-prazo");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public OutboundHttpClients(HttpClientProperties properties, RestTemplateBuilder builder, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.builder = builder;
+        this.meterRegistry = meterRegistry;
+        // Prazos cancelados saem da fila na hora, em vez de esperar o vencimento
+        prazos.setRemoveOnCancelPolicy(true);
+    }
+
+    /** RestTemplate do perfil (criado na primeira chamada e reaproveitado) */
+    public RestTemplate restTemplate(String perfil) {
+        return templates.computeIfAbsent(perfil, this::criar);
+    }
+
+    public HttpClientProperties.Perfil perfil(String perfil) {
+        return properties.perfil(perfil);
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        prazos.shutdownNow();
+        clientes.forEach((nome, cliente) -> {
+            try {
+                cliente.close();
+            } catch (IOException e) {
+                log.debug("Erro ao fechar cliente HTTP {}: {}", nome, e.getMessage());
+            }
+        });
+    }
+
+    private RestTemplate criar(String nome) {
+        HttpClientProperties.Perfil p = properties.perfil(nome);
+
+        PoolingHttpClientConnectionManager pool = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(p.getMaxConexoes())
+                .setMaxConnPerRoute(p.getMaxPorHost())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(p.getConnectTimeoutMs()))
+                        .setSocketTimeout(Timeout.ofMilliseconds(p.getReadTimeoutMs()))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+
+        TimeValue keepAliveMaximo = TimeValue.ofSeconds(p.getKeepAliveSegundos());
+        CloseableHttpClient cliente = HttpClients.custom()
+                .setConnectionManager(pool)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(p.getEsperaPoolMs()))
+                        .setResponseTimeout(Timeout.ofMilliseconds(p.getReadTimeoutMs()))
+                        .build())
+                .setKeepAliveStrategy((response, context) -> {
+                    TimeValue anunciado = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return TimeValue.isPositive(anunciado) && anunciado.compareTo(keepAliveMaximo) < 0 ? anunciado : keepAliveMaximo;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(p.getOciosaSegundos()))
+                .build();
+        clientes.put(nome, cliente);
+
+        registrarPool(nome, pool, "ocupadas", PoolStats::getLeased);
+        registrarPool(nome, pool, "livres", PoolStats::getAvailable);
+        registrarPool(nome, pool, "aguardando", PoolStats::getPending);
+        registrarPool(nome, pool, "maximo", PoolStats::getMax);
+
+        return builder
+                .requestFactory(() -> new PrazoTotalRequestFactory(cliente, prazos, p.getTimeoutTotalMs()))
+                .additionalInterceptors(contarErros(nome, p.getTimeoutTotalMs()))
+                .build();
+    }
+
+    private void registrarPool(String perfil, PoolingHttpClientConnectionManager pool, String estado,
+                               ToDoubleFunction<PoolStats> valor) {
+        Gauge.builder("http.cliente.pool", pool, cm -> valor.applyAsDouble(cm.getTotalStats()))
+                .tag("perfil", perfil)
+                .tag("estado", estado)
+                .register(meterRegistry);
+    }
+
+    private ClientHttpRequestInterceptor contarErros(String perfil, long prazoMs) {
+        return (request, body, execution) -> {
+            String host = request.getURI().getHost();
+            long inicio = System.nanoTime();
+            Consumer<IOException> falha = e -> erro(perfil, host,
+                    prazoMs > 0 && System.nanoTime() - inicio >= TimeUnit.MILLISECONDS.toNanos(prazoMs)
+                            ? "prazo_total" // cancelada pelo PrazoTotalRequestFactory
+                            : tipoErro(e));
+            try {
+                ClientHttpResponse response = execution.execute(request, body);
+                int status = response.getStatusCode().value();
+                if (status == 429 || status >= 500) {
+                    erro(perfil, host, status == 429 ? "http_429" : "http_5xx");
+                }
+                // Falhas na leitura do corpo (timeout, prazo total) também contam
+                return new RespostaMedida(response, falha);
+            } catch (IOException e) {
+                falha.accept(e);
+                throw e;
+            }
+        };
+    }
+
+    private void erro(String perfil, String host, String tipo) {
+        Counter.builder("http.cliente.erros")
+                .tag("perfil", perfil)
+                .tag("host", host != null ? host : "desconhecido")
+                .tag("tipo", tipo)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    static String tipoErro(IOException e) {
+        if (e instanceof ConnectTimeoutException || e instanceof HttpHostConnectException) {
+            return "conexao";
+        }
+        if (e instanceof SocketTimeoutException) {
+            return "timeout";
+        }
+        if (e instanceof InterruptedIOException) {
+            return "interrompida";
+        }
+        return "io";
+    }
+
+    /** Resposta cujo corpo reporta o primeiro erro de leitura */
+    private static final class RespostaMedida implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final Consumer<IOException> aoFalhar;
+        private InputStream corpo;
+
+        RespostaMedida(ClientHttpResponse delegate, Consumer<IOException> aoFalhar) {
+            this.delegate = delegate;
+            this.aoFalhar = aoFalhar;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (corpo == null) {
+                corpo = new FilterInputStream(delegate.getBody()) {
+                    private boolean reportado;
+
+                    @Override
+                    public int read() throws IOException {
+                        try {
+                            return super.read();
+                        } catch (IOException e) {
+                            reportar(e);
+                            throw e;
+                        }
+                    }
+
+                    @Override
+                    public int read(byte[] b, int off, int len) throws IOException {
+                        try {
+                            return super.read(b, off, len);
+                        } catch (IOException e) {
+                            reportar(e);
+                            throw e;
+                        }
+                    }
+
+                    private void reportar(IOException e) {
+                        if (!reportado) {
+                            reportado = true;
+                            aoFalhar.accept(e);
+                        }
+                    }
+                };
+            }
+            return corpo;
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+
+    /**
+     * Agenda o cancelamento de cada requisição ao fim do prazo total. O agendamento é
+     * desfeito quando a resposta é fechada ou a execução falha.
+     */
+    static final class PrazoTotalRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+        private final ScheduledExecutorService prazos;
+        private final long prazoMs;
+        /** Prazo agendado em createHttpUriRequest, chamado por createRequest na mesma thread */
+        private final ThreadLocal<ScheduledFuture<?>> agendado = new ThreadLocal<>();
+
+        PrazoTotalRequestFactory(CloseableHttpClient cliente, ScheduledExecutorService prazos, long prazoMs) {
+            super(cliente);
+            this.prazos = prazos;
+            this.prazoMs = prazoMs;
+        }
+
+        @Override
+        public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+            try {
+                ClientHttpRequest request = super.createRequest(uri, httpMethod);
+                ScheduledFuture<?> prazo = agendado.get();
+                return prazo != null ? new RequisicaoComPrazo(request, prazo) : request;
+            } catch (IOException | RuntimeException e) {
+                cancelar(agendado.get());
+                throw e;
+            } finally {
+                agendado.remove();
+            }
+        }
+
+        @Override
+        protected ClassicHttpRequest createHttpUriRequest(HttpMethod httpMethod, URI uri) {
+            ClassicHttpRequest request = super.createHttpUriRequest(httpMethod, uri);
+            if (prazoMs > 0 && request instanceof Cancellable cancelavel) {
+                agendado.set(prazos.schedule(cancelavel::cancel, prazoMs, TimeUnit.MILLISECONDS));
+            }
+            return request;
+        }
+
+        private static void cancelar(ScheduledFuture<?> prazo) {
+            if (prazo != null) {
+                prazo.cancel(false);
+            }
+        }
+    }
+
+    /** Requisição cujo prazo total é cancelado se a execução falhar */
+    private static final class RequisicaoComPrazo implements ClientHttpRequest {
+
+        private final ClientHttpRequest delegate;
+        private final ScheduledFuture<?> prazo;
+
+        RequisicaoComPrazo(ClientHttpRequest delegate, ScheduledFuture<?> prazo) {
+            this.delegate = delegate;
+            this.prazo = prazo;
+        }
+
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            try {
+                return new RespostaComPrazo(delegate.execute(), prazo);
+            } catch (IOException | RuntimeException e) {
+                prazo.cancel(false);
+                throw e;
+            }
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return delegate.getMethod();
+        }
+
+        @Override
+        public URI getURI() {
+            return delegate.getURI();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+    }
+
+    /** Resposta que cancela o prazo total ao ser fechada */
+    private static final class RespostaComPrazo implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final ScheduledFuture<?> prazo;
+
+        RespostaComPrazo(ClientHttpResponse delegate, ScheduledFuture<?> prazo) {
+            this.delegate = delegate;
+            this.prazo = prazo;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                prazo.cancel(false);
+            }
+        }
+    }
+}
@@ -3,11 +3,12 @@ package com.osmech.config;
 import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import com.osmech.security.TenantContext;
+import com.osmech.security.UsuarioAutenticado;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.util.List;
 
 /**
  * Rate Limiter abstrato que define a interface para implementacoes.
@@ -16,15 +17,28 @@ import java.io.IOException;
  * - RedisRateLimiter: modo Redis - para producao multi-instancia
  * 
  * Configure o modo via propriedade: rate-limit.mode=memory | redis
+ * e as regras por rota em rate-limit.regras (ver RateLimitProperties).
+ * Roda depois do JwtAuthFilter, para que regras por tenant usem a oficina autenticada.
  */
 @Slf4j
 public abstract class RateLimitFilter implements Filter {
 
-    // Configuracoes de limite
-    protected static final int MAX_REQUESTS_PER_MINUTE = 60;
-    protected static final int MAX_LOGIN_ATTEMPTS_PER_MINUTE = 5;
-    protected static final int MAX_LOGIN_ATTEMPTS_PER_15_MINUTES = 15;
-    protected static final long ENTRY_EXPIRE_MILLIS = 120000; // 2 minutes
+    private final RateLimitProperties properties;
+    private final RateLimitProperties.Regra[] regras;
+
+    /**
+     * Consumo de uma regra por uma requisição.
+     *
+     * @param indice posição da regra (estável; pode compor a chave do contador)
+     * @param chave  cliente contado: "u" + id da oficina ou o IP
+     */
+    protected record Cota(int indice, String chave, int limite, int custo) {}
+
+    protected RateLimitFilter(RateLimitProperties properties) {
+        this.properties = properties;
+        List<RateLimitProperties.Regra> lista = properties.getRegras();
+        this.regras = lista.toArray(new RateLimitProperties.Regra[0]);
+    }
 
     @Override
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
@@ -33,8 +47,7 @@ public abstract class RateLimitFilter implements Filter {
         HttpServletRequest httpRequest = (HttpServletRequest) request;
         HttpServletResponse httpResponse = (HttpServletResponse) response;
 
-        String clientIp = getClientIP(httpRequest);
-        String path = httpRequest.getRequestURI();
+        String path = httpRequest.getRequestURI().substring(httpRequest.getContextPath().length());
 
         // Skip rate limiting for webhook endpoints
         if (path.contains("/mercadopago/webhook")) {
@@ -42,29 +55,67 @@ public abstract class RateLimitFilter implements Filter {
             return;
         }
 
-        // Verifica rate limiting para login
-        if (path.contains("/auth/login") || path.contains("/auth/register")) {
-            if (!checkLoginRateLimit(clientIp, httpResponse)) {
-                return;
+        Cota[] cotas = new Cota[regras.length];
+        int quantidade = 0;
+        String clientIp = null;
+        UsuarioAutenticado tenant = TenantContext.atual();
+        int custo = -1;
+
+        for (int i = 0; i < regras.length; i++) {
+            RateLimitProperties.Regra regra = regras[i];
+            if (!regra.aplicaA(path)) {
+                continue;
+            }
+            if (regra.isPorTenant()) {
+                if (custo < 0) {
+                    custo = properties.custo(path);
+                }
+                if (tenant != null) {
+                    cotas[quantidade++] = new Cota(i, "u" + tenant.id(), regra.limitePara(tenant.plano()), custo);
+                    continue;
+                }
+            }
+            if (clientIp == null) {
+                clientIp = getClientIP(httpRequest);
             }
+            cotas[quantidade++] = new Cota(i, clientIp, regra.getLimite(), regra.isPorTenant() ? custo : 1);
         }
 
-        // Verifica rate limiting geral
-        if (!checkRateLimit(clientIp, httpResponse)) {
-            return;
+        if (quantidade > 0) {
+            int excedida = regraExcedida(cotas, quantidade);
+            if (excedida >= 0) {
+                RateLimitProperties.Regra regra = regras[excedida];
+                log.warn("Rate limit '{}' excedido: {}", regra.getNome(),
+                        tenant != null && regra.isPorTenant() ? "usuario " + tenant.id() : clientIp);
+                sendTooManyRequests(httpResponse, regra.getMensagem());
+                return;
+            }
         }
 
         chain.doFilter(request, response);
     }
 
-    protected boolean checkLoginRateLimit(String clientIp, HttpServletResponse response) throws IOException {
-        throw new UnsupportedOperationException("Implement checkLoginRateLimit in subclass");
+    /**
+     * Consome as cotas das regras aplicáveis, na ordem configurada.
+     *
+     * @return índice da primeira regra excedida, ou -1 se a requisição pode seguir
+     */
+    protected int regraExcedida(Cota[] cotas, int quantidade) {
+        for (int i = 0; i < quantidade; i++) {
+            if (!tentarConsumir(cotas[i])) {
+                return cotas[i].indice();
+            }
+        }
+        return -1;
     }
 
-    protected boolean checkRateLimit(String clientIp, HttpServletResponse response) throws IOException {
-        throw new UnsupportedOperationException("Implement checkRateLimit in subclass");
+    protected RateLimitProperties.Regra regra(int indice) {
+        return regras[indice];
     }
 
+    /** Consome {@code custo} unidades da regra para o cliente da cota. */
+    protected abstract boolean tentarConsumir(Cota cota);
+
     protected void sendTooManyRequests(HttpServletResponse response, String message) throws IOException {
         response.setStatus(429);
         response.setContentType("application/json");
@@ -74,7 +125,8 @@ public abstract class RateLimitFilter implements Filter {
     protected String getClientIP(HttpServletRequest request) {
         String xForwardedFor = request.getHeader("X-Forwarded-For");
         if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-            return xForwardedFor.split(",")[0].trim();
+            int virgula = xForwardedFor.indexOf(',');
+            return (virgula < 0 ? xForwardedFor : xForwardedFor.substring(0, virgula)).trim();
         }
         return request.getRemoteAddr();
     }
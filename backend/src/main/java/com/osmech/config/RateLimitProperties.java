@@ -0,0 +1,142 @@
+package com.osmech.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuração do rate limiting (prefixo {@code rate-limit}).
+ *
+ * Cada regra se aplica às rotas que começam com um dos prefixos (caminho sem o
+ * context-path /api); prefixo vazio vale para todas. Uma requisição precisa passar
+ * por todas as regras que a alcançam.
+ *
+ * Regras {@code por-tenant} contam por oficina autenticada (IP para anônimos), com
+ * limite conforme o plano e cada requisição pesando o custo da rota ({@link #custos}).
+ *
+ * Registrada pelos próprios filtros (@EnableConfigurationProperties), que também
+ * entram em testes de fatia web.
+ */
+@ConfigurationProperties(prefix = "rate-limit")
+@Getter
+@Setter
+public class RateLimitProperties {
+
+    /** memory | redis */
+    private String mode = "memory";
+
+    /** Chaves (cliente + regra) acompanhadas simultaneamente no modo memória */
+    private int capacidade = 65_536;
+
+    private List<Regra> regras = new ArrayList<>(List.of(
+            new Regra("login-minuto", List.of("/auth/login", "/auth/register"), 5, 60,
+                    "Muitas tentativas de login. Tente novamente em 1 minuto."),
+            new Regra("login-15-minutos", List.of("/auth/login", "/auth/register"), 15, 900,
+                    "Muitas tentativas de login. Tente novamente em 15 minutos."),
+            new Regra("geral", List.of(""), 60, 60,
+                    "Muitas requisições. Tente novamente em 1 minuto.", true,
+                    new LinkedHashMap<>(Map.of("FREE", 120, "PRO", 600, "PRO_PLUS", 1500, "PREMIUM", 3000)))
+    ));
+
+    /** Peso das rotas nas regras por tenant; vale o primeiro prefixo que casar (demais = 1) */
+    private List<Custo> custos = new ArrayList<>(List.of(
+            new Custo("/relatorios/exportar", 20),
+            new Custo("/relatorios", 5),
+            new Custo("/chat", 5),
+            new Custo("/os/dashboard", 3)
+    ));
+
+    private Concorrencia concorrencia = new Concorrencia();
+
+    public int custo(String caminho) {
+        for (Custo custo : custos) {
+            if (caminho.startsWith(custo.getPrefixo())) {
+                return custo.getPeso();
+            }
+        }
+        return 1;
+    }
+
+    private Redis redis = new Redis();
+
+    /**
+     * Concessão local de cota no modo redis: cada instância reserva pequenos blocos
+     * da janela e decide as requisições seguintes sem ir ao Redis.
+     */
+    @Getter
+    @Setter
+    public static class Redis {
+        /** Bloco = limite / divisorBloco (mínimo 1, máximo blocoMaximo) */
+        private int divisorBloco = 20;
+        private int blocoMaximo = 10;
+        /** Validade de um bloco concedido; sobras vencidas não voltam para a janela */
+        private long concessaoMs = 1000;
+        /** Blocos locais acompanhados simultaneamente */
+        private int maxConcessoes = 50_000;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Custo {
+        private String prefixo;
+        private int peso = 1;
+    }
+
+    /**
+     * Limite adaptativo de requisições simultâneas (ver AdaptiveConcurrencyLimiter).
+     * Rotas com peso a partir de {@code pesoCaro} só entram enquanto a ocupação estiver
+     * abaixo de {@code fracaoCaras} do limite, então são as primeiras descartadas.
+     */
+    @Getter
+    @Setter
+    public static class Concorrencia {
+        private boolean enabled = true;
+        private int limiteInicial = 100;
+        private int limiteMinimo = 10;
+        private int limiteMaximo = 1000;
+        private int pesoCaro = 5;
+        private double fracaoCaras = 0.5;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Regra {
+        private String nome;
+        private List<String> prefixos = new ArrayList<>();
+        private int limite;
+        private int janelaSegundos = 60;
+        private String mensagem = "Muitas requisições. Tente novamente mais tarde.";
+        /** Conta por oficina autenticada e em unidades de custo */
+        private boolean porTenant;
+        /** Limite por código de plano (regras por tenant); ausente = {@link #limite} */
+        private Map<String, Integer> limitesPorPlano = new LinkedHashMap<>();
+
+        public Regra(String nome, List<String> prefixos, int limite, int janelaSegundos, String mensagem) {
+            this(nome, prefixos, limite, janelaSegundos, mensagem, false, new LinkedHashMap<>());
+        }
+
+        public int limitePara(String plano) {
+            return plano != null ? limitesPorPlano.getOrDefault(plano, limite) : limite;
+        }
+
+        public boolean aplicaA(String caminho) {
+            for (String prefixo : prefixos) {
+                if (caminho.startsWith(prefixo)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
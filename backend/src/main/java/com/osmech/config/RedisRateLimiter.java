@@ -1,119 +1,179 @@
 package com.osmech.config;
 
-import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.stereotype.Component;
 
-import java.io.IOException;
-import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Implementação Redis do Rate Limiter.
  * Recomendado para produção multi-instância.
  * Usa Redis para compartilhar contadores entre todas as instâncias.
- * 
+ *
+ * Todas as regras que precisam de cota são verificadas numa única chamada ao script
+ * redis/rate-limit.lua (contagem, incremento e TTL atômicos; se uma regra recusa, nenhuma
+ * é cobrada). O Redis concede um bloco pequeno de unidades por regra e cliente; as
+ * requisições seguintes consomem o bloco localmente até ele acabar ou vencer
+ * ({@code rate-limit.redis.concessao-ms}). Recusas também ficam em memória pelo mesmo
+ * período, para que um cliente bloqueado não gere tráfego no Redis.
+ *
  * Configuração (application.yml):
  * rate-limit:
  *   mode: redis
- *   redis:
- *     requests-per-minute: 60
- *     login-per-minute: 5
- *     login-per-15-minutes: 15
+ *   redis: (ver RateLimitProperties.Redis)
+ *   regras: (ver RateLimitProperties)
  */
 @Component
+@EnableConfigurationProperties(RateLimitProperties.class)
 @ConditionalOnProperty(name = "rate-limit.mode", havingValue = "redis")
-@RequiredArgsConstructor
 @Slf4j
 public class RedisRateLimiter extends RateLimitFilter {
 
-    private final StringRedisTemplate redisTemplate;
-
-    // Configurações via application.yml
-    private int requestsPerMinute = 60;
-    private int loginPerMinute = 5;
-    private int loginPer15Minutes = 15;
+    @SuppressWarnings("rawtypes")
+    static final RedisScript<List> SCRIPT = RedisScript.of(new ClassPathResource("redis/rate-limit.lua"), List.class);
 
-    public void setRequestsPerMinute(int requestsPerMinute) {
-        this.requestsPerMinute = requestsPerMinute;
+    private final StringRedisTemplate redisTemplate;
+    private final RateLimitProperties.Redis config;
+    private final Map<String, Concessao> concessoes = new ConcurrentHashMap<>();
+
+    /** Bloco de cota concedido pelo Redis para uma janela (restante 0 + negada = recusa em cache) */
+    private static final class Concessao {
+        final long janelaId;
+        final long expiraEm;
+        final boolean negada;
+        final AtomicInteger restante;
+
+        Concessao(long janelaId, long expiraEm, boolean negada, int restante) {
+            this.janelaId = janelaId;
+            this.expiraEm = expiraEm;
+            this.negada = negada;
+            this.restante = new AtomicInteger(restante);
+        }
     }
 
-    public void setLoginPerMinute(int loginPerMinute) {
-        this.loginPerMinute = loginPerMinute;
+    public RedisRateLimiter(RateLimitProperties properties, StringRedisTemplate redisTemplate) {
+        super(properties);
+        this.redisTemplate = redisTemplate;
+        this.config = properties.getRedis();
     }
 
-    public void setLoginPer15Minutes(int loginPer15Minutes) {
-        this.loginPer15Minutes = loginPer15Minutes;
+    @Override
+    protected boolean tentarConsumir(Cota cota) {
+        return regraExcedida(new Cota[]{cota}, 1) < 0;
     }
 
     @Override
-    protected boolean checkLoginRateLimit(String clientIp, HttpServletResponse response) throws IOException {
-        long currentMinute = System.currentTimeMillis() / 60000;
-        
-        // Chave para contagem por minuto
-        String keyMinute = "rate:login:" + clientIp + ":min:" + currentMinute;
-        // Chave para contagem por 15 minutos
-        String key15Min = "rate:login:" + clientIp + ":15min:" + (currentMinute / 15);
-
-        try {
-            // Incrementa e verifica limite por minuto
-            Long countMinute = redisTemplate.opsForValue().increment(keyMinute);
-            if (countMinute != null && countMinute == 1) {
-                redisTemplate.expire(keyMinute, Duration.ofMinutes(1));
-            }
-            
-            if (countMinute != null && countMinute > loginPerMinute) {
-                log.warn("Rate limit excedido para login (por minuto): {}", clientIp);
-                sendTooManyRequests(response, "Muitas tentativas de login. Tente novamente em 1 minuto.");
-                return false;
+    protected int regraExcedida(Cota[] cotas, int quantidade) {
+        long agora = System.currentTimeMillis();
+        Cota[] remotas = new Cota[quantidade];
+        int pendentes = 0;
+
+        for (int i = 0; i < quantidade; i++) {
+            Cota cota = cotas[i];
+            long janelaMs = regra(cota.indice()).getJanelaSegundos() * 1000L;
+            Concessao c = concessoes.get(chaveLocal(cota));
+            if (c != null && agora < c.expiraEm && c.janelaId == agora / janelaMs) {
+                if (c.negada) {
+                    return cota.indice();
+                }
+                if (c.restante.addAndGet(-cota.custo()) >= 0) {
+                    continue;
+                }
             }
+            remotas[pendentes++] = cota;
+        }
 
-            // Incrementa e verifica limite por 15 minutos
-            Long count15Min = redisTemplate.opsForValue().increment(key15Min);
-            if (count15Min != null && count15Min == 1) {
-                redisTemplate.expire(key15Min, Duration.ofMinutes(15));
-            }
-            
-            if (count15Min != null && count15Min > loginPer15Minutes) {
-                log.warn("Rate limit excedido para login (por 15 minutos): {}", clientIp);
-                sendTooManyRequests(response, "Muitas tentativas de login. Tente novamente em 15 minutos.");
-                return false;
-            }
+        return pendentes == 0 ? -1 : consultarRedis(remotas, pendentes, agora);
+    }
 
-            return true;
+    private int consultarRedis(Cota[] cotas, int quantidade, long agora) {
+        List<String> keys = new ArrayList<>(quantidade * 2);
+        Object[] args = new Object[quantidade * 5];
+
+        for (int i = 0; i < quantidade; i++) {
+            Cota cota = cotas[i];
+            RateLimitProperties.Regra regra = regra(cota.indice());
+            long janelaMs = regra.getJanelaSegundos() * 1000L;
+            long janela = agora / janelaMs;
+            double decorrido = (double) (agora - janela * janelaMs) / janelaMs;
+
+            // Hash tag no cliente: as chaves de todas as regras caem no mesmo slot do cluster
+            String base = "rate:{" + cota.chave() + "}:" + regra.getNome() + ":";
+            keys.add(base + janela);
+            keys.add(base + (janela - 1));
+            args[i * 5] = String.valueOf(cota.limite());
+            args[i * 5 + 1] = String.valueOf(1 - decorrido);
+            args[i * 5 + 2] = String.valueOf(2 * janelaMs);
+            args[i * 5 + 3] = String.valueOf(Math.max(tamanhoBloco(cota.limite()), cota.custo()));
+            args[i * 5 + 4] = String.valueOf(cota.custo());
+        }
+
+        List<?> concedidos;
+        try {
+            concedidos = redisTemplate.execute(SCRIPT, keys, args);
         } catch (Exception e) {
             // Em caso de erro no Redis, permite a requisição (fail-open)
-            // mas loga o erro
             log.error("Erro ao verificar rate limit no Redis: {}", e.getMessage());
-            return true;
+            return -1;
+        }
+        if (concedidos == null || concedidos.size() < quantidade) {
+            return -1;
         }
-    }
 
-    @Override
-    protected boolean checkRateLimit(String clientIp, HttpServletResponse response) throws IOException {
-        long currentMinute = System.currentTimeMillis() / 60000;
-        String key = "rate:req:" + clientIp + ":" + currentMinute;
+        for (int i = 0; i < quantidade; i++) {
+            Cota cota = cotas[i];
+            long janelaMs = regra(cota.indice()).getJanelaSegundos() * 1000L;
+            long janela = agora / janelaMs;
+            long expiraEm = Math.min(agora + config.getConcessaoMs(), (janela + 1) * janelaMs);
+            int concedido = ((Number) concedidos.get(i)).intValue();
 
-        try {
-            Long count = redisTemplate.opsForValue().increment(key);
-            if (count != null && count == 1) {
-                // Expira em 1 minuto
-                redisTemplate.expire(key, Duration.ofMinutes(1));
+            if (concedido < 0) {
+                continue; // outra regra recusou: esta não foi cobrada
             }
-
-            if (count != null && count > requestsPerMinute) {
-                log.warn("Rate limit geral excedido: {}", clientIp);
-                sendTooManyRequests(response, "Muitas requisições. Tente novamente em 1 minuto.");
-                return false;
+            if (concedido == 0) {
+                guardar(cota, new Concessao(janela, expiraEm, true, 0));
+                return cota.indice();
             }
+            if (concedido > cota.custo()) {
+                // O custo é desta requisição; o resto fica para as próximas
+                guardar(cota, new Concessao(janela, expiraEm, false, concedido - cota.custo()));
+            }
+        }
+        return -1;
+    }
 
-            return true;
-        } catch (Exception e) {
-            // Em caso de erro no Redis, permite a requisição (fail-open)
-            log.error("Erro ao verificar rate limit no Redis: {}", e.getMessage());
-            return true;
+    int tamanhoBloco(int limite) {
+        int bloco = limite / Math.max(1, config.getDivisorBloco());
+        return Math.max(1, Math.min(bloco, config.getBlocoMaximo()));
+    }
+
+    private void guardar(Cota cota, Concessao concessao) {
+        if (concessoes.size() >= config.getMaxConcessoes()) {
+            return; // sem espaço: o cliente apenas volta a consultar o Redis
         }
+        concessoes.put(chaveLocal(cota), concessao);
+    }
+
+    private static String chaveLocal(Cota cota) {
+        return cota.indice() + "|" + cota.chave();
+    }
+
+    /**
+     * Cleanup agendado - remove blocos locais vencidos.
+     */
+    @Scheduled(fixedRate = 60000)
+    public void scheduledCleanup() {
+        long agora = System.currentTimeMillis();
+        concessoes.values().removeIf(c -> c.expiraEm <= agora);
     }
 }
@@ -1,24 +1,19 @@
 package com.osmech.config;
 
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
 
-import java.time.Duration;
-
 /**
  * Configuração do RestTemplate como bean Spring.
- * Permite injeção, testes e configuração centralizada de timeouts.
+ * Usa o perfil "padrao" de OutboundHttpClients (pool, timeouts e métricas); integrações
+ * com necessidades próprias pedem o seu perfil diretamente a OutboundHttpClients.
  */
 @Configuration
 public class RestTemplateConfig {
 
     @Bean
-    public RestTemplate restTemplate(RestTemplateBuilder builder) {
-        return builder
-                .setConnectTimeout(Duration.ofSeconds(10))
-                .setReadTimeout(Duration.ofSeconds(30))
-                .build();
+    public RestTemplate restTemplate(OutboundHttpClients httpClients) {
+        return httpClients.restTemplate("padrao");
     }
 }
@@ -2,6 +2,7 @@ package com.osmech.config;
 
 import com.osmech.security.JwtAuthFilter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -33,7 +34,8 @@ import java.util.List;
  * - Sessão stateless (JWT)
  * - Rotas públicas: /api/auth/**, /api/planos/**
  * - AuthenticationEntryPoint retorna 401 (não 403) para requests não autenticados
- * - Rate limiting configurado para endpoints sensíveis
+ * - Rate limiting configurado para endpoints sensíveis (por tenant/plano e custo da rota)
+ * - Descarte de carga adaptativo antes da autenticação
  */
 @Configuration
 @EnableWebSecurity
@@ -44,6 +46,7 @@ public class SecurityConfig {
     private final JwtAuthFilter jwtAuthFilter;
     private final Environment environment;
     private final RateLimitFilter rateLimitFilter;
+    private final LoadSheddingFilter loadSheddingFilter;
 
     @org.springframework.beans.factory.annotation.Value("${cors.allowed-origins:http://localhost:8083,http://localhost:3000}")
     private String allowedOrigins;
@@ -76,12 +79,33 @@ public class SecurityConfig {
                 .requestMatchers("/api/**").authenticated()
                 .anyRequest().permitAll()
             )
-            .addFilterBefore(rateLimitFilter, UsernamePasswordAuthenticationFilter.class)
-            .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+            // Descarte de carga antes de qualquer trabalho; rate limit depois do JWT (regras por tenant)
+            .addFilterBefore(loadSheddingFilter, JwtAuthFilter.class)
+            .addFilterAfter(rateLimitFilter, JwtAuthFilter.class);
 
         return http.build();
     }
 
+    /**
+     * O rate limiter roda dentro da cadeia do Spring Security; sem isto o Spring Boot
+     * também o registraria como filtro de servlet e cada requisição contaria duas vezes.
+     */
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration() {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    /** Idem para o descarte de carga (a vaga seria ocupada duas vezes) */
+    @Bean
+    public FilterRegistrationBean<LoadSheddingFilter> loadSheddingFilterRegistration() {
+        FilterRegistrationBean<LoadSheddingFilter> registration = new FilterRegistrationBean<>(loadSheddingFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration config = new CorsConfiguration();
@@ -109,9 +133,11 @@ public class SecurityConfig {
         return source;
     }
 
+    /** Custo configurável; hashes com custo menor são refeitos no login (PasswordHasher) */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @org.springframework.beans.factory.annotation.Value("${app.senha.bcrypt-custo:10}") int custo) {
+        return new BCryptPasswordEncoder(custo);
     }
 
     @Bean
@@ -0,0 +1,150 @@
+package com.osmech.config;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Contador de janela deslizante em uma tabela de tamanho fixo, sem locks.
+ *
+ * Cada slot guarda três longs: a chave (hash de 64 bits, 0 = livre), o estado
+ * compactado [id da janela (32 bits) | contagem da janela anterior (16) | atual (16)]
+ * e o instante em que o slot vence. A estimativa é
+ * {@code anterior * (1 - fração decorrida) + atual}, atualizada com um único CAS.
+ *
+ * A chave é procurada em até {@link #SONDAGENS} posições consecutivas; slots vencidos
+ * são reaproveitados e, com a vizinhança cheia, o que vence primeiro é descartado.
+ * Um slot novo é reservado antes de ser zerado e só então recebe a chave, para que
+ * nenhuma thread conte em cima de um estado que ainda vai ser apagado.
+ * Nenhuma operação percorre a tabela inteira, exceto {@link #removerVencidos}.
+ */
+public class SlidingWindowRateLimiter {
+
+    static final int SONDAGENS = 8;
+    private static final int MAX_CONTAGEM = 0xFFFF;
+    /** Slot em preparação: ninguém lê nem reaproveita até a chave ser publicada */
+    private static final long RESERVADO = Long.MIN_VALUE;
+
+    private final AtomicLongArray slots;
+    private final int mascara;
+
+    /** @param capacidade número de chaves simultâneas (arredondado para potência de 2) */
+    public SlidingWindowRateLimiter(int capacidade) {
+        int tamanho = Integer.highestOneBit(Math.max(SONDAGENS, capacidade - 1) << 1);
+        this.slots = new AtomicLongArray(tamanho * 3);
+        this.mascara = tamanho - 1;
+    }
+
+    /**
+     * Consome {@code custo} unidades da chave se a estimativa da janela permitir.
+     * Requisições recusadas não contam.
+     */
+    public boolean tentarConsumir(long chave, int limite, long janelaMs, int custo, long agoraMs) {
+        long fp = chave == 0 || chave == RESERVADO ? 1 : chave;
+        long janela = agoraMs / janelaMs;
+        int janelaId = (int) janela;
+        double decorrido = (double) (agoraMs - janela * janelaMs) / janelaMs;
+        long expiraEm = (janela + 2) * janelaMs;
+        int slot = localizar(fp, agoraMs, expiraEm);
+
+        while (true) {
+            long estado = slots.get(slot * 3 + 1);
+            int janelaSlot = (int) (estado >>> 32);
+            int anterior = (int) (estado >>> 16) & MAX_CONTAGEM;
+            int atual = (int) estado & MAX_CONTAGEM;
+
+            if (janelaSlot != janelaId) {
+                anterior = janelaSlot == janelaId - 1 ? atual : 0;
+                atual = 0;
+            }
+            if (anterior * (1 - decorrido) + atual + custo > limite) {
+                return false;
+            }
+
+            long novo = ((long) janelaId << 32) | ((long) anterior << 16) | Math.min(atual + custo, MAX_CONTAGEM);
+            if (slots.get(slot * 3) != fp) {
+                slot = localizar(fp, agoraMs, expiraEm); // slot tomado por outra chave: recomeça
+                continue;
+            }
+            if (slots.compareAndSet(slot * 3 + 1, estado, novo)) {
+                // Vence quando a janela atual deixar de ser a "anterior"
+                slots.set(slot * 3 + 2, expiraEm);
+                return true;
+            }
+        }
+    }
+
+    /** Libera slots vencidos (manutenção em segundo plano); devolve quantos foram liberados */
+    public int removerVencidos(long agoraMs) {
+        int removidos = 0;
+        for (int slot = 0; slot <= mascara; slot++) {
+            long fp = slots.get(slot * 3);
+            if (fp != 0 && fp != RESERVADO && slots.get(slot * 3 + 2) <= agoraMs && slots.compareAndSet(slot * 3, fp, 0)) {
+                removidos++;
+            }
+        }
+        return removidos;
+    }
+
+    public int capacidade() {
+        return mascara + 1;
+    }
+
+    private int localizar(long fp, long agoraMs, long expiraEm) {
+        int base = (int) (fp ^ (fp >>> 32)) & mascara;
+        while (true) {
+            int livre = -1;
+            int maisAntigo = base;
+            long menorExpiracao = Long.MAX_VALUE;
+            boolean emPreparo = false;
+
+            for (int i = 0; i < SONDAGENS; i++) {
+                int slot = (base + i) & mascara;
+                long atual = slots.get(slot * 3);
+                if (atual == fp) {
+                    return slot;
+                }
+                if (atual == RESERVADO) {
+                    emPreparo = true;
+                    continue;
+                }
+                long vence = slots.get(slot * 3 + 2);
+                if (livre < 0 && (atual == 0 || vence <= agoraMs)) {
+                    livre = slot;
+                }
+                if (vence < menorExpiracao) {
+                    menorExpiracao = vence;
+                    maisAntigo = slot;
+                }
+            }
+
+            if (emPreparo) {
+                // Pode ser a mesma chave sendo publicada por outra thread: espera para não duplicá-la
+                Thread.onSpinWait();
+                continue;
+            }
+            int alvo = livre >= 0 ? livre : maisAntigo;
+            long dono = slots.get(alvo * 3);
+            if (dono != RESERVADO && slots.compareAndSet(alvo * 3, dono, RESERVADO)) {
+                // Estado da chave anterior não pode ser herdado; só então a nova chave é publicada
+                slots.set(alvo * 3 + 1, 0);
+                slots.set(alvo * 3 + 2, expiraEm);
+                slots.set(alvo * 3, fp);
+                return alvo;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /** Hash FNV-1a de 64 bits do texto combinado com um discriminador (sem alocação) */
+    public static long chave(CharSequence texto, int discriminador) {
+        long h = 0xcbf29ce484222325L ^ discriminador;
+        for (int i = 0; i < texto.length(); i++) {
+            h ^= texto.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        // Finalizador (splitmix64) espalha os bits baixos usados no índice
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
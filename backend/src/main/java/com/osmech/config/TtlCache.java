@@ -0,0 +1,158 @@
+package com.osmech.config;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cache em memória com TTL e tamanho máximo (sem dependência externa).
+ *
+ * Entradas vencidas continuam disponíveis via {@link #getStale} até {@code staleTtlMs},
+ * para uso como fallback quando a origem está indisponível. Cheio, descarta a usada há
+ * mais tempo (LRU aproximado).
+ *
+ * Leituras não travam: o valor vem de um ConcurrentHashMap e a ordem de uso (um
+ * LinkedHashMap em ordem de acesso) só é atualizada se o lock estiver livre
+ * ({@code tryLock}). Sob disputa a leitura pula a reordenação em vez de enfileirar;
+ * chaves quentes são lidas de novo logo e voltam para o fim da fila. Escritas pegam o
+ * lock e descartam em O(1) a primeira da ordem.
+ */
+public class TtlCache<K, V> {
+
+    private static final class Entrada<V> {
+        final V valor;
+        final long criadoEm;
+
+        Entrada(V valor, long criadoEm) {
+            this.valor = valor;
+            this.criadoEm = criadoEm;
+        }
+    }
+
+    private final Map<K, Entrada<V>> entradas = new ConcurrentHashMap<>();
+    /** Ordem de uso (mais antiga primeiro); só acessada com o lock */
+    private final LinkedHashMap<K, Boolean> ordem = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final long ttlMs;
+    private final long staleTtlMs;
+    private final int tamanhoMaximo;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public TtlCache(long ttlMs, int tamanhoMaximo) {
+        this(ttlMs, ttlMs, tamanhoMaximo);
+    }
+
+    public TtlCache(long ttlMs, long staleTtlMs, int tamanhoMaximo) {
+        this.ttlMs = ttlMs;
+        this.staleTtlMs = Math.max(ttlMs, staleTtlMs);
+        this.tamanhoMaximo = tamanhoMaximo;
+    }
+
+    /** Valor dentro do TTL, ou null */
+    public V get(K chave) {
+        Entrada<V> e = entradas.get(chave);
+        if (e != null && idade(e) <= ttlMs) {
+            hits.increment();
+            marcarUso(chave);
+            return e.valor;
+        }
+        misses.increment();
+        return null;
+    }
+
+    /** Valor ainda dentro da janela de fallback (pode estar vencido), ou null */
+    public V getStale(K chave) {
+        Entrada<V> e = entradas.get(chave);
+        if (e == null || idade(e) > staleTtlMs) {
+            return null;
+        }
+        marcarUso(chave);
+        return e.valor;
+    }
+
+    public void put(K chave, V valor) {
+        if (valor == null) {
+            return;
+        }
+        Entrada<V> nova = new Entrada<>(valor, System.currentTimeMillis());
+        lock.lock();
+        try {
+            entradas.put(chave, nova);
+            ordem.put(chave, Boolean.TRUE);
+            Iterator<K> maisAntigas = ordem.keySet().iterator();
+            while (ordem.size() > tamanhoMaximo) {
+                entradas.remove(maisAntigas.next());
+                maisAntigas.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidate(K chave) {
+        lock.lock();
+        try {
+            entradas.remove(chave);
+            ordem.remove(chave);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            entradas.clear();
+            ordem.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        return entradas.size();
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    /** Remove entradas fora da janela de fallback */
+    public void removerVencidas() {
+        lock.lock();
+        try {
+            entradas.entrySet().removeIf(e -> {
+                if (idade(e.getValue()) > staleTtlMs) {
+                    ordem.remove(e.getKey());
+                    return true;
+                }
+                return false;
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Move a chave para o fim da ordem de uso, só se ninguém estiver com o lock */
+    private void marcarUso(K chave) {
+        if (lock.tryLock()) {
+            try {
+                ordem.get(chave);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static long idade(Entrada<?> e) {
+        return System.currentTimeMillis() - e.criadoEm;
+    }
+}
@@ -5,8 +5,7 @@ import com.osmech.finance.dto.CategoriaRequest;
 import com.osmech.finance.dto.CategoriaResponse;
 import com.osmech.finance.entity.CategoriaFinanceira;
 import com.osmech.finance.repository.CategoriaFinanceiraRepository;
-import com.osmech.user.entity.Usuario;
-import com.osmech.user.repository.UsuarioRepository;
+import com.osmech.security.TenantContext;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
@@ -22,16 +21,16 @@ import java.util.List;
 public class CategoriaFinanceiraService {
 
     private final CategoriaFinanceiraRepository categoriaRepository;
-    private final UsuarioRepository usuarioRepository;
+    private final TenantContext tenantContext;
 
     /**
      * Lista todas as categorias disponíveis para o usuário
      * (categorias da oficina + categorias padrão do sistema).
      */
     public List<CategoriaResponse> listarPorUsuario(String emailUsuario) {
-        Usuario usuario = getUsuario(emailUsuario);
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
         return categoriaRepository
-                .findByUsuarioIdOrSistemaTrueOrderByNomeAsc(usuario.getId())
+                .findByUsuarioIdOrSistemaTrueOrderByNomeAsc(usuarioId)
                 .stream()
                 .map(this::toResponse)
                 .toList();
@@ -42,7 +41,7 @@ public class CategoriaFinanceiraService {
      */
     @Transactional
     public CategoriaResponse criar(String emailUsuario, CategoriaRequest request) {
-        Usuario usuario = getUsuario(emailUsuario);
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
 
         // Valida tipo
         if (!"ENTRADA".equals(request.getTipo()) && !"SAIDA".equals(request.getTipo())) {
@@ -50,12 +49,12 @@ public class CategoriaFinanceiraService {
         }
 
         // Verifica duplicata
-        if (categoriaRepository.existsByUsuarioIdAndNomeIgnoreCase(usuario.getId(), request.getNome())) {
+        if (categoriaRepository.existsByUsuarioIdAndNomeIgnoreCase(usuarioId, request.getNome())) {
             throw new IllegalArgumentException("Categoria com este nome já existe");
         }
 
         CategoriaFinanceira cat = CategoriaFinanceira.builder()
-                .usuarioId(usuario.getId())
+                .usuarioId(usuarioId)
                 .nome(request.getNome())
                 .tipo(request.getTipo())
                 .icone(request.getIcone())
@@ -71,14 +70,14 @@ public class CategoriaFinanceiraService {
      */
     @Transactional
     public void excluir(String emailUsuario, Long categoriaId) {
-        Usuario usuario = getUsuario(emailUsuario);
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
         CategoriaFinanceira cat = categoriaRepository.findById(categoriaId)
                 .orElseThrow(() -> new ResourceNotFoundException("Categoria não encontrada"));
 
         if (Boolean.TRUE.equals(cat.getSistema())) {
             throw new IllegalArgumentException("Categorias do sistema não podem ser excluídas");
         }
-        if (!usuario.getId().equals(cat.getUsuarioId())) {
+        if (!usuarioId.equals(cat.getUsuarioId())) {
             throw new AccessDeniedException("Acesso negado a esta categoria");
         }
 
@@ -87,10 +86,6 @@ public class CategoriaFinanceiraService {
 
     // --- Helpers ---
 
-    private Usuario getUsuario(String email) {
-        return usuarioRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado"));
-    }
 
     private CategoriaResponse toResponse(CategoriaFinanceira cat) {
         return CategoriaResponse.builder()
@@ -8,8 +8,7 @@ import com.osmech.finance.entity.TransacaoFinanceira;
 import com.osmech.finance.repository.CategoriaFinanceiraRepository;
 import com.osmech.finance.repository.FluxoCaixaRepository;
 import com.osmech.finance.repository.TransacaoFinanceiraRepository;
-import com.osmech.user.entity.Usuario;
-import com.osmech.user.repository.UsuarioRepository;
+import com.osmech.security.TenantContext;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -32,7 +31,7 @@ public class FinanceiroService {
     private final TransacaoFinanceiraRepository transacaoRepository;
     private final CategoriaFinanceiraRepository categoriaRepository;
     private final FluxoCaixaRepository fluxoRepository;
-    private final UsuarioRepository usuarioRepository;
+    private final TenantContext tenantContext;
 
     // ==========================================
     // TRANSAÇÕES
@@ -43,18 +42,18 @@ public class FinanceiroService {
      */
     @Transactional
     public TransacaoResponse criarTransacao(String emailUsuario, TransacaoRequest request) {
-        Usuario usuario = getUsuario(emailUsuario);
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
         validarTipo(request.getTipo());
 
         CategoriaFinanceira categoria = null;
         if (request.getCategoriaId() != null) {
             categoria = categoriaRepository.findByIdAndUsuarioIdOrSistemaTrue(
-                            request.getCategoriaId(), usuario.getId())
+                            request.getCategoriaId(), usuarioId)
                     .orElseThrow(() -> new ResourceNotFoundException("Categoria não encontrada"));
         }
 
         TransacaoFinanceira tx = TransacaoFinanceira.builder()
-                .usuarioId(usuario.getId())
+                .usuarioId(usuarioId)
                 .tipo(request.getTipo())
                 .categoria(categoria)
                 .descricao(request.getDescricao())
@@ -69,7 +68,7 @@ public class FinanceiroService {
         tx = transacaoRepository.save(tx);
 
         // Atualizar fluxo de caixa do dia
-        atualizarFluxoCaixa(usuario.getId(), tx.getDataMovimentacao().toLocalDate());
+        atualizarFluxoCaixa(usuarioId, tx.getDataMovimentacao().toLocalDate());
 
         return toResponse(tx);
     }
@@ -108,8 +107,8 @@ public class FinanceiroService {
      */
     @Transactional
     public TransacaoResponse estornarTransacao(String emailUsuario, Long transacaoId) {
-        Usuario usuario = getUsuario(emailUsuario);
-        TransacaoFinanceira original = transacaoRepository.findByIdAndUsuarioId(transacaoId, usuario.getId())
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
+        TransacaoFinanceira original = transacaoRepository.findByIdAndUsuarioId(transacaoId, usuarioId)
                 .orElseThrow(() -> new ResourceNotFoundException("Transação não encontrada"));
 
         if (Boolean.TRUE.equals(original.getEstorno())) {
@@ -120,7 +119,7 @@ public class FinanceiroService {
         String tipoEstorno = "ENTRADA".equals(original.getTipo()) ? "SAIDA" : "ENTRADA";
 
         TransacaoFinanceira estorno = TransacaoFinanceira.builder()
-                .usuarioId(usuario.getId())
+                .usuarioId(usuarioId)
                 .tipo(tipoEstorno)
                 .categoria(original.getCategoria())
                 .descricao("ESTORNO: " + original.getDescricao())
@@ -135,7 +134,7 @@ public class FinanceiroService {
                 .build();
 
         estorno = transacaoRepository.save(estorno);
-        atualizarFluxoCaixa(usuario.getId(), estorno.getDataMovimentacao().toLocalDate());
+        atualizarFluxoCaixa(usuarioId, estorno.getDataMovimentacao().toLocalDate());
         return toResponse(estorno);
     }
 
@@ -147,16 +146,16 @@ public class FinanceiroService {
                                                      LocalDate dataInicio,
                                                      LocalDate dataFim,
                                                      String tipo) {
-        Usuario usuario = getUsuario(emailUsuario);
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
 
         List<TransacaoFinanceira> lista;
         if (dataInicio != null && dataFim != null) {
             lista = transacaoRepository.findByUsuarioIdAndDataMovimentacaoBetweenOrderByDataMovimentacaoDesc(
-                    usuario.getId(),
+                    usuarioId,
                     dataInicio.atStartOfDay(),
                     dataFim.atTime(LocalTime.MAX));
         } else {
-            lista = transacaoRepository.findByUsuarioIdOrderByDataMovimentacaoDesc(usuario.getId());
+            lista = transacaoRepository.findByUsuarioIdOrderByDataMovimentacaoDesc(usuarioId);
         }
 
         if (tipo != null && !tipo.isBlank()) {
@@ -176,8 +175,7 @@ public class FinanceiroService {
      */
     @Transactional(readOnly = true)
     public List<FluxoCaixaResponse> getFluxoCaixa(String emailUsuario, LocalDate inicio, LocalDate fim) {
-        Usuario usuario = getUsuario(emailUsuario);
-        Long uid = usuario.getId();
+        Long uid = tenantContext.getUsuarioId(emailUsuario);
 
         // Mapa dos dias que têm registro real
         Map<LocalDate, FluxoCaixa> registros = fluxoRepository
@@ -229,9 +227,9 @@ public class FinanceiroService {
      */
     @Transactional(readOnly = true)
     public List<TransacaoResponse> getTransacoesDia(String emailUsuario, LocalDate data) {
-        Usuario usuario = getUsuario(emailUsuario);
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
         return transacaoRepository
-                .findByUsuarioIdAndDia(usuario.getId(),
+                .findByUsuarioIdAndDia(usuarioId,
                         data.atStartOfDay(),
                         data.atTime(LocalTime.MAX))
                 .stream()
@@ -289,8 +287,7 @@ public class FinanceiroService {
      */
     @Transactional(readOnly = true)
     public ResumoFinanceiroDTO getResumoFinanceiro(String emailUsuario) {
-        Usuario usuario = getUsuario(emailUsuario);
-        Long uid = usuario.getId();
+        Long uid = tenantContext.getUsuarioId(emailUsuario);
 
         LocalDate hoje = LocalDate.now();
         LocalDateTime inicioMes = hoje.withDayOfMonth(1).atStartOfDay();
@@ -325,8 +322,7 @@ public class FinanceiroService {
      */
     @Transactional(readOnly = true)
     public List<Map<String, Object>> getTendencia7Dias(String emailUsuario) {
-        Usuario usuario = getUsuario(emailUsuario);
-        Long uid = usuario.getId();
+        Long uid = tenantContext.getUsuarioId(emailUsuario);
         LocalDate hoje = LocalDate.now();
 
         List<Map<String, Object>> resultado = new java.util.ArrayList<>();
@@ -351,10 +347,6 @@ public class FinanceiroService {
     // HELPERS
     // ==========================================
 
-    private Usuario getUsuario(String email) {
-        return usuarioRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado"));
-    }
 
     private void validarTipo(String tipo) {
         if (!"ENTRADA".equals(tipo) && !"SAIDA".equals(tipo)) {
@@ -1,14 +1,18 @@
 package com.osmech.mecanico.controller;
 
+import com.osmech.mecanico.dto.ComissaoFolhaResponse;
 import com.osmech.mecanico.dto.MecanicoRequest;
 import com.osmech.mecanico.dto.MecanicoResponse;
+import com.osmech.mecanico.service.ComissaoService;
 import com.osmech.mecanico.service.MecanicoService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -18,6 +22,7 @@ import java.util.Map;
 public class MecanicoController {
 
     private final MecanicoService mecanicoService;
+    private final ComissaoService comissaoService;
 
     @PostMapping
     public ResponseEntity<MecanicoResponse> criar(Authentication auth, @Valid @RequestBody MecanicoRequest request) {
@@ -52,4 +57,22 @@ public class MecanicoController {
         mecanicoService.reativar(auth.getName(), id);
         return ResponseEntity.ok(Map.of("message", "Mecânico reativado com sucesso"));
     }
+
+    /** GET /api/mecanicos/comissoes - Folha de comissões de todos os mecânicos (padrão: mês corrente) */
+    @GetMapping("/comissoes")
+    public ResponseEntity<List<ComissaoFolhaResponse>> folhaGeral(
+            Authentication auth,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim) {
+        return ResponseEntity.ok(comissaoService.folhaGeral(auth.getName(), inicio, fim));
+    }
+
+    /** GET /api/mecanicos/{id}/comissoes - Comissões do mecânico no período (padrão: mês corrente) */
+    @GetMapping("/{id}/comissoes")
+    public ResponseEntity<ComissaoFolhaResponse> folha(
+            Authentication auth, @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim) {
+        return ResponseEntity.ok(comissaoService.folha(auth.getName(), id, inicio, fim));
+    }
 }
@@ -0,0 +1,20 @@
+package com.osmech.mecanico.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/** Comissões de um mecânico no período (estornos já descontados) */
+@Data
+@Builder
+public class ComissaoFolhaResponse {
+    private Long mecanicoId;
+    private String mecanicoNome;
+    private LocalDate inicio;
+    private LocalDate fim;
+    private Long servicos;
+    private BigDecimal valorServicos;
+    private BigDecimal valorComissao;
+}
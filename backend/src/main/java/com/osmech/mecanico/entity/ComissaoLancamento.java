@@ -0,0 +1,77 @@
+package com.osmech.mecanico.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Lançamento do livro de comissões dos mecânicos.
+ * CREDITO: um por serviço da OS concluída. ESTORNO: anula um crédito com valores
+ * negativos, na competência em que a OS foi reaberta, cancelada ou excluída.
+ */
+@Entity
+@Table(name = "comissoes_mecanicos")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ComissaoLancamento {
+
+    public static final String CREDITO = "CREDITO";
+    public static final String ESTORNO = "ESTORNO";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    @Column(name = "mecanico_id", nullable = false)
+    private Long mecanicoId;
+
+    @Column(name = "mecanico_nome")
+    private String mecanicoNome;
+
+    @Column(name = "ordem_servico_id", nullable = false)
+    private Long ordemServicoId;
+
+    @Column(name = "servico_os_id", nullable = false)
+    private Long servicoOsId;
+
+    @Column(columnDefinition = "TEXT")
+    private String descricao;
+
+    @Column(nullable = false, length = 10)
+    private String tipo;
+
+    @Column(name = "valor_servico", nullable = false, precision = 10, scale = 2)
+    private BigDecimal valorServico;
+
+    @Column(name = "percentual_comissao", nullable = false, precision = 5, scale = 2)
+    private BigDecimal percentualComissao;
+
+    @Column(name = "valor_comissao", nullable = false, precision = 10, scale = 2)
+    private BigDecimal valorComissao;
+
+    /** Data que define em qual folha o lançamento entra */
+    @Column(nullable = false)
+    private LocalDate competencia;
+
+    /** Só em créditos: já anulado por um estorno */
+    @Column(nullable = false)
+    @Builder.Default
+    private Boolean estornado = false;
+
+    /** Crédito anulado (se for estorno) */
+    @Column(name = "estorno_de")
+    private Long estornoDe;
+
+    @Column(name = "criado_em", nullable = false, updatable = false)
+    @Builder.Default
+    private LocalDateTime criadoEm = LocalDateTime.now();
+}
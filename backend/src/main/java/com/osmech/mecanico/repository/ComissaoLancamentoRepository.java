@@ -0,0 +1,45 @@
+package com.osmech.mecanico.repository;
+
+import com.osmech.mecanico.entity.ComissaoLancamento;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ComissaoLancamentoRepository extends JpaRepository<ComissaoLancamento, Long> {
+
+    /** Créditos ainda não estornados de uma OS */
+    @Query("SELECT c FROM ComissaoLancamento c WHERE c.ordemServicoId = :osId " +
+           "AND c.tipo = 'CREDITO' AND c.estornado = false")
+    List<ComissaoLancamento> findCreditosAtivos(@Param("osId") Long ordemServicoId);
+
+    @Query("SELECT COUNT(c) > 0 FROM ComissaoLancamento c WHERE c.ordemServicoId = :osId " +
+           "AND c.tipo = 'CREDITO' AND c.estornado = false")
+    boolean existsCreditoAtivo(@Param("osId") Long ordemServicoId);
+
+    /**
+     * Folha do período (estornos entram negativos): [servicos, valorServicos, valorComissao].
+     * Coberta por idx_comissoes_mecanicos_folha.
+     */
+    @Query("SELECT COALESCE(SUM(CASE WHEN c.tipo = 'CREDITO' THEN 1 ELSE -1 END), 0), " +
+           "COALESCE(SUM(c.valorServico), 0), COALESCE(SUM(c.valorComissao), 0) " +
+           "FROM ComissaoLancamento c WHERE c.usuarioId = :uid AND c.mecanicoId = :mecanicoId " +
+           "AND c.competencia BETWEEN :inicio AND :fim")
+    List<Object[]> somarPeriodo(@Param("uid") Long usuarioId, @Param("mecanicoId") Long mecanicoId,
+                                @Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim);
+
+    /**
+     * Folha do período de todos os mecânicos: [mecanicoId, mecanicoNome, servicos, valorServicos,
+     * valorComissao]. O nome vem dos lançamentos, então mecânicos já removidos aparecem com nome.
+     */
+    @Query("SELECT c.mecanicoId, MAX(c.mecanicoNome), SUM(CASE WHEN c.tipo = 'CREDITO' THEN 1 ELSE -1 END), " +
+           "SUM(c.valorServico), SUM(c.valorComissao) " +
+           "FROM ComissaoLancamento c WHERE c.usuarioId = :uid AND c.competencia BETWEEN :inicio AND :fim " +
+           "GROUP BY c.mecanicoId")
+    List<Object[]> somarPeriodoPorMecanico(@Param("uid") Long usuarioId,
+                                           @Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim);
+}
@@ -0,0 +1,174 @@
+package com.osmech.mecanico.service;
+
+import com.osmech.config.ResourceNotFoundException;
+import com.osmech.mecanico.dto.ComissaoFolhaResponse;
+import com.osmech.mecanico.entity.ComissaoLancamento;
+import com.osmech.mecanico.entity.Mecanico;
+import com.osmech.mecanico.repository.ComissaoLancamentoRepository;
+import com.osmech.mecanico.repository.MecanicoRepository;
+import com.osmech.os.entity.OrdemServico;
+import com.osmech.os.entity.ServicoOS;
+import com.osmech.security.TenantContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Livro de comissões dos mecânicos.
+ *
+ * Os lançamentos são gravados quando a OS é concluída, na mesma transação, e nunca
+ * alterados depois: reabrir, cancelar, excluir ou trocar os serviços de uma OS concluída
+ * gera estornos na data corrente, de modo que folhas de períodos já pagos não mudam.
+ * A folha de um período é uma única soma sobre o índice (usuário, mecânico, competência).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ComissaoService {
+
+    private final ComissaoLancamentoRepository lancamentoRepository;
+    private final MecanicoRepository mecanicoRepository;
+    private final TenantContext tenantContext;
+
+    /**
+     * Credita a comissão de cada serviço com mecânico da OS concluída.
+     * Não faz nada se a OS já tiver créditos ativos.
+     *
+     * @return lançamentos criados
+     */
+    @Transactional
+    public int lancar(OrdemServico os, List<ServicoOS> servicos) {
+        if (lancamentoRepository.existsCreditoAtivo(os.getId())) {
+            return 0;
+        }
+        LocalDate hoje = LocalDate.now();
+        List<ComissaoLancamento> creditos = new ArrayList<>();
+        for (ServicoOS servico : servicos) {
+            if (servico.getMecanicoId() == null) {
+                continue;
+            }
+            creditos.add(ComissaoLancamento.builder()
+                    .usuarioId(os.getUsuarioId())
+                    .mecanicoId(servico.getMecanicoId())
+                    .mecanicoNome(servico.getMecanicoNome())
+                    .ordemServicoId(os.getId())
+                    .servicoOsId(servico.getId())
+                    .descricao(servico.getDescricao())
+                    .tipo(ComissaoLancamento.CREDITO)
+                    .valorServico(servico.getValorTotal())
+                    .percentualComissao(servico.getPercentualComissao())
+                    .valorComissao(servico.getValorComissao())
+                    .competencia(hoje)
+                    .build());
+        }
+        lancamentoRepository.saveAll(creditos);
+        if (!creditos.isEmpty()) {
+            log.info("{} comissoes lancadas para OS #{}", creditos.size(), os.getId());
+        }
+        return creditos.size();
+    }
+
+    /**
+     * Estorna os créditos ativos da OS.
+     *
+     * @return estornos criados
+     */
+    @Transactional
+    public int estornar(Long ordemServicoId) {
+        List<ComissaoLancamento> creditos = lancamentoRepository.findCreditosAtivos(ordemServicoId);
+        if (creditos.isEmpty()) {
+            return 0;
+        }
+        LocalDate hoje = LocalDate.now();
+        List<ComissaoLancamento> lancamentos = new ArrayList<>(creditos.size() * 2);
+        for (ComissaoLancamento credito : creditos) {
+            credito.setEstornado(true);
+            lancamentos.add(credito);
+            lancamentos.add(ComissaoLancamento.builder()
+                    .usuarioId(credito.getUsuarioId())
+                    .mecanicoId(credito.getMecanicoId())
+                    .mecanicoNome(credito.getMecanicoNome())
+                    .ordemServicoId(credito.getOrdemServicoId())
+                    .servicoOsId(credito.getServicoOsId())
+                    .descricao(credito.getDescricao())
+                    .tipo(ComissaoLancamento.ESTORNO)
+                    .valorServico(credito.getValorServico().negate())
+                    .percentualComissao(credito.getPercentualComissao())
+                    .valorComissao(credito.getValorComissao().negate())
+                    .competencia(hoje)
+                    .estornoDe(credito.getId())
+                    .build());
+        }
+        lancamentoRepository.saveAll(lancamentos);
+        log.info("{} comissoes estornadas da OS #{}", creditos.size(), ordemServicoId);
+        return creditos.size();
+    }
+
+    /** Folha de um mecânico no período (padrão: mês corrente) */
+    @Transactional(readOnly = true)
+    public ComissaoFolhaResponse folha(String emailUsuario, Long mecanicoId, LocalDate inicio, LocalDate fim) {
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
+        Mecanico mecanico = mecanicoRepository.findById(mecanicoId)
+                .orElseThrow(() -> new ResourceNotFoundException("Mecânico não encontrado"));
+        if (!mecanico.getUsuarioId().equals(usuarioId)) {
+            throw new AccessDeniedException("Acesso negado ao mecânico");
+        }
+        LocalDate[] periodo = periodo(inicio, fim);
+        Object[] row = lancamentoRepository.somarPeriodo(usuarioId, mecanicoId, periodo[0], periodo[1]).get(0);
+        return ComissaoFolhaResponse.builder()
+                .mecanicoId(mecanicoId)
+                .mecanicoNome(mecanico.getNome())
+                .inicio(periodo[0])
+                .fim(periodo[1])
+                .servicos(((Number) row[0]).longValue())
+                .valorServicos(toBigDecimal(row[1]))
+                .valorComissao(toBigDecimal(row[2]))
+                .build();
+    }
+
+    /**
+     * Folha de todos os mecânicos com lançamentos no período, maior comissão primeiro.
+     * Inclui mecânicos já excluídos, com o nome gravado nos lançamentos.
+     */
+    @Transactional(readOnly = true)
+    public List<ComissaoFolhaResponse> folhaGeral(String emailUsuario, LocalDate inicio, LocalDate fim) {
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
+        LocalDate[] periodo = periodo(inicio, fim);
+        return lancamentoRepository.somarPeriodoPorMecanico(usuarioId, periodo[0], periodo[1]).stream()
+                .map(row -> ComissaoFolhaResponse.builder()
+                        .mecanicoId((Long) row[0])
+                        .mecanicoNome((String) row[1])
+                        .inicio(periodo[0])
+                        .fim(periodo[1])
+                        .servicos(((Number) row[2]).longValue())
+                        .valorServicos(toBigDecimal(row[3]))
+                        .valorComissao(toBigDecimal(row[4]))
+                        .build())
+                .sorted(Comparator.comparing(ComissaoFolhaResponse::getValorComissao).reversed())
+                .toList();
+    }
+
+    private static LocalDate[] periodo(LocalDate inicio, LocalDate fim) {
+        LocalDate hoje = LocalDate.now();
+        LocalDate de = inicio != null ? inicio : hoje.withDayOfMonth(1);
+        LocalDate ate = fim != null ? fim : de.withDayOfMonth(de.lengthOfMonth());
+        if (ate.isBefore(de)) {
+            throw new IllegalArgumentException("Período inválido: fim anterior ao início");
+        }
+        return new LocalDate[]{de, ate};
+    }
+
+    private static BigDecimal toBigDecimal(Object valor) {
+        if (valor == null) return BigDecimal.ZERO;
+        if (valor instanceof BigDecimal bd) return bd;
+        return new BigDecimal(valor.toString());
+    }
+}
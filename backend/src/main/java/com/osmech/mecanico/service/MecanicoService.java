@@ -5,8 +5,7 @@ import com.osmech.mecanico.dto.MecanicoRequest;
 import com.osmech.mecanico.dto.MecanicoResponse;
 import com.osmech.mecanico.entity.Mecanico;
 import com.osmech.mecanico.repository.MecanicoRepository;
-import com.osmech.user.entity.Usuario;
-import com.osmech.user.repository.UsuarioRepository;
+import com.osmech.security.TenantContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.access.AccessDeniedException;
@@ -22,17 +21,17 @@ import java.util.List;
 public class MecanicoService {
 
     private final MecanicoRepository mecanicoRepository;
-    private final UsuarioRepository usuarioRepository;
+    private final TenantContext tenantContext;
 
     @Transactional
     public MecanicoResponse criar(String emailUsuario, MecanicoRequest request) {
         log.info("Criando mecánico para usuario: {}", emailUsuario);
         try {
-            Usuario usuario = getUsuario(emailUsuario);
-            log.debug("Usuario encontrado: {}", usuario.getId());
+            Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
+            log.debug("Usuario encontrado: {}", usuarioId);
 
             Mecanico mecanico = Mecanico.builder()
-                    .usuarioId(usuario.getId())
+                    .usuarioId(usuarioId)
                     .nome(request.getNome().trim())
                     .telefone(request.getTelefone() != null ? request.getTelefone().trim() : null)
                     .especialidade(request.getEspecialidade() != null ? request.getEspecialidade().trim() : null)
@@ -53,12 +52,12 @@ public class MecanicoService {
     public List<MecanicoResponse> listar(String emailUsuario, boolean ativosOnly) {
         log.info("Listando mecanicos para usuario: {}, ativosOnly: {}", emailUsuario, ativosOnly);
         try {
-            Usuario usuario = getUsuario(emailUsuario);
-            log.debug("Usuario encontrado: {}", usuario.getId());
+            Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
+            log.debug("Usuario encontrado: {}", usuarioId);
 
             List<Mecanico> mecanicos = ativosOnly
-                    ? mecanicoRepository.findByUsuarioIdAndAtivoTrueOrderByNomeAsc(usuario.getId())
-                    : mecanicoRepository.findByUsuarioIdOrderByNomeAsc(usuario.getId());
+                    ? mecanicoRepository.findByUsuarioIdAndAtivoTrueOrderByNomeAsc(usuarioId)
+                    : mecanicoRepository.findByUsuarioIdOrderByNomeAsc(usuarioId);
 
             log.debug("Mecanicos encontrados: {}", mecanicos.size());
             return mecanicos.stream().map(MecanicoResponse::fromEntity).toList();
@@ -70,15 +69,15 @@ public class MecanicoService {
 
     @Transactional(readOnly = true)
     public MecanicoResponse buscarPorId(String emailUsuario, Long id) {
-        Usuario usuario = getUsuario(emailUsuario);
-        Mecanico mecanico = getMecanicoDoUsuario(usuario.getId(), id);
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
+        Mecanico mecanico = getMecanicoDoUsuario(usuarioId, id);
         return MecanicoResponse.fromEntity(mecanico);
     }
 
     @Transactional
     public MecanicoResponse atualizar(String emailUsuario, Long id, MecanicoRequest request) {
-        Usuario usuario = getUsuario(emailUsuario);
-        Mecanico mecanico = getMecanicoDoUsuario(usuario.getId(), id);
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
+        Mecanico mecanico = getMecanicoDoUsuario(usuarioId, id);
 
         if (request.getNome() != null && !request.getNome().isBlank()) {
             mecanico.setNome(request.getNome().trim());
@@ -101,24 +100,20 @@ public class MecanicoService {
 
     @Transactional
     public void desativar(String emailUsuario, Long id) {
-        Usuario usuario = getUsuario(emailUsuario);
-        Mecanico mecanico = getMecanicoDoUsuario(usuario.getId(), id);
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
+        Mecanico mecanico = getMecanicoDoUsuario(usuarioId, id);
         mecanico.setAtivo(false);
         mecanicoRepository.save(mecanico);
     }
 
     @Transactional
     public void reativar(String emailUsuario, Long id) {
-        Usuario usuario = getUsuario(emailUsuario);
-        Mecanico mecanico = getMecanicoDoUsuario(usuario.getId(), id);
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
+        Mecanico mecanico = getMecanicoDoUsuario(usuarioId, id);
         mecanico.setAtivo(true);
         mecanicoRepository.save(mecanico);
     }
 
-    private Usuario getUsuario(String email) {
-        return usuarioRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado"));
-    }
 
     private Mecanico getMecanicoDoUsuario(Long usuarioId, Long mecanicoId) {
         Mecanico mecanico = mecanicoRepository.findById(mecanicoId)
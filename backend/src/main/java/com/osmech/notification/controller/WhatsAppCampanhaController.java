@@ -0,0 +1,52 @@
+package com.osmech.notification.controller;
+
+import com.osmech.notification.dto.WhatsAppCampanhaRequest;
+import com.osmech.notification.dto.WhatsAppCampanhaResponse;
+import com.osmech.notification.service.WhatsAppCampanhaService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/whatsapp/campanhas")
+@RequiredArgsConstructor
+public class WhatsAppCampanhaController {
+
+    private final WhatsAppCampanhaService campanhaService;
+
+    @PostMapping
+    public ResponseEntity<WhatsAppCampanhaResponse> criar(Authentication auth,
+                                                          @Valid @RequestBody WhatsAppCampanhaRequest request) {
+        return ResponseEntity.ok(campanhaService.criar(auth.getName(), request));
+    }
+
+    @GetMapping
+    public ResponseEntity<List<WhatsAppCampanhaResponse>> listar(Authentication auth) {
+        return ResponseEntity.ok(campanhaService.listar(auth.getName()));
+    }
+
+    /** Progresso: OS lidas, mensagens na fila e envios por status */
+    @GetMapping("/{id}")
+    public ResponseEntity<WhatsAppCampanhaResponse> detalhar(Authentication auth, @PathVariable Long id) {
+        return ResponseEntity.ok(campanhaService.detalhar(auth.getName(), id));
+    }
+
+    @PostMapping("/{id}/iniciar")
+    public ResponseEntity<WhatsAppCampanhaResponse> iniciar(Authentication auth, @PathVariable Long id) {
+        return ResponseEntity.ok(campanhaService.iniciar(auth.getName(), id));
+    }
+
+    @PostMapping("/{id}/pausar")
+    public ResponseEntity<WhatsAppCampanhaResponse> pausar(Authentication auth, @PathVariable Long id) {
+        return ResponseEntity.ok(campanhaService.pausar(auth.getName(), id));
+    }
+
+    @PostMapping("/{id}/cancelar")
+    public ResponseEntity<WhatsAppCampanhaResponse> cancelar(Authentication auth, @PathVariable Long id) {
+        return ResponseEntity.ok(campanhaService.cancelar(auth.getName(), id));
+    }
+}
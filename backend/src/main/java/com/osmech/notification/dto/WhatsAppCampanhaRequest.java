@@ -0,0 +1,28 @@
+package com.osmech.notification.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class WhatsAppCampanhaRequest {
+    @NotBlank(message = "Nome da campanha e obrigatorio")
+    @Size(max = 120, message = "Nome deve ter no maximo 120 caracteres")
+    private String nome;
+
+    @NotBlank(message = "Tipo da campanha e obrigatorio")
+    @Pattern(regexp = "TROCA_OLEO|REVISAO", message = "Tipo deve ser TROCA_OLEO ou REVISAO")
+    private String tipo;
+
+    /** Opcional: sem template, usa o padrão do tipo */
+    @Size(max = 1000, message = "Template deve ter no maximo 1000 caracteres")
+    private String template;
+
+    /** Opcional: padrão 6 (troca de óleo) ou 12 (revisão) */
+    @Min(value = 1, message = "Meses desde o servico deve ser no minimo 1")
+    @Max(value = 60, message = "Meses desde o servico deve ser no maximo 60")
+    private Integer mesesDesdeServico;
+}
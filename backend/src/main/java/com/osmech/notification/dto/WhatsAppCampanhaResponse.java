@@ -0,0 +1,43 @@
+package com.osmech.notification.dto;
+
+import com.osmech.notification.entity.WhatsAppCampanha;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@Builder
+public class WhatsAppCampanhaResponse {
+
+    private Long id;
+    private String nome;
+    private String tipo;
+    private String template;
+    private Integer mesesDesdeServico;
+    private String status;
+    private Integer lidas;
+    private Integer enfileiradas;
+    /** Mensagens da campanha por status na caixa de saída (só no detalhe) */
+    private Map<String, Long> envios;
+    private LocalDateTime criadoEm;
+    private LocalDateTime iniciadoEm;
+    private LocalDateTime concluidoEm;
+
+    public static WhatsAppCampanhaResponse fromEntity(WhatsAppCampanha c) {
+        return WhatsAppCampanhaResponse.builder()
+                .id(c.getId())
+                .nome(c.getNome())
+                .tipo(c.getTipo())
+                .template(c.getTemplate())
+                .mesesDesdeServico(c.getMesesDesdeServico())
+                .status(c.getStatus())
+                .lidas(c.getLidas())
+                .enfileiradas(c.getEnfileiradas())
+                .criadoEm(c.getCriadoEm())
+                .iniciadoEm(c.getIniciadoEm())
+                .concluidoEm(c.getConcluidoEm())
+                .build();
+    }
+}
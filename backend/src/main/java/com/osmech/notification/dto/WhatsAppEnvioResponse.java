@@ -0,0 +1,32 @@
+package com.osmech.notification.dto;
+
+import com.osmech.notification.entity.WhatsAppOutbox;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@Builder
+public class WhatsAppEnvioResponse {
+
+    private Long id;
+    private String destino;
+    private String status;
+    private Integer tentativas;
+    private String ultimoErro;
+    private LocalDateTime criadoEm;
+    private LocalDateTime enviadoEm;
+
+    public static WhatsAppEnvioResponse fromEntity(WhatsAppOutbox o) {
+        return WhatsAppEnvioResponse.builder()
+                .id(o.getId())
+                .destino(o.getDestino())
+                .status(o.getStatus())
+                .tentativas(o.getTentativas())
+                .ultimoErro(o.getUltimoErro())
+                .criadoEm(o.getCriadoEm())
+                .enviadoEm(o.getEnviadoEm())
+                .build();
+    }
+}
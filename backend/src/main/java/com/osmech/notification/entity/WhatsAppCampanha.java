@@ -0,0 +1,80 @@
+package com.osmech.notification.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Campanha de lembrete via WhatsApp (troca de óleo, revisão).
+ *
+ * Status: CRIADA -> EM_ANDAMENTO -> CONCLUIDA; PAUSADA e CANCELADA pelo usuário.
+ * {@code cursorOsId} é o checkpoint da leitura dos destinatários: cada lote é enfileirado
+ * na caixa de saída e avança o cursor na mesma transação.
+ */
+@Entity
+@Table(name = "whatsapp_campanhas")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WhatsAppCampanha {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    @Column(nullable = false, length = 120)
+    private String nome;
+
+    /** TROCA_OLEO ou REVISAO */
+    @Column(nullable = false, length = 20)
+    private String tipo;
+
+    /** Texto com marcadores {cliente}, {placa}, {modelo}, {oficina}, {meses} */
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String template;
+
+    /** Clientes cujo último serviço no veículo foi concluído há pelo menos N meses */
+    @Column(name = "meses_desde_servico", nullable = false)
+    private Integer mesesDesdeServico;
+
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private String status = "CRIADA";
+
+    @Column(name = "cursor_os_id", nullable = false)
+    @Builder.Default
+    private Long cursorOsId = 0L;
+
+    /** OS lidas até o cursor */
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer lidas = 0;
+
+    /** Mensagens gravadas na caixa de saída (um destino por campanha) */
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer enfileiradas = 0;
+
+    /** Lease do processamento (evita duas instâncias na mesma campanha) */
+    @Column(name = "processando_ate")
+    private LocalDateTime processandoAte;
+
+    @Column(name = "criado_em", nullable = false, updatable = false)
+    @Builder.Default
+    private LocalDateTime criadoEm = LocalDateTime.now();
+
+    @Column(name = "iniciado_em")
+    private LocalDateTime iniciadoEm;
+
+    @Column(name = "concluido_em")
+    private LocalDateTime concluidoEm;
+
+    @Column(name = "atualizado_em")
+    private LocalDateTime atualizadoEm;
+}
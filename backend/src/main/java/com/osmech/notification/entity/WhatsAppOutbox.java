@@ -0,0 +1,81 @@
+package com.osmech.notification.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Caixa de saída de mensagens WhatsApp.
+ * Gravada na mesma transação da operação de negócio; o envio é feito pelo WhatsAppDispatcher.
+ *
+ * Status: PENDENTE -> ENVIANDO -> ENVIADA; FALHA quando o provider recusa de forma
+ * definitiva, ou DEAD_LETTER após esgotar as tentativas. CANCELADA quando a campanha
+ * de origem é cancelada antes do envio.
+ */
+@Entity
+@Table(name = "whatsapp_outbox")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WhatsAppOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    /** Origem da mensagem (ex: "OS") */
+    @Column(name = "referencia_tipo", length = 20)
+    private String referenciaTipo;
+
+    @Column(name = "referencia_id")
+    private Long referenciaId;
+
+    /** Campanha de origem (null para mensagens transacionais) */
+    @Column(name = "campanha_id")
+    private Long campanhaId;
+
+    /** Telefone já normalizado (só dígitos, com DDI) */
+    @Column(nullable = false, length = 20)
+    private String destino;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String mensagem;
+
+    /** Provider usado no último envio */
+    @Column(length = 20)
+    private String provider;
+
+    @Column(name = "id_externo", length = 100)
+    private String idExterno;
+
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private String status = "PENDENTE";
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer tentativas = 0;
+
+    @Column(name = "proxima_tentativa", nullable = false)
+    @Builder.Default
+    private LocalDateTime proximaTentativa = LocalDateTime.now();
+
+    @Column(name = "ultimo_erro", columnDefinition = "TEXT")
+    private String ultimoErro;
+
+    @Column(name = "criado_em", nullable = false, updatable = false)
+    @Builder.Default
+    private LocalDateTime criadoEm = LocalDateTime.now();
+
+    @Column(name = "atualizado_em")
+    private LocalDateTime atualizadoEm;
+
+    @Column(name = "enviado_em")
+    private LocalDateTime enviadoEm;
+}
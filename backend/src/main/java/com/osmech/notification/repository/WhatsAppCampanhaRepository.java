@@ -0,0 +1,60 @@
+package com.osmech.notification.repository;
+
+import com.osmech.notification.entity.WhatsAppCampanha;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface WhatsAppCampanhaRepository extends JpaRepository<WhatsAppCampanha, Long> {
+
+    List<WhatsAppCampanha> findByUsuarioIdOrderByIdDesc(Long usuarioId);
+
+    @Query("SELECT c.id FROM WhatsAppCampanha c WHERE c.status = 'EM_ANDAMENTO' ORDER BY c.id ASC")
+    List<Long> findIdsEmAndamento();
+
+    /**
+     * Muda o status só a partir dos status permitidos. UPDATE direto para não sobrescrever
+     * o cursor e os contadores gravados pelo processamento em andamento.
+     *
+     * @return 1 se a transição foi aplicada
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE WhatsAppCampanha c SET c.status = :para, c.atualizadoEm = :agora " +
+           "WHERE c.id = :id AND c.usuarioId = :usuarioId AND c.status IN :de")
+    int alterarStatus(@Param("id") Long id, @Param("usuarioId") Long usuarioId,
+                      @Param("de") Collection<String> de, @Param("para") String para,
+                      @Param("agora") LocalDateTime agora);
+
+    /** CRIADA ou PAUSADA -> EM_ANDAMENTO (a leitura continua do cursor) */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE WhatsAppCampanha c SET c.status = 'EM_ANDAMENTO', c.atualizadoEm = :agora, " +
+           "c.iniciadoEm = COALESCE(c.iniciadoEm, :agora) " +
+           "WHERE c.id = :id AND c.usuarioId = :usuarioId AND c.status IN ('CRIADA', 'PAUSADA')")
+    int iniciar(@Param("id") Long id, @Param("usuarioId") Long usuarioId, @Param("agora") LocalDateTime agora);
+
+    /**
+     * Reivindica o processamento da campanha até {@code ate}.
+     *
+     * @return 1 se esta instância ficou com a campanha
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE WhatsAppCampanha c SET c.processandoAte = :ate WHERE c.id = :id " +
+           "AND c.status = 'EM_ANDAMENTO' AND (c.processandoAte IS NULL OR c.processandoAte < :agora)")
+    int reivindicar(@Param("id") Long id, @Param("agora") LocalDateTime agora, @Param("ate") LocalDateTime ate);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE WhatsAppCampanha c SET c.processandoAte = NULL WHERE c.id = :id")
+    int liberar(@Param("id") Long id);
+}
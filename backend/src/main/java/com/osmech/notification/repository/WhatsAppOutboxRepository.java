@@ -0,0 +1,64 @@
+package com.osmech.notification.repository;
+
+import com.osmech.notification.entity.WhatsAppOutbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WhatsAppOutboxRepository extends JpaRepository<WhatsAppOutbox, Long> {
+
+    /** Mensagens prontas para (re)envio, mais antigas primeiro */
+    @Query("SELECT o.id FROM WhatsAppOutbox o WHERE o.status = 'PENDENTE' " +
+           "AND o.proximaTentativa <= :agora ORDER BY o.proximaTentativa ASC, o.id ASC")
+    List<Long> findProntas(@Param("agora") LocalDateTime agora, Pageable pageable);
+
+    /** Campanha da mensagem (vazio para mensagens avulsas), lida antes de reivindicar */
+    @Query("SELECT o.campanhaId FROM WhatsAppOutbox o WHERE o.id = :id")
+    Optional<Long> findCampanhaIdById(@Param("id") Long id);
+
+    /**
+     * Reivindica a mensagem para envio (PENDENTE -> ENVIANDO).
+     *
+     * @return 1 se este dispatcher ficou com a mensagem
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE WhatsAppOutbox o SET o.status = 'ENVIANDO', o.atualizadoEm = :agora " +
+           "WHERE o.id = :id AND o.status = 'PENDENTE'")
+    int reivindicar(@Param("id") Long id, @Param("agora") LocalDateTime agora);
+
+    /** Devolve à fila mensagens presas em ENVIANDO (instância reiniciada no meio do envio) */
+    @Transactional
+    @Modifying
+    @Query("UPDATE WhatsAppOutbox o SET o.status = 'PENDENTE', o.atualizadoEm = :agora " +
+           "WHERE o.status = 'ENVIANDO' AND o.atualizadoEm < :limite")
+    int liberarTravadas(@Param("limite") LocalDateTime limite, @Param("agora") LocalDateTime agora);
+
+    List<WhatsAppOutbox> findByUsuarioIdAndReferenciaTipoAndReferenciaIdOrderByIdDesc(
+            Long usuarioId, String referenciaTipo, Long referenciaId);
+
+    /** Mensagens da campanha ainda não enviadas (PENDENTE ou ENVIANDO) */
+    @Query("SELECT COUNT(o) FROM WhatsAppOutbox o WHERE o.campanhaId = :campanhaId " +
+           "AND o.status IN ('PENDENTE', 'ENVIANDO')")
+    long countNaFila(@Param("campanhaId") Long campanhaId);
+
+    /** [status, quantidade] das mensagens da campanha */
+    @Query("SELECT o.status, COUNT(o) FROM WhatsAppOutbox o WHERE o.campanhaId = :campanhaId GROUP BY o.status")
+    List<Object[]> contarPorStatus(@Param("campanhaId") Long campanhaId);
+
+    /** Retira da fila as mensagens ainda não enviadas da campanha */
+    @Transactional
+    @Modifying
+    @Query("UPDATE WhatsAppOutbox o SET o.status = 'CANCELADA', o.atualizadoEm = :agora " +
+           "WHERE o.campanhaId = :campanhaId AND o.status = 'PENDENTE'")
+    int cancelarPendentes(@Param("campanhaId") Long campanhaId, @Param("agora") LocalDateTime agora);
+}
@@ -0,0 +1,69 @@
+package com.osmech.notification.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Template de mensagem compilado: o texto é quebrado uma única vez em trechos fixos e
+ * marcadores {nome}, e cada renderização só concatena. Marcadores fora de
+ * {@code permitidos} são recusados na compilação.
+ */
+final class MensagemTemplate {
+
+    private final List<String> trechos;
+    /** Marcador após cada trecho (null no último) */
+    private final List<String> marcadores;
+    private final int tamanhoFixo;
+
+    private MensagemTemplate(List<String> trechos, List<String> marcadores) {
+        this.trechos = trechos;
+        this.marcadores = marcadores;
+        this.tamanhoFixo = trechos.stream().mapToInt(String::length).sum();
+    }
+
+    /**
+     * @throws IllegalArgumentException com marcador desconhecido ou sem fechar
+     */
+    static MensagemTemplate compilar(String texto, Set<String> permitidos) {
+        List<String> trechos = new ArrayList<>();
+        List<String> marcadores = new ArrayList<>();
+        int inicio = 0;
+        while (true) {
+            int abre = texto.indexOf('{', inicio);
+            if (abre < 0) {
+                trechos.add(texto.substring(inicio));
+                marcadores.add(null);
+                return new MensagemTemplate(List.copyOf(trechos), marcadores);
+            }
+            int fecha = texto.indexOf('}', abre);
+            if (fecha < 0) {
+                throw new IllegalArgumentException("Template com marcador sem fechar: " + texto.substring(abre));
+            }
+            String nome = texto.substring(abre + 1, fecha);
+            if (!permitidos.contains(nome)) {
+                throw new IllegalArgumentException("Marcador desconhecido no template: {" + nome + "}");
+            }
+            trechos.add(texto.substring(inicio, abre));
+            marcadores.add(nome);
+            inicio = fecha + 1;
+        }
+    }
+
+    /** Marcadores sem valor ficam vazios */
+    String renderizar(Map<String, String> valores) {
+        StringBuilder sb = new StringBuilder(tamanhoFixo + 64);
+        for (int i = 0; i < trechos.size(); i++) {
+            sb.append(trechos.get(i));
+            String marcador = marcadores.get(i);
+            if (marcador != null) {
+                String valor = valores.get(marcador);
+                if (valor != null) {
+                    sb.append(valor);
+                }
+            }
+        }
+        return sb.toString();
+    }
+}
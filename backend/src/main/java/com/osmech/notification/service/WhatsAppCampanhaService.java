@@ -0,0 +1,276 @@
+package com.osmech.notification.service;
+
+import com.osmech.config.ResourceNotFoundException;
+import com.osmech.config.TtlCache;
+import com.osmech.notification.dto.WhatsAppCampanhaRequest;
+import com.osmech.notification.dto.WhatsAppCampanhaResponse;
+import com.osmech.notification.entity.WhatsAppCampanha;
+import com.osmech.notification.repository.WhatsAppCampanhaRepository;
+import com.osmech.notification.repository.WhatsAppOutboxRepository;
+import com.osmech.security.TenantContext;
+import com.osmech.user.entity.Usuario;
+import com.osmech.user.repository.UsuarioRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Campanhas de lembrete via WhatsApp (troca de óleo, revisão).
+ *
+ * Destinatários: OS concluídas há pelo menos {@code mesesDesdeServico} meses, com
+ * consentimento de WhatsApp, sem OS mais nova para a mesma placa. São lidos em lotes por
+ * keyset (id da OS); cada lote é gravado na caixa de saída e avança o cursor da campanha
+ * na mesma transação, então após um reinício a leitura continua do último lote gravado
+ * e nenhum destino recebe a mesma campanha duas vezes (único por campanha/destino).
+ * O envio, com limite de taxa do provider, fica com o WhatsAppDispatcher.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WhatsAppCampanhaService {
+
+    static final Set<String> MARCADORES = Set.of("cliente", "placa", "modelo", "oficina", "meses");
+
+    private static final Map<String, String> TEMPLATE_PADRAO = Map.of(
+            "TROCA_OLEO", "Olá {cliente}! Já faz {meses} meses desde o último serviço do seu {modelo} ({placa}) " +
+                    "na {oficina}. Que tal agendar a troca de óleo?",
+            "REVISAO", "Olá {cliente}! O seu {modelo} ({placa}) está há {meses} meses sem revisão. " +
+                    "A {oficina} está à disposição para agendar.");
+
+    private static final Map<String, Integer> MESES_PADRAO = Map.of("TROCA_OLEO", 6, "REVISAO", 12);
+
+    /** Última OS de cada placa, concluída antes do corte; índice idx_ordens_servico_campanha */
+    private static final String SQL_DESTINATARIOS =
+            "SELECT os.id, os.cliente_nome, os.cliente_telefone, os.placa, os.modelo " +
+            "FROM ordens_servico os " +
+            "WHERE os.usuario_id = ? AND os.id > ? AND os.status = 'CONCLUIDA' " +
+            "AND os.whatsapp_consentimento = TRUE AND os.cliente_telefone IS NOT NULL " +
+            "AND os.concluido_em < ? " +
+            "AND NOT EXISTS (SELECT 1 FROM ordens_servico r WHERE r.usuario_id = os.usuario_id " +
+            "AND r.placa = os.placa AND r.id > os.id AND r.status <> 'CANCELADA') " +
+            "ORDER BY os.id LIMIT ?";
+
+    private static final String SQL_ENFILEIRAR =
+            "INSERT INTO whatsapp_outbox (usuario_id, campanha_id, referencia_tipo, referencia_id, destino, " +
+            "mensagem, status, tentativas, proxima_tentativa, criado_em) " +
+            "VALUES (?, ?, 'OS', ?, ?, ?, 'PENDENTE', 0, ?, ?) " +
+            "ON CONFLICT (campanha_id, destino) WHERE campanha_id IS NOT NULL DO NOTHING";
+
+    /** Só avança se o cursor não mudou e a campanha segue em andamento (pausa/cancelamento vencem) */
+    private static final String SQL_AVANCAR =
+            "UPDATE whatsapp_campanhas SET cursor_os_id = ?, lidas = lidas + ?, enfileiradas = enfileiradas + ?, " +
+            "status = ?, concluido_em = ?, atualizado_em = ? " +
+            "WHERE id = ? AND cursor_os_id = ? AND status = 'EM_ANDAMENTO'";
+
+    private final WhatsAppCampanhaRepository campanhaRepository;
+    private final WhatsAppOutboxRepository outboxRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final WhatsAppService whatsAppService;
+    private final TenantContext tenantContext;
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Templates compilados por texto */
+    private final TtlCache<String, MensagemTemplate> templates = new TtlCache<>(3_600_000, 256);
+
+    /** Resultado de um lote; {@code encerrado} quando não há mais o que ler agora */
+    public record Lote(int lidas, int enfileiradas, boolean encerrado) {}
+
+    @Transactional
+    public WhatsAppCampanhaResponse criar(String emailUsuario, WhatsAppCampanhaRequest request) {
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
+        String template = request.getTemplate() != null && !request.getTemplate().isBlank()
+                ? request.getTemplate().strip()
+                : TEMPLATE_PADRAO.get(request.getTipo());
+        compilado(template); // valida os marcadores
+
+        WhatsAppCampanha campanha = campanhaRepository.save(WhatsAppCampanha.builder()
+                .usuarioId(usuarioId)
+                .nome(request.getNome().strip())
+                .tipo(request.getTipo())
+                .template(template)
+                .mesesDesdeServico(request.getMesesDesdeServico() != null
+                        ? request.getMesesDesdeServico()
+                        : MESES_PADRAO.get(request.getTipo()))
+                .build());
+        return WhatsAppCampanhaResponse.fromEntity(campanha);
+    }
+
+    @Transactional(readOnly = true)
+    public List<WhatsAppCampanhaResponse> listar(String emailUsuario) {
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
+        return campanhaRepository.findByUsuarioIdOrderByIdDesc(usuarioId).stream()
+                .map(WhatsAppCampanhaResponse::fromEntity)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public WhatsAppCampanhaResponse detalhar(String emailUsuario, Long id) {
+        WhatsAppCampanha campanha = campanhaDoUsuario(tenantContext.getUsuarioId(emailUsuario), id);
+        Map<String, Long> envios = new LinkedHashMap<>();
+        for (Object[] row : outboxRepository.contarPorStatus(id)) {
+            envios.put((String) row[0], (Long) row[1]);
+        }
+        WhatsAppCampanhaResponse response = WhatsAppCampanhaResponse.fromEntity(campanha);
+        response.setEnvios(envios);
+        return response;
+    }
+
+    /**
+     * @throws IllegalArgumentException se o WhatsApp estiver desabilitado ou a campanha não puder iniciar
+     */
+    @Transactional
+    public WhatsAppCampanhaResponse iniciar(String emailUsuario, Long id) {
+        if (!whatsAppService.isHabilitado()) {
+            throw new IllegalArgumentException("WhatsApp desabilitado na configuracao");
+        }
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
+        campanhaDoUsuario(usuarioId, id);
+        if (campanhaRepository.iniciar(id, usuarioId, LocalDateTime.now()) == 0) {
+            throw new IllegalArgumentException("Campanha nao pode ser iniciada no status atual");
+        }
+        return recarregar(id);
+    }
+
+    @Transactional
+    public WhatsAppCampanhaResponse pausar(String emailUsuario, Long id) {
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
+        campanhaDoUsuario(usuarioId, id);
+        if (campanhaRepository.alterarStatus(id, usuarioId, List.of("EM_ANDAMENTO"), "PAUSADA",
+                LocalDateTime.now()) == 0) {
+            throw new IllegalArgumentException("Apenas campanhas em andamento podem ser pausadas");
+        }
+        return recarregar(id);
+    }
+
+    /** Cancela a campanha e retira da fila as mensagens ainda não enviadas */
+    @Transactional
+    public WhatsAppCampanhaResponse cancelar(String emailUsuario, Long id) {
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
+        campanhaDoUsuario(usuarioId, id);
+        LocalDateTime agora = LocalDateTime.now();
+        if (campanhaRepository.alterarStatus(id, usuarioId, List.of("CRIADA", "EM_ANDAMENTO", "PAUSADA"),
+                "CANCELADA", agora) == 0) {
+            throw new IllegalArgumentException("Campanha ja encerrada");
+        }
+        outboxRepository.cancelarPendentes(id, agora);
+        return recarregar(id);
+    }
+
+    /**
+     * Lê o próximo lote de destinatários a partir do cursor, grava as mensagens na caixa de
+     * saída e avança o cursor, tudo na mesma transação.
+     */
+    @Transactional
+    public Lote processarLote(Long campanhaId, int tamanho) {
+        WhatsAppCampanha campanha = campanhaRepository.findById(campanhaId).orElse(null);
+        if (campanha == null || !"EM_ANDAMENTO".equals(campanha.getStatus())) {
+            return new Lote(0, 0, true);
+        }
+        LocalDateTime agora = LocalDateTime.now();
+        LocalDateTime corte = agora.minusMonths(campanha.getMesesDesdeServico());
+
+        List<Destinatario> destinatarios = jdbcTemplate.query(SQL_DESTINATARIOS,
+                (rs, i) -> new Destinatario(rs.getLong(1), rs.getString(2), rs.getString(3),
+                        rs.getString(4), rs.getString(5)),
+                campanha.getUsuarioId(), campanha.getCursorOsId(), Timestamp.valueOf(corte), tamanho);
+
+        MensagemTemplate template = compilado(campanha.getTemplate());
+        String oficina = nomeOficina(campanha.getUsuarioId());
+        Timestamp ts = Timestamp.valueOf(agora);
+
+        List<Object[]> linhas = new ArrayList<>(destinatarios.size());
+        for (Destinatario d : destinatarios) {
+            String destino = whatsAppService.normalizarTelefone(d.telefone());
+            if (destino == null) {
+                continue;
+            }
+            Map<String, String> valores = new HashMap<>(8);
+            valores.put("cliente", primeiroNome(d.cliente()));
+            valores.put("placa", d.placa());
+            valores.put("modelo", d.modelo() != null && !d.modelo().isBlank() ? d.modelo() : "veículo");
+            valores.put("oficina", oficina);
+            valores.put("meses", String.valueOf(campanha.getMesesDesdeServico()));
+            linhas.add(new Object[]{campanha.getUsuarioId(), campanhaId, d.osId(), destino,
+                    template.renderizar(valores), ts, ts});
+        }
+
+        int enfileiradas = 0;
+        if (!linhas.isEmpty()) {
+            for (int afetadas : jdbcTemplate.batchUpdate(SQL_ENFILEIRAR, linhas)) {
+                // SUCCESS_NO_INFO (-2) com reWriteBatchedInserts: conta como gravada
+                if (afetadas != 0) {
+                    enfileiradas++;
+                }
+            }
+        }
+
+        boolean fim = destinatarios.size() < tamanho;
+        long cursor = destinatarios.isEmpty()
+                ? campanha.getCursorOsId()
+                : destinatarios.get(destinatarios.size() - 1).osId();
+        int avancou = jdbcTemplate.update(SQL_AVANCAR, cursor, destinatarios.size(), enfileiradas,
+                fim ? "CONCLUIDA" : "EM_ANDAMENTO", fim ? ts : null, ts, campanhaId, campanha.getCursorOsId());
+        if (avancou == 0) {
+            // Pausada, cancelada ou processada por outra instância no meio do lote
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return new Lote(0, 0, true);
+        }
+        if (fim) {
+            log.info("Campanha WhatsApp {} concluida: {} OS lidas, {} mensagens na fila",
+                    campanhaId, campanha.getLidas() + destinatarios.size(), campanha.getEnfileiradas() + enfileiradas);
+        }
+        return new Lote(destinatarios.size(), enfileiradas, fim);
+    }
+
+    MensagemTemplate compilado(String texto) {
+        MensagemTemplate template = templates.get(texto);
+        if (template == null) {
+            template = MensagemTemplate.compilar(texto, MARCADORES);
+            templates.put(texto, template);
+        }
+        return template;
+    }
+
+    private String nomeOficina(Long usuarioId) {
+        return usuarioRepository.findById(usuarioId)
+                .map(u -> u.getNomeOficina() != null && !u.getNomeOficina().isBlank() ? u.getNomeOficina() : u.getNome())
+                .orElse("oficina");
+    }
+
+    static String primeiroNome(String nome) {
+        if (nome == null || nome.isBlank()) {
+            return "cliente";
+        }
+        String limpo = nome.strip();
+        int espaco = limpo.indexOf(' ');
+        return espaco > 0 ? limpo.substring(0, espaco) : limpo;
+    }
+
+    private WhatsAppCampanha campanhaDoUsuario(Long usuarioId, Long id) {
+        WhatsAppCampanha campanha = campanhaRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Campanha não encontrada"));
+        if (!campanha.getUsuarioId().equals(usuarioId)) {
+            throw new ResourceNotFoundException("Campanha não encontrada");
+        }
+        return campanha;
+    }
+
+    private WhatsAppCampanhaResponse recarregar(Long id) {
+        return campanhaRepository.findById(id).map(WhatsAppCampanhaResponse::fromEntity).orElseThrow();
+    }
+
+    private record Destinatario(long osId, String cliente, String telefone, String placa, String modelo) {}
+}
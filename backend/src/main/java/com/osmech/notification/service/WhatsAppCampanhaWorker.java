@@ -0,0 +1,79 @@
+package com.osmech.notification.service;
+
+import com.osmech.notification.repository.WhatsAppCampanhaRepository;
+import com.osmech.notification.repository.WhatsAppOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Alimenta a caixa de saída com as campanhas em andamento.
+ *
+ * A cada ciclo, cada campanha é reivindicada por um lease (uma instância por campanha) e
+ * recebe lotes enquanto tiver menos de {@code max-na-fila} mensagens aguardando envio:
+ * a fila de uma campanha acompanha o ritmo do provider em vez de ocupar a caixa de saída
+ * inteira, e recibos de OS continuam saindo no meio de uma campanha grande. Cada ciclo
+ * dura no máximo {@code tempo-por-ciclo-ms} para não segurar a thread do scheduler.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WhatsAppCampanhaWorker {
+
+    private final WhatsAppCampanhaRepository campanhaRepository;
+    private final WhatsAppOutboxRepository outboxRepository;
+    private final WhatsAppCampanhaService campanhaService;
+
+    @Value("${whatsapp.campanha.enabled:true}")
+    private boolean enabled;
+
+    @Value("${whatsapp.campanha.tamanho-lote:100}")
+    private int tamanhoLote;
+
+    @Value("${whatsapp.campanha.max-na-fila:100}")
+    private int maxNaFila;
+
+    @Value("${whatsapp.campanha.tempo-por-ciclo-ms:2000}")
+    private long tempoPorCicloMs;
+
+    @Value("${whatsapp.campanha.lease-segundos:60}")
+    private long leaseSegundos;
+
+    @Scheduled(fixedDelayString = "${whatsapp.campanha.poll-ms:5000}")
+    public void executar() {
+        if (!enabled) {
+            return;
+        }
+        for (Long campanhaId : campanhaRepository.findIdsEmAndamento()) {
+            LocalDateTime agora = LocalDateTime.now();
+            if (campanhaRepository.reivindicar(campanhaId, agora, agora.plusSeconds(leaseSegundos)) == 0) {
+                continue;
+            }
+            try {
+                alimentar(campanhaId, System.currentTimeMillis() + tempoPorCicloMs);
+            } catch (Exception e) {
+                log.error("Erro ao processar campanha WhatsApp {}", campanhaId, e);
+            } finally {
+                campanhaRepository.liberar(campanhaId);
+            }
+        }
+    }
+
+    void alimentar(Long campanhaId, long prazoMs) {
+        while (System.currentTimeMillis() < prazoMs) {
+            long vagas = maxNaFila - outboxRepository.countNaFila(campanhaId);
+            if (vagas <= 0) {
+                return; // provider ainda não deu vazão ao que já está na fila
+            }
+            WhatsAppCampanhaService.Lote lote = campanhaService.processarLote(
+                    campanhaId, (int) Math.min(tamanhoLote, vagas));
+            if (lote.encerrado()) {
+                return;
+            }
+        }
+    }
+}
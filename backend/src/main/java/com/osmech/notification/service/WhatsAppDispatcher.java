@@ -0,0 +1,232 @@
+package com.osmech.notification.service;
+
+import com.osmech.config.SlidingWindowRateLimiter;
+import com.osmech.notification.entity.WhatsAppOutbox;
+import com.osmech.notification.repository.WhatsAppOutboxRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Envia as mensagens da caixa de saída de WhatsApp.
+ *
+ * Cada envio roda numa virtual thread (a chamada ao provider só bloqueia a própria thread),
+ * limitado a {@code whatsapp.outbox.max-concorrentes} simultâneos e à taxa do provider
+ * ({@code whatsapp.<provider>.mensagens-por-segundo}, por instância). Falhas temporárias
+ * são reagendadas com backoff exponencial; recusas definitivas vão para FALHA e, após
+ * {@code max-tentativas}, para DEAD_LETTER. Um poller periódico recupera mensagens
+ * agendadas antes de um reinício e as retentativas.
+ *
+ * Mensagens de campanha ainda passam por uma cota própria ({@code whatsapp.campanha.fracao-taxa}
+ * da taxa do provider), aguardada sem ocupar vaga, para que recibos e avisos de OS não
+ * fiquem atrás de uma campanha grande. A cota é aguardada antes de reivindicar: com muitas
+ * campanhas a espera passa de minutos, e uma mensagem em ENVIANDO esse tempo todo seria
+ * devolvida à fila por {@link #varrerPendentes} e enviada de novo por outra instância.
+ * Depois de reivindicada, a mensagem só espera a taxa do provider e o próprio envio, bem
+ * abaixo de {@code whatsapp.outbox.travada-segundos}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WhatsAppDispatcher {
+
+    private final WhatsAppOutboxRepository outboxRepository;
+    private final WhatsAppService whatsAppService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${whatsapp.outbox.max-concorrentes:16}")
+    private int maxConcorrentes;
+
+    @Value("${whatsapp.outbox.max-tentativas:6}")
+    private int maxTentativas;
+
+    @Value("${whatsapp.outbox.backoff-inicial-segundos:30}")
+    private long backoffInicialSegundos;
+
+    @Value("${whatsapp.outbox.backoff-max-segundos:1800}")
+    private long backoffMaxSegundos;
+
+    @Value("${whatsapp.twilio.mensagens-por-segundo:10}")
+    private int taxaTwilio;
+
+    @Value("${whatsapp.meta.mensagens-por-segundo:50}")
+    private int taxaMeta;
+
+    @Value("${whatsapp.campanha.fracao-taxa:0.8}")
+    private double fracaoTaxaCampanha;
+
+    @Value("${whatsapp.outbox.travada-segundos:300}")
+    private long travadaSegundos;
+
+    @Value("${http-cliente.perfis.whatsapp.timeout-total-ms:20000}")
+    private long timeoutEnvioMs;
+
+    private ExecutorService executor;
+    private Semaphore vagas;
+    private final SlidingWindowRateLimiter taxaPorProvider = new SlidingWindowRateLimiter(16);
+
+    /** IDs já despachados em memória (evita duplicar entre evento e poller) */
+    private final Set<Long> enfileirados = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void iniciar() {
+        executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("whatsapp-", 0).factory());
+        vagas = new Semaphore(maxConcorrentes);
+
+        // Pior caso entre reivindicar e gravar o resultado: todas as vagas na fila da taxa + o envio
+        int menorTaxa = Math.min(taxaTwilio, taxaMeta);
+        long piorCasoSegundos = (menorTaxa > 0 ? (maxConcorrentes + menorTaxa - 1) / menorTaxa : 0)
+                + TimeUnit.MILLISECONDS.toSeconds(timeoutEnvioMs) + 1;
+        if (travadaSegundos < 2 * piorCasoSegundos) {
+            log.warn("whatsapp.outbox.travada-segundos={} abaixo de 2x o pior caso de envio ({}s); usando {}s",
+                    travadaSegundos, piorCasoSegundos, 2 * piorCasoSegundos);
+            travadaSegundos = 2 * piorCasoSegundos;
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /** Mensagem gravada: envia logo após o commit (fallbackExecution: chamada fora de transação) */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMensagemAgendada(WhatsAppOutboxService.MensagemAgendadaEvent evento) {
+        despachar(evento.outboxId());
+    }
+
+    /** Recupera mensagens pendentes (retentativas, reinício da aplicação) */
+    @Scheduled(fixedDelayString = "${whatsapp.outbox.poll-ms:5000}")
+    public void varrerPendentes() {
+        LocalDateTime agora = LocalDateTime.now();
+        int liberadas = outboxRepository.liberarTravadas(agora.minusSeconds(travadaSegundos), agora);
+        if (liberadas > 0) {
+            log.warn("{} mensagens WhatsApp presas em ENVIANDO devolvidas à fila", liberadas);
+        }
+
+        for (Long id : outboxRepository.findProntas(agora, PageRequest.of(0, 200))) {
+            despachar(id);
+        }
+    }
+
+    private void despachar(Long outboxId) {
+        if (!enfileirados.add(outboxId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> processar(outboxId));
+        } catch (RejectedExecutionException e) {
+            // Encerrando: a mensagem continua PENDENTE e será enviada após o reinício
+            enfileirados.remove(outboxId);
+        }
+    }
+
+    void processar(Long outboxId) {
+        boolean comVaga = false;
+        try {
+            String provider = whatsAppService.getProvider();
+            if (outboxRepository.findCampanhaIdById(outboxId).isPresent()) {
+                aguardarCotaCampanha(provider); // ainda PENDENTE: esperar aqui não prende a mensagem
+            }
+            vagas.acquire();
+            comVaga = true;
+            if (outboxRepository.reivindicar(outboxId, LocalDateTime.now()) == 0) {
+                return; // já enviada ou em envio por outra instância
+            }
+            WhatsAppOutbox mensagem = outboxRepository.findById(outboxId).orElseThrow();
+            aguardarTaxa(provider);
+
+            WhatsAppService.ResultadoEnvio resultado;
+            try {
+                resultado = whatsAppService.enviarMensagem(mensagem.getDestino(), mensagem.getMensagem());
+            } catch (Exception e) {
+                resultado = new WhatsAppService.ResultadoEnvio(false, mensagem.getDestino(), e.getMessage(), null, true);
+            }
+            mensagem.setProvider(provider);
+            registrarResultado(mensagem, resultado);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Erro inesperado no envio WhatsApp. outboxId={}", outboxId, e);
+        } finally {
+            if (comVaga) {
+                vagas.release();
+            }
+            enfileirados.remove(outboxId);
+        }
+    }
+
+    /** Espera a janela de taxa do provider (barato numa virtual thread) */
+    private void aguardarTaxa(String provider) throws InterruptedException {
+        int limite = limiteTaxa(provider);
+        long chave = SlidingWindowRateLimiter.chave(provider, 0);
+        while (limite > 0 && !taxaPorProvider.tentarConsumir(chave, limite, 1000, 1, System.currentTimeMillis())) {
+            Thread.sleep(1000 / limite + 1);
+        }
+    }
+
+    private void aguardarCotaCampanha(String provider) throws InterruptedException {
+        if (limiteTaxa(provider) <= 0) {
+            return;
+        }
+        int limite = (int) Math.max(1, limiteTaxa(provider) * fracaoTaxaCampanha);
+        long chave = SlidingWindowRateLimiter.chave(provider, 1);
+        while (!taxaPorProvider.tentarConsumir(chave, limite, 1000, 1, System.currentTimeMillis())) {
+            Thread.sleep(1000 / limite + 1);
+        }
+    }
+
+    private int limiteTaxa(String provider) {
+        return "meta".equals(provider) ? taxaMeta : taxaTwilio;
+    }
+
+    private void registrarResultado(WhatsAppOutbox mensagem, WhatsAppService.ResultadoEnvio resultado) {
+        LocalDateTime agora = LocalDateTime.now();
+        int tentativas = mensagem.getTentativas() + 1;
+        mensagem.setTentativas(tentativas);
+        mensagem.setAtualizadoEm(agora);
+
+        if (resultado.enviado()) {
+            mensagem.setStatus("ENVIADA");
+            mensagem.setEnviadoEm(agora);
+            mensagem.setIdExterno(resultado.idExterno());
+            mensagem.setUltimoErro(null);
+        } else if (!resultado.retentavel()) {
+            mensagem.setStatus("FALHA");
+            mensagem.setUltimoErro(resultado.detalhe());
+            log.warn("Mensagem WhatsApp recusada. outboxId={} detalhe={}", mensagem.getId(), resultado.detalhe());
+        } else if (tentativas >= maxTentativas) {
+            mensagem.setStatus("DEAD_LETTER");
+            mensagem.setUltimoErro(resultado.detalhe());
+            log.error("Mensagem WhatsApp movida para DEAD_LETTER após {} tentativas. outboxId={} detalhe={}",
+                    tentativas, mensagem.getId(), resultado.detalhe());
+        } else {
+            long espera = Math.min(backoffMaxSegundos, backoffInicialSegundos << Math.min(tentativas - 1, 20));
+            mensagem.setStatus("PENDENTE");
+            mensagem.setProximaTentativa(agora.plusSeconds(espera));
+            mensagem.setUltimoErro(resultado.detalhe());
+            log.warn("Falha no envio WhatsApp (tentativa {}/{}), nova tentativa em {}s. outboxId={} detalhe={}",
+                    tentativas, maxTentativas, espera, mensagem.getId(), resultado.detalhe());
+        }
+        outboxRepository.save(mensagem);
+        meterRegistry.counter("whatsapp.outbox.envios",
+                "provider", mensagem.getProvider(), "status", mensagem.getStatus()).increment();
+    }
+}
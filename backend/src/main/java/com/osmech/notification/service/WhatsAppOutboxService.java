@@ -0,0 +1,68 @@
+package com.osmech.notification.service;
+
+import com.osmech.notification.dto.WhatsAppEnvioResponse;
+import com.osmech.notification.entity.WhatsAppOutbox;
+import com.osmech.notification.repository.WhatsAppOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Agenda mensagens WhatsApp na caixa de saída.
+ *
+ * A gravação participa da transação de quem chama (ex: encerramento da OS): a mensagem só
+ * existe se a operação for commitada, e nenhuma chamada ao provider acontece dentro dela.
+ * Após o commit o WhatsAppDispatcher é avisado e envia em segundo plano.
+ */
+@Service
+@RequiredArgsConstructor
+public class WhatsAppOutboxService {
+
+    private final WhatsAppOutboxRepository outboxRepository;
+    private final WhatsAppService whatsAppService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /** Evento publicado após gravar a mensagem na caixa de saída */
+    public record MensagemAgendadaEvent(Long outboxId) {}
+
+    /** Resultado do agendamento (aceita = gravada na fila de envio) */
+    public record Agendamento(boolean aceita, Long envioId, String destino, String detalhe) {}
+
+    /**
+     * @throws IllegalArgumentException se o telefone for inválido
+     */
+    @Transactional
+    public Agendamento agendar(Long usuarioId, String referenciaTipo, Long referenciaId,
+                               String telefone, String mensagem) {
+        String destino = whatsAppService.normalizarTelefone(telefone);
+        if (destino == null) {
+            throw new IllegalArgumentException("Telefone do cliente invalido para envio WhatsApp");
+        }
+        if (!whatsAppService.isHabilitado()) {
+            return new Agendamento(false, null, destino, "WhatsApp desabilitado na configuracao");
+        }
+
+        WhatsAppOutbox outbox = outboxRepository.save(WhatsAppOutbox.builder()
+                .usuarioId(usuarioId)
+                .referenciaTipo(referenciaTipo)
+                .referenciaId(referenciaId)
+                .destino(destino)
+                .mensagem(mensagem)
+                .build());
+        eventPublisher.publishEvent(new MensagemAgendadaEvent(outbox.getId()));
+        return new Agendamento(true, outbox.getId(), destino, "Mensagem na fila de envio");
+    }
+
+    @Transactional(readOnly = true)
+    public List<WhatsAppEnvioResponse> listar(Long usuarioId, String referenciaTipo, Long referenciaId) {
+        return outboxRepository.findByUsuarioIdAndReferenciaTipoAndReferenciaIdOrderByIdDesc(
+                        usuarioId, referenciaTipo, referenciaId)
+                .stream()
+                .map(WhatsAppEnvioResponse::fromEntity)
+                .collect(Collectors.toList());
+    }
+}
@@ -1,5 +1,9 @@
 package com.osmech.notification.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.osmech.config.OutboundHttpClients;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,18 +14,27 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
 
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 import java.util.Map;
 
+/**
+ * Envio de mensagens WhatsApp (Twilio ou Meta). Chamada bloqueante: os fluxos da aplicação
+ * não chamam direto, e sim gravam na caixa de saída (WhatsAppOutboxService), de onde o
+ * WhatsAppDispatcher envia.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class WhatsAppService {
 
-    private final RestTemplate restTemplate;
+    private final OutboundHttpClients httpClients;
+    private final ObjectMapper objectMapper;
+
+    private RestTemplate restTemplate;
 
     @Value("${whatsapp.enabled:false}")
     private boolean enabled;
@@ -44,26 +57,39 @@ public class WhatsAppService {
     @Value("${whatsapp.meta.access-token:}")
     private String metaAccessToken;
 
+    @PostConstruct
+    public void iniciar() {
+        restTemplate = httpClients.restTemplate("whatsapp");
+    }
+
     public ResultadoEnvio enviarMensagem(String telefone, String mensagem) {
         String destino = normalizarTelefone(telefone);
         if (destino == null) {
             throw new IllegalArgumentException("Telefone do cliente invalido para envio WhatsApp");
         }
         if (!enabled) {
-            return new ResultadoEnvio(false, destino, "WhatsApp desabilitado na configuracao");
+            return ResultadoEnvio.falha(destino, "WhatsApp desabilitado na configuracao", false);
         }
 
-        String normalizedProvider = provider == null ? "" : provider.trim().toLowerCase();
-        return switch (normalizedProvider) {
+        return switch (getProvider()) {
             case "meta" -> enviarViaMeta(destino, mensagem);
             case "twilio" -> enviarViaTwilio(destino, mensagem);
-            default -> new ResultadoEnvio(false, destino, "Provider WhatsApp invalido: " + provider);
+            default -> ResultadoEnvio.falha(destino, "Provider WhatsApp invalido: " + provider, false);
         };
     }
 
+    public boolean isHabilitado() {
+        return enabled;
+    }
+
+    /** Provider configurado, normalizado (twilio | meta) */
+    public String getProvider() {
+        return provider == null ? "" : provider.trim().toLowerCase();
+    }
+
     private ResultadoEnvio enviarViaTwilio(String destino, String mensagem) {
         if (isBlank(twilioAccountSid) || isBlank(twilioAuthToken) || isBlank(twilioFromNumber)) {
-            return new ResultadoEnvio(false, destino, "Credenciais Twilio incompletas");
+            return ResultadoEnvio.falha(destino, "Credenciais Twilio incompletas", false);
         }
 
         String url = "https://api.twilio.com/2010-04-01/Accounts/" + twilioAccountSid + "/Messages.json";
@@ -78,17 +104,20 @@ public class WhatsAppService {
 
         try {
             ResponseEntity<String> response = restTemplate.postForEntity(url, new HttpEntity<>(form, headers), String.class);
-            boolean ok = response.getStatusCode().is2xxSuccessful();
-            return new ResultadoEnvio(ok, destino, ok ? "Mensagem enviada via Twilio" : "Falha Twilio: " + response.getStatusCode());
+            if (!response.getStatusCode().is2xxSuccessful()) {
+                return ResultadoEnvio.falha(destino, "Falha Twilio: " + response.getStatusCode(), true);
+            }
+            return new ResultadoEnvio(true, destino, "Mensagem enviada via Twilio",
+                    idExterno(response.getBody(), "/sid"), false);
         } catch (Exception e) {
             log.warn("Falha envio WhatsApp (Twilio): {}", e.getMessage());
-            return new ResultadoEnvio(false, destino, "Falha Twilio: " + e.getMessage());
+            return ResultadoEnvio.falha(destino, "Falha Twilio: " + e.getMessage(), retentavel(e));
         }
     }
 
     private ResultadoEnvio enviarViaMeta(String destino, String mensagem) {
         if (isBlank(metaPhoneNumberId) || isBlank(metaAccessToken)) {
-            return new ResultadoEnvio(false, destino, "Credenciais Meta incompletas");
+            return ResultadoEnvio.falha(destino, "Credenciais Meta incompletas", false);
         }
 
         String url = "https://graph.facebook.com/v19.0/" + metaPhoneNumberId + "/messages";
@@ -105,11 +134,14 @@ public class WhatsAppService {
 
         try {
             ResponseEntity<String> response = restTemplate.postForEntity(url, new HttpEntity<>(payload, headers), String.class);
-            boolean ok = response.getStatusCode().is2xxSuccessful();
-            return new ResultadoEnvio(ok, destino, ok ? "Mensagem enviada via Meta" : "Falha Meta: " + response.getStatusCode());
+            if (!response.getStatusCode().is2xxSuccessful()) {
+                return ResultadoEnvio.falha(destino, "Falha Meta: " + response.getStatusCode(), true);
+            }
+            return new ResultadoEnvio(true, destino, "Mensagem enviada via Meta",
+                    idExterno(response.getBody(), "/messages/0/id"), false);
         } catch (Exception e) {
             log.warn("Falha envio WhatsApp (Meta): {}", e.getMessage());
-            return new ResultadoEnvio(false, destino, "Falha Meta: " + e.getMessage());
+            return ResultadoEnvio.falha(destino, "Falha Meta: " + e.getMessage(), retentavel(e));
         }
     }
 
@@ -117,7 +149,29 @@ public class WhatsAppService {
         return Base64.getEncoder().encodeToString((user + ":" + pass).getBytes(StandardCharsets.UTF_8));
     }
 
-    private String normalizarTelefone(String telefone) {
+    /** Id da mensagem no provider (para rastrear a entrega), ou null */
+    private String idExterno(String corpo, String caminho) {
+        if (corpo == null || corpo.isBlank()) {
+            return null;
+        }
+        try {
+            JsonNode id = objectMapper.readTree(corpo).at(caminho);
+            return id.isTextual() ? id.asText() : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /** Erros 4xx (número inválido, credencial recusada) não melhoram com nova tentativa; 429 e 5xx sim */
+    private static boolean retentavel(Exception e) {
+        if (e instanceof HttpStatusCodeException http) {
+            return http.getStatusCode().is5xxServerError() || http.getStatusCode().value() == 429;
+        }
+        return true;
+    }
+
+    /** Telefone só com dígitos e DDI 55 quando ausente, ou null se não houver dígitos */
+    public String normalizarTelefone(String telefone) {
         if (telefone == null) return null;
         String digits = telefone.replaceAll("[^0-9]", "");
         if (digits.isBlank()) return null;
@@ -131,5 +185,13 @@ public class WhatsAppService {
         return value == null || value.trim().isEmpty();
     }
 
-    public record ResultadoEnvio(boolean enviado, String destino, String detalhe) {}
+    /**
+     * @param idExterno  id da mensagem no provider (quando enviada)
+     * @param retentavel se a falha é temporária e vale tentar de novo
+     */
+    public record ResultadoEnvio(boolean enviado, String destino, String detalhe, String idExterno, boolean retentavel) {
+        static ResultadoEnvio falha(String destino, String detalhe, boolean retentavel) {
+            return new ResultadoEnvio(false, destino, detalhe, null, retentavel);
+        }
+    }
 }
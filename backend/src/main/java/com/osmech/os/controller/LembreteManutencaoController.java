@@ -0,0 +1,31 @@
+package com.osmech.os.controller;
+
+import com.osmech.os.dto.LembreteManutencaoResponse;
+import com.osmech.os.service.LembreteManutencaoService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/os/lembretes")
+@RequiredArgsConstructor
+public class LembreteManutencaoController {
+
+    private final LembreteManutencaoService lembreteService;
+
+    /**
+     * GET /api/os/lembretes - Manutenções previstas até hoje + {@code dias} (atrasadas primeiro).
+     * Com {@code placa}, todos os lembretes do veículo.
+     */
+    @GetMapping
+    public ResponseEntity<List<LembreteManutencaoResponse>> listar(Authentication auth,
+                                                                   @RequestParam(required = false) String placa,
+                                                                   @RequestParam(defaultValue = "30") int dias,
+                                                                   @RequestParam(defaultValue = "0") int page,
+                                                                   @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(lembreteService.listar(auth.getName(), placa, dias, page, size));
+    }
+}
@@ -1,6 +1,7 @@
 package com.osmech.os.controller;
 
-import com.osmech.notification.service.WhatsAppService;
+import com.osmech.notification.dto.WhatsAppEnvioResponse;
+import com.osmech.notification.service.WhatsAppOutboxService;
 import com.osmech.os.entity.ItemOS;
 import com.osmech.os.entity.OrdemServico;
 import com.osmech.os.entity.ServicoOS;
@@ -33,11 +34,12 @@ public class OsWhatsAppController {
     private UsuarioRepository usuarioRepository;
 
     @Autowired
-    private WhatsAppService whatsAppService;
+    private WhatsAppOutboxService whatsAppOutboxService;
 
     /**
      * POST /api/os/{id}/enviar-recibo-whatsapp
-     * Envia o recibo da OS via WhatsApp sem modificar o status.
+     * Agenda o recibo da OS para envio via WhatsApp sem modificar o status.
+     * "enviado" indica que o recibo entrou na fila de envio.
      */
     @PostMapping("/{id}/enviar-recibo-whatsapp")
     public ResponseEntity<?> enviarReciboWhatsApp(
@@ -45,16 +47,8 @@ public class OsWhatsAppController {
             @PathVariable Long id,
             @RequestBody EnviarReciboWhatsAppRequest request) {
 
-        String email = auth.getName();
-        Usuario usuario = usuarioRepository.findByEmail(email)
-                .orElseThrow(() -> new IllegalArgumentException("Usuario nao encontrado"));
-
-        OrdemServico os = osRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Ordem de Servico nao encontrada"));
-
-        if (!os.getUsuarioId().equals(usuario.getId())) {
-            throw new IllegalArgumentException("Acesso negado a esta Ordem de Servico");
-        }
+        Usuario usuario = usuarioAutenticado(auth);
+        OrdemServico os = osDoUsuario(usuario, id);
 
         if (!Boolean.TRUE.equals(os.getWhatsappConsentimento())) {
             return ResponseEntity.badRequest().body(
@@ -74,13 +68,42 @@ public class OsWhatsAppController {
         List<ItemOS> itens = itemOSRepository.findByOrdemServicoId(os.getId());
 
         String recibo = montarReciboExtrato(usuario, os, servicos, itens);
-        WhatsAppService.ResultadoEnvio resultado = whatsAppService.enviarMensagem(telefoneWhatsapp, recibo);
+        WhatsAppOutboxService.Agendamento agendamento = whatsAppOutboxService.agendar(
+                usuario.getId(), "OS", os.getId(), telefoneWhatsapp, recibo);
+
+        java.util.Map<String, Object> body = new java.util.LinkedHashMap<>();
+        body.put("enviado", agendamento.aceita());
+        body.put("envioId", agendamento.envioId());
+        body.put("destino", agendamento.destino());
+        body.put("detalhe", agendamento.detalhe());
+        body.put("recibo", recibo);
+        return ResponseEntity.ok(body);
+    }
+
+    /**
+     * GET /api/os/{id}/whatsapp-envios
+     * Situação das mensagens WhatsApp da OS (mais recentes primeiro).
+     */
+    @GetMapping("/{id}/whatsapp-envios")
+    public ResponseEntity<List<WhatsAppEnvioResponse>> listarEnviosWhatsApp(Authentication auth, @PathVariable Long id) {
+        Usuario usuario = usuarioAutenticado(auth);
+        OrdemServico os = osDoUsuario(usuario, id);
+        return ResponseEntity.ok(whatsAppOutboxService.listar(usuario.getId(), "OS", os.getId()));
+    }
+
+    private Usuario usuarioAutenticado(Authentication auth) {
+        return usuarioRepository.findByEmail(auth.getName())
+                .orElseThrow(() -> new IllegalArgumentException("Usuario nao encontrado"));
+    }
 
-        return ResponseEntity.ok(java.util.Map.of(
-                "enviado", resultado.enviado(),
-                "destino", resultado.destino(),
-                "detalhe", resultado.detalhe(),
-                "recibo", recibo));
+    private OrdemServico osDoUsuario(Usuario usuario, Long id) {
+        OrdemServico os = osRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Ordem de Servico nao encontrada"));
+
+        if (!os.getUsuarioId().equals(usuario.getId())) {
+            throw new IllegalArgumentException("Acesso negado a esta Ordem de Servico");
+        }
+        return os;
     }
 
     private String montarReciboExtrato(Usuario usuario, OrdemServico os,
@@ -13,7 +13,9 @@ public class EncerrarOsResponse {
     private String metodoPagamento;
     private Long transacaoFinanceiraId;
     private String recibo;
+    /** Recibo aceito na fila de envio (status em GET /os/{id}/whatsapp-envios) */
     private Boolean whatsappEnviado;
+    private Long whatsappEnvioId;
     private String whatsappDestino;
     private String whatsappDetalhe;
     private BigDecimal descontoPercentual;
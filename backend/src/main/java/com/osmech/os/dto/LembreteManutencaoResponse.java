@@ -0,0 +1,56 @@
+package com.osmech.os.dto;
+
+import com.osmech.os.entity.LembreteManutencao;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@Builder
+public class LembreteManutencaoResponse {
+
+    private Long id;
+    private String placa;
+    private String modelo;
+    private String clienteNome;
+    private String clienteTelefone;
+    private String servico;
+    private Long ultimaOsId;
+    private LocalDate ultimoServicoEm;
+    private Integer ultimoServicoKm;
+    private Integer proximoKm;
+    /** Quilometragem estimada hoje pela última leitura e o ritmo de uso */
+    private Integer kmAtualEstimado;
+    private BigDecimal kmPorDia;
+    private Boolean kmEstimado;
+    private LocalDate previstoEm;
+    private Boolean atrasado;
+
+    public static LembreteManutencaoResponse fromEntity(LembreteManutencao l, LocalDate hoje) {
+        Integer kmAtual = null;
+        if (l.getKmReferencia() != null && l.getKmReferenciaEm() != null) {
+            long dias = Math.max(0, ChronoUnit.DAYS.between(l.getKmReferenciaEm(), hoje));
+            kmAtual = l.getKmReferencia() + (int) Math.round(l.getKmPorDia().doubleValue() * dias);
+        }
+        return LembreteManutencaoResponse.builder()
+                .id(l.getId())
+                .placa(l.getPlaca())
+                .modelo(l.getModelo())
+                .clienteNome(l.getClienteNome())
+                .clienteTelefone(l.getClienteTelefone())
+                .servico(l.getServico())
+                .ultimaOsId(l.getUltimaOsId())
+                .ultimoServicoEm(l.getUltimoServicoEm())
+                .ultimoServicoKm(l.getUltimoServicoKm())
+                .proximoKm(l.getProximoKm())
+                .kmAtualEstimado(kmAtual)
+                .kmPorDia(l.getKmPorDia())
+                .kmEstimado(l.getKmEstimado())
+                .previstoEm(l.getPrevistoEm())
+                .atrasado(l.getPrevistoEm().isBefore(hoje))
+                .build();
+    }
+}
@@ -0,0 +1,81 @@
+package com.osmech.os.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Próxima manutenção prevista de um serviço recorrente (uma linha por veículo e serviço).
+ * Calculada pelo job noturno a partir do histórico de OS; o dashboard apenas lê estas linhas.
+ */
+@Entity
+@Table(name = "lembretes_manutencao", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"usuario_id", "placa", "servico"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LembreteManutencao {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    @Column(nullable = false)
+    private String placa;
+
+    /** Nome de {@link ServicoRecorrente} */
+    @Column(nullable = false, length = 20)
+    private String servico;
+
+    private String modelo;
+
+    @Column(name = "cliente_nome")
+    private String clienteNome;
+
+    @Column(name = "cliente_telefone")
+    private String clienteTelefone;
+
+    /** OS em que o serviço foi feito pela última vez */
+    @Column(name = "ultima_os_id", nullable = false)
+    private Long ultimaOsId;
+
+    @Column(name = "ultimo_servico_em", nullable = false)
+    private LocalDate ultimoServicoEm;
+
+    @Column(name = "ultimo_servico_km")
+    private Integer ultimoServicoKm;
+
+    /** Última leitura de hodômetro do veículo */
+    @Column(name = "km_referencia")
+    private Integer kmReferencia;
+
+    @Column(name = "km_referencia_em")
+    private LocalDate kmReferenciaEm;
+
+    @Column(name = "km_por_dia", nullable = false, precision = 8, scale = 2)
+    private BigDecimal kmPorDia;
+
+    /** true quando o ritmo é o padrão (histórico de quilometragem insuficiente) */
+    @Column(name = "km_estimado", nullable = false)
+    @Builder.Default
+    private Boolean kmEstimado = false;
+
+    @Column(name = "proximo_km")
+    private Integer proximoKm;
+
+    @Column(name = "previsto_em", nullable = false)
+    private LocalDate previstoEm;
+
+    @Column(name = "atualizado_em", nullable = false)
+    @Builder.Default
+    private LocalDateTime atualizadoEm = LocalDateTime.now();
+}
@@ -0,0 +1,42 @@
+package com.osmech.os.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Execução do job de lembretes de manutenção.
+ * A {@code marcaAte} da última execução concluída é o ponto de partida da próxima:
+ * só veículos com OS alteradas depois dela são recalculados.
+ */
+@Entity
+@Table(name = "lembretes_manutencao_execucoes")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LembreteManutencaoExecucao {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "iniciado_em", nullable = false)
+    private LocalDateTime iniciadoEm;
+
+    @Column(name = "marca_ate", nullable = false)
+    private LocalDateTime marcaAte;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer veiculos = 0;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer lembretes = 0;
+
+    @Column(name = "concluido_em")
+    private LocalDateTime concluidoEm;
+}
@@ -0,0 +1,42 @@
+package com.osmech.os.entity;
+
+import java.util.List;
+
+/**
+ * Serviços de manutenção recorrentes acompanhados pelos lembretes.
+ * Reconhecidos pelas palavras-chave (sem acento, minúsculas) na descrição da OS ou
+ * dos seus serviços; vencem no que chegar primeiro entre quilometragem e tempo.
+ */
+public enum ServicoRecorrente {
+    OLEO(10_000, 6, List.of("oleo", "lubrificante")),
+    FILTROS(15_000, 12, List.of("filtro")),
+    FREIOS(30_000, 24, List.of("freio", "pastilha", "lona", "disco de freio"));
+
+    private final int intervaloKm;
+    private final int intervaloMeses;
+    private final List<String> palavrasChave;
+
+    ServicoRecorrente(int intervaloKm, int intervaloMeses, List<String> palavrasChave) {
+        this.intervaloKm = intervaloKm;
+        this.intervaloMeses = intervaloMeses;
+        this.palavrasChave = palavrasChave;
+    }
+
+    public int getIntervaloKm() {
+        return intervaloKm;
+    }
+
+    public int getIntervaloMeses() {
+        return intervaloMeses;
+    }
+
+    /** @param textoNormalizado texto já sem acentos e em minúsculas */
+    public boolean reconhece(String textoNormalizado) {
+        for (String palavra : palavrasChave) {
+            if (textoNormalizado.contains(palavra)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,13 @@
+package com.osmech.os.repository;
+
+import com.osmech.os.entity.LembreteManutencaoExecucao;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface LembreteManutencaoExecucaoRepository extends JpaRepository<LembreteManutencaoExecucao, Long> {
+
+    Optional<LembreteManutencaoExecucao> findFirstByConcluidoEmIsNotNullOrderByMarcaAteDesc();
+}
@@ -0,0 +1,27 @@
+package com.osmech.os.repository;
+
+import com.osmech.os.entity.LembreteManutencao;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface LembreteManutencaoRepository extends JpaRepository<LembreteManutencao, Long> {
+
+    /** Lembretes previstos até a data, mais urgentes primeiro (idx_lembretes_manutencao_previsto) */
+    List<LembreteManutencao> findByUsuarioIdAndPrevistoEmLessThanEqualOrderByPrevistoEmAscIdAsc(
+            Long usuarioId, LocalDate ate, Pageable pageable);
+
+    List<LembreteManutencao> findByUsuarioIdAndPlacaOrderByPrevistoEmAsc(Long usuarioId, String placa);
+
+    @Modifying
+    @Query("DELETE FROM LembreteManutencao l WHERE l.usuarioId = :usuarioId AND l.placa IN :placas")
+    int deleteByUsuarioIdAndPlacaIn(@Param("usuarioId") Long usuarioId, @Param("placas") Collection<String> placas);
+}
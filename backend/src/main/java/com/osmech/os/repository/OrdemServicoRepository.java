@@ -2,9 +2,12 @@ package com.osmech.os.repository;
 
 import com.osmech.os.entity.OrdemServico;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -33,4 +36,14 @@ public interface OrdemServicoRepository extends JpaRepository<OrdemServico, Long
 
     /** Busca OS por usuário e período */
     List<OrdemServico> findByUsuarioIdAndCriadoEmBetweenOrderByCriadoEmDesc(Long usuarioId, LocalDateTime inicio, LocalDateTime fim);
+
+    /**
+     * Histórico (não cancelado) dos veículos para os lembretes de manutenção:
+     * [id, placa, quilometragem, criadoEm, concluidoEm, descricao, clienteNome, clienteTelefone, modelo]
+     */
+    @Query("SELECT o.id, o.placa, o.quilometragem, o.criadoEm, o.concluidoEm, o.descricao, " +
+           "o.clienteNome, o.clienteTelefone, o.modelo FROM OrdemServico o " +
+           "WHERE o.usuarioId = :usuarioId AND o.placa IN :placas AND o.status <> 'CANCELADA' " +
+           "ORDER BY o.placa, o.criadoEm, o.id")
+    List<Object[]> findHistoricoVeiculos(@Param("usuarioId") Long usuarioId, @Param("placas") Collection<String> placas);
 }
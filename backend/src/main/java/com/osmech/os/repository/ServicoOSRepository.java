@@ -2,8 +2,11 @@ package com.osmech.os.repository;
 
 import com.osmech.os.entity.ServicoOS;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -14,4 +17,8 @@ public interface ServicoOSRepository extends JpaRepository<ServicoOS, Long> {
 
     /** Remove todos os serviços de uma OS */
     void deleteByOrdemServicoId(Long ordemServicoId);
+
+    /** [ordemServicoId, descricao] dos serviços das OS informadas */
+    @Query("SELECT s.ordemServico.id, s.descricao FROM ServicoOS s WHERE s.ordemServico.id IN :osIds")
+    List<Object[]> findDescricoesPorOs(@Param("osIds") Collection<Long> osIds);
 }
@@ -0,0 +1,89 @@
+package com.osmech.os.service;
+
+import com.osmech.os.entity.LembreteManutencaoExecucao;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Job noturno dos lembretes de manutenção.
+ *
+ * Percorre, em lotes por keyset, os veículos com OS alteradas desde a marca da última
+ * execução concluída (menos {@code margem-minutos}, para transações que commitaram
+ * depois de começar) e recalcula cada oficina do lote em sua própria transação. Se algum
+ * lote falhar a execução não é concluída e a próxima recomeça da mesma marca; o recálculo
+ * é idempotente.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LembreteManutencaoJob {
+
+    private final LembreteManutencaoService lembreteService;
+
+    @Value("${manutencao.lembretes.enabled:true}")
+    private boolean enabled;
+
+    @Value("${manutencao.lembretes.tamanho-lote:500}")
+    private int tamanhoLote;
+
+    @Value("${manutencao.lembretes.margem-minutos:10}")
+    private long margemMinutos;
+
+    @Scheduled(cron = "${manutencao.lembretes.cron:0 0 5 * * *}")
+    public void executar() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime agora = LocalDateTime.now();
+        LocalDateTime desde = lembreteService.ultimaMarca().minusMinutes(margemMinutos);
+        LembreteManutencaoExecucao execucao = lembreteService.iniciarExecucao(agora);
+        LocalDate hoje = agora.toLocalDate();
+
+        LembreteManutencaoService.Veiculo cursor = new LembreteManutencaoService.Veiculo(0, "");
+        int veiculos = 0;
+        int lembretes = 0;
+        int falhas = 0;
+
+        while (true) {
+            List<LembreteManutencaoService.Veiculo> lote = lembreteService.veiculosAlterados(desde, cursor, tamanhoLote);
+            if (lote.isEmpty()) {
+                break;
+            }
+            Map<Long, List<String>> porOficina = new LinkedHashMap<>();
+            for (LembreteManutencaoService.Veiculo v : lote) {
+                porOficina.computeIfAbsent(v.usuarioId(), k -> new ArrayList<>()).add(v.placa());
+            }
+            for (Map.Entry<Long, List<String>> oficina : porOficina.entrySet()) {
+                try {
+                    lembretes += lembreteService.recalcular(oficina.getKey(), oficina.getValue(), hoje);
+                } catch (Exception e) {
+                    falhas++;
+                    log.error("Erro ao recalcular lembretes de manutenção do usuario {}: {}",
+                            oficina.getKey(), e.getMessage(), e);
+                }
+            }
+            veiculos += lote.size();
+            cursor = lote.get(lote.size() - 1);
+            if (lote.size() < tamanhoLote) {
+                break;
+            }
+        }
+
+        if (falhas > 0) {
+            log.warn("Lembretes de manutenção: {} lotes com erro; a próxima execução recomeça de {}", falhas, desde);
+            return;
+        }
+        lembreteService.concluirExecucao(execucao.getId(), veiculos, lembretes);
+        log.info("Lembretes de manutenção: {} veículos recalculados, {} lembretes", veiculos, lembretes);
+    }
+}
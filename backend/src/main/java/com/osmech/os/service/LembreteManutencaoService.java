@@ -0,0 +1,270 @@
+package com.osmech.os.service;
+
+import com.osmech.os.dto.LembreteManutencaoResponse;
+import com.osmech.os.entity.LembreteManutencao;
+import com.osmech.os.entity.LembreteManutencaoExecucao;
+import com.osmech.os.entity.ServicoRecorrente;
+import com.osmech.os.repository.LembreteManutencaoExecucaoRepository;
+import com.osmech.os.repository.LembreteManutencaoRepository;
+import com.osmech.os.repository.OrdemServicoRepository;
+import com.osmech.os.repository.ServicoOSRepository;
+import com.osmech.security.TenantContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Lembretes de manutenção calculados a partir do histórico de OS de cada veículo (placa).
+ *
+ * O job noturno recalcula apenas os veículos com OS criadas ou alteradas desde a última
+ * execução concluída, lidos em lotes por keyset (usuario_id, placa). Para cada veículo o
+ * ritmo de uso (km/dia) vem das leituras de hodômetro das OS; cada serviço recorrente vence
+ * no que chegar primeiro entre o intervalo de quilometragem projetado por esse ritmo e o
+ * intervalo de tempo. O dashboard apenas lê as linhas de lembretes_manutencao.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LembreteManutencaoService {
+
+    private static final int MAX_POR_PAGINA = 200;
+
+    private static final String SQL_VEICULOS_ALTERADOS =
+            "SELECT usuario_id, placa FROM ordens_servico " +
+            "WHERE COALESCE(atualizado_em, criado_em) >= ? AND (usuario_id, placa) > (?, ?) " +
+            "GROUP BY usuario_id, placa ORDER BY usuario_id, placa LIMIT ?";
+
+    private final LembreteManutencaoRepository lembreteRepository;
+    private final LembreteManutencaoExecucaoRepository execucaoRepository;
+    private final OrdemServicoRepository osRepository;
+    private final ServicoOSRepository servicoOSRepository;
+    private final TenantContext tenantContext;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${manutencao.lembretes.km-por-dia-padrao:35}")
+    private double kmPorDiaPadrao;
+
+    @Value("${manutencao.lembretes.min-dias-ritmo:30}")
+    private int minDiasRitmo;
+
+    /** Veículo identificado pela oficina e placa */
+    public record Veiculo(long usuarioId, String placa) {}
+
+    /** OS do histórico de um veículo */
+    record Visita(long osId, Integer km, LocalDateTime criadoEm, LocalDateTime concluidoEm, String texto,
+                  String clienteNome, String clienteTelefone, String modelo) {}
+
+    /** Ritmo de uso e última leitura de hodômetro */
+    record Ritmo(double kmPorDia, boolean estimado, Integer kmReferencia, LocalDate kmReferenciaEm) {}
+
+    /** Abre uma execução; a marca é o início, então alterações durante o job entram na próxima */
+    @Transactional
+    public LembreteManutencaoExecucao iniciarExecucao(LocalDateTime agora) {
+        return execucaoRepository.save(LembreteManutencaoExecucao.builder()
+                .iniciadoEm(agora)
+                .marcaAte(agora)
+                .build());
+    }
+
+    /** Marca da última execução concluída (início dos tempos na primeira execução) */
+    @Transactional(readOnly = true)
+    public LocalDateTime ultimaMarca() {
+        return execucaoRepository.findFirstByConcluidoEmIsNotNullOrderByMarcaAteDesc()
+                .map(LembreteManutencaoExecucao::getMarcaAte)
+                .orElse(LocalDateTime.of(1970, 1, 1, 0, 0));
+    }
+
+    @Transactional
+    public void concluirExecucao(Long execucaoId, int veiculos, int lembretes) {
+        LembreteManutencaoExecucao execucao = execucaoRepository.findById(execucaoId).orElseThrow();
+        execucao.setVeiculos(veiculos);
+        execucao.setLembretes(lembretes);
+        execucao.setConcluidoEm(LocalDateTime.now());
+        execucaoRepository.save(execucao);
+    }
+
+    /** Próximo lote de veículos com OS alteradas desde {@code desde}, após o cursor */
+    @Transactional(readOnly = true)
+    public List<Veiculo> veiculosAlterados(LocalDateTime desde, Veiculo apos, int limite) {
+        return jdbcTemplate.query(SQL_VEICULOS_ALTERADOS,
+                (rs, i) -> new Veiculo(rs.getLong(1), rs.getString(2)),
+                Timestamp.valueOf(desde), apos.usuarioId(), apos.placa(), limite);
+    }
+
+    /**
+     * Recalcula os lembretes dos veículos de uma oficina (substitui os anteriores).
+     *
+     * @return lembretes gravados
+     */
+    @Transactional
+    public int recalcular(Long usuarioId, List<String> placas, LocalDate hoje) {
+        Map<String, List<Visita>> historico = carregarHistorico(usuarioId, placas);
+
+        List<LembreteManutencao> lembretes = new ArrayList<>();
+        for (Map.Entry<String, List<Visita>> veiculo : historico.entrySet()) {
+            lembretes.addAll(calcular(usuarioId, veiculo.getKey(), veiculo.getValue(), hoje));
+        }
+        lembreteRepository.deleteByUsuarioIdAndPlacaIn(usuarioId, placas);
+        lembreteRepository.saveAll(lembretes);
+        return lembretes.size();
+    }
+
+    @Transactional(readOnly = true)
+    public List<LembreteManutencaoResponse> listar(String emailUsuario, String placa, int dias, int page, int size) {
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
+        LocalDate hoje = LocalDate.now();
+        List<LembreteManutencao> lembretes = placa != null && !placa.isBlank()
+                ? lembreteRepository.findByUsuarioIdAndPlacaOrderByPrevistoEmAsc(usuarioId, placa.strip())
+                : lembreteRepository.findByUsuarioIdAndPrevistoEmLessThanEqualOrderByPrevistoEmAscIdAsc(
+                        usuarioId, hoje.plusDays(Math.max(dias, 0)),
+                        PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_POR_PAGINA)));
+        return lembretes.stream()
+                .map(l -> LembreteManutencaoResponse.fromEntity(l, hoje))
+                .collect(Collectors.toList());
+    }
+
+    private Map<String, List<Visita>> carregarHistorico(Long usuarioId, List<String> placas) {
+        List<Object[]> rows = osRepository.findHistoricoVeiculos(usuarioId, placas);
+        List<Long> concluidas = new ArrayList<>();
+        for (Object[] row : rows) {
+            if (row[4] != null) {
+                concluidas.add((Long) row[0]);
+            }
+        }
+
+        Map<Long, StringBuilder> servicos = new HashMap<>();
+        for (int i = 0; i < concluidas.size(); i += 1000) {
+            List<Long> ids = concluidas.subList(i, Math.min(i + 1000, concluidas.size()));
+            for (Object[] s : servicoOSRepository.findDescricoesPorOs(ids)) {
+                servicos.computeIfAbsent((Long) s[0], k -> new StringBuilder()).append(' ').append(s[1]);
+            }
+        }
+
+        Map<String, List<Visita>> historico = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            Long osId = (Long) row[0];
+            StringBuilder texto = new StringBuilder(row[5] != null ? (String) row[5] : "");
+            if (servicos.containsKey(osId)) {
+                texto.append(servicos.get(osId));
+            }
+            historico.computeIfAbsent((String) row[1], k -> new ArrayList<>()).add(new Visita(
+                    osId, (Integer) row[2], (LocalDateTime) row[3], (LocalDateTime) row[4],
+                    normalizar(texto.toString()), (String) row[6], (String) row[7], (String) row[8]));
+        }
+        return historico;
+    }
+
+    /** @param visitas em ordem de criação */
+    List<LembreteManutencao> calcular(Long usuarioId, String placa, List<Visita> visitas, LocalDate hoje) {
+        if (visitas.isEmpty()) {
+            return List.of();
+        }
+        Ritmo ritmo = ritmo(visitas);
+        Visita recente = visitas.get(visitas.size() - 1);
+        LocalDateTime agora = LocalDateTime.now();
+
+        List<LembreteManutencao> lembretes = new ArrayList<>();
+        for (ServicoRecorrente servico : ServicoRecorrente.values()) {
+            Visita ultima = null;
+            for (Visita v : visitas) {
+                if (v.concluidoEm() != null && servico.reconhece(v.texto())
+                        && (ultima == null || !v.concluidoEm().isBefore(ultima.concluidoEm()))) {
+                    ultima = v;
+                }
+            }
+            if (ultima == null) {
+                continue;
+            }
+
+            LocalDate feitoEm = ultima.concluidoEm().toLocalDate();
+            LocalDate previsto = feitoEm.plusMonths(servico.getIntervaloMeses());
+            Integer proximoKm = null;
+            if (ultima.km() != null && ultima.km() > 0 && ritmo.kmReferencia() != null) {
+                proximoKm = ultima.km() + servico.getIntervaloKm();
+                // Projeta a partir da leitura mais recente; negativo = quilometragem já ultrapassada
+                long dias = (long) Math.ceil((proximoKm - ritmo.kmReferencia()) / ritmo.kmPorDia());
+                LocalDate porKm = ritmo.kmReferenciaEm().plusDays(dias);
+                if (porKm.isBefore(previsto)) {
+                    previsto = porKm;
+                }
+            }
+
+            lembretes.add(LembreteManutencao.builder()
+                    .usuarioId(usuarioId)
+                    .placa(placa)
+                    .servico(servico.name())
+                    .modelo(recente.modelo())
+                    .clienteNome(recente.clienteNome())
+                    .clienteTelefone(recente.clienteTelefone())
+                    .ultimaOsId(ultima.osId())
+                    .ultimoServicoEm(feitoEm)
+                    .ultimoServicoKm(ultima.km())
+                    .kmReferencia(ritmo.kmReferencia())
+                    .kmReferenciaEm(ritmo.kmReferenciaEm())
+                    .kmPorDia(BigDecimal.valueOf(ritmo.kmPorDia()).setScale(2, RoundingMode.HALF_UP))
+                    .kmEstimado(ritmo.estimado())
+                    .proximoKm(proximoKm)
+                    .previstoEm(previsto)
+                    .atualizadoEm(agora)
+                    .build());
+        }
+        return lembretes;
+    }
+
+    /**
+     * Ritmo entre a primeira e a última leitura de hodômetro. Leituras menores que uma
+     * anterior (erro de digitação) são ignoradas; com menos de {@code min-dias-ritmo} dias
+     * entre as leituras usa o ritmo padrão.
+     */
+    Ritmo ritmo(List<Visita> visitas) {
+        Integer primeiroKm = null;
+        LocalDate primeiraData = null;
+        Integer ultimoKm = null;
+        LocalDate ultimaData = null;
+        for (Visita v : visitas) {
+            if (v.km() == null || v.km() <= 0 || (ultimoKm != null && v.km() < ultimoKm)) {
+                continue;
+            }
+            if (primeiroKm == null) {
+                primeiroKm = v.km();
+                primeiraData = v.criadoEm().toLocalDate();
+            }
+            ultimoKm = v.km();
+            ultimaData = v.criadoEm().toLocalDate();
+        }
+        if (ultimoKm == null) {
+            return new Ritmo(kmPorDiaPadrao, true, null, null);
+        }
+        long dias = ChronoUnit.DAYS.between(primeiraData, ultimaData);
+        if (dias < minDiasRitmo || ultimoKm <= primeiroKm) {
+            return new Ritmo(kmPorDiaPadrao, true, ultimoKm, ultimaData);
+        }
+        double kmPorDia = Math.max(1.0, Math.min(500.0, (double) (ultimoKm - primeiroKm) / dias));
+        return new Ritmo(kmPorDia, false, ultimoKm, ultimaData);
+    }
+
+    static String normalizar(String texto) {
+        return Normalizer.normalize(texto, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+    }
+}
@@ -7,7 +7,8 @@ import com.osmech.finance.repository.TransacaoFinanceiraRepository;
 import com.osmech.finance.service.FinanceiroService;
 import com.osmech.mecanico.entity.Mecanico;
 import com.osmech.mecanico.repository.MecanicoRepository;
-import com.osmech.notification.service.WhatsAppService;
+import com.osmech.mecanico.service.ComissaoService;
+import com.osmech.notification.service.WhatsAppOutboxService;
 import com.osmech.os.dto.*;
 import com.osmech.os.entity.ItemOS;
 import com.osmech.os.entity.OrdemServico;
@@ -18,12 +19,13 @@ import com.osmech.os.repository.OrdemServicoRepository;
 import com.osmech.os.repository.ServicoOSRepository;
 import com.osmech.plan.entity.Plano;
 import com.osmech.plan.repository.PlanoRepository;
+import com.osmech.security.TenantContext;
+import com.osmech.security.UsuarioAutenticado;
 import com.osmech.stock.entity.StockItem;
 import com.osmech.stock.repository.StockItemRepository;
 import com.osmech.stock.service.StockService;
 import com.osmech.stock.dto.StockMovementRequest;
 import com.osmech.user.entity.Usuario;
-import com.osmech.user.repository.UsuarioRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.access.AccessDeniedException;
@@ -50,7 +52,7 @@ import java.util.stream.Collectors;
 public class OrdemServicoService {
 
     private final OrdemServicoRepository osRepository;
-    private final UsuarioRepository usuarioRepository;
+    private final TenantContext tenantContext;
     private final FinanceiroService financeiroService;
     private final PlanoRepository planoRepository;
     private final ServicoOSRepository servicoOSRepository;
@@ -59,7 +61,8 @@ public class OrdemServicoService {
     private final StockItemRepository stockItemRepository;
     private final StockService stockService;
     private final TransacaoFinanceiraRepository transacaoFinanceiraRepository;
-    private final WhatsAppService whatsAppService;
+    private final WhatsAppOutboxService whatsAppOutboxService;
+    private final ComissaoService comissaoService;
 
     /**
      * Cria uma nova Ordem de Serviço.
@@ -68,13 +71,14 @@ public class OrdemServicoService {
      */
     @Transactional
     public OrdemServicoResponse criar(String emailUsuario, OrdemServicoRequest request) {
-        Usuario usuario = getUsuario(emailUsuario);
+        UsuarioAutenticado tenant = tenantContext.getUsuarioAutenticado(emailUsuario);
+        Long usuarioId = tenant.id();
         String placaNormalizada = normalizarPlaca(request.getPlaca());
         String clienteCpf = normalizarDocumento(request.getClienteCpf(), 11);
         String clienteCnpj = normalizarDocumento(request.getClienteCnpj(), 14);
 
         // Verificar limite do plano
-        verificarLimitePlano(usuario);
+        verificarLimitePlano(usuarioId, tenant.plano());
 
         // Validar campo obrigatório placa
         if (placaNormalizada == null || placaNormalizada.isBlank()) {
@@ -93,7 +97,7 @@ public class OrdemServicoService {
         }
 
         OrdemServico os = OrdemServico.builder()
-                .usuarioId(usuario.getId())
+                .usuarioId(usuarioId)
                 .clienteNome(request.getClienteNome())
                 .clienteCpf(clienteCpf)
                 .clienteCnpj(clienteCnpj)
@@ -106,7 +110,7 @@ public class OrdemServicoService {
                 .quilometragem(request.getQuilometragem())
                 .descricao(descricao)
                 .diagnostico(request.getDiagnostico())
-                .mecanicoResponsavel(resolverMecanicoResponsavel(request.getMecanicoResponsavel(), usuario))
+                .mecanicoResponsavel(resolverMecanicoResponsavel(request.getMecanicoResponsavel(), emailUsuario))
                 .pecas(request.getPecas())
                 .valor(request.getValor() != null ? request.getValor() : BigDecimal.ZERO)
                 .status("ABERTA")
@@ -119,7 +123,7 @@ public class OrdemServicoService {
         List<ServicoOS> servicos = salvarServicos(os, request.getServicos());
 
         // Salvar itens de estoque e dar baixa no estoque
-        List<ItemOS> itens = salvarItens(os, request.getItens(), usuario.getId());
+        List<ItemOS> itens = salvarItens(os, request.getItens(), usuarioId);
 
         // Recalcular valor total se tem serviços ou itens
         recalcularValorTotal(os, servicos, itens);
@@ -132,8 +136,8 @@ public class OrdemServicoService {
      */
     @Transactional(readOnly = true)
     public List<OrdemServicoResponse> listarPorUsuario(String emailUsuario) {
-        Usuario usuario = getUsuario(emailUsuario);
-        return osRepository.findByUsuarioIdOrderByCriadoEmDesc(usuario.getId())
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
+        return osRepository.findByUsuarioIdOrderByCriadoEmDesc(usuarioId)
                 .stream()
                 .map(os -> {
                     try {
@@ -142,7 +146,7 @@ public class OrdemServicoService {
                         return toResponse(os, servicos, itens);
                     } catch (Exception e) {
                         log.warn("Falha ao carregar relacionamentos da OS #{} para o usuario {}. Retornando dados basicos. Motivo: {}",
-                                os.getId(), usuario.getId(), e.getMessage());
+                                os.getId(), usuarioId, e.getMessage());
                         return toResponse(os, List.of(), List.of());
                     }
                 })
@@ -154,11 +158,11 @@ public class OrdemServicoService {
      */
     @Transactional(readOnly = true)
     public OrdemServicoResponse buscarPorId(String emailUsuario, Long osId) {
-        Usuario usuario = getUsuario(emailUsuario);
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
         OrdemServico os = osRepository.findById(osId)
                 .orElseThrow(() -> new ResourceNotFoundException("Ordem de Serviço não encontrada"));
 
-        if (!os.getUsuarioId().equals(usuario.getId())) {
+        if (!os.getUsuarioId().equals(usuarioId)) {
             throw new AccessDeniedException("Acesso negado a esta Ordem de Serviço");
         }
 
@@ -174,11 +178,11 @@ public class OrdemServicoService {
      */
     @Transactional
     public OrdemServicoResponse atualizar(String emailUsuario, Long osId, OrdemServicoRequest request) {
-        Usuario usuario = getUsuario(emailUsuario);
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
         OrdemServico os = osRepository.findById(osId)
                 .orElseThrow(() -> new ResourceNotFoundException("Ordem de Serviço não encontrada"));
 
-        if (!os.getUsuarioId().equals(usuario.getId())) {
+        if (!os.getUsuarioId().equals(usuarioId)) {
             throw new AccessDeniedException("Acesso negado a esta Ordem de Serviço");
         }
 
@@ -204,7 +208,7 @@ public class OrdemServicoService {
         if (request.getDescricao() != null) os.setDescricao(request.getDescricao());
         if (request.getDiagnostico() != null) os.setDiagnostico(request.getDiagnostico());
         if (request.getMecanicoResponsavel() != null) {
-            os.setMecanicoResponsavel(resolverMecanicoResponsavel(request.getMecanicoResponsavel(), usuario));
+            os.setMecanicoResponsavel(resolverMecanicoResponsavel(request.getMecanicoResponsavel(), emailUsuario));
         }
         if (request.getPecas() != null) os.setPecas(request.getPecas());
         if (request.getValor() != null) os.setValor(request.getValor());
@@ -246,14 +250,14 @@ public class OrdemServicoService {
         if (request.getItens() != null) {
             // Devolver itens antigos ao estoque
             List<ItemOS> itensAntigos = itemOSRepository.findByOrdemServicoId(os.getId());
-            devolverItensEstoque(itensAntigos, usuario.getId(), os.getId());
+            devolverItensEstoque(itensAntigos, usuarioId, os.getId());
 
             // Remover itens antigos
             itemOSRepository.deleteByOrdemServicoId(os.getId());
             itemOSRepository.flush();
 
             // Salvar novos itens e dar baixa no estoque
-            itens = salvarItens(os, request.getItens(), usuario.getId());
+            itens = salvarItens(os, request.getItens(), usuarioId);
         } else {
             itens = itemOSRepository.findByOrdemServicoId(os.getId());
         }
@@ -262,6 +266,7 @@ public class OrdemServicoService {
         recalcularValorTotal(os, servicos, itens);
 
         os = osRepository.save(os);
+        sincronizarComissoes(os, statusAnterior, servicos, request.getServicos() != null);
 
         // Auto-criar entrada financeira quando OS é concluída
         if ("CONCLUIDA".equals(os.getStatus()) && !"CONCLUIDA".equals(statusAnterior)
@@ -280,15 +285,15 @@ public class OrdemServicoService {
     }
 
     /**
-     * Encerra a OS, registra recebimento com metodo de pagamento e envia recibo por WhatsApp.
+     * Encerra a OS, registra recebimento com metodo de pagamento e agenda o recibo por WhatsApp.
      */
     @Transactional
     public EncerrarOsResponse encerrar(String emailUsuario, Long osId, EncerrarOsRequest request) {
-        Usuario usuario = getUsuario(emailUsuario);
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
         OrdemServico os = osRepository.findById(osId)
                 .orElseThrow(() -> new ResourceNotFoundException("Ordem de Servico nao encontrada"));
 
-        if (!os.getUsuarioId().equals(usuario.getId())) {
+        if (!os.getUsuarioId().equals(usuarioId)) {
             throw new AccessDeniedException("Acesso negado a esta Ordem de Servico");
         }
         if ("CONCLUIDA".equalsIgnoreCase(os.getStatus())) {
@@ -303,6 +308,7 @@ public class OrdemServicoService {
 
         List<ServicoOS> servicos = servicoOSRepository.findByOrdemServicoId(os.getId());
         List<ItemOS> itens = itemOSRepository.findByOrdemServicoId(os.getId());
+        comissaoService.lancar(os, servicos);
 
         String metodoPagamento = request.getMetodoPagamento();
         if (metodoPagamento == null || metodoPagamento.isBlank()) {
@@ -321,7 +327,7 @@ public class OrdemServicoService {
         BigDecimal valorFinal = valorOriginal.subtract(valorDesconto);
 
         boolean jaTemTransacaoOs = transacaoFinanceiraRepository
-                .existsByUsuarioIdAndReferenciaTipoAndReferenciaIdAndEstornoFalse(usuario.getId(), "OS", os.getId());
+                .existsByUsuarioIdAndReferenciaTipoAndReferenciaIdAndEstornoFalse(usuarioId, "OS", os.getId());
 
         if (!jaTemTransacaoOs && valorFinal.signum() > 0) {
             TransacaoRequest transacaoRequest = new TransacaoRequest();
@@ -339,10 +345,13 @@ public class OrdemServicoService {
             transacao = financeiroService.criarTransacao(emailUsuario, transacaoRequest);
         }
 
+        // Entidade completa só aqui: o recibo usa os dados cadastrais da oficina
+        Usuario usuario = tenantContext.getUsuario(emailUsuario);
         String recibo = montarReciboExtrato(usuario, os, servicos, itens, metodoPagamento, transacao);
 
         boolean enviarWhatsapp = request.getEnviarReciboWhatsapp() == null || request.getEnviarReciboWhatsapp();
         boolean whatsappEnviado = false;
+        Long whatsappEnvioId = null;
         String whatsappDestino = null;
         String whatsappDetalhe = "Envio nao solicitado";
 
@@ -357,10 +366,13 @@ public class OrdemServicoService {
                 if (whatsappDestino == null || whatsappDestino.isBlank()) {
                     whatsappDetalhe = "Telefone do cliente nao informado";
                 } else {
-                    WhatsAppService.ResultadoEnvio resultado = whatsAppService.enviarMensagem(whatsappDestino, recibo);
-                    whatsappEnviado = resultado.enviado();
-                    whatsappDestino = resultado.destino();
-                    whatsappDetalhe = resultado.detalhe();
+                    // Só grava na caixa de saída; o envio acontece depois do commit
+                    WhatsAppOutboxService.Agendamento agendamento = whatsAppOutboxService.agendar(
+                            usuarioId, "OS", os.getId(), whatsappDestino, recibo);
+                    whatsappEnviado = agendamento.aceita();
+                    whatsappEnvioId = agendamento.envioId();
+                    whatsappDestino = agendamento.destino();
+                    whatsappDetalhe = agendamento.detalhe();
                 }
             }
         }
@@ -371,6 +383,7 @@ public class OrdemServicoService {
                 .transacaoFinanceiraId(transacao != null ? transacao.getId() : null)
                 .recibo(recibo)
                 .whatsappEnviado(whatsappEnviado)
+                .whatsappEnvioId(whatsappEnvioId)
                 .whatsappDestino(whatsappDestino)
                 .whatsappDetalhe(whatsappDetalhe)
                 .descontoPercentual(descontoPerc)
@@ -385,17 +398,18 @@ public class OrdemServicoService {
      */
     @Transactional
     public void excluir(String emailUsuario, Long osId) {
-        Usuario usuario = getUsuario(emailUsuario);
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
         OrdemServico os = osRepository.findById(osId)
                 .orElseThrow(() -> new ResourceNotFoundException("Ordem de Serviço não encontrada"));
 
-        if (!os.getUsuarioId().equals(usuario.getId())) {
+        if (!os.getUsuarioId().equals(usuarioId)) {
             throw new AccessDeniedException("Acesso negado a esta Ordem de Serviço");
         }
 
         // Devolver itens de estoque
         List<ItemOS> itens = itemOSRepository.findByOrdemServicoId(osId);
-        devolverItensEstoque(itens, usuario.getId(), osId);
+        devolverItensEstoque(itens, usuarioId, osId);
+        comissaoService.estornar(osId);
 
         // Limpar serviços e itens (cascade delete)
         servicoOSRepository.deleteByOrdemServicoId(osId);
@@ -409,11 +423,11 @@ public class OrdemServicoService {
      */
     @Transactional
     public OrdemServicoResponse atualizarStatus(String emailUsuario, Long osId, String novoStatus) {
-        Usuario usuario = getUsuario(emailUsuario);
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
         OrdemServico os = osRepository.findById(osId)
                 .orElseThrow(() -> new ResourceNotFoundException("Ordem de Serviço não encontrada"));
 
-        if (!os.getUsuarioId().equals(usuario.getId())) {
+        if (!os.getUsuarioId().equals(usuarioId)) {
             throw new AccessDeniedException("Acesso negado a esta Ordem de Serviço");
         }
 
@@ -427,14 +441,16 @@ public class OrdemServicoService {
                     ". Transições permitidas: " + getTransicoesPermitidas(statusAtual));
         }
         
+        String statusAnterior = os.getStatus();
         os.setStatus(novoStatusEnum.name());
         os.setAtualizadoEm(LocalDateTime.now());
         
         osRepository.save(os);
+
+        List<ServicoOS> servicos = servicoOSRepository.findByOrdemServicoId(osId);
+        sincronizarComissoes(os, statusAnterior, servicos, false);
         
-        return toResponse(os, 
-                servicoOSRepository.findByOrdemServicoId(osId),
-                itemOSRepository.findByOrdemServicoId(osId));
+        return toResponse(os, servicos, itemOSRepository.findByOrdemServicoId(osId));
     }
 
     /**
@@ -442,8 +458,7 @@ public class OrdemServicoService {
      */
     @Transactional(readOnly = true)
     public DashboardStats getDashboardStats(String emailUsuario) {
-        Usuario usuario = getUsuario(emailUsuario);
-        Long uid = usuario.getId();
+        Long uid = tenantContext.getUsuarioId(emailUsuario);
 
         // Contagens mensais
         YearMonth mesAtual = YearMonth.now();
@@ -467,24 +482,20 @@ public class OrdemServicoService {
 
     // --- Helpers ---
 
-    private Usuario getUsuario(String email) {
-        return usuarioRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado"));
-    }
 
     /**
      * Verifica se o usuário ainda pode criar OS dentro do limite do plano.
      * Conta apenas as OS do mês atual.
      */
-    private void verificarLimitePlano(Usuario usuario) {
-        Plano plano = planoRepository.findByCodigo(usuario.getPlano()).orElse(null);
+    private void verificarLimitePlano(Long usuarioId, String planoCodigo) {
+        Plano plano = planoRepository.findByCodigo(planoCodigo).orElse(null);
         if (plano != null && plano.getLimiteOs() != null && plano.getLimiteOs() > 0) {
             // Contar OS do mês atual
             YearMonth mesAtual = YearMonth.now();
             LocalDateTime inicioMes = mesAtual.atDay(1).atStartOfDay();
             LocalDateTime fimMes = mesAtual.atEndOfMonth().atTime(LocalTime.MAX);
             long totalOsMes = osRepository.countByUsuarioIdAndCriadoEmBetween(
-                    usuario.getId(), inicioMes, fimMes);
+                    usuarioId, inicioMes, fimMes);
             if (totalOsMes >= plano.getLimiteOs()) {
                 throw new IllegalArgumentException(
                         "Limite de " + plano.getLimiteOs() + " Ordens de Serviço do plano " +
@@ -493,6 +504,22 @@ public class OrdemServicoService {
         }
     }
 
+    /**
+     * Mantém o livro de comissões coerente com a OS: credita ao concluir, estorna ao sair
+     * de CONCLUIDA e refaz os lançamentos se os serviços de uma OS concluída mudarem.
+     */
+    private void sincronizarComissoes(OrdemServico os, String statusAnterior, List<ServicoOS> servicos,
+                                      boolean servicosAlterados) {
+        boolean concluida = "CONCLUIDA".equals(os.getStatus());
+        boolean eraConcluida = "CONCLUIDA".equalsIgnoreCase(statusAnterior);
+        if (eraConcluida && (!concluida || servicosAlterados)) {
+            comissaoService.estornar(os.getId());
+        }
+        if (concluida && (!eraConcluida || servicosAlterados)) {
+            comissaoService.lancar(os, servicos);
+        }
+    }
+
     /**
      * Retorna string com transições permitidas para um status.
      */
@@ -647,11 +674,11 @@ public class OrdemServicoService {
         return (value == null || value.isBlank()) ? "-" : value.trim();
     }
 
-    private String resolverMecanicoResponsavel(String mecanicoResponsavel, Usuario usuario) {
+    private String resolverMecanicoResponsavel(String mecanicoResponsavel, String emailUsuario) {
         if (mecanicoResponsavel != null && !mecanicoResponsavel.isBlank()) {
             return mecanicoResponsavel.trim();
         }
-        return usuario.getNome();
+        return tenantContext.getUsuario(emailUsuario).getNome();
     }
 
     private Mecanico resolverMecanicoServico(Long usuarioId, Long mecanicoId) {
@@ -817,14 +844,7 @@ public class OrdemServicoService {
 
         for (ItemOS item : itens) {
             try {
-                StockItem stockItem = stockItemRepository.findById(item.getStockItemId()).orElse(null);
-                if (stockItem != null && stockItem.getUsuarioId().equals(usuarioId) && stockItem.getAtivo()) {
-                    int qtdAnterior = stockItem.getQuantidade();
-                    stockItem.setQuantidade(qtdAnterior + item.getQuantidade());
-                    stockItemRepository.save(stockItem);
-                    log.info("Devolvido ao estoque: {} x{} (OS #{})",
-                            stockItem.getCodigo(), item.getQuantidade(), osId);
-                }
+                stockService.devolverItemOS(usuarioId, osId, item.getStockItemId(), item.getQuantidade());
             } catch (Exception e) {
                 log.warn("Falha ao devolver item {} ao estoque (OS #{}): {}",
                         item.getStockItemId(), osId, e.getMessage());
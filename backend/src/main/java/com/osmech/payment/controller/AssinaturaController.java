@@ -35,6 +35,12 @@ public class AssinaturaController {
         return ResponseEntity.ok(response);
     }
 
+    /** POST /api/v1/assinaturas/renovacao/pagar - Checkout da renovação pendente (PAST_DUE/SUSPENDED) */
+    @PostMapping("/renovacao/pagar")
+    public ResponseEntity<AssinaturaResponse> pagarRenovacao(Authentication authentication) {
+        return ResponseEntity.ok(assinaturaService.pagarRenovacao(authentication.getName()));
+    }
+
     @GetMapping("/ativa")
     public ResponseEntity<AssinaturaResponse> getAssinaturaAtiva(Authentication authentication) {
         return ResponseEntity.ok(assinaturaService.buscarAssinaturaAtiva(authentication.getName()));
@@ -0,0 +1,68 @@
+package com.osmech.payment.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Caixa de entrada dos webhooks do Mercado Pago.
+ * O controller só valida a assinatura e grava o evento bruto aqui; o processamento
+ * (consulta ao gateway + atualização do pagamento) é feito pelo MercadoPagoWebhookWorker.
+ *
+ * Status: PENDENTE -> PROCESSANDO -> PROCESSADO, ou DEAD_LETTER após esgotar as tentativas.
+ */
+@Entity
+@Table(name = "mercadopago_webhook_inbox", indexes = {
+        @Index(name = "idx_mp_webhook_inbox_status_proxima", columnList = "status, proxima_tentativa"),
+        @Index(name = "idx_mp_webhook_inbox_payment_id", columnList = "payment_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MercadoPagoWebhookInbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "payment_id", nullable = false)
+    private Long paymentId;
+
+    @Column(name = "tipo_evento", length = 100)
+    private String tipoEvento;
+
+    @Column(name = "request_id", length = 100)
+    private String requestId;
+
+    /** Query params + corpo recebidos, em JSON */
+    @Column(columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private String status = "PENDENTE";
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer tentativas = 0;
+
+    @Column(name = "proxima_tentativa", nullable = false)
+    @Builder.Default
+    private LocalDateTime proximaTentativa = LocalDateTime.now();
+
+    @Column(name = "ultimo_erro", columnDefinition = "TEXT")
+    private String ultimoErro;
+
+    @Column(name = "criado_em", nullable = false, updatable = false)
+    @Builder.Default
+    private LocalDateTime criadoEm = LocalDateTime.now();
+
+    @Column(name = "atualizado_em")
+    private LocalDateTime atualizadoEm;
+
+    @Column(name = "processado_em")
+    private LocalDateTime processadoEm;
+}
@@ -3,6 +3,7 @@ package com.osmech.payment.entity;
 import jakarta.persistence.*;
 import lombok.*;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 /**
@@ -71,6 +72,22 @@ public class Pagamento {
     @Column(columnDefinition = "TEXT")
     private String observacoes;
 
+    /** Ciclo cobrado (data de vencimento) em renovações de assinatura; único por assinatura */
+    @Column(name = "competencia")
+    private LocalDate competencia;
+
+    /** Consultas de reconciliação sem resolução; define o backoff até a próxima */
+    @Column(name = "reconciliacao_tentativas", nullable = false)
+    @Builder.Default
+    private Integer reconciliacaoTentativas = 0;
+
+    @Column(name = "ultima_reconciliacao")
+    private LocalDateTime ultimaReconciliacao;
+
+    /** Antes deste instante o job de reconciliação não consulta o gateway para este pagamento */
+    @Column(name = "proxima_reconciliacao")
+    private LocalDateTime proximaReconciliacao;
+
     @Column(name = "criado_em", nullable = false, updatable = false)
     @Builder.Default
     private LocalDateTime criadoEm = LocalDateTime.now();
@@ -0,0 +1,62 @@
+package com.osmech.payment.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Relatório da reconciliação de pagamentos pendentes com o Mercado Pago.
+ * Uma linha por pagamento verificado em cada execução do job.
+ *
+ * Resultado: ATUALIZADO, INALTERADO, NAO_ENCONTRADO ou ERRO.
+ */
+@Entity
+@Table(name = "pagamento_reconciliacoes", indexes = {
+        @Index(name = "idx_pagamento_reconciliacoes_execucao", columnList = "execucao"),
+        @Index(name = "idx_pagamento_reconciliacoes_pagamento", columnList = "pagamento_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PagamentoReconciliacao {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** Início da execução do job (agrupa as linhas de uma mesma rodada) */
+    @Column(nullable = false)
+    private LocalDateTime execucao;
+
+    @Column(name = "pagamento_id", nullable = false)
+    private Long pagamentoId;
+
+    /** ID do pagamento no Mercado Pago, quando encontrado */
+    @Column(name = "mp_payment_id")
+    private Long mpPaymentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status_anterior", nullable = false, length = 20)
+    private StatusPagamento statusAnterior;
+
+    /** Status bruto retornado pelo gateway (approved, rejected...) */
+    @Column(name = "status_gateway", length = 30)
+    private String statusGateway;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status_atual", length = 20)
+    private StatusPagamento statusAtual;
+
+    @Column(nullable = false, length = 20)
+    private String resultado;
+
+    @Column(columnDefinition = "TEXT")
+    private String erro;
+
+    @Column(name = "criado_em", nullable = false, updatable = false)
+    @Builder.Default
+    private LocalDateTime criadoEm = LocalDateTime.now();
+}
@@ -1,7 +1,12 @@
 package com.osmech.payment.repository;
 
 import com.osmech.payment.entity.Assinatura;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
@@ -29,6 +34,25 @@ public interface AssinaturaRepository extends JpaRepository<Assinatura, Long> {
     /** Busca assinaturas com cobrança vencida (para automatização) */
     List<Assinatura> findByStatusAndProximaCobrancaBefore(String status, LocalDate data);
 
+    /**
+     * Página (keyset) de assinaturas vencidas em um status, seguindo idx_assinaturas_status_proxima_cobranca:
+     * [id, proximaCobranca], a partir do cursor (ultimaData, ultimoId).
+     */
+    @Query("SELECT a.id, a.proximaCobranca FROM Assinatura a WHERE a.status = :status " +
+           "AND a.proximaCobranca <= :ate " +
+           "AND (a.proximaCobranca > :ultimaData OR (a.proximaCobranca = :ultimaData AND a.id > :ultimoId)) " +
+           "ORDER BY a.proximaCobranca ASC, a.id ASC")
+    List<Object[]> findVencidasAposCursor(@Param("status") String status,
+                                          @Param("ate") LocalDate ate,
+                                          @Param("ultimaData") LocalDate ultimaData,
+                                          @Param("ultimoId") Long ultimoId,
+                                          Pageable pageable);
+
+    /** Carrega um lote com lock para a transição de status */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Assinatura a WHERE a.id IN :ids")
+    List<Assinatura> findByIdInForUpdate(@Param("ids") List<Long> ids);
+
     /** Busca assinaturas ativas */
     List<Assinatura> findByStatus(String status);
 
@@ -0,0 +1,44 @@
+package com.osmech.payment.repository;
+
+import com.osmech.payment.entity.MercadoPagoWebhookInbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface MercadoPagoWebhookInboxRepository extends JpaRepository<MercadoPagoWebhookInbox, Long> {
+
+    /** Eventos prontos para (re)processamento, mais antigos primeiro: [id, paymentId] */
+    @Query("SELECT i.id, i.paymentId FROM MercadoPagoWebhookInbox i WHERE i.status = 'PENDENTE' " +
+           "AND i.proximaTentativa <= :agora ORDER BY i.id ASC")
+    List<Object[]> findProntos(@Param("agora") LocalDateTime agora, Pageable pageable);
+
+    /**
+     * Reivindica o evento para processamento (PENDENTE -> PROCESSANDO).
+     * Não reivindica se houver evento anterior do mesmo pagamento ainda pendente,
+     * preservando a ordem por pagamento mesmo entre instâncias.
+     *
+     * @return 1 se este worker ficou com o evento
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE MercadoPagoWebhookInbox i SET i.status = 'PROCESSANDO', i.atualizadoEm = :agora " +
+           "WHERE i.id = :id AND i.status = 'PENDENTE' AND NOT EXISTS (" +
+           "SELECT o.id FROM MercadoPagoWebhookInbox o WHERE o.paymentId = i.paymentId AND o.id < i.id " +
+           "AND o.status IN ('PENDENTE', 'PROCESSANDO'))")
+    int reivindicar(@Param("id") Long id, @Param("agora") LocalDateTime agora);
+
+    /** Devolve à fila eventos presos em PROCESSANDO (instância reiniciada no meio do processamento) */
+    @Transactional
+    @Modifying
+    @Query("UPDATE MercadoPagoWebhookInbox i SET i.status = 'PENDENTE', i.atualizadoEm = :agora " +
+           "WHERE i.status = 'PROCESSANDO' AND i.atualizadoEm < :limite")
+    int liberarTravados(@Param("limite") LocalDateTime limite, @Param("agora") LocalDateTime agora);
+}
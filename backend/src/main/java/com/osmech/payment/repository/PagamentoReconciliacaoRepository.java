@@ -0,0 +1,18 @@
+package com.osmech.payment.repository;
+
+import com.osmech.payment.entity.PagamentoReconciliacao;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository para o relatório de reconciliação de pagamentos.
+ */
+@Repository
+public interface PagamentoReconciliacaoRepository extends JpaRepository<PagamentoReconciliacao, Long> {
+
+    /** Linhas de uma execução do job */
+    List<PagamentoReconciliacao> findByExecucaoOrderByIdAsc(LocalDateTime execucao);
+}
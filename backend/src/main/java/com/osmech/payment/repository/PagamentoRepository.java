@@ -2,10 +2,13 @@ package com.osmech.payment.repository;
 
 import com.osmech.payment.entity.Pagamento;
 import com.osmech.payment.entity.StatusPagamento;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -34,6 +37,41 @@ public interface PagamentoRepository extends JpaRepository<Pagamento, Long> {
     Optional<Pagamento> findFirstByUsuarioIdAndTipoAndReferenciaIdAndStatusOrderByCriadoEmDesc(
             Long usuarioId, String tipo, Long referenciaId, StatusPagamento status);
 
+    /** Cobranças de renovação já geradas para as assinaturas: [referenciaId, competencia] */
+    @Query("SELECT p.referenciaId, p.competencia FROM Pagamento p WHERE p.tipo = 'ASSINATURA' " +
+           "AND p.referenciaId IN :ids AND p.competencia IS NOT NULL")
+    List<Object[]> findCompetenciasCobradas(@Param("ids") List<Long> assinaturaIds);
+
+    /**
+     * Pendentes do Mercado Pago a reconciliar, em páginas por id: [id, reconciliacaoTentativas].
+     * Só os que já têm preferência/id no gateway, criados antes de {@code limite}, mexidos pela
+     * última vez depois de {@code idadeMaxima} e com o backoff vencido em {@code agora}.
+     */
+    @Query("SELECT p.id, p.reconciliacaoTentativas FROM Pagamento p WHERE p.status = 'PENDENTE' " +
+           "AND p.metodoPagamento LIKE 'MERCADO_PAGO%' AND p.transacaoExternaId IS NOT NULL " +
+           "AND p.criadoEm < :limite AND COALESCE(p.atualizadoEm, p.criadoEm) >= :idadeMaxima " +
+           "AND (p.proximaReconciliacao IS NULL OR p.proximaReconciliacao <= :agora) " +
+           "AND p.id > :aposId ORDER BY p.id")
+    List<Object[]> findPendentesParaReconciliar(@Param("limite") LocalDateTime limite,
+                                                @Param("idadeMaxima") LocalDateTime idadeMaxima,
+                                                @Param("agora") LocalDateTime agora,
+                                                @Param("aposId") Long aposId,
+                                                Pageable pageable);
+
+    /** Registra uma reconciliação sem resolução e adia a próxima, se o pagamento continua pendente */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Pagamento p SET p.reconciliacaoTentativas = p.reconciliacaoTentativas + 1, " +
+           "p.ultimaReconciliacao = :execucao, p.proximaReconciliacao = :proxima " +
+           "WHERE p.id = :id AND p.status = 'PENDENTE'")
+    int registrarReconciliacao(@Param("id") Long id,
+                               @Param("execucao") LocalDateTime execucao,
+                               @Param("proxima") LocalDateTime proxima);
+
+    /** Status atual de um pagamento */
+    @Query("SELECT p.status FROM Pagamento p WHERE p.id = :id")
+    Optional<StatusPagamento> findStatusById(@Param("id") Long id);
+
     /** Busca pagamento pela referencia externa do gateway */
     Optional<Pagamento> findByTransacaoExternaId(String transacaoExternaId);
 
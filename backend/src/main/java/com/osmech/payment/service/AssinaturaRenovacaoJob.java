@@ -0,0 +1,135 @@
+package com.osmech.payment.service;
+
+import com.osmech.payment.repository.AssinaturaRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Job diário de renovação/inadimplência das assinaturas.
+ *
+ * Percorre as assinaturas vencidas de cada status por keyset (proxima_cobranca, id),
+ * seguindo idx_assinaturas_status_proxima_cobranca, e envia cada página como um lote
+ * para o AssinaturaRenovacaoService, com no máximo {@code paralelismo} lotes simultâneos.
+ * Como todo o estado fica nas próprias linhas, uma execução interrompida é retomada
+ * naturalmente pela próxima.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AssinaturaRenovacaoJob {
+
+    private final AssinaturaRepository assinaturaRepository;
+    private final AssinaturaRenovacaoService renovacaoService;
+
+    @Value("${assinatura.renovacao.enabled:true}")
+    private boolean enabled;
+
+    @Value("${assinatura.renovacao.tamanho-lote:200}")
+    private int tamanhoLote;
+
+    @Value("${assinatura.renovacao.paralelismo:4}")
+    private int paralelismo;
+
+    private ExecutorService executor;
+
+    @Scheduled(cron = "${assinatura.renovacao.cron:0 0 6 * * *}")
+    public void executar() {
+        if (!enabled) {
+            return;
+        }
+        LocalDate hoje = LocalDate.now();
+        // PAST_DUE primeiro: assinaturas que viram PAST_DUE hoje não entram na carência do mesmo dia
+        processarStatus(AssinaturaRenovacaoService.STATUS_PAST_DUE, hoje);
+        processarStatus(AssinaturaRenovacaoService.STATUS_ACTIVE, hoje);
+    }
+
+    void processarStatus(String status, LocalDate hoje) {
+        Semaphore vagas = new Semaphore(paralelismo);
+        List<Future<?>> lotes = new ArrayList<>();
+        AtomicInteger renovadas = new AtomicInteger();
+        AtomicInteger suspensas = new AtomicInteger();
+        AtomicInteger falhas = new AtomicInteger();
+
+        LocalDate ultimaData = LocalDate.of(1970, 1, 1);
+        Long ultimoId = 0L;
+
+        try {
+            while (true) {
+                List<Object[]> pagina = assinaturaRepository.findVencidasAposCursor(
+                        status, hoje, ultimaData, ultimoId, PageRequest.of(0, tamanhoLote));
+                if (pagina.isEmpty()) {
+                    break;
+                }
+                Object[] ultima = pagina.get(pagina.size() - 1);
+                ultimoId = (Long) ultima[0];
+                ultimaData = (LocalDate) ultima[1];
+
+                List<Long> ids = pagina.stream().map(row -> (Long) row[0]).toList();
+                vagas.acquireUninterruptibly();
+                lotes.add(executor().submit(() -> {
+                    try {
+                        AssinaturaRenovacaoService.ResultadoLote r = renovacaoService.processarLote(ids, hoje);
+                        renovadas.addAndGet(r.renovadas());
+                        suspensas.addAndGet(r.suspensas());
+                    } catch (Exception e) {
+                        // Lote inteiro faz rollback; as assinaturas continuam vencidas e entram na próxima execução
+                        falhas.incrementAndGet();
+                        log.error("Erro ao processar lote de {} assinaturas ({}): {}", ids.size(), status, e.getMessage(), e);
+                    } finally {
+                        vagas.release();
+                    }
+                }));
+
+                if (pagina.size() < tamanhoLote) {
+                    break;
+                }
+            }
+        } finally {
+            // Mesmo se a paginação falhar, os lotes já enviados terminam (commit ou rollback) antes de sair
+            for (Future<?> lote : lotes) {
+                try {
+                    lote.get();
+                } catch (Exception e) {
+                    log.error("Lote de renovação interrompido: {}", e.getMessage());
+                }
+            }
+        }
+
+        if (!lotes.isEmpty()) {
+            log.info("Renovação de assinaturas ({}): {} lotes, {} cobranças geradas, {} suspensas, {} lotes com falha",
+                    status, lotes.size(), renovadas.get(), suspensas.get(), falhas.get());
+        }
+    }
+
+    private synchronized ExecutorService executor() {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(paralelismo, r -> {
+                Thread t = new Thread(r, "assinatura-renovacao");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return executor;
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
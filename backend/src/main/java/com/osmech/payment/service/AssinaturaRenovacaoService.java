@@ -0,0 +1,110 @@
+package com.osmech.payment.service;
+
+import com.osmech.payment.entity.Assinatura;
+import com.osmech.payment.entity.Pagamento;
+import com.osmech.payment.entity.StatusPagamento;
+import com.osmech.payment.repository.AssinaturaRepository;
+import com.osmech.payment.repository.PagamentoRepository;
+import com.osmech.security.PrincipalCache;
+import com.osmech.user.repository.UsuarioRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Régua de cobrança das assinaturas (processa um lote por transação).
+ *
+ * ACTIVE vencida -> gera Pagamento de renovação (competência = vencimento) e vai para PAST_DUE.
+ * PAST_DUE além da carência -> SUSPENDED e a oficina volta ao plano FREE.
+ * A cobrança nasce sem preferência no Mercado Pago (nada de rede sob o lock do lote): o checkout
+ * é criado em AssinaturaService.pagarRenovacao quando a oficina vai pagar. O webhook de pagamento
+ * aprovado devolve a assinatura para ACTIVE e avança proximaCobranca.
+ *
+ * Idempotente: o status é rechecado sob lock e a cobrança é única por (assinatura, competência).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AssinaturaRenovacaoService {
+
+    static final String STATUS_ACTIVE = "ACTIVE";
+    static final String STATUS_PAST_DUE = "PAST_DUE";
+    static final String STATUS_SUSPENDED = "SUSPENDED";
+
+    private static final String METODO_MERCADO_PAGO_CHECKOUT = "MERCADO_PAGO_CHECKOUT";
+
+    private final AssinaturaRepository assinaturaRepository;
+    private final PagamentoRepository pagamentoRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final PrincipalCache principalCache;
+
+    /** Resultado de um lote */
+    public record ResultadoLote(int renovadas, int suspensas, int ignoradas) {}
+
+    @Transactional
+    public ResultadoLote processarLote(List<Long> assinaturaIds, LocalDate hoje) {
+        List<Assinatura> assinaturas = assinaturaRepository.findByIdInForUpdate(assinaturaIds);
+
+        Set<String> jaCobradas = new HashSet<>();
+        for (Object[] row : pagamentoRepository.findCompetenciasCobradas(assinaturaIds)) {
+            jaCobradas.add(row[0] + "|" + row[1]);
+        }
+
+        List<Pagamento> cobrancas = new ArrayList<>();
+        int renovadas = 0, suspensas = 0, ignoradas = 0;
+
+        for (Assinatura a : assinaturas) {
+            LocalDate vencimento = a.getProximaCobranca();
+            if (vencimento == null || vencimento.isAfter(hoje)) {
+                ignoradas++; // pago/alterado entre a leitura da página e o lock
+                continue;
+            }
+
+            if (STATUS_ACTIVE.equals(a.getStatus())) {
+                if (jaCobradas.add(a.getId() + "|" + vencimento)) {
+                    cobrancas.add(Pagamento.builder()
+                            .usuarioId(a.getUsuarioId())
+                            .tipo("ASSINATURA")
+                            .referenciaId(a.getId())
+                            .descricao("Renovação assinatura " + a.getPlanoCodigo() + " - vencimento " + vencimento)
+                            .metodoPagamento(METODO_MERCADO_PAGO_CHECKOUT)
+                            .valor(a.getValorMensal())
+                            .status(StatusPagamento.PENDENTE)
+                            .competencia(vencimento)
+                            .criadoEm(LocalDateTime.now())
+                            .build());
+                }
+                a.setStatus(STATUS_PAST_DUE);
+                renovadas++;
+            } else if (STATUS_PAST_DUE.equals(a.getStatus())) {
+                int carencia = a.getDiasCarencia() != null ? a.getDiasCarencia() : 0;
+                if (!vencimento.plusDays(carencia).isBefore(hoje)) {
+                    ignoradas++;
+                    continue;
+                }
+                a.setStatus(STATUS_SUSPENDED);
+                usuarioRepository.findById(a.getUsuarioId()).ifPresent(usuario -> {
+                    usuario.setPlano("FREE");
+                    usuarioRepository.save(usuario);
+                    principalCache.invalidar(usuario.getEmail());
+                });
+                suspensas++;
+            } else {
+                ignoradas++;
+            }
+        }
+
+        pagamentoRepository.saveAll(cobrancas);
+        assinaturaRepository.saveAll(assinaturas);
+
+        return new ResultadoLote(renovadas, suspensas, ignoradas);
+    }
+}
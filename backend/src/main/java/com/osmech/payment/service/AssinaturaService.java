@@ -10,6 +10,8 @@ import com.osmech.payment.repository.AssinaturaRepository;
 import com.osmech.payment.repository.PagamentoRepository;
 import com.osmech.plan.entity.Plano;
 import com.osmech.plan.repository.PlanoRepository;
+import com.osmech.security.PrincipalCache;
+import com.osmech.security.TenantContext;
 import com.osmech.user.entity.Usuario;
 import com.osmech.user.repository.UsuarioRepository;
 import lombok.RequiredArgsConstructor;
@@ -20,6 +22,7 @@ import org.springframework.util.StringUtils;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
 
 @Service
@@ -41,6 +44,8 @@ public class AssinaturaService {
     private final AssinaturaRepository assinaturaRepository;
     private final PagamentoRepository pagamentoRepository;
     private final MercadoPagoService mercadoPagoService;
+    private final PrincipalCache principalCache;
+    private final TenantContext tenantContext;
 
     @Transactional
     public AssinaturaResponse iniciarAssinatura(String email, String planoCodigo) {
@@ -50,8 +55,7 @@ public class AssinaturaService {
 
         String planoCodigoNormalizado = planoCodigo.trim().toUpperCase();
 
-        Usuario usuario = usuarioRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("Usuario nao encontrado"));
+        Long usuarioId = tenantContext.getUsuarioId(email);
 
         Plano plano = planoRepository.findByCodigo(planoCodigoNormalizado)
                 .orElseThrow(() -> new ResourceNotFoundException("Plano nao encontrado: " + planoCodigoNormalizado));
@@ -62,13 +66,13 @@ public class AssinaturaService {
         }
 
         Assinatura assinaturaPendente = assinaturaRepository
-                .findFirstByUsuarioIdAndStatusOrderByCriadoEmDesc(usuario.getId(), STATUS_PENDING)
+                .findFirstByUsuarioIdAndStatusOrderByCriadoEmDesc(usuarioId, STATUS_PENDING)
                 .orElse(null);
 
         if (assinaturaPendente != null) {
             Pagamento pagamentoPendente = pagamentoRepository
                     .findFirstByUsuarioIdAndTipoAndReferenciaIdAndStatusOrderByCriadoEmDesc(
-                            usuario.getId(), "ASSINATURA", assinaturaPendente.getId(), StatusPagamento.PENDENTE
+                            usuarioId, "ASSINATURA", assinaturaPendente.getId(), StatusPagamento.PENDENTE
                     )
                     .orElse(null);
 
@@ -89,7 +93,7 @@ public class AssinaturaService {
         }
 
         Assinatura assinatura = Assinatura.builder()
-                .usuarioId(usuario.getId())
+                .usuarioId(usuarioId)
                 .planoId(plano.getId())
                 .planoCodigo(plano.getCodigo())
                 .status(STATUS_PENDING)
@@ -110,7 +114,7 @@ public class AssinaturaService {
         }
 
         Pagamento pagamento = Pagamento.builder()
-                .usuarioId(usuario.getId())
+                .usuarioId(usuarioId)
                 .tipo("ASSINATURA")
                 .referenciaId(assinatura.getId())
                 .descricao("Assinatura Plano " + plano.getNome())
@@ -122,7 +126,7 @@ public class AssinaturaService {
 
         pagamento = pagamentoRepository.save(pagamento);
 
-        Preference preference = mercadoPagoService.criarPreferenciaAssinatura(usuario, plano, assinatura, pagamento);
+        Preference preference = mercadoPagoService.criarPreferenciaAssinatura(email, plano, assinatura, pagamento);
 
         pagamento.setTransacaoExternaId(preference.getId());
         pagamentoRepository.save(pagamento);
@@ -131,14 +135,58 @@ public class AssinaturaService {
         return toResponse(assinatura, checkoutUrl, preference.getId());
     }
 
+    /**
+     * Checkout da cobrança de renovação pendente (assinatura PAST_DUE ou SUSPENDED).
+     * A régua só grava o Pagamento; a preferência no Mercado Pago é criada aqui, na primeira
+     * tentativa de pagamento, e reaproveitada nas seguintes. O webhook de pagamento aprovado
+     * reativa a assinatura e devolve o plano à oficina.
+     */
+    @Transactional
+    public AssinaturaResponse pagarRenovacao(String email) {
+        Long usuarioId = tenantContext.getUsuarioId(email);
+
+        Assinatura assinatura = assinaturaRepository
+                .findByUsuarioIdAndStatusIn(usuarioId, List.of(STATUS_PAST_DUE, STATUS_SUSPENDED))
+                .orElseThrow(() -> new ResourceNotFoundException("Nenhuma assinatura com renovacao em aberto"));
+
+        // Cobrança de renovação mais recente ainda não paga (FALHOU: pagamento recusado, pode tentar de novo)
+        Pagamento pagamento = pagamentoRepository
+                .findByUsuarioIdAndTipoAndReferenciaId(usuarioId, "ASSINATURA", assinatura.getId()).stream()
+                .filter(p -> p.getCompetencia() != null)
+                .filter(p -> StatusPagamento.PENDENTE.equals(p.getStatus()) || StatusPagamento.FALHOU.equals(p.getStatus()))
+                .max(Comparator.comparing(Pagamento::getCompetencia))
+                .orElseThrow(() -> new ResourceNotFoundException("Nenhuma cobranca de renovacao pendente"));
+
+        if (StatusPagamento.FALHOU.equals(pagamento.getStatus())) {
+            pagamento.setStatus(StatusPagamento.PENDENTE);
+            pagamento.setTransacaoExternaId(null);
+        }
+
+        String preferenceId = pagamento.getTransacaoExternaId();
+        String checkoutUrl = mercadoPagoService.resolverCheckoutUrlPorPreferenciaId(preferenceId);
+        if (checkoutUrl == null) {
+            Plano plano = planoRepository.findByCodigo(assinatura.getPlanoCodigo())
+                    .orElseThrow(() -> new ResourceNotFoundException("Plano nao encontrado: " + assinatura.getPlanoCodigo()));
+            Preference preference = mercadoPagoService.criarPreferenciaAssinatura(email, plano, assinatura, pagamento);
+            preferenceId = preference.getId();
+            checkoutUrl = mercadoPagoService.resolverCheckoutUrl(preference);
+            pagamento.setTransacaoExternaId(preferenceId);
+            // Checkout novo: a reconciliação volta a consultar sem o backoff acumulado
+            pagamento.setReconciliacaoTentativas(0);
+            pagamento.setProximaReconciliacao(null);
+        }
+        pagamentoRepository.save(pagamento);
+
+        return toResponse(assinatura, checkoutUrl, preferenceId);
+    }
+
     @Transactional(readOnly = true)
     public AssinaturaResponse buscarAssinaturaAtiva(String email) {
-        Usuario usuario = usuarioRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("Usuario nao encontrado"));
+        Long usuarioId = tenantContext.getUsuarioId(email);
 
         Assinatura assinatura = assinaturaRepository
-                .findByUsuarioIdAndStatusIn(usuario.getId(), STATUS_ASSINATURA_EM_ABERTO)
-                .orElseGet(() -> assinaturaRepository.findFirstByUsuarioIdOrderByCriadoEmDesc(usuario.getId())
+                .findByUsuarioIdAndStatusIn(usuarioId, STATUS_ASSINATURA_EM_ABERTO)
+                .orElseGet(() -> assinaturaRepository.findFirstByUsuarioIdOrderByCriadoEmDesc(usuarioId)
                         .orElseThrow(() -> new ResourceNotFoundException("Nenhuma assinatura encontrada")));
 
         return toResponse(assinatura);
@@ -146,8 +194,7 @@ public class AssinaturaService {
 
     @Transactional
     public AssinaturaResponse cancelarAssinatura(String email) {
-        Usuario usuario = usuarioRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("Usuario nao encontrado"));
+        Usuario usuario = tenantContext.getUsuario(email);
 
         Assinatura assinatura = assinaturaRepository
                 .findByUsuarioIdAndStatusIn(usuario.getId(), STATUS_ASSINATURA_EM_ABERTO)
@@ -161,16 +208,16 @@ public class AssinaturaService {
         usuario.setPlano("FREE");
         usuario.setAtivo(true);
         usuarioRepository.save(usuario);
+        principalCache.invalidar(usuario.getEmail());
 
         return toResponse(assinatura);
     }
 
     @Transactional(readOnly = true)
     public List<AssinaturaResponse> listarHistorico(String email) {
-        Usuario usuario = usuarioRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("Usuario nao encontrado"));
+        Long usuarioId = tenantContext.getUsuarioId(email);
 
-        return assinaturaRepository.findByUsuarioIdOrderByCriadoEmDesc(usuario.getId())
+        return assinaturaRepository.findByUsuarioIdOrderByCriadoEmDesc(usuarioId)
                 .stream()
                 .map(this::toResponse)
                 .toList();
@@ -178,10 +225,9 @@ public class AssinaturaService {
 
     @Transactional(readOnly = true)
     public boolean isAssinaturaAtiva(String email) {
-        Usuario usuario = usuarioRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("Usuario nao encontrado"));
+        Long usuarioId = tenantContext.getUsuarioId(email);
 
-        return assinaturaRepository.findByUsuarioIdAndStatusIn(usuario.getId(), List.of(STATUS_ACTIVE))
+        return assinaturaRepository.findByUsuarioIdAndStatusIn(usuarioId, List.of(STATUS_ACTIVE))
                 .isPresent();
     }
 
@@ -0,0 +1,184 @@
+package com.osmech.payment.service;
+
+import com.mercadopago.client.payment.PaymentClient;
+import com.mercadopago.client.preference.PreferenceClient;
+import com.mercadopago.client.preference.PreferenceRequest;
+import com.mercadopago.exceptions.MPApiException;
+import com.mercadopago.net.MPResultsResourcesPage;
+import com.mercadopago.net.MPSearchRequest;
+import com.mercadopago.resources.payment.Payment;
+import com.mercadopago.resources.preference.Preference;
+import com.osmech.config.CircuitBreaker;
+import com.osmech.config.TtlCache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Camada única de acesso à API do Mercado Pago.
+ *
+ * Um PaymentClient e um PreferenceClient compartilhados usam o transporte HTTP com pool
+ * configurado no MercadoPagoInitializer (timeouts e conexões máximas). Consultas por id
+ * passam por um cache de TTL curto; todas as chamadas passam por um circuit breaker e
+ * registram latência em {@code mercadopago.client.requests}.
+ */
+@Service
+@DependsOn("mercadoPagoInitializer")
+@RequiredArgsConstructor
+@Slf4j
+public class MercadoPagoGateway {
+
+    private static final String METRICA = "mercadopago.client.requests";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${mercadopago.client.cache-ttl-segundos:30}")
+    private long cacheTtlSegundos;
+
+    @Value("${mercadopago.client.cache-fallback-segundos:600}")
+    private long cacheFallbackSegundos;
+
+    @Value("${mercadopago.client.cache-max-itens:2000}")
+    private int cacheMaxItens;
+
+    @Value("${mercadopago.client.circuit-breaker.limite-falhas:5}")
+    private int limiteFalhas;
+
+    @Value("${mercadopago.client.circuit-breaker.tempo-aberto-segundos:30}")
+    private long tempoAbertoSegundos;
+
+    private PaymentClient paymentClient;
+    private PreferenceClient preferenceClient;
+    private TtlCache<Long, Payment> pagamentos;
+    private TtlCache<String, Preference> preferencias;
+    private CircuitBreaker circuitBreaker;
+
+    @PostConstruct
+    public void iniciar() {
+        if (paymentClient == null) paymentClient = new PaymentClient();
+        if (preferenceClient == null) preferenceClient = new PreferenceClient();
+
+        pagamentos = new TtlCache<>(cacheTtlSegundos * 1000, cacheMaxItens);
+        preferencias = new TtlCache<>(cacheTtlSegundos * 1000, cacheFallbackSegundos * 1000, cacheMaxItens);
+        // Erros 4xx (id inexistente, request inválido) não indicam indisponibilidade do gateway
+        circuitBreaker = new CircuitBreaker("mercadopago", limiteFalhas, tempoAbertoSegundos * 1000,
+                e -> !(e instanceof MPApiException api && api.getStatusCode() >= 400 && api.getStatusCode() < 500));
+
+        Gauge.builder("mercadopago.client.circuit.aberto", circuitBreaker,
+                        cb -> cb.getEstado() == CircuitBreaker.Estado.FECHADO ? 0 : 1)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Pagamento por id. Cache curto absorve consultas repetidas (reentregas de webhook,
+     * reconciliação); sem fallback para valor vencido, pois o status precisa ser atual.
+     */
+    public Payment buscarPagamento(Long paymentId) throws Exception {
+        Payment cached = pagamentos.get(paymentId);
+        if (cached != null) {
+            registrarCache("payment.get");
+            return cached;
+        }
+        Payment payment = chamar("payment.get", () -> paymentClient.get(paymentId));
+        pagamentos.put(paymentId, payment);
+        return payment;
+    }
+
+    /**
+     * Pagamentos associados a uma external_reference (id do Pagamento local), mais recentes
+     * primeiro. Sem cache: usado pela reconciliação justamente quando o webhook se perdeu.
+     */
+    public List<Payment> buscarPagamentosPorReferencia(String externalReference) throws Exception {
+        MPSearchRequest request = MPSearchRequest.builder()
+                .limit(10)
+                .offset(0)
+                .filters(Map.of(
+                        "external_reference", externalReference,
+                        "sort", "date_last_updated",
+                        "criteria", "desc"))
+                .build();
+        MPResultsResourcesPage<Payment> pagina = chamar("payment.search", () -> paymentClient.search(request));
+        if (pagina == null || pagina.getResults() == null) {
+            return Collections.emptyList();
+        }
+        return pagina.getResults();
+    }
+
+    /** Descarta o pagamento do cache (ex.: antes de reprocessar um evento com falha) */
+    public void invalidarPagamento(Long paymentId) {
+        pagamentos.invalidate(paymentId);
+    }
+
+    /**
+     * Preferência por id. Com o gateway indisponível (erro ou circuito aberto),
+     * devolve a última versão conhecida dentro da janela de fallback.
+     */
+    public Preference buscarPreferencia(String preferenceId) throws Exception {
+        Preference cached = preferencias.get(preferenceId);
+        if (cached != null) {
+            registrarCache("preference.get");
+            return cached;
+        }
+        try {
+            Preference preference = chamar("preference.get", () -> preferenceClient.get(preferenceId));
+            preferencias.put(preferenceId, preference);
+            return preference;
+        } catch (Exception e) {
+            Preference stale = preferencias.getStale(preferenceId);
+            if (stale != null) {
+                log.warn("Mercado Pago indisponível, usando preferência em cache. preferenceId={} ({})",
+                        preferenceId, e.getMessage());
+                return stale;
+            }
+            throw e;
+        }
+    }
+
+    /** Cria preferência (sem cache na ida; o resultado já alimenta o cache de consulta) */
+    public Preference criarPreferencia(PreferenceRequest request) throws Exception {
+        Preference preference = chamar("preference.create", () -> preferenceClient.create(request));
+        if (preference != null && preference.getId() != null) {
+            preferencias.put(preference.getId(), preference);
+        }
+        return preference;
+    }
+
+    public CircuitBreaker.Estado getEstadoCircuito() {
+        return circuitBreaker.getEstado();
+    }
+
+    private <T> T chamar(String operacao, CircuitBreaker.Chamada<T> chamada) throws Exception {
+        long inicio = System.nanoTime();
+        String resultado = "sucesso";
+        try {
+            return circuitBreaker.executar(chamada);
+        } catch (CircuitBreaker.CircuitoAbertoException e) {
+            resultado = "circuito_aberto";
+            throw e;
+        } catch (Exception e) {
+            resultado = "erro";
+            throw e;
+        } finally {
+            Timer.builder(METRICA)
+                    .tag("operacao", operacao)
+                    .tag("resultado", resultado)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void registrarCache(String operacao) {
+        meterRegistry.counter(METRICA + ".cache", "operacao", operacao).increment();
+    }
+}
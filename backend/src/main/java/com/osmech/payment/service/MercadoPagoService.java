@@ -1,7 +1,6 @@
 package com.osmech.payment.service;
 
 import com.mercadopago.client.preference.PreferenceBackUrlsRequest;
-import com.mercadopago.client.preference.PreferenceClient;
 import com.mercadopago.client.preference.PreferenceItemRequest;
 import com.mercadopago.client.preference.PreferenceRequest;
 import com.mercadopago.exceptions.MPApiException;
@@ -9,7 +8,6 @@ import com.mercadopago.resources.preference.Preference;
 import com.osmech.payment.entity.Assinatura;
 import com.osmech.payment.entity.Pagamento;
 import com.osmech.plan.entity.Plano;
-import com.osmech.user.entity.Usuario;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -39,22 +37,9 @@ public class MercadoPagoService {
     @Value("${mercadopago.access-token:}")
     private String accessToken;
 
-    // Lazy-initialized client for better testability
-    private PreferenceClient preferenceClient;
+    private final MercadoPagoGateway gateway;
 
-    private PreferenceClient getPreferenceClient() {
-        if (preferenceClient == null) {
-            preferenceClient = new PreferenceClient();
-        }
-        return preferenceClient;
-    }
-
-    // Setter for testing purposes
-    public void setPreferenceClient(PreferenceClient client) {
-        this.preferenceClient = client;
-    }
-
-    public Preference criarPreferenciaAssinatura(Usuario usuario,
+    public Preference criarPreferenciaAssinatura(String emailUsuario,
                                                  Plano plano,
                                                  Assinatura assinatura,
                                                  Pagamento pagamento) {
@@ -77,20 +62,20 @@ public class MercadoPagoService {
 
             Preference preference;
             try {
-                preference = getPreferenceClient().create(buildPreferenceRequest(item, pagamento, true));
+                preference = gateway.criarPreferencia(buildPreferenceRequest(item, pagamento, true));
             } catch (MPApiException e) {
                 String apiBody = e.getApiResponse() != null ? e.getApiResponse().getContent() : "";
                 if (e.getStatusCode() == 400 && apiBody != null && apiBody.contains("invalid_auto_return")) {
                     log.warn("Mercado Pago rejeitou auto_return, tentando novamente sem auto_return. assinaturaId={}",
                             assinatura.getId());
-                    preference = getPreferenceClient().create(buildPreferenceRequest(item, pagamento, false));
+                    preference = gateway.criarPreferencia(buildPreferenceRequest(item, pagamento, false));
                 } else {
                     throw e;
                 }
             }
 
             log.info("Preferencia Mercado Pago criada para assinatura {} (usuario {}): {}",
-                    assinatura.getId(), usuario.getEmail(), preference.getId());
+                    assinatura.getId(), emailUsuario, preference.getId());
 
             return preference;
         } catch (MPApiException e) {
@@ -158,7 +143,7 @@ public class MercadoPagoService {
             return null;
         }
         try {
-            Preference preference = getPreferenceClient().get(id);
+            Preference preference = gateway.buscarPreferencia(id);
             return resolverCheckoutUrl(preference);
         } catch (Exception e) {
             log.warn("Nao foi possivel resolver checkout para preferenceId={} ({})", id, e.getMessage());
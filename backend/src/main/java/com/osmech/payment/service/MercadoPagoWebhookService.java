@@ -1,22 +1,29 @@
 package com.osmech.payment.service;
 
-import com.mercadopago.client.payment.PaymentClient;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mercadopago.resources.payment.Payment;
 import com.osmech.payment.entity.Assinatura;
 import com.osmech.payment.entity.MercadoPagoWebhookEvent;
+import com.osmech.payment.entity.MercadoPagoWebhookInbox;
 import com.osmech.payment.entity.Pagamento;
 import com.osmech.payment.entity.StatusPagamento;
 import com.osmech.payment.repository.AssinaturaRepository;
 import com.osmech.payment.repository.MercadoPagoWebhookEventRepository;
+import com.osmech.payment.repository.MercadoPagoWebhookInboxRepository;
 import com.osmech.payment.repository.PagamentoRepository;
+import com.osmech.security.PrincipalCache;
 import com.osmech.user.repository.UsuarioRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.env.Environment;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import jakarta.annotation.PostConstruct;
 import javax.crypto.Mac;
@@ -26,9 +33,12 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.security.MessageDigest;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -39,13 +49,28 @@ public class MercadoPagoWebhookService {
     private final AssinaturaRepository assinaturaRepository;
     private final MercadoPagoWebhookEventRepository webhookEventRepository;
     private final UsuarioRepository usuarioRepository;
+    private final MercadoPagoWebhookInboxRepository inboxRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MercadoPagoGateway gateway;
+    private final PrincipalCache principalCache;
 
     @Value("${mercadopago.webhook-secret:}")
     private String webhookSecret;
 
     private final Environment environment;
 
-    private final PaymentClient paymentClient = new PaymentClient();
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    /** Chaves de eventos já aplicados (LRU limitado) */
+    private final Set<String> eventosVistos = Collections.newSetFromMap(Collections.synchronizedMap(
+            new LinkedHashMap<>(1024, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                    return size() > MAX_EVENTOS_VISTOS;
+                }
+            }));
+
+    private static final int MAX_EVENTOS_VISTOS = 10_000;
 
     @PostConstruct
     public void validateProductionConfig() {
@@ -80,7 +105,11 @@ public class MercadoPagoWebhookService {
         }
     }
 
-    @Transactional
+    /**
+     * Recebe o webhook: valida tipo, payment id e assinatura, grava o evento bruto na
+     * caixa de entrada e retorna. A consulta ao Mercado Pago e a atualização do
+     * pagamento acontecem depois, no MercadoPagoWebhookWorker.
+     */
     public void processarNotificacao(Map<String, String> queryParams,
                                      Map<String, String> headers,
                                      Map<String, Object> body) {
@@ -98,7 +127,36 @@ public class MercadoPagoWebhookService {
 
         validarAssinaturaSeConfigurada(queryParams, headers, mercadoPagoPaymentId);
 
-        Payment mpPayment = buscarPagamentoMercadoPago(mercadoPagoPaymentId);
+        MercadoPagoWebhookInbox evento = inboxRepository.save(MercadoPagoWebhookInbox.builder()
+                .paymentId(mercadoPagoPaymentId)
+                .tipoEvento(tipoEvento)
+                .requestId(obterHeader(headers, "x-request-id"))
+                .payload(serializarPayload(queryParams, body))
+                .build());
+        eventPublisher.publishEvent(new WebhookRecebidoEvent(evento.getId(), mercadoPagoPaymentId));
+
+        log.debug("Webhook Mercado Pago enfileirado. inboxId={} mpPaymentId={}", evento.getId(), mercadoPagoPaymentId);
+    }
+
+    /** Evento publicado após gravar o webhook na caixa de entrada */
+    public record WebhookRecebidoEvent(Long inboxId, Long paymentId) {}
+
+    /**
+     * Consulta o pagamento no gateway (fora de transação).
+     * Um webhook indica mudança de estado, então o cache é descartado antes da consulta.
+     */
+    public Payment consultarPagamento(Long mercadoPagoPaymentId) {
+        gateway.invalidarPagamento(mercadoPagoPaymentId);
+        return buscarPagamentoMercadoPago(mercadoPagoPaymentId);
+    }
+
+    /**
+     * Aplica ao pagamento local (e à assinatura) o estado retornado pelo gateway.
+     * Eventos já vistos (mesmo status/detalhe/data de atualização) são ignorados.
+     */
+    @Transactional
+    public void aplicarPagamento(Payment mpPayment) {
+        Long mercadoPagoPaymentId = mpPayment.getId();
         Optional<Pagamento> pagamentoOpt = localizarPagamentoLocal(mpPayment, mercadoPagoPaymentId);
 
         if (pagamentoOpt.isEmpty()) {
@@ -138,7 +196,7 @@ public class MercadoPagoWebhookService {
 
     private Payment buscarPagamentoMercadoPago(Long mercadoPagoPaymentId) {
         try {
-            return paymentClient.get(mercadoPagoPaymentId);
+            return gateway.buscarPagamento(mercadoPagoPaymentId);
         } catch (Exception e) {
             throw new RuntimeException("Falha ao consultar pagamento no Mercado Pago: " + mercadoPagoPaymentId, e);
         }
@@ -171,13 +229,16 @@ public class MercadoPagoWebhookService {
 
         if (StatusPagamento.PAGO.equals(pagamento.getStatus())) {
             assinatura.setStatus("ACTIVE");
-            assinatura.setProximaCobranca(LocalDate.now().plusMonths(1));
+            // Renovação paga avança a partir do vencimento cobrado, mantendo o ciclo original
+            LocalDate base = pagamento.getCompetencia() != null ? pagamento.getCompetencia() : LocalDate.now();
+            assinatura.setProximaCobranca(base.plusMonths(1));
             assinaturaRepository.save(assinatura);
 
             usuarioRepository.findById(assinatura.getUsuarioId()).ifPresent(usuario -> {
                 usuario.setPlano(assinatura.getPlanoCodigo());
                 usuario.setAtivo(true);
                 usuarioRepository.save(usuario);
+                principalCache.invalidar(usuario.getEmail());
             });
             return;
         }
@@ -190,7 +251,12 @@ public class MercadoPagoWebhookService {
 
     private boolean registrarEventoSeNovo(Payment mpPayment, StatusPagamento statusLocal) {
         String eventKey = montarEventKey(mpPayment);
+        // LRU local evita o SELECT para reentregas recentes do mesmo evento
+        if (eventosVistos.contains(eventKey)) {
+            return false;
+        }
         if (webhookEventRepository.existsByEventKey(eventKey)) {
+            eventosVistos.add(eventKey);
             return false;
         }
 
@@ -201,10 +267,29 @@ public class MercadoPagoWebhookService {
                     .mpStatus(defaultIfBlank(mpPayment.getStatus(), "unknown"))
                     .statusLocal(statusLocal.name())
                     .build());
-            return true;
         } catch (DataIntegrityViolationException e) {
             return false;
         }
+
+        // Só marca como visto após o commit: em rollback o evento precisa ser reprocessado
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eventosVistos.add(eventKey);
+                }
+            });
+        }
+        return true;
+    }
+
+    private String serializarPayload(Map<String, String> queryParams, Map<String, Object> body) {
+        try {
+            return JSON.writeValueAsString(Map.of("query", queryParams, "body", body));
+        } catch (JsonProcessingException e) {
+            log.warn("Falha ao serializar payload do webhook: {}", e.getMessage());
+            return null;
+        }
     }
 
     private String montarEventKey(Payment payment) {
@@ -0,0 +1,165 @@
+package com.osmech.payment.service;
+
+import com.mercadopago.resources.payment.Payment;
+import com.osmech.payment.entity.MercadoPagoWebhookInbox;
+import com.osmech.payment.repository.MercadoPagoWebhookInboxRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Processa a caixa de entrada de webhooks do Mercado Pago.
+ *
+ * Cada pagamento cai sempre na mesma partição (executor de uma thread), mantendo a ordem
+ * dos eventos de um pagamento. Falhas são reagendadas com backoff exponencial; após
+ * {@code max-tentativas} o evento vai para DEAD_LETTER. Um poller periódico recupera
+ * eventos que não couberam na fila, retentativas e eventos de instâncias reiniciadas.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MercadoPagoWebhookWorker {
+
+    private final MercadoPagoWebhookService webhookService;
+    private final MercadoPagoWebhookInboxRepository inboxRepository;
+
+    @Value("${mercadopago.webhook.workers:4}")
+    private int numeroParticoes;
+
+    @Value("${mercadopago.webhook.fila-por-worker:500}")
+    private int capacidadeFila;
+
+    @Value("${mercadopago.webhook.max-tentativas:8}")
+    private int maxTentativas;
+
+    @Value("${mercadopago.webhook.backoff-inicial-segundos:30}")
+    private long backoffInicialSegundos;
+
+    @Value("${mercadopago.webhook.backoff-max-segundos:3600}")
+    private long backoffMaxSegundos;
+
+    private ThreadPoolExecutor[] particoes;
+
+    /** IDs já enfileirados em memória (evita duplicar entre evento e poller) */
+    private final Set<Long> enfileirados = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void iniciar() {
+        particoes = new ThreadPoolExecutor[numeroParticoes];
+        for (int i = 0; i < numeroParticoes; i++) {
+            final int n = i;
+            particoes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(capacidadeFila),
+                    r -> {
+                        Thread t = new Thread(r, "mp-webhook-" + n);
+                        t.setDaemon(true);
+                        return t;
+                    });
+        }
+        log.info("Worker de webhooks Mercado Pago iniciado com {} partições", numeroParticoes);
+    }
+
+    @PreDestroy
+    public void encerrar() throws InterruptedException {
+        for (ThreadPoolExecutor executor : particoes) {
+            executor.shutdown();
+        }
+        for (ThreadPoolExecutor executor : particoes) {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    /** Webhook gravado: tenta processar imediatamente (fallbackExecution: a gravação já foi commitada) */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWebhookRecebido(MercadoPagoWebhookService.WebhookRecebidoEvent evento) {
+        enfileirar(evento.inboxId(), evento.paymentId());
+    }
+
+    /** Recupera eventos pendentes (retentativas, fila cheia, reinício da aplicação) */
+    @Scheduled(fixedDelayString = "${mercadopago.webhook.poll-ms:5000}")
+    public void varrerPendentes() {
+        LocalDateTime agora = LocalDateTime.now();
+        int liberados = inboxRepository.liberarTravados(agora.minusMinutes(5), agora);
+        if (liberados > 0) {
+            log.warn("{} webhooks presos em PROCESSANDO devolvidos à fila", liberados);
+        }
+
+        for (Object[] row : inboxRepository.findProntos(agora, PageRequest.of(0, 200))) {
+            enfileirar((Long) row[0], (Long) row[1]);
+        }
+    }
+
+    private void enfileirar(Long inboxId, Long paymentId) {
+        if (!enfileirados.add(inboxId)) {
+            return;
+        }
+        try {
+            particoes[Math.floorMod(paymentId.hashCode(), particoes.length)].execute(() -> processar(inboxId));
+        } catch (RejectedExecutionException e) {
+            // Fila cheia: o evento continua PENDENTE no banco e será pego pelo poller
+            enfileirados.remove(inboxId);
+            log.debug("Fila de webhooks cheia, inboxId={} fica para o poller", inboxId);
+        }
+    }
+
+    void processar(Long inboxId) {
+        try {
+            if (inboxRepository.reivindicar(inboxId, LocalDateTime.now()) == 0) {
+                return; // já processado, em outra instância ou aguardando evento anterior do mesmo pagamento
+            }
+            MercadoPagoWebhookInbox evento = inboxRepository.findById(inboxId).orElseThrow();
+
+            try {
+                // Consulta ao gateway sem transação aberta; só a aplicação do resultado é transacional
+                Payment payment = webhookService.consultarPagamento(evento.getPaymentId());
+                webhookService.aplicarPagamento(payment);
+
+                evento.setStatus("PROCESSADO");
+                evento.setProcessadoEm(LocalDateTime.now());
+                evento.setAtualizadoEm(LocalDateTime.now());
+                evento.setUltimoErro(null);
+                inboxRepository.save(evento);
+            } catch (Exception e) {
+                registrarFalha(evento, e);
+            }
+        } catch (Exception e) {
+            log.error("Erro inesperado no worker de webhooks. inboxId={}", inboxId, e);
+        } finally {
+            enfileirados.remove(inboxId);
+        }
+    }
+
+    private void registrarFalha(MercadoPagoWebhookInbox evento, Exception erro) {
+        int tentativas = evento.getTentativas() + 1;
+        evento.setTentativas(tentativas);
+        evento.setUltimoErro(erro.getMessage());
+        evento.setAtualizadoEm(LocalDateTime.now());
+
+        if (tentativas >= maxTentativas) {
+            evento.setStatus("DEAD_LETTER");
+            log.error("Webhook Mercado Pago movido para DEAD_LETTER após {} tentativas. inboxId={} mpPaymentId={}",
+                    tentativas, evento.getId(), evento.getPaymentId(), erro);
+        } else {
+            long espera = Math.min(backoffMaxSegundos, backoffInicialSegundos << Math.min(tentativas - 1, 20));
+            evento.setStatus("PENDENTE");
+            evento.setProximaTentativa(LocalDateTime.now().plusSeconds(espera));
+            log.warn("Falha ao processar webhook (tentativa {}/{}), nova tentativa em {}s. inboxId={} erro={}",
+                    tentativas, maxTentativas, espera, evento.getId(), erro.getMessage());
+        }
+        inboxRepository.save(evento);
+    }
+}
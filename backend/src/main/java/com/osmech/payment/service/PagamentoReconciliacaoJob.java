@@ -0,0 +1,160 @@
+package com.osmech.payment.service;
+
+import com.osmech.payment.repository.PagamentoRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Job de reconciliação dos pagamentos PENDENTE com o Mercado Pago (webhooks perdidos).
+ *
+ * Lê os pendentes mais antigos que {@code idade-minima-minutos} em páginas por id e
+ * consulta o gateway com até {@code concorrencia} chamadas simultâneas, limitadas a
+ * {@code requisicoes-por-segundo}. Cada execução grava seu relatório em
+ * pagamento_reconciliacoes.
+ *
+ * Ficam de fora os pendentes sem preferência no gateway (renovação ainda não aberta
+ * pela oficina), os parados há mais de {@code idade-maxima-dias} e os que ainda estão
+ * no backoff da última consulta sem resolução.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PagamentoReconciliacaoJob {
+
+    private final PagamentoRepository pagamentoRepository;
+    private final PagamentoReconciliacaoService reconciliacaoService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${pagamento.reconciliacao.enabled:true}")
+    private boolean enabled;
+
+    @Value("${pagamento.reconciliacao.idade-minima-minutos:60}")
+    private long idadeMinimaMinutos;
+
+    @Value("${pagamento.reconciliacao.idade-maxima-dias:7}")
+    private long idadeMaximaDias;
+
+    @Value("${pagamento.reconciliacao.tamanho-pagina:200}")
+    private int tamanhoPagina;
+
+    @Value("${pagamento.reconciliacao.concorrencia:4}")
+    private int concorrencia;
+
+    @Value("${pagamento.reconciliacao.requisicoes-por-segundo:5}")
+    private double requisicoesPorSegundo;
+
+    private ExecutorService executor;
+
+    /** Próximo instante (nanoTime) liberado pelo limitador de taxa */
+    private long proximaChamada;
+
+    @Scheduled(cron = "${pagamento.reconciliacao.cron:0 */30 * * * *}")
+    public void executar() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime execucao = LocalDateTime.now();
+        LocalDateTime limite = execucao.minusMinutes(idadeMinimaMinutos);
+        LocalDateTime idadeMaxima = execucao.minusDays(idadeMaximaDias);
+        long inicio = System.nanoTime();
+
+        Semaphore vagas = new Semaphore(concorrencia);
+        List<Future<?>> tarefas = new ArrayList<>();
+        Map<String, AtomicInteger> totais = new ConcurrentHashMap<>();
+        long aposId = 0;
+
+        while (true) {
+            List<Object[]> pagina = pagamentoRepository.findPendentesParaReconciliar(
+                    limite, idadeMaxima, execucao, aposId, PageRequest.of(0, tamanhoPagina));
+            for (Object[] linha : pagina) {
+                Long pagamentoId = (Long) linha[0];
+                int tentativas = ((Number) linha[1]).intValue();
+                vagas.acquireUninterruptibly();
+                tarefas.add(executor().submit(() -> {
+                    try {
+                        aguardarVez();
+                        String resultado = reconciliacaoService.reconciliar(pagamentoId, tentativas, execucao);
+                        totais.computeIfAbsent(resultado, k -> new AtomicInteger()).incrementAndGet();
+                    } finally {
+                        vagas.release();
+                    }
+                }));
+            }
+            if (pagina.size() < tamanhoPagina) {
+                break;
+            }
+            aposId = (Long) pagina.get(pagina.size() - 1)[0];
+        }
+
+        for (Future<?> tarefa : tarefas) {
+            try {
+                tarefa.get();
+            } catch (Exception e) {
+                log.error("Reconciliação interrompida: {}", e.getMessage());
+            }
+        }
+
+        Timer.builder("pagamentos.reconciliacao.execucao")
+                .register(meterRegistry)
+                .record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        if (!tarefas.isEmpty()) {
+            log.info("Reconciliação de pagamentos {}: {} verificados {}", execucao, tarefas.size(), totais);
+        }
+    }
+
+    /** Espaça as chamadas ao gateway em intervalos fixos (1 / requisicoes-por-segundo) */
+    private void aguardarVez() {
+        long intervalo = (long) (TimeUnit.SECONDS.toNanos(1) / requisicoesPorSegundo);
+        long espera;
+        synchronized (this) {
+            long agora = System.nanoTime();
+            long vez = Math.max(agora, proximaChamada);
+            proximaChamada = vez + intervalo;
+            espera = vez - agora;
+        }
+        if (espera > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(espera);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private synchronized ExecutorService executor() {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(concorrencia, r -> {
+                Thread t = new Thread(r, "pagamento-reconciliacao");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return executor;
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.osmech.payment.service;
+
+import com.mercadopago.resources.payment.Payment;
+import com.osmech.payment.entity.PagamentoReconciliacao;
+import com.osmech.payment.entity.StatusPagamento;
+import com.osmech.payment.repository.PagamentoReconciliacaoRepository;
+import com.osmech.payment.repository.PagamentoRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Reconciliação de um pagamento pendente com o Mercado Pago.
+ *
+ * Busca no gateway os pagamentos com external_reference = id local e aplica o mais
+ * relevante pelo mesmo caminho do webhook (MercadoPagoWebhookService.aplicarPagamento).
+ * Cada verificação gera uma linha em pagamento_reconciliacoes e incrementa
+ * {@code pagamentos.reconciliacao} com o resultado. Se o pagamento continua pendente, a
+ * próxima consulta é adiada em backoff exponencial ({@code backoff-inicial-minutos}
+ * dobrando a cada tentativa, até {@code backoff-maximo-minutos}).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PagamentoReconciliacaoService {
+
+    static final String RESULTADO_ATUALIZADO = "ATUALIZADO";
+    static final String RESULTADO_INALTERADO = "INALTERADO";
+    static final String RESULTADO_NAO_ENCONTRADO = "NAO_ENCONTRADO";
+    static final String RESULTADO_ERRO = "ERRO";
+
+    private final MercadoPagoGateway gateway;
+    private final MercadoPagoWebhookService webhookService;
+    private final PagamentoRepository pagamentoRepository;
+    private final PagamentoReconciliacaoRepository reconciliacaoRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${pagamento.reconciliacao.backoff-inicial-minutos:30}")
+    private long backoffInicialMinutos;
+
+    @Value("${pagamento.reconciliacao.backoff-maximo-minutos:1440}")
+    private long backoffMaximoMinutos;
+
+    /**
+     * Consulta o gateway (sem transação aberta) e aplica o resultado.
+     * Nunca lança exceção: falhas viram resultado ERRO no relatório.
+     *
+     * @param tentativas consultas anteriores sem resolução (base do backoff)
+     */
+    public String reconciliar(Long pagamentoId, int tentativas, LocalDateTime execucao) {
+        PagamentoReconciliacao.PagamentoReconciliacaoBuilder linha = PagamentoReconciliacao.builder()
+                .execucao(execucao)
+                .pagamentoId(pagamentoId)
+                .statusAnterior(StatusPagamento.PENDENTE);
+        String resultado;
+
+        try {
+            Payment payment = escolherPagamento(gateway.buscarPagamentosPorReferencia(String.valueOf(pagamentoId)));
+            if (payment == null) {
+                resultado = RESULTADO_NAO_ENCONTRADO;
+            } else {
+                linha.mpPaymentId(payment.getId()).statusGateway(payment.getStatus());
+                webhookService.aplicarPagamento(payment);
+
+                StatusPagamento atual = pagamentoRepository.findStatusById(pagamentoId).orElse(null);
+                linha.statusAtual(atual);
+                resultado = atual != null && atual != StatusPagamento.PENDENTE
+                        ? RESULTADO_ATUALIZADO : RESULTADO_INALTERADO;
+                if (RESULTADO_ATUALIZADO.equals(resultado)) {
+                    log.info("Pagamento {} reconciliado: PENDENTE -> {} (mpPaymentId={})",
+                            pagamentoId, atual, payment.getId());
+                }
+            }
+        } catch (Exception e) {
+            resultado = RESULTADO_ERRO;
+            linha.erro(e.getMessage());
+            log.warn("Falha ao reconciliar pagamento {}: {}", pagamentoId, e.getMessage());
+        }
+
+        try {
+            reconciliacaoRepository.save(linha.resultado(resultado).build());
+        } catch (Exception e) {
+            log.error("Falha ao gravar relatório de reconciliação do pagamento {}", pagamentoId, e);
+        }
+        if (!RESULTADO_ATUALIZADO.equals(resultado)) {
+            adiar(pagamentoId, tentativas, execucao);
+        }
+        meterRegistry.counter("pagamentos.reconciliacao", "resultado", resultado).increment();
+        return resultado;
+    }
+
+    private void adiar(Long pagamentoId, int tentativas, LocalDateTime execucao) {
+        long minutos = backoffInicialMinutos << Math.min(tentativas, 20);
+        LocalDateTime proxima = execucao.plusMinutes(Math.min(minutos, backoffMaximoMinutos));
+        try {
+            pagamentoRepository.registrarReconciliacao(pagamentoId, execucao, proxima);
+        } catch (Exception e) {
+            log.error("Falha ao adiar reconciliação do pagamento {}", pagamentoId, e);
+        }
+    }
+
+    /** Um aprovado prevalece; senão, o mais recente (a busca já vem ordenada por atualização) */
+    private static Payment escolherPagamento(List<Payment> encontrados) {
+        if (encontrados == null || encontrados.isEmpty()) {
+            return null;
+        }
+        return encontrados.stream()
+                .filter(p -> "approved".equalsIgnoreCase(p.getStatus()))
+                .findFirst()
+                .orElse(encontrados.get(0));
+    }
+}
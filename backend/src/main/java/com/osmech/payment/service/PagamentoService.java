@@ -9,8 +9,8 @@ import com.osmech.payment.entity.Pagamento;
 import com.osmech.payment.entity.StatusPagamento;
 import com.osmech.payment.repository.AssinaturaRepository;
 import com.osmech.payment.repository.PagamentoRepository;
+import com.osmech.security.TenantContext;
 import com.osmech.user.entity.Usuario;
-import com.osmech.user.repository.UsuarioRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.access.AccessDeniedException;
@@ -35,17 +35,17 @@ public class PagamentoService {
 
     private final PagamentoRepository pagamentoRepository;
     private final AssinaturaRepository assinaturaRepository;
-    private final UsuarioRepository usuarioRepository;
+    private final TenantContext tenantContext;
 
     /**
      * Registra um novo pagamento.
      */
     @Transactional
     public PagamentoResponse criar(String emailUsuario, PagamentoRequest request) {
-        Usuario usuario = getUsuario(emailUsuario);
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
 
         Pagamento pagamento = Pagamento.builder()
-                .usuarioId(usuario.getId())
+                .usuarioId(usuarioId)
                 .tipo(request.getTipo())
                 .referenciaId(request.getReferenciaId())
                 .descricao(request.getDescricao())
@@ -66,11 +66,11 @@ public class PagamentoService {
      */
     @Transactional
     public PagamentoResponse confirmar(String emailUsuario, Long pagamentoId) {
-        Usuario usuario = getUsuario(emailUsuario);
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
         Pagamento pagamento = pagamentoRepository.findById(pagamentoId)
                 .orElseThrow(() -> new ResourceNotFoundException("Pagamento não encontrado"));
 
-        if (!pagamento.getUsuarioId().equals(usuario.getId())) {
+        if (!pagamento.getUsuarioId().equals(usuarioId)) {
             throw new AccessDeniedException("Acesso negado a este pagamento");
         }
 
@@ -96,11 +96,11 @@ public class PagamentoService {
      */
     @Transactional
     public PagamentoResponse cancelar(String emailUsuario, Long pagamentoId) {
-        Usuario usuario = getUsuario(emailUsuario);
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
         Pagamento pagamento = pagamentoRepository.findById(pagamentoId)
                 .orElseThrow(() -> new ResourceNotFoundException("Pagamento não encontrado"));
 
-        if (!pagamento.getUsuarioId().equals(usuario.getId())) {
+        if (!pagamento.getUsuarioId().equals(usuarioId)) {
             throw new AccessDeniedException("Acesso negado a este pagamento");
         }
 
@@ -120,8 +120,8 @@ public class PagamentoService {
      */
     @Transactional(readOnly = true)
     public List<PagamentoResponse> listar(String emailUsuario) {
-        Usuario usuario = getUsuario(emailUsuario);
-        return pagamentoRepository.findByUsuarioIdOrderByCriadoEmDesc(usuario.getId())
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
+        return pagamentoRepository.findByUsuarioIdOrderByCriadoEmDesc(usuarioId)
                 .stream()
                 .map(this::toResponse)
                 .toList();
@@ -132,8 +132,8 @@ public class PagamentoService {
      */
     @Transactional(readOnly = true)
     public List<PagamentoResponse> listarPorTipo(String emailUsuario, String tipo) {
-        Usuario usuario = getUsuario(emailUsuario);
-        return pagamentoRepository.findByUsuarioIdAndTipoOrderByCriadoEmDesc(usuario.getId(), tipo)
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
+        return pagamentoRepository.findByUsuarioIdAndTipoOrderByCriadoEmDesc(usuarioId, tipo)
                 .stream()
                 .map(this::toResponse)
                 .toList();
@@ -144,11 +144,11 @@ public class PagamentoService {
      */
     @Transactional(readOnly = true)
     public PagamentoResponse buscarPorId(String emailUsuario, Long id) {
-        Usuario usuario = getUsuario(emailUsuario);
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
         Pagamento pagamento = pagamentoRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Pagamento não encontrado"));
 
-        if (!pagamento.getUsuarioId().equals(usuario.getId())) {
+        if (!pagamento.getUsuarioId().equals(usuarioId)) {
             throw new AccessDeniedException("Acesso negado a este pagamento");
         }
 
@@ -160,7 +160,8 @@ public class PagamentoService {
      */
     @Transactional(readOnly = true)
     public ResumoFinanceiroResponse getResumoFinanceiro(String emailUsuario) {
-        Usuario usuario = getUsuario(emailUsuario);
+        // Plano e status da conta vêm da entidade
+        Usuario usuario = tenantContext.getUsuario(emailUsuario);
         Long uid = usuario.getId();
 
         // Período do mês atual
@@ -195,10 +196,6 @@ public class PagamentoService {
 
     // --- Helpers ---
 
-    private Usuario getUsuario(String email) {
-        return usuarioRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado"));
-    }
 
     private PagamentoResponse toResponse(Pagamento p) {
         return PagamentoResponse.builder()
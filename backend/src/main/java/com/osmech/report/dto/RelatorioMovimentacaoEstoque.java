@@ -21,4 +21,6 @@ public class RelatorioMovimentacaoEstoque {
     private Integer saldoAtual;
     private String motivo;
     private LocalDateTime data;
+    /** Preenchido em linhas do arquivo (resumo diário): quantas movimentações foram agregadas */
+    private Integer movimentosResumidos;
 }
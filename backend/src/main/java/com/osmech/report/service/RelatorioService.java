@@ -5,12 +5,14 @@ import com.osmech.finance.repository.TransacaoFinanceiraRepository;
 import com.osmech.os.entity.OrdemServico;
 import com.osmech.os.repository.OrdemServicoRepository;
 import com.osmech.report.dto.*;
+import com.osmech.security.TenantContext;
+import com.osmech.security.UsuarioAutenticado;
 import com.osmech.stock.entity.StockItem;
-import com.osmech.stock.entity.StockMovement;
-import com.osmech.stock.repository.StockItemRepository;
+import com.osmech.stock.entity.StockMovimentoArquivo;
+import com.osmech.stock.entity.StockResumo;
 import com.osmech.stock.repository.StockMovementRepository;
-import com.osmech.user.entity.Usuario;
-import com.osmech.user.repository.UsuarioRepository;
+import com.osmech.stock.repository.StockMovimentoArquivoRepository;
+import com.osmech.stock.service.StockResumoService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -31,9 +33,9 @@ public class RelatorioService {
 
     private final OrdemServicoRepository osRepository;
     private final TransacaoFinanceiraRepository transacaoRepository;
-    private final UsuarioRepository usuarioRepository;
-    private final StockItemRepository stockItemRepository;
     private final StockMovementRepository stockMovementRepository;
+    private final StockResumoService stockResumoService;
+    private final StockMovimentoArquivoRepository stockMovimentoArquivoRepository;
 
     // ==================== TIPOS DE RELATÓRIO ====================
 
@@ -481,28 +483,10 @@ public class RelatorioService {
     // ==================== RELATÓRIOS DE ESTOQUE ====================
 
     public RelatorioValuationEstoque gerarRelatorioValuationEstoque(Long usuarioId) {
-        List<StockItem> itens = stockItemRepository.findByUsuarioIdOrderByNomeAsc(usuarioId);
-        
-        long totalItens = itens.size();
-        long totalQuantidade = itens.stream()
-            .mapToLong(i -> i.getQuantidade() != null ? i.getQuantidade() : 0)
-            .sum();
-        
-        BigDecimal valorTotal = itens.stream()
-            .map(i -> {
-                BigDecimal preco = i.getPrecoVenda() != null ? i.getPrecoVenda() : BigDecimal.ZERO;
-                BigDecimal qtd = BigDecimal.valueOf(i.getQuantidade() != null ? i.getQuantidade() : 0);
-                return preco.multiply(qtd);
-            })
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal custoTotal = itens.stream()
-            .map(i -> {
-                BigDecimal custo = i.getPrecoCusto() != null ? i.getPrecoCusto() : BigDecimal.ZERO;
-                BigDecimal qtd = BigDecimal.valueOf(i.getQuantidade() != null ? i.getQuantidade() : 0);
-                return custo.multiply(qtd);
-            })
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Lê o resumo mantido incrementalmente pelo StockService (sem carregar os itens)
+        StockResumo resumo = stockResumoService.obterResumo(usuarioId);
+        BigDecimal valorTotal = resumo.getValorVenda();
+        BigDecimal custoTotal = resumo.getValorCusto();
 
         BigDecimal margem = BigDecimal.ZERO;
         if (custoTotal.compareTo(BigDecimal.ZERO) > 0) {
@@ -512,8 +496,8 @@ public class RelatorioService {
         }
 
         return RelatorioValuationEstoque.builder()
-            .totalItens(totalItens)
-            .totalQuantidade(totalQuantidade)
+            .totalItens(resumo.getTotalItens())
+            .totalQuantidade(resumo.getTotalQuantidade())
             .valorTotalEstoque(valorTotal)
             .custoTotal(custoTotal)
             .margemEstimada(margem)
@@ -523,7 +507,7 @@ public class RelatorioService {
     public List<RelatorioEstoqueBaixo> gerarRelatorioEstoqueBaixo(Long usuarioId, Integer limite) {
         int lim = limite != null ? limite : 10;
         
-        return stockItemRepository.findAlertItems(usuarioId).stream()
+        return stockResumoService.listarItensEmAlerta(usuarioId).stream()
             .filter(i -> i.getQuantidade() != null && i.getQuantidadeMinima() != null)
             .map(i -> RelatorioEstoqueBaixo.builder()
                 .id(i.getId())
@@ -542,7 +526,7 @@ public class RelatorioService {
         LocalDateTime inicioDt = inicio.atStartOfDay();
         LocalDateTime fimDt = fim.atTime(23, 59, 59);
 
-        return stockMovementRepository.findByPeriodo(usuarioId, inicioDt, fimDt).stream()
+        List<RelatorioMovimentacaoEstoque> linhas = stockMovementRepository.findByPeriodo(usuarioId, inicioDt, fimDt).stream()
             .map(m -> {
                 StockItem item = m.getStockItem();
                 return RelatorioMovimentacaoEstoque.builder()
@@ -557,8 +541,25 @@ public class RelatorioService {
                     .data(m.getCriadoEm())
                     .build();
             })
-            .sorted(Comparator.comparing(RelatorioMovimentacaoEstoque::getData).reversed())
-            .collect(Collectors.toList());
+            .collect(Collectors.toCollection(ArrayList::new));
+
+        // Períodos já compactados aparecem como resumos diários (sem saldo por movimentação)
+        for (Object[] row : stockMovimentoArquivoRepository.findByPeriodo(usuarioId, inicio, fim)) {
+            StockMovimentoArquivo a = (StockMovimentoArquivo) row[0];
+            StockItem item = (StockItem) row[1];
+            linhas.add(RelatorioMovimentacaoEstoque.builder()
+                .itemNome(item.getNome())
+                .itemCodigo(item.getCodigo())
+                .tipoMovimentacao(a.getTipo())
+                .quantidade(a.getQuantidade())
+                .motivo(a.getMotivo())
+                .data(a.getDia().atStartOfDay())
+                .movimentosResumidos(a.getMovimentos())
+                .build());
+        }
+
+        linhas.sort(Comparator.comparing(RelatorioMovimentacaoEstoque::getData).reversed());
+        return linhas;
     }
 
     // ==================== EXPORTAÇÃO ====================
@@ -582,11 +583,10 @@ public class RelatorioService {
     }
 
     public String exportarParaCsv(String tipo, LocalDate inicio, LocalDate fim) {
-        // Busca o usuarioId a partir do contexto de segurança
-        String email = org.springframework.security.core.context.SecurityContextHolder
-                .getContext().getAuthentication().getName();
-        Long uid = usuarioRepository.findByEmail(email).map(u -> u.getId()).orElse(null);
-        if (uid == null) return "Usuário não encontrado\n";
+        // usuarioId vem do contexto da requisição (sem consulta ao banco)
+        UsuarioAutenticado usuario = TenantContext.atual();
+        if (usuario == null) return "Usuário não encontrado\n";
+        Long uid = usuario.id();
 
         StringBuilder sb = new StringBuilder();
         sb.append("\uFEFF"); // BOM UTF-8 para Excel reconhecer acentos
@@ -1,7 +1,6 @@
 package com.osmech.security;
 
-import com.osmech.user.entity.Usuario;
-import com.osmech.user.repository.UsuarioRepository;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -21,6 +20,8 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Filtro que intercepta requisições HTTP e valida o token JWT no header Authorization.
+ * O token é verificado uma única vez; o usuário vem do PrincipalCache e vira o
+ * principal da requisição (base do TenantContext).
  */
 @Component
 @RequiredArgsConstructor
@@ -29,7 +30,7 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     private static final Logger log = LoggerFactory.getLogger(JwtAuthFilter.class);
 
     private final JwtUtil jwtUtil;
-    private final UsuarioRepository usuarioRepository;
+    private final PrincipalCache principalCache;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -39,18 +40,22 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         String header = request.getHeader("Authorization");
 
         if (header != null && header.startsWith("Bearer ")) {
-            String token = header.substring(7);
+            Claims claims = jwtUtil.parseToken(header.substring(7));
 
-            if (jwtUtil.validateToken(token)) {
-                String email = jwtUtil.getEmailFromToken(token);
-                String role = jwtUtil.getRoleFromToken(token);
+            if (claims != null) {
+                String email = claims.getSubject();
+                String role = claims.get("role", String.class);
+                Long usuarioId = claims.get(JwtUtil.CLAIM_USUARIO_ID, Long.class);
 
-                // Verifica se o usuário ainda existe no banco
-                Usuario usuario = usuarioRepository.findByEmail(email).orElse(null);
+                // Verifica se o usuário ainda existe e está ativo
+                UsuarioAutenticado usuario = principalCache.buscar(email);
 
-                if (usuario != null && Boolean.TRUE.equals(usuario.getAtivo())) {
+                // Token emitido para outra conta com o mesmo email (excluída e recriada) não vale
+                boolean mesmoUsuario = usuario != null && (usuarioId == null || usuarioId.equals(usuario.id()));
+
+                if (mesmoUsuario && usuario.ativo()) {
                     var authorities = List.of(new SimpleGrantedAuthority("ROLE_" + role));
-                    var authToken = new UsernamePasswordAuthenticationToken(email, null, authorities);
+                    var authToken = new UsernamePasswordAuthenticationToken(usuario, null, authorities);
                     SecurityContextHolder.getContext().setAuthentication(authToken);
                 } else {
                     log.warn("JWT válido mas usuário não encontrado ou inativo: {}", email);
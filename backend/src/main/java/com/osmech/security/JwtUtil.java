@@ -17,6 +17,8 @@ public class JwtUtil {
 
     private final SecretKey key;
     private final long expirationMs;
+    /** Parser imutável e thread-safe, montado uma única vez */
+    private final JwtParser parser;
 
     public JwtUtil(
             @Value("${app.jwt.secret}") String secret,
@@ -29,24 +31,41 @@ public class JwtUtil {
         }
         this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
         this.expirationMs = expirationMs;
+        this.parser = Jwts.parser().verifyWith(key).build();
     }
 
+    /** Claim com o id do usuário (tenant) */
+    public static final String CLAIM_USUARIO_ID = "uid";
+
     /**
      * Gera um token JWT para o usuário informado.
      */
-    public String generateToken(String email, String role) {
+    public String generateToken(String email, String role, Long usuarioId) {
         Date now = new Date();
         Date expiry = new Date(now.getTime() + expirationMs);
 
         return Jwts.builder()
                 .subject(email)
                 .claim("role", role)
+                .claim(CLAIM_USUARIO_ID, usuarioId)
                 .issuedAt(now)
                 .expiration(expiry)
                 .signWith(key)
                 .compact();
     }
 
+    /**
+     * Verifica assinatura e expiração uma única vez e devolve as claims,
+     * ou null se o token for inválido.
+     */
+    public Claims parseToken(String token) {
+        try {
+            return parseClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     /**
      * Extrai o email (subject) do token.
      */
@@ -65,19 +84,10 @@ public class JwtUtil {
      * Valida se o token é válido e não expirou.
      */
     public boolean validateToken(String token) {
-        try {
-            parseClaims(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
-        }
+        return parseToken(token) != null;
     }
 
     private Claims parseClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
 }
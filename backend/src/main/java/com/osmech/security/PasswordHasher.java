@@ -0,0 +1,140 @@
+package com.osmech.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hash e verificação de senhas (BCrypt) num pool próprio e limitado.
+ *
+ * O BCrypt é caro de propósito; rodando na thread da requisição, um pico de logins
+ * ocupa toda a CPU e atrasa o resto da API. Aqui no máximo {@code threads} hashes rodam
+ * ao mesmo tempo, com fila de {@code fila} posições: cheia, a chamada falha na hora com
+ * IllegalStateException (503) em vez de enfileirar sem limite.
+ *
+ * O custo vem de app.senha.bcrypt-custo; hashes com custo menor são refeitos no
+ * próximo login bem-sucedido ({@link #rehashSeNecessario}).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PasswordHasher {
+
+    private static final String MSG_OCUPADO = "Muitas autenticações em andamento. Tente novamente em instantes.";
+
+    private final PasswordEncoder passwordEncoder;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.senha.threads:0}")
+    private int threads;
+
+    @Value("${app.senha.fila:64}")
+    private int fila;
+
+    @Value("${app.senha.timeout-ms:5000}")
+    private long timeoutMs;
+
+    private ThreadPoolExecutor executor;
+    private Timer tempoHash;
+    private Timer tempoVerificacao;
+    private Counter rejeitadas;
+
+    @PostConstruct
+    public void iniciar() {
+        // Padrão: metade dos núcleos, para sobrar CPU para o restante da API
+        int tamanho = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger seq = new AtomicInteger();
+        executor = new ThreadPoolExecutor(tamanho, tamanho, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(fila), r -> {
+                    Thread t = new Thread(r, "senha-hash-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+        tempoHash = Timer.builder("auth.senha.tempo").tag("operacao", "hash").register(meterRegistry);
+        tempoVerificacao = Timer.builder("auth.senha.tempo").tag("operacao", "verificar").register(meterRegistry);
+        rejeitadas = Counter.builder("auth.senha.rejeitadas").register(meterRegistry);
+        Gauge.builder("auth.senha.fila", executor, e -> e.getQueue().size()).register(meterRegistry);
+        Gauge.builder("auth.senha.ativas", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+    }
+
+    /** Hash da senha com o custo configurado */
+    public String hash(String senha) {
+        return executar(() -> tempoHash.recordCallable(() -> passwordEncoder.encode(senha)));
+    }
+
+    /** Confere a senha com o hash armazenado */
+    public boolean confere(String senha, String hash) {
+        if (hash == null) {
+            return false;
+        }
+        return executar(() -> tempoVerificacao.recordCallable(() -> passwordEncoder.matches(senha, hash)));
+    }
+
+    /**
+     * Novo hash quando o armazenado usa custo menor que o configurado, ou null.
+     * Com o pool cheio devolve null: o rehash fica para um próximo login.
+     */
+    public String rehashSeNecessario(String senha, String hashAtual) {
+        if (!passwordEncoder.upgradeEncoding(hashAtual)) {
+            return null;
+        }
+        try {
+            return hash(senha);
+        } catch (IllegalStateException e) {
+            log.debug("Rehash de senha adiado: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private <T> T executar(Callable<T> tarefa) {
+        Future<T> futuro;
+        try {
+            futuro = executor.submit(tarefa);
+        } catch (RejectedExecutionException e) {
+            rejeitadas.increment();
+            throw new IllegalStateException(MSG_OCUPADO);
+        }
+        try {
+            return futuro.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            futuro.cancel(true);
+            rejeitadas.increment();
+            throw new IllegalStateException(MSG_OCUPADO);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futuro.cancel(true);
+            throw new IllegalStateException(MSG_OCUPADO);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException("Falha ao processar senha", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
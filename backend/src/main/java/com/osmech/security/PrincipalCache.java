@@ -0,0 +1,82 @@
+package com.osmech.security;
+
+import com.osmech.config.TtlCache;
+import com.osmech.user.repository.UsuarioRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Cache do usuário autenticado por email, usado pelo JwtAuthFilter para não consultar
+ * o banco a cada requisição.
+ *
+ * Limitado em tamanho e com TTL curto. Alterações de ativo/plano chamam
+ * {@link #invalidar(String)}; o TTL limita a defasagem entre instâncias.
+ */
+@Component
+@RequiredArgsConstructor
+public class PrincipalCache {
+
+    private final UsuarioRepository usuarioRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.jwt.principal-cache.ttl-segundos:60}")
+    private long ttlSegundos;
+
+    @Value("${app.jwt.principal-cache.max-itens:10000}")
+    private int maxItens;
+
+    private TtlCache<String, UsuarioAutenticado> cache;
+
+    @PostConstruct
+    public void iniciar() {
+        cache = new TtlCache<>(ttlSegundos * 1000, maxItens);
+        FunctionCounter.builder("auth.principal.cache", cache, TtlCache::hits)
+                .tag("resultado", "hit").register(meterRegistry);
+        FunctionCounter.builder("auth.principal.cache", cache, TtlCache::misses)
+                .tag("resultado", "miss").register(meterRegistry);
+        Gauge.builder("auth.principal.cache.tamanho", cache, TtlCache::size).register(meterRegistry);
+    }
+
+    /** Usuário pelo email (cache ou banco), ou null se não existir */
+    public UsuarioAutenticado buscar(String email) {
+        UsuarioAutenticado usuario = cache.get(email);
+        if (usuario != null) {
+            return usuario;
+        }
+        usuario = usuarioRepository.findByEmail(email).map(UsuarioAutenticado::de).orElse(null);
+        cache.put(email, usuario);
+        return usuario;
+    }
+
+    /**
+     * Descarta o usuário do cache. Dentro de uma transação, descarta de novo após o
+     * commit, para que uma leitura concorrente do estado antigo não volte a ser cacheada.
+     */
+    public void invalidar(String email) {
+        if (email == null) {
+            return;
+        }
+        cache.invalidate(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(email);
+                }
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.principal-cache.limpeza-ms:300000}")
+    public void removerVencidos() {
+        cache.removerVencidas();
+    }
+}
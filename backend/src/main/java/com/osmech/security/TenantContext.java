@@ -0,0 +1,60 @@
+package com.osmech.security;
+
+import com.osmech.config.ResourceNotFoundException;
+import com.osmech.user.entity.Usuario;
+import com.osmech.user.repository.UsuarioRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Oficina (tenant) da requisição atual, estabelecida uma vez pelo JwtAuthFilter.
+ *
+ * Os serviços recebem o email do controller e pedem aqui o usuarioId: dentro de uma
+ * requisição autenticada ele vem do principal, sem consulta ao banco. Fora dela
+ * (jobs, threads sem SecurityContext) cai na consulta por email.
+ */
+@Component
+@RequiredArgsConstructor
+public class TenantContext {
+
+    private final UsuarioRepository usuarioRepository;
+
+    /** Usuário autenticado na thread atual, ou null */
+    public static UsuarioAutenticado atual() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null && auth.getPrincipal() instanceof UsuarioAutenticado usuario ? usuario : null;
+    }
+
+    /** Id do usuário dono do email (do contexto da requisição quando possível) */
+    public Long getUsuarioId(String email) {
+        UsuarioAutenticado atual = atual();
+        if (atual != null && atual.email().equals(email)) {
+            return atual.id();
+        }
+        return usuarioRepository.findIdByEmail(email)
+                .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado"));
+    }
+
+    /** Id, role e plano do usuário (do contexto da requisição quando possível) */
+    public UsuarioAutenticado getUsuarioAutenticado(String email) {
+        UsuarioAutenticado atual = atual();
+        if (atual != null && atual.email().equals(email)) {
+            return atual;
+        }
+        return usuarioRepository.findByEmail(email).map(UsuarioAutenticado::de)
+                .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado"));
+    }
+
+    /** Entidade completa, só para quando campos além do id são necessários */
+    public Usuario getUsuario(String email) {
+        UsuarioAutenticado atual = atual();
+        if (atual != null && atual.email().equals(email)) {
+            return usuarioRepository.findById(atual.id())
+                    .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado"));
+        }
+        return usuarioRepository.findByEmail(email)
+                .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado"));
+    }
+}
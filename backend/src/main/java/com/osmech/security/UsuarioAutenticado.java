@@ -0,0 +1,23 @@
+package com.osmech.security;
+
+import com.osmech.user.entity.Usuario;
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+/**
+ * Dados do usuário necessários à autenticação, mantidos no PrincipalCache
+ * (cópia imutável, nunca a entidade gerenciada). É o principal da requisição:
+ * {@code Authentication.getName()} continua devolvendo o email.
+ */
+public record UsuarioAutenticado(Long id, String email, String role, String plano, boolean ativo)
+        implements AuthenticatedPrincipal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    public static UsuarioAutenticado de(Usuario usuario) {
+        return new UsuarioAutenticado(usuario.getId(), usuario.getEmail(), usuario.getRole(),
+                usuario.getPlano(), Boolean.TRUE.equals(usuario.getAtivo()));
+    }
+}
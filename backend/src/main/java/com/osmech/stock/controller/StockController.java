@@ -1,13 +1,18 @@
 package com.osmech.stock.controller;
 
 import com.osmech.stock.dto.*;
+import com.osmech.stock.service.StockInventarioService;
+import com.osmech.stock.service.StockPrevisaoService;
 import com.osmech.stock.service.StockService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
@@ -21,6 +26,8 @@ import java.util.Map;
 public class StockController {
 
     private final StockService stockService;
+    private final StockInventarioService inventarioService;
+    private final StockPrevisaoService previsaoService;
 
     // ==========================================
     // ITENS DE ESTOQUE
@@ -85,6 +92,31 @@ public class StockController {
         return ResponseEntity.ok(stockService.listarMovimentacoes(auth.getName(), id));
     }
 
+    /** GET /api/stock/{id}/history - Saldo do último snapshot + movimentações recentes */
+    @GetMapping("/{id}/history")
+    public ResponseEntity<StockHistoricoResponse> buscarHistorico(Authentication auth, @PathVariable Long id,
+                                                                    @RequestParam(defaultValue = "false") boolean arquivo) {
+        return ResponseEntity.ok(stockService.buscarHistorico(auth.getName(), id, arquivo));
+    }
+
+    // ==========================================
+    // INVENTÁRIO FÍSICO
+    // ==========================================
+
+    /** POST /api/stock/inventory - Aplicar contagem física (lista JSON de código + quantidade) */
+    @PostMapping(value = "/inventory", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StockInventarioResponse> aplicarInventario(Authentication auth,
+                                                                       @RequestBody List<StockInventarioItemRequest> contagens) {
+        return ResponseEntity.ok(inventarioService.processarInventario(auth.getName(), contagens));
+    }
+
+    /** POST /api/stock/inventory - Aplicar contagem física enviada como arquivo CSV (codigo;quantidade) */
+    @PostMapping(value = "/inventory", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<StockInventarioResponse> aplicarInventarioCsv(Authentication auth,
+                                                                          HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(inventarioService.processarInventarioCsv(auth.getName(), request.getInputStream()));
+    }
+
     // ==========================================
     // ALERTAS
     // ==========================================
@@ -94,4 +126,10 @@ public class StockController {
     public ResponseEntity<List<StockAlertResponse>> getAlertas(Authentication auth) {
         return ResponseEntity.ok(stockService.getAlertas(auth.getName()));
     }
+
+    /** GET /api/stock/purchase-suggestions - Itens no ponto de pedido previsto, com quantidade sugerida */
+    @GetMapping("/purchase-suggestions")
+    public ResponseEntity<List<StockSugestaoCompraResponse>> listarSugestoesCompra(Authentication auth) {
+        return ResponseEntity.ok(previsaoService.listarSugestoesCompra(auth.getName()));
+    }
 }
@@ -0,0 +1,46 @@
+package com.osmech.stock.dto;
+
+import lombok.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Histórico de um item: saldo do último snapshot + movimentações recentes.
+ * Movimentações anteriores ao snapshot aparecem apenas como resumos diários (opcional).
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockHistoricoResponse {
+
+    private Long stockItemId;
+    private String codigo;
+    private String nome;
+    private Integer quantidadeAtual;
+
+    /** Saldo na data do snapshot (null quando o item nunca foi compactado) */
+    private Integer saldoSnapshot;
+    private LocalDateTime dataSnapshot;
+
+    /** Movimentações após o snapshot, mais recentes primeiro */
+    private List<StockMovementResponse> movimentacoes;
+
+    /** Resumos diários arquivados (somente quando solicitado) */
+    private List<ResumoDiario> arquivo;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class ResumoDiario {
+        private LocalDate dia;
+        private String tipo;
+        private String motivo;
+        private Integer quantidade;
+        private Integer movimentos;
+    }
+}
@@ -0,0 +1,22 @@
+package com.osmech.stock.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.*;
+
+/**
+ * DTO de uma linha do inventário físico (código + quantidade contada).
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockInventarioItemRequest {
+
+    @NotBlank(message = "Código é obrigatório")
+    private String codigo;
+
+    @NotNull(message = "Quantidade contada é obrigatória")
+    @Min(value = 0, message = "Quantidade contada não pode ser negativa")
+    private Integer quantidadeContada;
+}
@@ -0,0 +1,49 @@
+package com.osmech.stock.dto;
+
+import lombok.*;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Resultado do inventário físico: resumo da variação e itens divergentes.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockInventarioResponse {
+
+    /** Linhas recebidas (códigos repetidos são somados) */
+    private Integer totalLinhas;
+    private Integer itensContados;
+    private Integer itensAjustados;
+    private Integer itensSemDiferenca;
+
+    /** Unidades a mais / a menos em relação ao sistema */
+    private Long totalSobras;
+    private Long totalFaltas;
+
+    /** Variação valorizada pelo preço de custo */
+    private BigDecimal valorSobras;
+    private BigDecimal valorFaltas;
+    private BigDecimal variacaoLiquida;
+
+    private List<String> codigosNaoEncontrados;
+    private List<Divergencia> divergencias;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Divergencia {
+        private Long stockItemId;
+        private String codigo;
+        private String nome;
+        private Integer quantidadeSistema;
+        private Integer quantidadeContada;
+        private Integer diferenca;
+        private BigDecimal valorDiferenca;
+    }
+}
@@ -0,0 +1,31 @@
+package com.osmech.stock.dto;
+
+import lombok.*;
+import java.math.BigDecimal;
+
+/**
+ * DTO de sugestão de compra (item que atingiu o ponto de pedido previsto).
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockSugestaoCompraResponse {
+
+    private Long stockItemId;
+    private String codigo;
+    private String nome;
+    private String categoria;
+    private Integer quantidadeAtual;
+    private Integer quantidadeMinima;
+
+    /** Consumo médio diário previsto */
+    private BigDecimal consumoDiario;
+    private Integer pontoPedido;
+    private Integer quantidadeSugerida;
+
+    /** Dias até zerar no ritmo atual (null sem consumo) */
+    private BigDecimal diasCobertura;
+    private BigDecimal custoEstimado;
+}
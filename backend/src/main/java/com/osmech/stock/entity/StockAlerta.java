@@ -0,0 +1,38 @@
+package com.osmech.stock.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Conjunto de itens em alerta (estoque <= mínimo) por oficina.
+ * Uma linha por item em alerta; inserida/removida pelo StockService
+ * quando o item cruza o limite, evitando varrer stock_items a cada consulta.
+ */
+@Entity
+@Table(name = "stock_alertas", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"usuario_id", "stock_item_id"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockAlerta {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** ID do usuário (oficina) */
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    /** Item do estoque em alerta */
+    @Column(name = "stock_item_id", nullable = false)
+    private Long stockItemId;
+
+    @Column(name = "criado_em", nullable = false, updatable = false)
+    @Builder.Default
+    private LocalDateTime criadoEm = LocalDateTime.now();
+}
@@ -0,0 +1,50 @@
+package com.osmech.stock.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDate;
+
+/**
+ * Resumo diário das movimentações compactadas (fora do horizonte de retenção).
+ * Uma linha por item, dia, tipo e motivo.
+ */
+@Entity
+@Table(name = "stock_movements_arquivo", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"usuario_id", "stock_item_id", "dia", "tipo", "motivo"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockMovimentoArquivo {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** ID do usuário (oficina) */
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    @Column(name = "stock_item_id", nullable = false)
+    private Long stockItemId;
+
+    @Column(nullable = false)
+    private LocalDate dia;
+
+    /** ENTRADA ou SAIDA */
+    @Column(nullable = false)
+    private String tipo;
+
+    @Column(nullable = false)
+    private String motivo;
+
+    /** Soma das quantidades movimentadas no dia */
+    @Column(nullable = false)
+    private Integer quantidade;
+
+    /** Número de movimentações originais resumidas */
+    @Column(nullable = false)
+    private Integer movimentos;
+}
@@ -0,0 +1,63 @@
+package com.osmech.stock.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Previsão de consumo de um item (uma linha por item).
+ * Consumo diário suavizado exponencialmente e ponto de pedido calculados pelo job noturno;
+ * a sugestão de compra apenas lê estas linhas.
+ */
+@Entity
+@Table(name = "stock_previsoes", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"stock_item_id"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockPrevisao {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** ID do usuário (oficina) */
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    @Column(name = "stock_item_id", nullable = false)
+    private Long stockItemId;
+
+    /** Consumo médio diário (média móvel exponencial) */
+    @Column(name = "consumo_diario", nullable = false, precision = 12, scale = 4)
+    @Builder.Default
+    private BigDecimal consumoDiario = BigDecimal.ZERO;
+
+    /** Último dia já incorporado à média */
+    @Column(name = "ultimo_dia", nullable = false)
+    private LocalDate ultimoDia;
+
+    /** Quantidade que dispara a reposição (consumo x (prazo de entrega + segurança)) */
+    @Column(name = "ponto_pedido", nullable = false)
+    @Builder.Default
+    private Integer pontoPedido = 0;
+
+    /** Estoque desejado após a compra (ponto de pedido + cobertura) */
+    @Column(name = "estoque_alvo", nullable = false)
+    @Builder.Default
+    private Integer estoqueAlvo = 0;
+
+    @Column(name = "atualizado_em")
+    private LocalDateTime atualizadoEm;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        this.atualizadoEm = LocalDateTime.now();
+    }
+}
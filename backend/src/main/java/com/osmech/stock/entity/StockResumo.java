@@ -0,0 +1,70 @@
+package com.osmech.stock.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Resumo consolidado do estoque por oficina (contagens e valuation).
+ * Mantido incrementalmente pelo StockService a cada alteração de quantidade,
+ * mínimo, preço ou ativação de um item — leitura é uma única linha.
+ */
+@Entity
+@Table(name = "stock_resumo", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"usuario_id"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockResumo {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** ID do usuário (oficina) */
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    /** Total de itens cadastrados (inclui inativos, como o relatório de valuation) */
+    @Column(name = "total_itens", nullable = false)
+    @Builder.Default
+    private Long totalItens = 0L;
+
+    /** Itens ativos com estoque zerado */
+    @Column(name = "itens_zerados", nullable = false)
+    @Builder.Default
+    private Long itensZerados = 0L;
+
+    /** Itens ativos com estoque <= mínimo */
+    @Column(name = "itens_em_alerta", nullable = false)
+    @Builder.Default
+    private Long itensEmAlerta = 0L;
+
+    /** Soma das quantidades em estoque */
+    @Column(name = "total_quantidade", nullable = false)
+    @Builder.Default
+    private Long totalQuantidade = 0L;
+
+    /** Soma de preço de custo x quantidade */
+    @Column(name = "valor_custo", nullable = false, precision = 14, scale = 2)
+    @Builder.Default
+    private BigDecimal valorCusto = BigDecimal.ZERO;
+
+    /** Soma de preço de venda x quantidade */
+    @Column(name = "valor_venda", nullable = false, precision = 14, scale = 2)
+    @Builder.Default
+    private BigDecimal valorVenda = BigDecimal.ZERO;
+
+    @Column(name = "atualizado_em")
+    @Builder.Default
+    private LocalDateTime atualizadoEm = LocalDateTime.now();
+
+    @PreUpdate
+    protected void onUpdate() {
+        this.atualizadoEm = LocalDateTime.now();
+    }
+}
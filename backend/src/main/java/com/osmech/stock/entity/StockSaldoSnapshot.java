@@ -0,0 +1,45 @@
+package com.osmech.stock.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Saldo de um item em uma data de corte da compactação.
+ * Movimentações anteriores ao corte saem de stock_movements; o histórico do item
+ * passa a ser este saldo + as movimentações recentes.
+ */
+@Entity
+@Table(name = "stock_saldo_snapshots", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"stock_item_id", "data_corte"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockSaldoSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** ID do usuário (oficina) */
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    @Column(name = "stock_item_id", nullable = false)
+    private Long stockItemId;
+
+    /** Saldo válido até este instante (exclusivo) */
+    @Column(name = "data_corte", nullable = false)
+    private LocalDateTime dataCorte;
+
+    /** Quantidade em estoque na data de corte */
+    @Column(nullable = false)
+    private Integer quantidade;
+
+    @Column(name = "criado_em", nullable = false, updatable = false)
+    @Builder.Default
+    private LocalDateTime criadoEm = LocalDateTime.now();
+}
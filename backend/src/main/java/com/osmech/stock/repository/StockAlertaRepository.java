@@ -0,0 +1,32 @@
+package com.osmech.stock.repository;
+
+import com.osmech.stock.entity.StockAlerta;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface StockAlertaRepository extends JpaRepository<StockAlerta, Long> {
+
+    /** IDs dos itens em alerta da oficina */
+    @Query("SELECT a.stockItemId FROM StockAlerta a WHERE a.usuarioId = :uid")
+    List<Long> findStockItemIds(@Param("uid") Long usuarioId);
+
+    boolean existsByUsuarioIdAndStockItemId(Long usuarioId, Long stockItemId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM StockAlerta a WHERE a.usuarioId = :uid AND a.stockItemId = :itemId")
+    int deleteByUsuarioIdAndStockItemId(@Param("uid") Long usuarioId, @Param("itemId") Long stockItemId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM StockAlerta a WHERE a.usuarioId = :uid AND a.stockItemId IN :itemIds")
+    int deleteByUsuarioIdAndStockItemIdIn(@Param("uid") Long usuarioId, @Param("itemIds") List<Long> stockItemIds);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM StockAlerta a WHERE a.usuarioId = :uid")
+    int deleteByUsuarioId(@Param("uid") Long usuarioId);
+}
@@ -20,6 +20,15 @@ public interface StockItemRepository extends JpaRepository<StockItem, Long> {
     /** Lista todos (incluindo inativos) */
     List<StockItem> findByUsuarioIdOrderByNomeAsc(Long usuarioId);
 
+    /** Itens ativos da oficina com lock pessimista (inventário físico em lote) */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM StockItem s WHERE s.usuarioId = :uid AND s.ativo = true")
+    List<StockItem> findAtivosForUpdate(@Param("uid") Long usuarioId);
+
+    /** Oficinas com ao menos um item ativo (jobs noturnos de estoque) */
+    @Query("SELECT DISTINCT s.usuarioId FROM StockItem s WHERE s.ativo = true")
+    List<Long> findUsuariosComItensAtivos();
+
     /** Busca por código dentro da oficina */
     Optional<StockItem> findByUsuarioIdAndCodigoIgnoreCase(Long usuarioId, String codigo);
 
@@ -44,6 +53,24 @@ public interface StockItemRepository extends JpaRepository<StockItem, Long> {
            "AND s.quantidade <= s.quantidadeMinima")
     long countAlertItems(@Param("uid") Long usuarioId);
 
+    /** IDs dos itens ativos com estoque abaixo do mínimo (reconstrução do conjunto de alertas) */
+    @Query("SELECT s.id FROM StockItem s WHERE s.usuarioId = :uid AND s.ativo = true " +
+           "AND s.quantidade <= s.quantidadeMinima")
+    List<Long> findAlertItemIds(@Param("uid") Long usuarioId);
+
+    /**
+     * Agregados do estoque calculados do zero (usado só para inicializar/reconstruir o resumo):
+     * [totalItens, itensZerados, itensEmAlerta, totalQuantidade, valorCusto, valorVenda]
+     */
+    @Query("SELECT COUNT(s), " +
+           "COALESCE(SUM(CASE WHEN s.ativo = true AND s.quantidade <= 0 THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN s.ativo = true AND s.quantidade <= s.quantidadeMinima THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(s.quantidade), 0), " +
+           "COALESCE(SUM(COALESCE(s.precoCusto, 0) * s.quantidade), 0), " +
+           "COALESCE(SUM(COALESCE(s.precoVenda, 0) * s.quantidade), 0) " +
+           "FROM StockItem s WHERE s.usuarioId = :uid")
+    List<Object[]> calcularResumo(@Param("uid") Long usuarioId);
+
     /** Busca o maior número sequencial do código (PCA-XXX) por oficina com lock pessimista */
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT MAX(CAST(SUBSTRING(s.codigo, 5) AS int)) FROM StockItem s WHERE s.usuarioId = :uid AND s.codigo LIKE 'PCA-%'")
@@ -1,6 +1,7 @@
 package com.osmech.stock.repository;
 
 import com.osmech.stock.entity.StockMovement;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -29,6 +30,19 @@ public interface StockMovementRepository extends JpaRepository<StockMovement, Lo
     /** Movimentações por OS */
     List<StockMovement> findByOrdemServicoIdOrderByCriadoEmDesc(Long ordemServicoId);
 
+    /**
+     * Saídas de consumo (exceto ajustes) em lotes por keyset no id, para o job de previsão:
+     * [id, stockItemId, criadoEm, quantidade]
+     */
+    @Query("SELECT m.id, m.stockItem.id, m.criadoEm, m.quantidade FROM StockMovement m " +
+           "WHERE m.usuarioId = :uid AND m.tipo = 'SAIDA' AND m.motivo <> 'AJUSTE' " +
+           "AND m.criadoEm >= :inicio AND m.criadoEm < :fim AND m.id > :aposId ORDER BY m.id ASC")
+    List<Object[]> findSaidasConsumo(@Param("uid") Long usuarioId,
+                                     @Param("inicio") LocalDateTime inicio,
+                                     @Param("fim") LocalDateTime fim,
+                                     @Param("aposId") Long aposId,
+                                     Pageable pageable);
+
     /** Contagem de saídas por item em período (para relatório de consumo) */
     @Query("SELECT m.stockItem.id, m.stockItem.nome, SUM(m.quantidade) " +
            "FROM StockMovement m WHERE m.usuarioId = :uid AND m.tipo = 'SAIDA' " +
@@ -0,0 +1,24 @@
+package com.osmech.stock.repository;
+
+import com.osmech.stock.entity.StockMovimentoArquivo;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface StockMovimentoArquivoRepository extends JpaRepository<StockMovimentoArquivo, Long> {
+
+    /** Resumos diários arquivados de um item */
+    List<StockMovimentoArquivo> findByStockItemIdOrderByDiaDesc(Long stockItemId);
+
+    /** Resumos diários arquivados da oficina por período, com o item: [StockMovimentoArquivo, StockItem] */
+    @Query("SELECT a, s FROM StockMovimentoArquivo a, StockItem s WHERE s.id = a.stockItemId " +
+           "AND a.usuarioId = :uid AND a.dia >= :inicio AND a.dia <= :fim ORDER BY a.dia DESC")
+    List<Object[]> findByPeriodo(@Param("uid") Long usuarioId,
+                                              @Param("inicio") LocalDate inicio,
+                                              @Param("fim") LocalDate fim);
+}
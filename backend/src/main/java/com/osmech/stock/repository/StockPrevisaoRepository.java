@@ -0,0 +1,21 @@
+package com.osmech.stock.repository;
+
+import com.osmech.stock.entity.StockPrevisao;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface StockPrevisaoRepository extends JpaRepository<StockPrevisao, Long> {
+
+    List<StockPrevisao> findByUsuarioId(Long usuarioId);
+
+    /** Itens ativos que atingiram o ponto de pedido: [StockPrevisao, StockItem] */
+    @Query("SELECT p, s FROM StockPrevisao p, StockItem s WHERE s.id = p.stockItemId " +
+           "AND p.usuarioId = :uid AND s.ativo = true AND p.pontoPedido > 0 " +
+           "AND s.quantidade <= p.pontoPedido ORDER BY (s.quantidade - p.pontoPedido) ASC")
+    List<Object[]> findSugestoesCompra(@Param("uid") Long usuarioId);
+}
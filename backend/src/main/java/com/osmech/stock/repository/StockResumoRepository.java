@@ -0,0 +1,41 @@
+package com.osmech.stock.repository;
+
+import com.osmech.stock.entity.StockResumo;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+@Repository
+public interface StockResumoRepository extends JpaRepository<StockResumo, Long> {
+
+    /** Resumo consolidado da oficina */
+    Optional<StockResumo> findByUsuarioId(Long usuarioId);
+
+    /**
+     * Aplica um delta ao resumo de forma atômica no banco (sem read-modify-write),
+     * para que movimentações concorrentes não percam incrementos.
+     * Retorna 0 quando a oficina ainda não possui linha de resumo.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE StockResumo r SET " +
+           "r.totalItens = r.totalItens + :itens, " +
+           "r.itensZerados = r.itensZerados + :zerados, " +
+           "r.itensEmAlerta = r.itensEmAlerta + :alertas, " +
+           "r.totalQuantidade = r.totalQuantidade + :quantidade, " +
+           "r.valorCusto = r.valorCusto + :custo, " +
+           "r.valorVenda = r.valorVenda + :venda, " +
+           "r.atualizadoEm = CURRENT_TIMESTAMP " +
+           "WHERE r.usuarioId = :uid")
+    int aplicarDelta(@Param("uid") Long usuarioId,
+                     @Param("itens") long itens,
+                     @Param("zerados") long zerados,
+                     @Param("alertas") long alertas,
+                     @Param("quantidade") long quantidade,
+                     @Param("custo") BigDecimal custo,
+                     @Param("venda") BigDecimal venda);
+}
@@ -0,0 +1,14 @@
+package com.osmech.stock.repository;
+
+import com.osmech.stock.entity.StockSaldoSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface StockSaldoSnapshotRepository extends JpaRepository<StockSaldoSnapshot, Long> {
+
+    /** Snapshot mais recente do item */
+    Optional<StockSaldoSnapshot> findFirstByStockItemIdOrderByDataCorteDesc(Long stockItemId);
+}
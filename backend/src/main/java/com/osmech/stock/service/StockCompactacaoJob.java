@@ -0,0 +1,47 @@
+package com.osmech.stock.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Job noturno de compactação de stock_movements.
+ * Cada oficina é compactada em sua própria transação; falha em uma não interrompe as demais
+ * e a próxima execução retoma do mesmo corte.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StockCompactacaoJob {
+
+    private final StockCompactacaoService compactacaoService;
+
+    @Value("${stock.compactacao.enabled:true}")
+    private boolean enabled;
+
+    @Scheduled(cron = "${stock.compactacao.cron:0 30 3 * * *}")
+    public void executar() {
+        if (!enabled) {
+            return;
+        }
+
+        LocalDateTime corte = compactacaoService.calcularCorte();
+        List<Long> usuarios = compactacaoService.listarUsuariosParaCompactar(corte);
+        long total = 0;
+        for (Long usuarioId : usuarios) {
+            try {
+                total += compactacaoService.compactar(usuarioId, corte);
+            } catch (Exception e) {
+                log.error("Erro ao compactar movimentações do usuario {}: {}", usuarioId, e.getMessage(), e);
+            }
+        }
+        if (!usuarios.isEmpty()) {
+            log.info("Compactação de estoque concluída: {} oficinas, {} movimentações arquivadas", usuarios.size(), total);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.osmech.stock.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Compactação do livro de movimentações de estoque.
+ *
+ * Para cada oficina, movimentações anteriores ao horizonte de retenção são
+ * resumidas por dia/tipo/motivo em stock_movements_arquivo, o saldo de cada item
+ * no corte é gravado em stock_saldo_snapshots e as linhas originais são removidas.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockCompactacaoService {
+
+    private static final String SQL_USUARIOS =
+            "SELECT DISTINCT usuario_id FROM stock_movements WHERE criado_em < ?";
+
+    private static final String SQL_ARQUIVAR =
+            "INSERT INTO stock_movements_arquivo (usuario_id, stock_item_id, dia, tipo, motivo, quantidade, movimentos) " +
+            "SELECT usuario_id, stock_item_id, CAST(criado_em AS DATE), tipo, motivo, SUM(quantidade), COUNT(*) " +
+            "FROM stock_movements WHERE usuario_id = ? AND criado_em < ? " +
+            "GROUP BY usuario_id, stock_item_id, CAST(criado_em AS DATE), tipo, motivo " +
+            "ON CONFLICT (usuario_id, stock_item_id, dia, tipo, motivo) DO UPDATE SET " +
+            "quantidade = stock_movements_arquivo.quantidade + EXCLUDED.quantidade, " +
+            "movimentos = stock_movements_arquivo.movimentos + EXCLUDED.movimentos";
+
+    /** Saldo no corte = quantidade posterior da última movimentação antes dele */
+    private static final String SQL_SNAPSHOT =
+            "INSERT INTO stock_saldo_snapshots (usuario_id, stock_item_id, data_corte, quantidade, criado_em) " +
+            "SELECT DISTINCT ON (stock_item_id) usuario_id, stock_item_id, ?, quantidade_posterior, CURRENT_TIMESTAMP " +
+            "FROM stock_movements WHERE usuario_id = ? AND criado_em < ? " +
+            "ORDER BY stock_item_id, criado_em DESC, id DESC " +
+            "ON CONFLICT (stock_item_id, data_corte) DO NOTHING";
+
+    private static final String SQL_REMOVER =
+            "DELETE FROM stock_movements WHERE usuario_id = ? AND criado_em < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${stock.compactacao.retencao-dias:180}")
+    private int retencaoDias;
+
+    /** Início do horizonte de retenção (sempre meia-noite, para não partir um dia no arquivo) */
+    public LocalDateTime calcularCorte() {
+        return LocalDate.now().minusDays(retencaoDias).atStartOfDay();
+    }
+
+    /** Oficinas com movimentações anteriores ao corte */
+    @Transactional(readOnly = true)
+    public List<Long> listarUsuariosParaCompactar(LocalDateTime corte) {
+        return jdbcTemplate.queryForList(SQL_USUARIOS, Long.class, Timestamp.valueOf(corte));
+    }
+
+    /**
+     * Compacta as movimentações de uma oficina anteriores ao corte.
+     * Arquivo, snapshot e remoção acontecem na mesma transação.
+     *
+     * @return número de movimentações removidas da tabela quente
+     */
+    @Transactional
+    public int compactar(Long usuarioId, LocalDateTime corte) {
+        Timestamp ts = Timestamp.valueOf(corte);
+        int resumos = jdbcTemplate.update(SQL_ARQUIVAR, usuarioId, ts);
+        int snapshots = jdbcTemplate.update(SQL_SNAPSHOT, ts, usuarioId, ts);
+        int removidas = jdbcTemplate.update(SQL_REMOVER, usuarioId, ts);
+
+        log.info("Compactação de estoque usuario {}: {} movimentações -> {} resumos diários, {} snapshots (corte {})",
+                usuarioId, removidas, resumos, snapshots, corte);
+        return removidas;
+    }
+}
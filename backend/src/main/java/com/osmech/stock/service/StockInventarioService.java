@@ -0,0 +1,216 @@
+package com.osmech.stock.service;
+
+import com.osmech.security.TenantContext;
+import com.osmech.stock.dto.StockInventarioItemRequest;
+import com.osmech.stock.dto.StockInventarioResponse;
+import com.osmech.stock.entity.StockItem;
+import com.osmech.stock.repository.StockItemRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Inventário físico em lote.
+ *
+ * Carrega os itens ativos da oficina uma única vez (com lock), calcula as diferenças
+ * em memória e grava quantidades e movimentações AJUSTE em batches JDBC,
+ * tudo na mesma transação.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockInventarioService {
+
+    private static final int BATCH_SIZE = 500;
+    private static final String DESCRICAO_MOVIMENTO = "Inventário físico";
+
+    private static final String SQL_ATUALIZAR_ITEM =
+            "UPDATE stock_items SET quantidade = ?, atualizado_em = ? WHERE id = ? AND usuario_id = ?";
+
+    private static final String SQL_INSERIR_MOVIMENTO =
+            "INSERT INTO stock_movements (usuario_id, stock_item_id, tipo, quantidade, quantidade_anterior, " +
+            "quantidade_posterior, motivo, descricao, criado_em) VALUES (?, ?, ?, ?, ?, ?, 'AJUSTE', ?, ?)";
+
+    private final StockItemRepository itemRepository;
+    private final TenantContext tenantContext;
+    private final StockResumoService resumoService;
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Inventário a partir de uma lista JSON */
+    @Transactional
+    public StockInventarioResponse processarInventario(String emailUsuario, List<StockInventarioItemRequest> contagens) {
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
+        Map<String, Integer> porCodigo = new LinkedHashMap<>();
+        for (StockInventarioItemRequest c : contagens) {
+            acumular(porCodigo, c.getCodigo(), c.getQuantidadeContada());
+        }
+        return aplicar(usuarioId, porCodigo, contagens.size());
+    }
+
+    /**
+     * Inventário a partir de um arquivo CSV lido em streaming.
+     * Formato: uma linha "codigo;quantidade" (ou com vírgula); cabeçalho opcional.
+     */
+    @Transactional
+    public StockInventarioResponse processarInventarioCsv(String emailUsuario, InputStream arquivo) {
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
+        Map<String, Integer> porCodigo = new LinkedHashMap<>();
+        int linhas = 0;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(arquivo, StandardCharsets.UTF_8))) {
+            String linha;
+            int numero = 0;
+            while ((linha = reader.readLine()) != null) {
+                numero++;
+                if (linha.isBlank()) continue;
+
+                String[] campos = linha.split("[;,\\t]");
+                if (campos.length < 2) {
+                    throw new IllegalArgumentException("Linha " + numero + " inválida: esperado codigo;quantidade");
+                }
+                String qtd = campos[1].trim();
+                if (numero == 1 && !qtd.matches("-?\\d+")) {
+                    continue; // cabeçalho
+                }
+                try {
+                    acumular(porCodigo, campos[0], Integer.parseInt(qtd));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Linha " + numero + ": quantidade inválida '" + qtd + "'");
+                }
+                linhas++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao ler arquivo de inventário", e);
+        }
+
+        return aplicar(usuarioId, porCodigo, linhas);
+    }
+
+    private StockInventarioResponse aplicar(Long usuarioId, Map<String, Integer> contagens, int totalLinhas) {
+        if (contagens.isEmpty()) {
+            throw new IllegalArgumentException("Nenhuma contagem informada");
+        }
+
+        Map<String, StockItem> itens = itemRepository.findAtivosForUpdate(usuarioId).stream()
+                .collect(Collectors.toMap(i -> normalizar(i.getCodigo()), Function.identity(), (a, b) -> a));
+
+        LocalDateTime agora = LocalDateTime.now();
+        Timestamp ts = Timestamp.valueOf(agora);
+        List<Object[]> updates = new ArrayList<>();
+        List<Object[]> movimentos = new ArrayList<>();
+        Map<Long, StockResumoService.Snapshot[]> alteracoes = new HashMap<>();
+        List<StockInventarioResponse.Divergencia> divergencias = new ArrayList<>();
+        List<String> naoEncontrados = new ArrayList<>();
+        long sobras = 0, faltas = 0;
+        BigDecimal valorSobras = BigDecimal.ZERO, valorFaltas = BigDecimal.ZERO;
+        int contados = 0;
+
+        for (Map.Entry<String, Integer> c : contagens.entrySet()) {
+            StockItem item = itens.get(c.getKey());
+            if (item == null) {
+                naoEncontrados.add(c.getKey());
+                continue;
+            }
+            contados++;
+
+            int anterior = item.getQuantidade();
+            int contada = c.getValue();
+            int diff = contada - anterior;
+            if (diff == 0) continue;
+
+            BigDecimal custo = item.getPrecoCusto() != null ? item.getPrecoCusto() : BigDecimal.ZERO;
+            BigDecimal valor = custo.multiply(BigDecimal.valueOf(diff));
+            if (diff > 0) {
+                sobras += diff;
+                valorSobras = valorSobras.add(valor);
+            } else {
+                faltas += -diff;
+                valorFaltas = valorFaltas.add(valor.negate());
+            }
+
+            updates.add(new Object[]{contada, ts, item.getId(), usuarioId});
+            movimentos.add(new Object[]{usuarioId, item.getId(), diff > 0 ? "ENTRADA" : "SAIDA",
+                    Math.abs(diff), anterior, contada, DESCRICAO_MOVIMENTO, ts});
+            alteracoes.put(item.getId(), new StockResumoService.Snapshot[]{
+                    StockResumoService.Snapshot.de(item),
+                    StockResumoService.Snapshot.de(item, contada)});
+            divergencias.add(StockInventarioResponse.Divergencia.builder()
+                    .stockItemId(item.getId())
+                    .codigo(item.getCodigo())
+                    .nome(item.getNome())
+                    .quantidadeSistema(anterior)
+                    .quantidadeContada(contada)
+                    .diferenca(diff)
+                    .valorDiferenca(valor)
+                    .build());
+        }
+
+        // Entidades carregadas não são alteradas: as gravações vão direto por JDBC em lote
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(SQL_ATUALIZAR_ITEM, updates, BATCH_SIZE, (ps, args) -> {
+                for (int i = 0; i < args.length; i++) ps.setObject(i + 1, args[i]);
+            });
+            jdbcTemplate.batchUpdate(SQL_INSERIR_MOVIMENTO, movimentos, BATCH_SIZE, (ps, args) -> {
+                for (int i = 0; i < args.length; i++) ps.setObject(i + 1, args[i]);
+            });
+            resumoService.registrarAlteracoes(usuarioId, alteracoes);
+        }
+
+        divergencias.sort(Comparator.comparing(
+                (StockInventarioResponse.Divergencia d) -> d.getValorDiferenca().abs()).reversed());
+
+        log.info("Inventário aplicado para usuario {}: {} contados, {} ajustados, {} não encontrados",
+                usuarioId, contados, updates.size(), naoEncontrados.size());
+
+        return StockInventarioResponse.builder()
+                .totalLinhas(totalLinhas)
+                .itensContados(contados)
+                .itensAjustados(updates.size())
+                .itensSemDiferenca(contados - updates.size())
+                .totalSobras(sobras)
+                .totalFaltas(faltas)
+                .valorSobras(valorSobras)
+                .valorFaltas(valorFaltas)
+                .variacaoLiquida(valorSobras.subtract(valorFaltas))
+                .codigosNaoEncontrados(naoEncontrados)
+                .divergencias(divergencias)
+                .build();
+    }
+
+    /** Códigos repetidos (mesma peça contada em locais diferentes) são somados */
+    private void acumular(Map<String, Integer> porCodigo, String codigo, Integer quantidade) {
+        if (codigo == null || codigo.isBlank()) {
+            throw new IllegalArgumentException("Código é obrigatório");
+        }
+        if (quantidade == null || quantidade < 0) {
+            throw new IllegalArgumentException("Quantidade contada inválida para o código " + codigo.trim());
+        }
+        porCodigo.merge(normalizar(codigo), quantidade, Integer::sum);
+    }
+
+    private static String normalizar(String codigo) {
+        return codigo.trim().toUpperCase(Locale.ROOT);
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.osmech.stock.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Job noturno de previsão de consumo / ponto de pedido.
+ * Processa o dia anterior completo; cada oficina em sua própria transação.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StockPrevisaoJob {
+
+    private final StockPrevisaoService previsaoService;
+
+    @Value("${stock.previsao.enabled:true}")
+    private boolean enabled;
+
+    @Scheduled(cron = "${stock.previsao.cron:0 0 4 * * *}")
+    public void executar() {
+        if (!enabled) {
+            return;
+        }
+
+        LocalDate ontem = LocalDate.now().minusDays(1);
+        List<Long> usuarios = previsaoService.listarUsuarios();
+        for (Long usuarioId : usuarios) {
+            try {
+                previsaoService.atualizarPrevisoes(usuarioId, ontem);
+            } catch (Exception e) {
+                log.error("Erro ao atualizar previsão de estoque do usuario {}: {}", usuarioId, e.getMessage(), e);
+            }
+        }
+    }
+}
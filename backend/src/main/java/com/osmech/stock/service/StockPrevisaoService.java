@@ -0,0 +1,189 @@
+package com.osmech.stock.service;
+
+import com.osmech.security.TenantContext;
+import com.osmech.stock.dto.StockSugestaoCompraResponse;
+import com.osmech.stock.entity.StockItem;
+import com.osmech.stock.entity.StockPrevisao;
+import com.osmech.stock.repository.StockItemRepository;
+import com.osmech.stock.repository.StockMovementRepository;
+import com.osmech.stock.repository.StockPrevisaoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Previsão de consumo e ponto de pedido por item.
+ *
+ * O job noturno lê as saídas de consumo em lotes, acumula o consumo por item e dia
+ * desde o último dia processado e atualiza a média exponencial (stock_previsoes).
+ * A sugestão de compra é uma consulta direta sobre as linhas pré-calculadas.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockPrevisaoService {
+
+    private final StockPrevisaoRepository previsaoRepository;
+    private final StockMovementRepository movementRepository;
+    private final StockItemRepository itemRepository;
+    private final TenantContext tenantContext;
+
+    @Value("${stock.previsao.alpha:0.2}")
+    private double alpha;
+
+    @Value("${stock.previsao.historico-dias:90}")
+    private int historicoDias;
+
+    @Value("${stock.previsao.prazo-entrega-dias:7}")
+    private int prazoEntregaDias;
+
+    @Value("${stock.previsao.seguranca-dias:3}")
+    private int segurancaDias;
+
+    @Value("${stock.previsao.cobertura-dias:30}")
+    private int coberturaDias;
+
+    @Value("${stock.previsao.tamanho-lote:1000}")
+    private int tamanhoLote;
+
+    /** Oficinas com itens ativos */
+    @Transactional(readOnly = true)
+    public List<Long> listarUsuarios() {
+        return itemRepository.findUsuariosComItensAtivos();
+    }
+
+    /**
+     * Atualiza as previsões de uma oficina até o dia informado (inclusive).
+     * Idempotente: dias já incorporados (ultimo_dia) não são reprocessados.
+     */
+    @Transactional
+    public void atualizarPrevisoes(Long usuarioId, LocalDate ate) {
+        List<StockItem> itens = itemRepository.findByUsuarioIdAndAtivoTrueOrderByNomeAsc(usuarioId);
+        Map<Long, StockPrevisao> previsoes = previsaoRepository.findByUsuarioId(usuarioId).stream()
+                .collect(Collectors.toMap(StockPrevisao::getStockItemId, Function.identity()));
+
+        // Itens sem previsão começam pela janela de histórico completa
+        LocalDate inicioNovos = ate.minusDays(historicoDias - 1L);
+        LocalDate inicio = null;
+        for (StockItem item : itens) {
+            StockPrevisao p = previsoes.get(item.getId());
+            LocalDate desde = proximoDia(p, inicioNovos);
+            if (inicio == null || desde.isBefore(inicio)) inicio = desde;
+        }
+        if (inicio == null || inicio.isAfter(ate)) {
+            return;
+        }
+
+        int dias = (int) ChronoUnit.DAYS.between(inicio, ate) + 1;
+        Map<Long, int[]> consumo = carregarConsumo(usuarioId, inicio, ate, dias);
+
+        List<StockPrevisao> alteradas = new ArrayList<>();
+        for (StockItem item : itens) {
+            int[] serie = consumo.get(item.getId());
+            StockPrevisao p = previsoes.get(item.getId());
+            double media;
+
+            if (p == null) {
+                // Inicializa com a média simples do histórico disponível
+                long total = 0;
+                if (serie != null) {
+                    for (int d = (int) ChronoUnit.DAYS.between(inicio, inicioNovos); d < dias; d++) total += serie[d];
+                }
+                media = (double) total / historicoDias;
+                p = StockPrevisao.builder().usuarioId(usuarioId).stockItemId(item.getId()).build();
+            } else {
+                media = p.getConsumoDiario().doubleValue();
+                int desde = (int) ChronoUnit.DAYS.between(inicio, proximoDia(p, inicioNovos));
+                for (int d = desde; d < dias; d++) {
+                    media = alpha * (serie != null ? serie[d] : 0) + (1 - alpha) * media;
+                }
+            }
+
+            p.setConsumoDiario(BigDecimal.valueOf(media).setScale(4, RoundingMode.HALF_UP));
+            p.setPontoPedido((int) Math.ceil(media * (prazoEntregaDias + segurancaDias)));
+            p.setEstoqueAlvo((int) Math.ceil(media * (prazoEntregaDias + segurancaDias + coberturaDias)));
+            p.setUltimoDia(ate);
+            alteradas.add(p);
+        }
+        previsaoRepository.saveAll(alteradas);
+
+        log.info("Previsão de estoque usuario {}: {} itens atualizados ({} dias)", usuarioId, alteradas.size(), dias);
+    }
+
+    /** Primeiro dia ainda não incorporado; nunca antes da janela de histórico (job parado por muito tempo) */
+    private static LocalDate proximoDia(StockPrevisao p, LocalDate inicioHistorico) {
+        if (p == null) return inicioHistorico;
+        LocalDate proximo = p.getUltimoDia().plusDays(1);
+        return proximo.isBefore(inicioHistorico) ? inicioHistorico : proximo;
+    }
+
+    /** Consumo por item e dia na janela, lendo as saídas em lotes (keyset no id) */
+    private Map<Long, int[]> carregarConsumo(Long usuarioId, LocalDate inicio, LocalDate ate, int dias) {
+        Map<Long, int[]> consumo = new HashMap<>();
+        LocalDateTime inicioDt = inicio.atStartOfDay();
+        LocalDateTime fimDt = ate.plusDays(1).atStartOfDay();
+        long aposId = 0;
+
+        while (true) {
+            List<Object[]> lote = movementRepository.findSaidasConsumo(
+                    usuarioId, inicioDt, fimDt, aposId, PageRequest.of(0, tamanhoLote));
+            for (Object[] row : lote) {
+                Long itemId = (Long) row[1];
+                LocalDateTime criadoEm = (LocalDateTime) row[2];
+                int dia = (int) ChronoUnit.DAYS.between(inicio, criadoEm.toLocalDate());
+                consumo.computeIfAbsent(itemId, k -> new int[dias])[dia] += (Integer) row[3];
+            }
+            if (lote.size() < tamanhoLote) {
+                return consumo;
+            }
+            aposId = (Long) lote.get(lote.size() - 1)[0];
+        }
+    }
+
+    /** Itens que atingiram o ponto de pedido previsto, com a quantidade sugerida */
+    @Transactional(readOnly = true)
+    public List<StockSugestaoCompraResponse> listarSugestoesCompra(String emailUsuario) {
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
+
+        return previsaoRepository.findSugestoesCompra(usuarioId).stream()
+                .map(row -> {
+                    StockPrevisao p = (StockPrevisao) row[0];
+                    StockItem item = (StockItem) row[1];
+                    int sugerida = Math.max(0, p.getEstoqueAlvo() - item.getQuantidade());
+                    BigDecimal custo = item.getPrecoCusto() != null ? item.getPrecoCusto() : BigDecimal.ZERO;
+                    BigDecimal diasCobertura = p.getConsumoDiario().signum() > 0
+                            ? BigDecimal.valueOf(Math.max(0, item.getQuantidade()))
+                                .divide(p.getConsumoDiario(), 1, RoundingMode.HALF_UP)
+                            : null;
+                    return StockSugestaoCompraResponse.builder()
+                            .stockItemId(item.getId())
+                            .codigo(item.getCodigo())
+                            .nome(item.getNome())
+                            .categoria(item.getCategoria())
+                            .quantidadeAtual(item.getQuantidade())
+                            .quantidadeMinima(item.getQuantidadeMinima())
+                            .consumoDiario(p.getConsumoDiario())
+                            .pontoPedido(p.getPontoPedido())
+                            .quantidadeSugerida(sugerida)
+                            .diasCobertura(diasCobertura)
+                            .custoEstimado(custo.multiply(BigDecimal.valueOf(sugerida)))
+                            .build();
+                })
+                .toList();
+    }
+}
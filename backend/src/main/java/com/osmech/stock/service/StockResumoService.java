@@ -0,0 +1,209 @@
+package com.osmech.stock.service;
+
+import com.osmech.stock.entity.StockAlerta;
+import com.osmech.stock.entity.StockItem;
+import com.osmech.stock.entity.StockResumo;
+import com.osmech.stock.repository.StockAlertaRepository;
+import com.osmech.stock.repository.StockItemRepository;
+import com.osmech.stock.repository.StockResumoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mantém os agregados de estoque por oficina (resumo + conjunto de alertas).
+ *
+ * Cada alteração de item no StockService captura um {@link Snapshot} antes da mudança
+ * e chama {@link #registrarAlteracao} depois; apenas a diferença é aplicada ao resumo.
+ * Assim, alertas e valuation são leituras diretas, sem varrer stock_items.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockResumoService {
+
+    private final StockResumoRepository resumoRepository;
+    private final StockAlertaRepository alertaRepository;
+    private final StockItemRepository itemRepository;
+
+    /**
+     * Contribuição de um item para o resumo da oficina.
+     * Itens inativos continuam na valuation (como no relatório original),
+     * mas não contam como zerados nem em alerta.
+     */
+    public record Snapshot(long itens, long quantidade, BigDecimal custo, BigDecimal venda,
+                           boolean zerado, boolean alerta) {
+
+        /** Contribuição de um item inexistente (antes da criação) */
+        public static final Snapshot VAZIO = new Snapshot(0, 0, BigDecimal.ZERO, BigDecimal.ZERO, false, false);
+
+        public static Snapshot de(StockItem item) {
+            return de(item, item.getQuantidade() != null ? item.getQuantidade() : 0);
+        }
+
+        /** Contribuição do item como se tivesse a quantidade informada (ajustes em lote via JDBC) */
+        public static Snapshot de(StockItem item, long qtd) {
+            BigDecimal custo = item.getPrecoCusto() != null ? item.getPrecoCusto() : BigDecimal.ZERO;
+            BigDecimal venda = item.getPrecoVenda() != null ? item.getPrecoVenda() : BigDecimal.ZERO;
+            boolean ativo = Boolean.TRUE.equals(item.getAtivo());
+            return new Snapshot(1, qtd,
+                    custo.multiply(BigDecimal.valueOf(qtd)),
+                    venda.multiply(BigDecimal.valueOf(qtd)),
+                    ativo && qtd <= 0,
+                    ativo && item.getQuantidadeMinima() != null && qtd <= item.getQuantidadeMinima());
+        }
+
+        boolean mesmoValor(Snapshot outro) {
+            return itens == outro.itens && quantidade == outro.quantidade
+                    && custo.compareTo(outro.custo) == 0 && venda.compareTo(outro.venda) == 0
+                    && zerado == outro.zerado && alerta == outro.alerta;
+        }
+    }
+
+    /**
+     * Aplica ao resumo a diferença entre o estado anterior e o atual do item.
+     * Deve ser chamado na mesma transação que salvou o item.
+     */
+    @Transactional
+    public void registrarAlteracao(Snapshot antes, StockItem item) {
+        Snapshot depois = Snapshot.de(item);
+        if (antes.mesmoValor(depois)) {
+            return;
+        }
+
+        Long usuarioId = item.getUsuarioId();
+        int atualizados = resumoRepository.aplicarDelta(usuarioId,
+                depois.itens() - antes.itens(),
+                flag(depois.zerado()) - flag(antes.zerado()),
+                flag(depois.alerta()) - flag(antes.alerta()),
+                depois.quantidade() - antes.quantidade(),
+                depois.custo().subtract(antes.custo()),
+                depois.venda().subtract(antes.venda()));
+
+        if (atualizados == 0) {
+            // Primeira alteração da oficina: resumo ainda não existe, reconstrói com o estado já salvo
+            recalcular(usuarioId);
+            return;
+        }
+
+        if (depois.alerta() && !antes.alerta()) {
+            if (!alertaRepository.existsByUsuarioIdAndStockItemId(usuarioId, item.getId())) {
+                alertaRepository.save(StockAlerta.builder()
+                        .usuarioId(usuarioId)
+                        .stockItemId(item.getId())
+                        .build());
+            }
+        } else if (antes.alerta() && !depois.alerta()) {
+            alertaRepository.deleteByUsuarioIdAndStockItemId(usuarioId, item.getId());
+        }
+    }
+
+    /**
+     * Versão em lote de {@link #registrarAlteracao}: soma as diferenças de todos os itens
+     * e aplica ao resumo com um único UPDATE. Chaves do mapa são os IDs dos itens;
+     * cada valor é o par [antes, depois].
+     */
+    @Transactional
+    public void registrarAlteracoes(Long usuarioId, Map<Long, Snapshot[]> alteracoes) {
+        if (alteracoes.isEmpty()) {
+            return;
+        }
+
+        long itens = 0, zerados = 0, alertas = 0, quantidade = 0;
+        BigDecimal custo = BigDecimal.ZERO, venda = BigDecimal.ZERO;
+        List<StockAlerta> novosAlertas = new ArrayList<>();
+        List<Long> alertasRemovidos = new ArrayList<>();
+
+        for (Map.Entry<Long, Snapshot[]> e : alteracoes.entrySet()) {
+            Snapshot antes = e.getValue()[0];
+            Snapshot depois = e.getValue()[1];
+            itens += depois.itens() - antes.itens();
+            zerados += flag(depois.zerado()) - flag(antes.zerado());
+            alertas += flag(depois.alerta()) - flag(antes.alerta());
+            quantidade += depois.quantidade() - antes.quantidade();
+            custo = custo.add(depois.custo().subtract(antes.custo()));
+            venda = venda.add(depois.venda().subtract(antes.venda()));
+            if (depois.alerta() && !antes.alerta()) {
+                novosAlertas.add(StockAlerta.builder().usuarioId(usuarioId).stockItemId(e.getKey()).build());
+            } else if (antes.alerta() && !depois.alerta()) {
+                alertasRemovidos.add(e.getKey());
+            }
+        }
+
+        if (resumoRepository.aplicarDelta(usuarioId, itens, zerados, alertas, quantidade, custo, venda) == 0) {
+            recalcular(usuarioId);
+            return;
+        }
+        if (!alertasRemovidos.isEmpty()) {
+            alertaRepository.deleteByUsuarioIdAndStockItemIdIn(usuarioId, alertasRemovidos);
+        }
+        if (!novosAlertas.isEmpty()) {
+            alertaRepository.saveAll(novosAlertas);
+        }
+    }
+
+    /** Resumo da oficina; inicializa a partir de stock_items na primeira leitura */
+    @Transactional
+    public StockResumo obterResumo(Long usuarioId) {
+        return resumoRepository.findByUsuarioId(usuarioId)
+                .orElseGet(() -> recalcular(usuarioId));
+    }
+
+    /** Itens em alerta da oficina, do menor para o maior saldo */
+    @Transactional
+    public List<StockItem> listarItensEmAlerta(Long usuarioId) {
+        obterResumo(usuarioId);
+        List<Long> ids = alertaRepository.findStockItemIds(usuarioId);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return itemRepository.findAllById(ids).stream()
+                .sorted(Comparator.comparing(StockItem::getQuantidade))
+                .toList();
+    }
+
+    /**
+     * Reconstrói o resumo e o conjunto de alertas da oficina a partir de stock_items.
+     * Usado na inicialização e como ferramenta de reparo.
+     */
+    @Transactional
+    public StockResumo recalcular(Long usuarioId) {
+        Object[] row = itemRepository.calcularResumo(usuarioId).get(0);
+
+        StockResumo resumo = resumoRepository.findByUsuarioId(usuarioId)
+                .orElse(StockResumo.builder().usuarioId(usuarioId).build());
+        resumo.setTotalItens(((Number) row[0]).longValue());
+        resumo.setItensZerados(((Number) row[1]).longValue());
+        resumo.setItensEmAlerta(((Number) row[2]).longValue());
+        resumo.setTotalQuantidade(((Number) row[3]).longValue());
+        resumo.setValorCusto(toBigDecimal(row[4]));
+        resumo.setValorVenda(toBigDecimal(row[5]));
+        resumo = resumoRepository.save(resumo);
+
+        alertaRepository.deleteByUsuarioId(usuarioId);
+        alertaRepository.saveAll(itemRepository.findAlertItemIds(usuarioId).stream()
+                .map(id -> StockAlerta.builder().usuarioId(usuarioId).stockItemId(id).build())
+                .toList());
+
+        log.info("Resumo de estoque recalculado para usuario {}: {} itens, {} em alerta",
+                usuarioId, resumo.getTotalItens(), resumo.getItensEmAlerta());
+        return resumo;
+    }
+
+    private static long flag(boolean value) {
+        return value ? 1 : 0;
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value == null) return BigDecimal.ZERO;
+        if (value instanceof BigDecimal bd) return bd;
+        return new BigDecimal(value.toString());
+    }
+}
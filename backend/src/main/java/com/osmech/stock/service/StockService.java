@@ -1,13 +1,15 @@
 package com.osmech.stock.service;
 
 import com.osmech.config.ResourceNotFoundException;
+import com.osmech.security.TenantContext;
 import com.osmech.stock.dto.*;
 import com.osmech.stock.entity.StockItem;
 import com.osmech.stock.entity.StockMovement;
+import com.osmech.stock.entity.StockSaldoSnapshot;
 import com.osmech.stock.repository.StockItemRepository;
 import com.osmech.stock.repository.StockMovementRepository;
-import com.osmech.user.entity.Usuario;
-import com.osmech.user.repository.UsuarioRepository;
+import com.osmech.stock.repository.StockMovimentoArquivoRepository;
+import com.osmech.stock.repository.StockSaldoSnapshotRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.access.AccessDeniedException;
@@ -16,6 +18,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 /**
@@ -29,7 +32,10 @@ public class StockService {
 
     private final StockItemRepository itemRepository;
     private final StockMovementRepository movementRepository;
-    private final UsuarioRepository usuarioRepository;
+    private final TenantContext tenantContext;
+    private final StockResumoService resumoService;
+    private final StockSaldoSnapshotRepository snapshotRepository;
+    private final StockMovimentoArquivoRepository arquivoRepository;
 
     private static final Set<String> CATEGORIAS_VALIDAS = Set.of(
             "MOTOR", "SUSPENSAO", "FREIOS", "ELETRICA", "TRANSMISSAO",
@@ -54,10 +60,10 @@ public class StockService {
     /** Criar novo item de estoque */
     @Transactional
     public StockItemResponse criarItem(String emailUsuario, StockItemRequest request) {
-        Usuario usuario = getUsuario(emailUsuario);
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
 
         // Gerar código automático
-        String codigo = gerarProximoCodigo(usuario.getId());
+        String codigo = gerarProximoCodigo(usuarioId);
 
         // Validar categoria
         String categoria = request.getCategoria() != null ? request.getCategoria().toUpperCase() : "OUTROS";
@@ -66,7 +72,7 @@ public class StockService {
         }
 
         StockItem item = StockItem.builder()
-                .usuarioId(usuario.getId())
+                .usuarioId(usuarioId)
                 .codigo(codigo)
                 .nome(request.getNome().trim())
                 .categoria(categoria)
@@ -80,6 +86,7 @@ public class StockService {
                 .build();
 
         item = itemRepository.save(item);
+        resumoService.registrarAlteracao(StockResumoService.Snapshot.VAZIO, item);
 
         // Se criou com quantidade > 0, registrar movimentação de entrada inicial
         if (item.getQuantidade() > 0) {
@@ -94,8 +101,9 @@ public class StockService {
     /** Atualizar item existente */
     @Transactional
     public StockItemResponse atualizarItem(String emailUsuario, Long itemId, StockItemRequest request) {
-        Usuario usuario = getUsuario(emailUsuario);
-        StockItem item = getItemDoUsuario(usuario.getId(), itemId);
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
+        StockItem item = getItemDoUsuario(usuarioId, itemId);
+        StockResumoService.Snapshot antes = StockResumoService.Snapshot.de(item);
 
         // Código é auto-gerado, não permitir alteração na edição
 
@@ -125,22 +133,23 @@ public class StockService {
         }
 
         item = itemRepository.save(item);
+        resumoService.registrarAlteracao(antes, item);
         return StockItemResponse.fromEntity(item);
     }
 
     /** Listar itens da oficina */
     @Transactional(readOnly = true)
     public List<StockItemResponse> listarItens(String emailUsuario, String categoria, String busca) {
-        Usuario usuario = getUsuario(emailUsuario);
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
 
         List<StockItem> itens;
         if (busca != null && !busca.isBlank()) {
-            itens = itemRepository.searchByNome(usuario.getId(), busca.trim());
+            itens = itemRepository.searchByNome(usuarioId, busca.trim());
         } else if (categoria != null && !categoria.isBlank()) {
             itens = itemRepository.findByUsuarioIdAndCategoriaAndAtivoTrueOrderByNomeAsc(
-                    usuario.getId(), categoria.toUpperCase());
+                    usuarioId, categoria.toUpperCase());
         } else {
-            itens = itemRepository.findByUsuarioIdAndAtivoTrueOrderByNomeAsc(usuario.getId());
+            itens = itemRepository.findByUsuarioIdAndAtivoTrueOrderByNomeAsc(usuarioId);
         }
 
         return itens.stream().map(StockItemResponse::fromEntity).toList();
@@ -149,18 +158,20 @@ public class StockService {
     /** Buscar item por ID */
     @Transactional(readOnly = true)
     public StockItemResponse buscarItem(String emailUsuario, Long itemId) {
-        Usuario usuario = getUsuario(emailUsuario);
-        StockItem item = getItemDoUsuario(usuario.getId(), itemId);
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
+        StockItem item = getItemDoUsuario(usuarioId, itemId);
         return StockItemResponse.fromEntity(item);
     }
 
     /** Desativar item (soft delete) */
     @Transactional
     public void desativarItem(String emailUsuario, Long itemId) {
-        Usuario usuario = getUsuario(emailUsuario);
-        StockItem item = getItemDoUsuario(usuario.getId(), itemId);
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
+        StockItem item = getItemDoUsuario(usuarioId, itemId);
+        StockResumoService.Snapshot antes = StockResumoService.Snapshot.de(item);
         item.setAtivo(false);
         itemRepository.save(item);
+        resumoService.registrarAlteracao(antes, item);
         log.info("Item desativado: {} - {}", item.getCodigo(), item.getNome());
     }
 
@@ -171,8 +182,8 @@ public class StockService {
     /** Registrar movimentação manual (entrada ou saída) */
     @Transactional
     public StockMovementResponse registrarMovimentacaoManual(String emailUsuario, StockMovementRequest request) {
-        Usuario usuario = getUsuario(emailUsuario);
-        StockItem item = getItemDoUsuario(usuario.getId(), request.getStockItemId());
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
+        StockItem item = getItemDoUsuario(usuarioId, request.getStockItemId());
 
         String tipo = request.getTipo().toUpperCase();
         if (!"ENTRADA".equals(tipo) && !"SAIDA".equals(tipo)) {
@@ -184,6 +195,7 @@ public class StockService {
             throw new IllegalArgumentException("Motivo inválido: " + motivo);
         }
 
+        StockResumoService.Snapshot antes = StockResumoService.Snapshot.de(item);
         int qtdAnterior = item.getQuantidade();
         int novaQtd;
 
@@ -200,6 +212,7 @@ public class StockService {
 
         item.setQuantidade(novaQtd);
         itemRepository.save(item);
+        resumoService.registrarAlteracao(antes, item);
 
         StockMovement mov = registrarMovimentacao(item, tipo, request.getQuantidade(),
                 qtdAnterior, novaQtd, motivo, request.getDescricao(), request.getOrdemServicoId());
@@ -229,9 +242,11 @@ public class StockService {
                         ", necessário: " + req.getQuantidade());
             }
 
+            StockResumoService.Snapshot antes = StockResumoService.Snapshot.de(item);
             int novaQtd = item.getQuantidade() - req.getQuantidade();
             item.setQuantidade(novaQtd);
             itemRepository.save(item);
+            resumoService.registrarAlteracao(antes, item);
 
             registrarMovimentacao(item, "SAIDA", req.getQuantidade(), qtdAnterior,
                     novaQtd, "OS", "Baixa automática - OS #" + ordemServicoId, ordemServicoId);
@@ -241,22 +256,79 @@ public class StockService {
         }
     }
 
+    /**
+     * Devolve ao estoque as peças de uma OS editada ou excluída (chamado pelo OrdemServicoService).
+     * Itens de outra oficina ou desativados são ignorados.
+     */
+    @Transactional
+    public boolean devolverItemOS(Long usuarioId, Long ordemServicoId, Long stockItemId, int quantidade) {
+        StockItem item = itemRepository.findById(stockItemId).orElse(null);
+        if (item == null || !item.getUsuarioId().equals(usuarioId) || !item.getAtivo()) {
+            return false;
+        }
+
+        StockResumoService.Snapshot antes = StockResumoService.Snapshot.de(item);
+        int qtdAnterior = item.getQuantidade();
+        item.setQuantidade(qtdAnterior + quantidade);
+        itemRepository.save(item);
+        resumoService.registrarAlteracao(antes, item);
+
+        log.info("Devolvido ao estoque: {} x{} (OS #{})", item.getCodigo(), quantidade, ordemServicoId);
+        return true;
+    }
+
     /** Listar movimentações de um item */
     @Transactional(readOnly = true)
     public List<StockMovementResponse> listarMovimentacoes(String emailUsuario, Long stockItemId) {
-        Usuario usuario = getUsuario(emailUsuario);
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
         // Validar que o item pertence ao usuário
-        getItemDoUsuario(usuario.getId(), stockItemId);
+        getItemDoUsuario(usuarioId, stockItemId);
 
         return movementRepository.findByStockItemIdOrderByCriadoEmDesc(stockItemId)
                 .stream().map(StockMovementResponse::fromEntity).toList();
     }
 
+    /**
+     * Histórico de um item: último snapshot de saldo + movimentações recentes.
+     * A tabela quente só guarda o período de retenção (ver StockCompactacaoService).
+     */
+    @Transactional(readOnly = true)
+    public StockHistoricoResponse buscarHistorico(String emailUsuario, Long stockItemId, boolean incluirArquivo) {
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
+        StockItem item = getItemDoUsuario(usuarioId, stockItemId);
+        Optional<StockSaldoSnapshot> snapshot = snapshotRepository.findFirstByStockItemIdOrderByDataCorteDesc(stockItemId);
+
+        List<StockHistoricoResponse.ResumoDiario> arquivo = null;
+        if (incluirArquivo) {
+            arquivo = arquivoRepository.findByStockItemIdOrderByDiaDesc(stockItemId).stream()
+                    .map(a -> StockHistoricoResponse.ResumoDiario.builder()
+                            .dia(a.getDia())
+                            .tipo(a.getTipo())
+                            .motivo(a.getMotivo())
+                            .quantidade(a.getQuantidade())
+                            .movimentos(a.getMovimentos())
+                            .build())
+                    .toList();
+        }
+
+        return StockHistoricoResponse.builder()
+                .stockItemId(item.getId())
+                .codigo(item.getCodigo())
+                .nome(item.getNome())
+                .quantidadeAtual(item.getQuantidade())
+                .saldoSnapshot(snapshot.map(StockSaldoSnapshot::getQuantidade).orElse(null))
+                .dataSnapshot(snapshot.map(StockSaldoSnapshot::getDataCorte).orElse(null))
+                .movimentacoes(movementRepository.findByStockItemIdOrderByCriadoEmDesc(stockItemId)
+                        .stream().map(StockMovementResponse::fromEntity).toList())
+                .arquivo(arquivo)
+                .build();
+    }
+
     /** Listar todas as movimentações da oficina */
     @Transactional(readOnly = true)
     public List<StockMovementResponse> listarTodasMovimentacoes(String emailUsuario) {
-        Usuario usuario = getUsuario(emailUsuario);
-        return movementRepository.findByUsuarioIdOrderByCriadoEmDesc(usuario.getId())
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
+        return movementRepository.findByUsuarioIdOrderByCriadoEmDesc(usuarioId)
                 .stream().map(StockMovementResponse::fromEntity).toList();
     }
 
@@ -264,11 +336,15 @@ public class StockService {
     // ALERTAS
     // ==========================================
 
-    /** Retorna itens com estoque baixo ou zerado */
-    @Transactional(readOnly = true)
+    /**
+     * Retorna itens com estoque baixo ou zerado.
+     * Lê o conjunto de alertas mantido pelo StockResumoService (não é readOnly
+     * porque a primeira leitura da oficina inicializa o resumo).
+     */
+    @Transactional
     public List<StockAlertResponse> getAlertas(String emailUsuario) {
-        Usuario usuario = getUsuario(emailUsuario);
-        List<StockItem> alertItems = itemRepository.findAlertItems(usuario.getId());
+        Long usuarioId = tenantContext.getUsuarioId(emailUsuario);
+        List<StockItem> alertItems = resumoService.listarItensEmAlerta(usuarioId);
 
         List<StockAlertResponse> alerts = new ArrayList<>();
         for (StockItem item : alertItems) {
@@ -297,10 +373,6 @@ public class StockService {
     // HELPERS
     // ==========================================
 
-    private Usuario getUsuario(String email) {
-        return usuarioRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado"));
-    }
 
     private StockItem getItemDoUsuario(Long usuarioId, Long itemId) {
         StockItem item = itemRepository.findById(itemId)
@@ -2,7 +2,11 @@ package com.osmech.user.repository;
 
 import com.osmech.user.entity.Usuario;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -15,4 +19,19 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     Optional<Usuario> findByEmail(String email);
 
     boolean existsByEmail(String email);
+
+    /** Só o id (sem carregar a entidade) */
+    @Query("SELECT u.id FROM Usuario u WHERE u.email = :email")
+    Optional<Long> findIdByEmail(@Param("email") String email);
+
+    /**
+     * Troca só o hash da senha, e só se ele ainda for o lido no login: não sobrescreve
+     * alterações concorrentes do usuário nem uma troca de senha feita nesse meio tempo.
+     *
+     * @return 1 se o hash foi atualizado
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Usuario u SET u.senha = :novo WHERE u.id = :id AND u.senha = :antigo")
+    int atualizarSenhaSeIgual(@Param("id") Long id, @Param("antigo") String antigo, @Param("novo") String novo);
 }
@@ -1,6 +1,7 @@
 package com.osmech.user.service;
 
 import com.osmech.config.ResourceNotFoundException;
+import com.osmech.security.PasswordHasher;
 import com.osmech.user.dto.ChangePasswordRequest;
 import com.osmech.user.dto.UserProfileRequest;
 import com.osmech.user.dto.UserProfileResponse;
@@ -8,7 +9,6 @@ import com.osmech.user.entity.Usuario;
 import com.osmech.user.repository.UsuarioRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,7 +21,7 @@ import org.springframework.transaction.annotation.Transactional;
 public class UserService {
 
     private final UsuarioRepository usuarioRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
 
     /**
      * Retorna o perfil do usuário logado.
@@ -90,7 +90,7 @@ public class UserService {
         Usuario usuario = getUsuario(email);
 
         // Verificar senha atual
-        if (!passwordEncoder.matches(request.getSenhaAtual(), usuario.getSenha())) {
+        if (!passwordHasher.confere(request.getSenhaAtual(), usuario.getSenha())) {
             throw new IllegalArgumentException("Senha atual incorreta");
         }
 
@@ -99,7 +99,7 @@ public class UserService {
             throw new IllegalArgumentException("Nova senha deve ter pelo menos 8 caracteres");
         }
 
-        usuario.setSenha(passwordEncoder.encode(request.getNovaSenha()));
+        usuario.setSenha(passwordHasher.hash(request.getNovaSenha()));
         usuarioRepository.save(usuario);
         log.info("Senha alterada para usuário: {}", email);
     }
@@ -0,0 +1,22 @@
+CREATE TABLE IF NOT EXISTS pagamento_reconciliacoes (
+    id BIGSERIAL PRIMARY KEY,
+    execucao TIMESTAMP NOT NULL,
+    pagamento_id BIGINT NOT NULL,
+    mp_payment_id BIGINT,
+    status_anterior VARCHAR(20) NOT NULL,
+    status_gateway VARCHAR(30),
+    status_atual VARCHAR(20),
+    resultado VARCHAR(20) NOT NULL,
+    erro TEXT,
+    criado_em TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_pagamento_reconciliacoes_execucao
+    ON pagamento_reconciliacoes (execucao);
+
+CREATE INDEX IF NOT EXISTS idx_pagamento_reconciliacoes_pagamento
+    ON pagamento_reconciliacoes (pagamento_id);
+
+-- Varredura dos pendentes em ordem de id sem percorrer os pagamentos já resolvidos
+CREATE INDEX IF NOT EXISTS idx_pagamentos_pendentes
+    ON pagamentos (id) WHERE status = 'PENDENTE';
@@ -0,0 +1,28 @@
+CREATE TABLE IF NOT EXISTS chat_sessions (
+    id BIGSERIAL PRIMARY KEY,
+    usuario_id BIGINT NOT NULL,
+    session_id VARCHAR(64) NOT NULL,
+    titulo VARCHAR(80),
+    mensagens INTEGER NOT NULL DEFAULT 0,
+    resumo TEXT,
+    resumo_ate_id BIGINT,
+    ultima_atividade TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    criado_em TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_chat_sessions_usuario_session UNIQUE (usuario_id, session_id)
+);
+
+-- Listagem de sessões do usuário, mais recentes primeiro
+CREATE INDEX IF NOT EXISTS idx_chat_sessions_usuario_atividade
+    ON chat_sessions (usuario_id, ultima_atividade DESC, id DESC);
+
+-- Sessões já existentes (título = primeira pergunta)
+INSERT INTO chat_sessions (usuario_id, session_id, titulo, mensagens, ultima_atividade, criado_em)
+SELECT usuario_id,
+       session_id,
+       LEFT(REGEXP_REPLACE(TRIM((ARRAY_AGG(content ORDER BY id) FILTER (WHERE role = 'user'))[1]), '\s+', ' ', 'g'), 80),
+       COUNT(*),
+       MAX(criado_em),
+       MIN(criado_em)
+FROM chat_messages
+GROUP BY usuario_id, session_id
+ON CONFLICT (usuario_id, session_id) DO NOTHING;
@@ -0,0 +1,27 @@
+CREATE TABLE IF NOT EXISTS whatsapp_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    usuario_id BIGINT NOT NULL,
+    referencia_tipo VARCHAR(20),
+    referencia_id BIGINT,
+    destino VARCHAR(20) NOT NULL,
+    mensagem TEXT NOT NULL,
+    provider VARCHAR(20),
+    id_externo VARCHAR(100),
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDENTE',
+    tentativas INTEGER NOT NULL DEFAULT 0,
+    proxima_tentativa TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    ultimo_erro TEXT,
+    criado_em TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    atualizado_em TIMESTAMP,
+    enviado_em TIMESTAMP
+);
+
+-- Varredura do dispatcher: só as mensagens ainda na fila
+CREATE INDEX IF NOT EXISTS idx_whatsapp_outbox_pendentes
+    ON whatsapp_outbox (proxima_tentativa) WHERE status = 'PENDENTE';
+
+CREATE INDEX IF NOT EXISTS idx_whatsapp_outbox_enviando
+    ON whatsapp_outbox (atualizado_em) WHERE status = 'ENVIANDO';
+
+CREATE INDEX IF NOT EXISTS idx_whatsapp_outbox_referencia
+    ON whatsapp_outbox (usuario_id, referencia_tipo, referencia_id);
@@ -0,0 +1,35 @@
+CREATE TABLE IF NOT EXISTS whatsapp_campanhas (
+    id BIGSERIAL PRIMARY KEY,
+    usuario_id BIGINT NOT NULL,
+    nome VARCHAR(120) NOT NULL,
+    tipo VARCHAR(20) NOT NULL,
+    template TEXT NOT NULL,
+    meses_desde_servico INTEGER NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'CRIADA',
+    -- Checkpoint: ultima OS lida (keyset por id); o processamento recomeca daqui apos um reinicio
+    cursor_os_id BIGINT NOT NULL DEFAULT 0,
+    lidas INTEGER NOT NULL DEFAULT 0,
+    enfileiradas INTEGER NOT NULL DEFAULT 0,
+    processando_ate TIMESTAMP,
+    criado_em TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    iniciado_em TIMESTAMP,
+    concluido_em TIMESTAMP,
+    atualizado_em TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_whatsapp_campanhas_usuario
+    ON whatsapp_campanhas (usuario_id, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_whatsapp_campanhas_em_andamento
+    ON whatsapp_campanhas (id) WHERE status = 'EM_ANDAMENTO';
+
+-- Mensagens de campanha entram na mesma caixa de saida; um destino por campanha
+ALTER TABLE whatsapp_outbox ADD COLUMN IF NOT EXISTS campanha_id BIGINT;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_whatsapp_outbox_campanha_destino
+    ON whatsapp_outbox (campanha_id, destino) WHERE campanha_id IS NOT NULL;
+
+-- Leitura dos destinatarios: OS concluidas com consentimento, por oficina e id
+CREATE INDEX IF NOT EXISTS idx_ordens_servico_campanha
+    ON ordens_servico (usuario_id, id)
+    WHERE status = 'CONCLUIDA' AND whatsapp_consentimento = TRUE;
@@ -0,0 +1,42 @@
+-- ----------------------------
+-- lembretes_manutencao: proxima data prevista de cada servico recorrente por veiculo
+-- ----------------------------
+CREATE TABLE IF NOT EXISTS lembretes_manutencao (
+    id BIGSERIAL PRIMARY KEY,
+    usuario_id BIGINT NOT NULL,
+    placa VARCHAR(255) NOT NULL,
+    servico VARCHAR(20) NOT NULL,
+    modelo VARCHAR(255),
+    cliente_nome VARCHAR(255),
+    cliente_telefone VARCHAR(255),
+    ultima_os_id BIGINT NOT NULL,
+    ultimo_servico_em DATE NOT NULL,
+    ultimo_servico_km INTEGER,
+    -- Ultima leitura do hodometro do veiculo e ritmo estimado (km/dia)
+    km_referencia INTEGER,
+    km_referencia_em DATE,
+    km_por_dia NUMERIC(8, 2) NOT NULL,
+    km_estimado BOOLEAN NOT NULL DEFAULT FALSE,
+    proximo_km INTEGER,
+    previsto_em DATE NOT NULL,
+    atualizado_em TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_lembretes_manutencao_servico UNIQUE (usuario_id, placa, servico)
+);
+
+-- Dashboard: lembretes da oficina por data prevista
+CREATE INDEX IF NOT EXISTS idx_lembretes_manutencao_previsto
+    ON lembretes_manutencao (usuario_id, previsto_em, id);
+
+-- Execucoes do job; a marca da ultima concluida define quais veiculos mudaram desde entao
+CREATE TABLE IF NOT EXISTS lembretes_manutencao_execucoes (
+    id BIGSERIAL PRIMARY KEY,
+    iniciado_em TIMESTAMP NOT NULL,
+    marca_ate TIMESTAMP NOT NULL,
+    veiculos INTEGER NOT NULL DEFAULT 0,
+    lembretes INTEGER NOT NULL DEFAULT 0,
+    concluido_em TIMESTAMP
+);
+
+-- Veiculos alterados desde a ultima execucao
+CREATE INDEX IF NOT EXISTS idx_ordens_servico_alteracao
+    ON ordens_servico ((COALESCE(atualizado_em, criado_em)));
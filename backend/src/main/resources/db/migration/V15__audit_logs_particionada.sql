@@ -0,0 +1,59 @@
+-- ----------------------------
+-- audit_logs particionada por mes (criado_em).
+-- PK e unicidade precisam incluir a chave de particao; o reprocessamento do AuditWriter
+-- usa ON CONFLICT (audit_id, criado_em).
+-- ----------------------------
+ALTER TABLE audit_logs RENAME TO audit_logs_legado;
+ALTER SEQUENCE audit_logs_id_seq OWNED BY NONE;
+
+CREATE TABLE audit_logs (
+    id BIGINT NOT NULL DEFAULT nextval('audit_logs_id_seq'),
+    audit_id VARCHAR(64) NOT NULL,
+    acao VARCHAR(100) NOT NULL,
+    entidade VARCHAR(100) NOT NULL,
+    entidade_id BIGINT,
+    usuario_email VARCHAR(255),
+    detalhes TEXT,
+    ip_address VARCHAR(45),
+    criado_em TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT pk_audit_logs PRIMARY KEY (id, criado_em),
+    CONSTRAINT uk_audit_logs_audit_id UNIQUE (audit_id, criado_em)
+) PARTITION BY RANGE (criado_em);
+
+ALTER SEQUENCE audit_logs_id_seq OWNED BY audit_logs.id;
+
+-- Rede de seguranca para datas fora dos meses criados (o job mantem os proximos meses criados)
+CREATE TABLE IF NOT EXISTS audit_logs_padrao PARTITION OF audit_logs DEFAULT;
+
+-- Um mes por particao (audit_logs_pAAAAMM), do registro mais antigo ate 3 meses a frente
+DO $$
+DECLARE
+    mes DATE := date_trunc('month', LEAST(
+        COALESCE((SELECT MIN(criado_em) FROM audit_logs_legado), CURRENT_TIMESTAMP), CURRENT_TIMESTAMP));
+    fim DATE := date_trunc('month', CURRENT_TIMESTAMP) + INTERVAL '4 months';
+BEGIN
+    WHILE mes < fim LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF audit_logs FOR VALUES FROM (%L) TO (%L)',
+                       'audit_logs_p' || to_char(mes, 'YYYYMM'), mes, (mes + INTERVAL '1 month')::date);
+        mes := (mes + INTERVAL '1 month')::date;
+    END LOOP;
+END $$;
+
+INSERT INTO audit_logs (id, audit_id, acao, entidade, entidade_id, usuario_email, detalhes, ip_address, criado_em)
+SELECT id, audit_id, acao, entidade, entidade_id, usuario_email, detalhes, ip_address, criado_em
+FROM audit_logs_legado;
+
+DROP TABLE audit_logs_legado;
+
+-- Busca por keyset (criado_em, id) com filtros; cada indice existe em todas as particoes
+CREATE INDEX IF NOT EXISTS idx_audit_logs_criado_em
+    ON audit_logs (criado_em DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_audit_logs_usuario_email
+    ON audit_logs (usuario_email, criado_em DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_audit_logs_entidade_entidade_id
+    ON audit_logs (entidade, entidade_id, criado_em DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_audit_logs_acao
+    ON audit_logs (acao, criado_em DESC, id DESC);
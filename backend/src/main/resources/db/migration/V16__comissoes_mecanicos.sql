@@ -0,0 +1,37 @@
+-- ----------------------------
+-- comissoes_mecanicos: livro de comissoes, uma linha por servico de OS concluida
+-- Lancamentos nao sao alterados: reabrir/cancelar/excluir a OS gera um ESTORNO com
+-- valores negativos na data do estorno e marca o credito original como estornado
+-- ----------------------------
+CREATE TABLE IF NOT EXISTS comissoes_mecanicos (
+    id BIGSERIAL PRIMARY KEY,
+    usuario_id BIGINT NOT NULL,
+    mecanico_id BIGINT NOT NULL,
+    mecanico_nome VARCHAR(255),
+    ordem_servico_id BIGINT NOT NULL,
+    -- Sem FK: os servicos da OS sao recriados quando ela e editada
+    servico_os_id BIGINT NOT NULL,
+    descricao TEXT,
+    tipo VARCHAR(10) NOT NULL,
+    valor_servico NUMERIC(10, 2) NOT NULL,
+    percentual_comissao NUMERIC(5, 2) NOT NULL,
+    valor_comissao NUMERIC(10, 2) NOT NULL,
+    competencia DATE NOT NULL,
+    estornado BOOLEAN NOT NULL DEFAULT FALSE,
+    estorno_de BIGINT,
+    criado_em TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Folha: soma do periodo de um mecanico so pelo indice (index-only scan)
+CREATE INDEX IF NOT EXISTS idx_comissoes_mecanicos_folha
+    ON comissoes_mecanicos (usuario_id, mecanico_id, competencia)
+    INCLUDE (tipo, valor_servico, valor_comissao);
+
+-- Um credito ativo por servico; tambem localiza o que estornar de uma OS
+CREATE UNIQUE INDEX IF NOT EXISTS uk_comissoes_mecanicos_credito_ativo
+    ON comissoes_mecanicos (servico_os_id)
+    WHERE tipo = 'CREDITO' AND NOT estornado;
+
+CREATE INDEX IF NOT EXISTS idx_comissoes_mecanicos_os_ativos
+    ON comissoes_mecanicos (ordem_servico_id)
+    WHERE tipo = 'CREDITO' AND NOT estornado;
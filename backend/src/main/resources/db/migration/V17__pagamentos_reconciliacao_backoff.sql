@@ -0,0 +1,5 @@
+-- Reconciliação com backoff por pagamento: cobranças nunca pagas deixam de ser
+-- consultadas a cada execução e param de gerar linhas em pagamento_reconciliacoes
+ALTER TABLE pagamentos ADD COLUMN IF NOT EXISTS reconciliacao_tentativas INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE pagamentos ADD COLUMN IF NOT EXISTS ultima_reconciliacao TIMESTAMP;
+ALTER TABLE pagamentos ADD COLUMN IF NOT EXISTS proxima_reconciliacao TIMESTAMP;
@@ -0,0 +1,47 @@
+-- ----------------------------
+-- stock_resumo: agregados de estoque por oficina, mantidos incrementalmente
+-- ----------------------------
+CREATE TABLE IF NOT EXISTS stock_resumo (
+    id BIGSERIAL PRIMARY KEY,
+    usuario_id BIGINT NOT NULL,
+    total_itens BIGINT NOT NULL DEFAULT 0,
+    itens_zerados BIGINT NOT NULL DEFAULT 0,
+    itens_em_alerta BIGINT NOT NULL DEFAULT 0,
+    total_quantidade BIGINT NOT NULL DEFAULT 0,
+    valor_custo NUMERIC(14, 2) NOT NULL DEFAULT 0,
+    valor_venda NUMERIC(14, 2) NOT NULL DEFAULT 0,
+    atualizado_em TIMESTAMP,
+    CONSTRAINT uk_stock_resumo_usuario UNIQUE (usuario_id)
+);
+
+-- ----------------------------
+-- stock_alertas: itens ativos com quantidade <= mínimo
+-- ----------------------------
+CREATE TABLE IF NOT EXISTS stock_alertas (
+    id BIGSERIAL PRIMARY KEY,
+    usuario_id BIGINT NOT NULL,
+    stock_item_id BIGINT NOT NULL,
+    criado_em TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_stock_alertas_usuario_item UNIQUE (usuario_id, stock_item_id)
+);
+
+-- Carga inicial a partir do estoque existente
+INSERT INTO stock_resumo (usuario_id, total_itens, itens_zerados, itens_em_alerta, total_quantidade,
+                          valor_custo, valor_venda, atualizado_em)
+SELECT usuario_id,
+       COUNT(*),
+       SUM(CASE WHEN ativo AND quantidade <= 0 THEN 1 ELSE 0 END),
+       SUM(CASE WHEN ativo AND quantidade <= quantidade_minima THEN 1 ELSE 0 END),
+       SUM(quantidade),
+       SUM(COALESCE(preco_custo, 0) * quantidade),
+       SUM(COALESCE(preco_venda, 0) * quantidade),
+       CURRENT_TIMESTAMP
+FROM stock_items
+GROUP BY usuario_id
+ON CONFLICT (usuario_id) DO NOTHING;
+
+INSERT INTO stock_alertas (usuario_id, stock_item_id)
+SELECT usuario_id, id
+FROM stock_items
+WHERE ativo AND quantidade <= quantidade_minima
+ON CONFLICT (usuario_id, stock_item_id) DO NOTHING;
@@ -0,0 +1,26 @@
+-- ----------------------------
+-- Compactação de stock_movements: snapshots de saldo + arquivo resumido por dia
+-- ----------------------------
+CREATE TABLE IF NOT EXISTS stock_saldo_snapshots (
+    id BIGSERIAL PRIMARY KEY,
+    usuario_id BIGINT NOT NULL,
+    stock_item_id BIGINT NOT NULL,
+    data_corte TIMESTAMP NOT NULL,
+    quantidade INTEGER NOT NULL,
+    criado_em TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_stock_saldo_snapshots_item_corte UNIQUE (stock_item_id, data_corte)
+);
+
+CREATE TABLE IF NOT EXISTS stock_movements_arquivo (
+    id BIGSERIAL PRIMARY KEY,
+    usuario_id BIGINT NOT NULL,
+    stock_item_id BIGINT NOT NULL,
+    dia DATE NOT NULL,
+    tipo VARCHAR(255) NOT NULL,
+    motivo VARCHAR(255) NOT NULL,
+    quantidade INTEGER NOT NULL,
+    movimentos INTEGER NOT NULL,
+    CONSTRAINT uk_stock_movements_arquivo_dia UNIQUE (usuario_id, stock_item_id, dia, tipo, motivo)
+);
+
+CREATE INDEX IF NOT EXISTS idx_stock_movements_arquivo_item_dia ON stock_movements_arquivo (stock_item_id, dia);
@@ -0,0 +1,16 @@
+-- ----------------------------
+-- stock_previsoes: consumo diário suavizado e ponto de pedido por item
+-- ----------------------------
+CREATE TABLE IF NOT EXISTS stock_previsoes (
+    id BIGSERIAL PRIMARY KEY,
+    usuario_id BIGINT NOT NULL,
+    stock_item_id BIGINT NOT NULL,
+    consumo_diario NUMERIC(12, 4) NOT NULL DEFAULT 0,
+    ultimo_dia DATE NOT NULL,
+    ponto_pedido INTEGER NOT NULL DEFAULT 0,
+    estoque_alvo INTEGER NOT NULL DEFAULT 0,
+    atualizado_em TIMESTAMP,
+    CONSTRAINT uk_stock_previsoes_item UNIQUE (stock_item_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_stock_previsoes_usuario_id ON stock_previsoes (usuario_id);
@@ -0,0 +1,20 @@
+CREATE TABLE IF NOT EXISTS mercadopago_webhook_inbox (
+    id BIGSERIAL PRIMARY KEY,
+    payment_id BIGINT NOT NULL,
+    tipo_evento VARCHAR(100),
+    request_id VARCHAR(100),
+    payload TEXT,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDENTE',
+    tentativas INTEGER NOT NULL DEFAULT 0,
+    proxima_tentativa TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    ultimo_erro TEXT,
+    criado_em TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    atualizado_em TIMESTAMP,
+    processado_em TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_mp_webhook_inbox_status_proxima
+    ON mercadopago_webhook_inbox (status, proxima_tentativa);
+
+CREATE INDEX IF NOT EXISTS idx_mp_webhook_inbox_payment_id
+    ON mercadopago_webhook_inbox (payment_id);
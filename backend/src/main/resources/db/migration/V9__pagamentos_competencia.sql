@@ -0,0 +1,6 @@
+ALTER TABLE pagamentos ADD COLUMN IF NOT EXISTS competencia DATE;
+
+-- Uma cobrança de renovação por assinatura e ciclo (torna a régua de cobrança idempotente)
+CREATE UNIQUE INDEX IF NOT EXISTS uk_pagamentos_assinatura_competencia
+    ON pagamentos (referencia_id, competencia)
+    WHERE tipo = 'ASSINATURA' AND competencia IS NOT NULL;
@@ -0,0 +1,39 @@
+-- Janela deslizante aproximada (contador da janela atual + anterior ponderada),
+-- várias regras numa única chamada atômica.
+--
+-- Para cada regra i: KEYS[2i-1] = contador da janela atual, KEYS[2i] = da anterior;
+-- ARGV[5i-4] = limite, ARGV[5i-3] = peso da janela anterior (1 - fração decorrida),
+-- ARGV[5i-2] = TTL do contador atual (ms), ARGV[5i-1] = unidades pedidas (bloco),
+-- ARGV[5i] = mínimo aceitável (custo da requisição).
+-- Devolve, por regra, quantas unidades foram concedidas. Tudo ou nada: todas as regras
+-- são verificadas antes de qualquer INCRBY; se uma não tiver cota, nenhum contador muda,
+-- ela devolve 0 e as demais -1 (não cobradas).
+local regras = #KEYS / 2
+local concedidos = {}
+for i = 1, regras do
+  local limite = tonumber(ARGV[5 * i - 4])
+  local peso = tonumber(ARGV[5 * i - 3])
+  local pedido = tonumber(ARGV[5 * i - 1])
+  local minimo = tonumber(ARGV[5 * i])
+
+  local atual = tonumber(redis.call('GET', KEYS[2 * i - 1]) or '0')
+  local anterior = tonumber(redis.call('GET', KEYS[2 * i]) or '0')
+  local disponivel = math.floor(limite - anterior * peso - atual)
+  local concedido = math.min(pedido, disponivel)
+
+  if concedido < minimo then
+    local resultado = {}
+    for j = 1, regras do
+      resultado[j] = -1
+    end
+    resultado[i] = 0
+    return resultado
+  end
+  concedidos[i] = concedido
+end
+
+for i = 1, regras do
+  redis.call('INCRBY', KEYS[2 * i - 1], concedidos[i])
+  redis.call('PEXPIRE', KEYS[2 * i - 1], tonumber(ARGV[5 * i - 2]))
+end
+return concedidos
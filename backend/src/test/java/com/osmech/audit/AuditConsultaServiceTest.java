@@ -0,0 +1,85 @@
+package com.osmech.audit;
+
+import com.osmech.security.TenantContext;
+import com.osmech.security.UsuarioAutenticado;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuditConsultaServiceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final TenantContext tenantContext = mock(TenantContext.class);
+    private final AuditConsultaService service = new AuditConsultaService(jdbcTemplate, tenantContext);
+
+    private final AtomicReference<String> sql = new AtomicReference<>();
+    private final AtomicReference<List<Object>> params = new AtomicReference<>();
+
+    private void retornar(List<AuditLogResponse> linhas) {
+        when(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<AuditLogResponse>>any(), any(Object[].class)))
+                .thenAnswer(inv -> {
+                    sql.set(inv.getArgument(0));
+                    params.set(Arrays.asList(inv.getArguments()).subList(2, inv.getArguments().length));
+                    return new ArrayList<>(linhas);
+                });
+    }
+
+    private static AuditLogResponse log(long id, LocalDateTime criadoEm) {
+        return AuditLogResponse.builder().id(id).acao("OS_CRIADA").criadoEm(criadoEm).build();
+    }
+
+    @Test
+    void oficinaSoVeOsPropriosEventosEPaginaPorCursor() {
+        when(tenantContext.getUsuarioAutenticado("oficina@x.com"))
+                .thenReturn(new UsuarioAutenticado(1L, "oficina@x.com", "OFICINA", "PRO", true));
+        LocalDateTime t = LocalDateTime.of(2026, 5, 10, 12, 0);
+        retornar(List.of(log(9, t), log(8, t), log(7, t.minusMinutes(1))));
+
+        AuditLogPagina pagina = service.buscar("oficina@x.com", new AuditConsultaService.Filtro(
+                null, null, null, "outro@x.com", null, null, null, 2));
+
+        assertTrue(sql.get().contains("AND usuario_email = ?"));
+        assertTrue(params.get().contains("oficina@x.com"));
+        assertEquals(3, params.get().get(params.get().size() - 1));
+        assertEquals(2, pagina.getItens().size());
+
+        AuditConsultaService.Cursor cursor = AuditConsultaService.decodificar(pagina.getProximoCursor());
+        assertEquals(new AuditConsultaService.Cursor(t, 8), cursor);
+
+        retornar(List.of(log(7, t.minusMinutes(1))));
+        AuditLogPagina seguinte = service.buscar("oficina@x.com", new AuditConsultaService.Filtro(
+                null, null, null, null, null, null, pagina.getProximoCursor(), 2));
+
+        assertTrue(sql.get().contains("AND (criado_em, id) < (?, ?)"));
+        assertEquals(1, seguinte.getItens().size());
+        assertNull(seguinte.getProximoCursor());
+    }
+
+    @Test
+    void rejeitaCursorInvalidoEPeriodoInvertido() {
+        when(tenantContext.getUsuarioAutenticado("admin@x.com"))
+                .thenReturn(new UsuarioAutenticado(2L, "admin@x.com", "ADMIN", "PRO", true));
+        LocalDateTime agora = LocalDateTime.now();
+
+        assertThrows(IllegalArgumentException.class, () -> service.buscar("admin@x.com",
+                new AuditConsultaService.Filtro(null, null, null, null, null, null, "nao-e-cursor", null)));
+        assertThrows(IllegalArgumentException.class, () -> service.buscar("admin@x.com",
+                new AuditConsultaService.Filtro(null, null, null, null, agora, agora.minusDays(1), null, null)));
+    }
+}
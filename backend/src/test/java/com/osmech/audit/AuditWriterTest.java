@@ -0,0 +1,157 @@
+package com.osmech.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuditWriterTest {
+
+    @TempDir
+    Path dir;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AuditWriter writer;
+    private Path arquivo;
+    private Path rejeitados;
+
+    @BeforeEach
+    void setUp() {
+        arquivo = dir.resolve("audit-spill.jsonl");
+        writer = new AuditWriter(jdbcTemplate, new ObjectMapper().findAndRegisterModules(), meterRegistry);
+        ReflectionTestUtils.setField(writer, "capacidade", 100);
+        ReflectionTestUtils.setField(writer, "tamanhoLote", 3);
+        ReflectionTestUtils.setField(writer, "intervaloMs", 20L);
+        ReflectionTestUtils.setField(writer, "retryMs", 0L);
+        ReflectionTestUtils.setField(writer, "arquivo", arquivo.toString());
+        rejeitados = dir.resolve("audit-rejeitados.jsonl");
+        ReflectionTestUtils.setField(writer, "arquivoRejeitados", rejeitados.toString());
+        writer.preparar();
+    }
+
+    @Test
+    void gravaEmLotesPorTamanho() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            writer.enfileirar(evento("a" + i));
+        }
+
+        writer.ciclo();
+        writer.ciclo();
+
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+        assertEquals(5.0, meterRegistry.get("audit.eventos").tag("destino", "banco").counter().count());
+        assertEquals(0.0, meterRegistry.get("audit.fila").tag("estado", "ocupada").gauge().value());
+    }
+
+    @Test
+    void bancoForaVaiParaArquivoEReprocessaDepois() throws Exception {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("conexao recusada"))
+                .thenReturn(new int[]{1, 1});
+        writer.enfileirar(evento("a1"));
+        writer.enfileirar(evento("a2"));
+
+        writer.ciclo();
+        assertEquals(2, Files.readAllLines(arquivo).size());
+        assertEquals(2.0, meterRegistry.get("audit.eventos").tag("destino", "arquivo").counter().count());
+
+        writer.reprocessarArquivo();
+
+        assertFalse(Files.exists(arquivo));
+        assertEquals(2.0, meterRegistry.get("audit.eventos").tag("destino", "banco").counter().count());
+    }
+
+    @Test
+    void eventoRecusadoVaiParaRejeitadosSemDesviarOLote() throws Exception {
+        ReflectionTestUtils.setField(writer, "retryMs", 60_000L);
+        recusarEvento("ruim");
+        writer.enfileirar(evento("a1"));
+        writer.enfileirar(evento("ruim"));
+        writer.enfileirar(evento("a2"));
+
+        writer.ciclo();
+
+        assertFalse(Files.exists(arquivo));
+        List<String> linhas = Files.readAllLines(rejeitados);
+        assertEquals(1, linhas.size());
+        assertTrue(linhas.get(0).contains("\"auditId\":\"ruim\""));
+        assertEquals(2.0, meterRegistry.get("audit.eventos").tag("destino", "banco").counter().count());
+        assertEquals(1.0, meterRegistry.get("audit.eventos").tag("destino", "rejeitado").counter().count());
+
+        // Não conta como banco fora: o próximo lote vai direto para o banco
+        writer.enfileirar(evento("a3"));
+        writer.ciclo();
+        assertFalse(Files.exists(arquivo));
+    }
+
+    @Test
+    void arquivoComEventoRecusadoTerminaDeReprocessar() throws Exception {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("conexao recusada"));
+        writer.enfileirar(evento("a1"));
+        writer.enfileirar(evento("ruim"));
+        writer.ciclo();
+        assertEquals(2, Files.readAllLines(arquivo).size());
+
+        recusarEvento("ruim");
+        writer.reprocessarArquivo();
+
+        assertFalse(Files.exists(arquivo));
+        assertFalse(Files.exists(dir.resolve("audit-spill.jsonl.reprocessando")));
+        assertEquals(1, Files.readAllLines(rejeitados).size());
+        assertEquals(1.0, meterRegistry.get("audit.eventos").tag("destino", "banco").counter().count());
+    }
+
+    @Test
+    void filaCheiaNaoBloqueiaQuemRegistra() throws Exception {
+        ReflectionTestUtils.setField(writer, "capacidade", 1);
+        writer.preparar();
+
+        writer.enfileirar(evento("a1"));
+        writer.enfileirar(evento("a2"));
+
+        List<String> linhas = Files.readAllLines(arquivo);
+        assertEquals(1, linhas.size());
+        assertTrue(linhas.get(0).contains("\"auditId\":\"a2\""));
+        assertEquals(1.0, meterRegistry.get("audit.fila.cheia").counter().count());
+    }
+
+    /** Lote com o evento falha por integridade; um a um, só ele é recusado */
+    private void recusarEvento(String auditId) {
+        doThrow(new DataIntegrityViolationException("value too long for type character varying(255)"))
+                .when(jdbcTemplate).batchUpdate(anyString(), anyList());
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenAnswer(inv -> {
+            if (auditId.equals(inv.getArgument(1))) {
+                throw new DataIntegrityViolationException("value too long for type character varying(255)");
+            }
+            return 1;
+        });
+    }
+
+    private static AuditWriter.Evento evento(String id) {
+        return new AuditWriter.Evento(id, "LOGIN_SUCESSO", "USUARIO", null, "a@b.com", "{}", null, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,42 @@
+package com.osmech.auth.service;
+
+import com.osmech.auth.dto.LoginRequest;
+import com.osmech.security.JwtUtil;
+import com.osmech.security.PasswordHasher;
+import com.osmech.user.entity.Usuario;
+import com.osmech.user.repository.UsuarioRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuthServiceTest {
+
+    private final UsuarioRepository usuarioRepository = mock(UsuarioRepository.class);
+    private final PasswordHasher passwordHasher = mock(PasswordHasher.class);
+    private final AuthService service = new AuthService(usuarioRepository, passwordHasher, mock(JwtUtil.class));
+
+    @Test
+    void deveAtualizarSoOHashQuandoCustoMudou() {
+        Usuario usuario = Usuario.builder().id(7L).email("oficina@x.com").senha("hash-antigo")
+                .role("OFICINA").plano("PRO").ativo(true).build();
+        when(usuarioRepository.findByEmail("oficina@x.com")).thenReturn(Optional.of(usuario));
+        when(passwordHasher.confere("segredo", "hash-antigo")).thenReturn(true);
+        when(passwordHasher.rehashSeNecessario("segredo", "hash-antigo")).thenReturn("hash-novo");
+
+        LoginRequest request = new LoginRequest();
+        request.setEmail("oficina@x.com");
+        request.setSenha("segredo");
+
+        service.login(request);
+
+        // UPDATE condicional no hash lido, sem regravar a entidade inteira
+        verify(usuarioRepository).atualizarSenhaSeIgual(7L, "hash-antigo", "hash-novo");
+        verify(usuarioRepository, never()).save(any());
+    }
+}
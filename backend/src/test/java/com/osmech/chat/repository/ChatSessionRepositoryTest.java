@@ -0,0 +1,49 @@
+package com.osmech.chat.repository;
+
+import com.osmech.chat.entity.ChatSession;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Upsert de sessão contra o schema gerado pelo Hibernate (perfil padrão/dev, sem Flyway):
+ * a constraint única precisa vir da entidade para o ON CONFLICT funcionar.
+ */
+@DataJpaTest(properties = {"spring.flyway.enabled=false", "spring.jpa.hibernate.ddl-auto=create-drop"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class ChatSessionRepositoryTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private ChatSessionRepository repository;
+
+    @Test
+    void registrarMensagemCriaEDepoisIncrementaASessao() {
+        LocalDateTime t0 = LocalDateTime.of(2026, 3, 1, 10, 0);
+
+        assertEquals(1, repository.registrarMensagem(1L, "abc12345", "Barulho no freio", t0));
+        assertEquals(1, repository.registrarMensagem(1L, "abc12345", null, t0.plusMinutes(1)));
+        assertEquals(1, repository.registrarMensagem(1L, "abc12345", "Outra pergunta", t0.plusMinutes(2)));
+        repository.registrarMensagem(2L, "abc12345", "Outro usuario", t0);
+
+        ChatSession sessao = repository.findByUsuarioIdAndSessionId(1L, "abc12345").orElseThrow();
+        assertEquals(3, sessao.getMensagens());
+        assertEquals("Barulho no freio", sessao.getTitulo());
+        assertEquals(t0.plusMinutes(2), sessao.getUltimaAtividade());
+        assertEquals(t0, sessao.getCriadoEm());
+        assertEquals(1, repository.findByUsuarioIdAndSessionId(2L, "abc12345").orElseThrow().getMensagens());
+    }
+}
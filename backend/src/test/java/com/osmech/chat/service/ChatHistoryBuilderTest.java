@@ -0,0 +1,127 @@
+package com.osmech.chat.service;
+
+import com.osmech.chat.entity.ChatMessage;
+import com.osmech.chat.entity.ChatSession;
+import com.osmech.chat.repository.ChatRepository;
+import com.osmech.chat.repository.ChatSessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ChatHistoryBuilderTest {
+
+    private final ChatRepository chatRepository = mock(ChatRepository.class);
+    private final ChatSessionRepository sessionRepository = mock(ChatSessionRepository.class);
+    private final List<ChatMessage> mensagens = new ArrayList<>();
+    private ChatHistoryBuilder builder;
+
+    @BeforeEach
+    void setUp() {
+        builder = new ChatHistoryBuilder(chatRepository, sessionRepository);
+        ReflectionTestUtils.setField(builder, "maxTokens", 100);
+        ReflectionTestUtils.setField(builder, "pagina", 2);
+        ReflectionTestUtils.setField(builder, "maxResumir", 200);
+        ReflectionTestUtils.setField(builder, "resumoMaxCaracteres", 2000);
+        ReflectionTestUtils.setField(builder, "trechoResumo", 20);
+
+        // Emula a consulta keyset: id entre depoisDe e antesDe, mais novas primeiro
+        when(chatRepository.findAnteriores(eq(1L), eq("s1"), anyLong(), anyLong(), any(Pageable.class)))
+                .thenAnswer(inv -> {
+                    long antes = inv.getArgument(2);
+                    long depois = inv.getArgument(3);
+                    Pageable p = inv.getArgument(4);
+                    return mensagens.stream()
+                            .filter(m -> m.getId() < antes && m.getId() > depois)
+                            .sorted(Comparator.comparing(ChatMessage::getId).reversed())
+                            .limit(p.getPageSize())
+                            .toList();
+                });
+    }
+
+    @Test
+    void deveEnviarHistoricoCompletoQuandoCabeNoOrcamento() {
+        sessao(null, null);
+        adicionar(1, "user", "oi");
+        adicionar(2, "assistant", "ola, em que posso ajudar?");
+        adicionar(3, "user", "pastilha chiando");
+
+        List<Map<String, String>> msgs = builder.montar(1L, "s1", 3L, "sys", "pastilha chiando");
+
+        assertEquals(List.of("sys", "oi", "ola, em que posso ajudar?", "pastilha chiando"),
+                msgs.stream().map(m -> m.get("content")).toList());
+        verify(sessionRepository, never()).atualizarResumo(anyLong(), anyString(), anyLong());
+    }
+
+    @Test
+    void deveResumirMensagensForaDoOrcamento() {
+        sessao(null, null);
+        for (int i = 1; i <= 9; i++) {
+            adicionar(i, i % 2 == 1 ? "user" : "assistant", "mensagem " + i + " " + "x".repeat(60));
+        }
+        adicionar(10, "user", "pergunta atual");
+
+        List<Map<String, String>> msgs = builder.montar(1L, "s1", 10L, "sys", "pergunta atual");
+
+        // 100 tokens - sys - pergunta = 95: cabem as 5 mais recentes (18 tokens cada)
+        assertTrue(msgs.get(1).get("content").startsWith("Resumo da conversa anterior:"));
+        assertEquals("pergunta atual", msgs.get(msgs.size() - 1).get("content"));
+        assertTrue(msgs.get(2).get("content").startsWith("mensagem 5 "));
+        assertEquals(8, msgs.size());
+        verify(sessionRepository).atualizarResumo(eq(7L),
+                eq("Usuário: mensagem 1 xxxxxxxxx...\nIA: mensagem 2 xxxxxxxxx...\nUsuário: mensagem 3 xxxxxxxxx..."
+                        + "\nIA: mensagem 4 xxxxxxxxx..."),
+                eq(4L));
+    }
+
+    @Test
+    void naoDeveReprocessarMensagensJaResumidas() {
+        sessao("Usuário: antigo", 5L);
+        for (int i = 1; i <= 7; i++) {
+            adicionar(i, "user", "mensagem " + i);
+        }
+
+        List<Map<String, String>> msgs = builder.montar(1L, "s1", 7L, "sys", "mensagem 7");
+
+        assertEquals(List.of("sys", "Resumo da conversa anterior:\nUsuário: antigo", "mensagem 6", "mensagem 7"),
+                msgs.stream().map(m -> m.get("content")).toList());
+        verify(sessionRepository, never()).atualizarResumo(anyLong(), anyString(), anyLong());
+    }
+
+    @Test
+    void resumoDeveDescartarLinhasMaisAntigasAcimaDoLimite() {
+        ReflectionTestUtils.setField(builder, "resumoMaxCaracteres", 30);
+        ChatMessage m = ChatMessage.builder().id(9L).role("assistant").content("troque as pastilhas").build();
+
+        String resumo = builder.acumular("Usuário: linha antiga\nIA: outra linha", List.of(m));
+
+        assertEquals("IA: troque as pastilhas", resumo);
+    }
+
+    private void sessao(String resumo, Long ateId) {
+        when(sessionRepository.findByUsuarioIdAndSessionId(1L, "s1")).thenReturn(Optional.of(
+                ChatSession.builder().id(7L).usuarioId(1L).sessionId("s1").mensagens(0)
+                        .resumo(resumo).resumoAteId(ateId).build()));
+    }
+
+    private void adicionar(long id, String role, String content) {
+        mensagens.add(ChatMessage.builder().id(id).usuarioId(1L).sessionId("s1").role(role).content(content).build());
+    }
+}
@@ -0,0 +1,162 @@
+package com.osmech.chat.service;
+
+import com.osmech.chat.controller.ChatController;
+import com.osmech.chat.entity.ChatMessage;
+import com.osmech.chat.repository.ChatRepository;
+import com.osmech.chat.repository.ChatSessionRepository;
+import com.osmech.security.TenantContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Stream SSE do chat ponta a ponta pelo controller, com o provedor de IA simulado.
+ */
+class ChatServiceStreamTest {
+
+    private final ChatRepository chatRepository = mock(ChatRepository.class);
+    private final ChatHistoryBuilder historyBuilder = mock(ChatHistoryBuilder.class);
+    private final TenantContext tenantContext = mock(TenantContext.class);
+    private final LlmClient llmClient = mock(LlmClient.class);
+    private final RespostaCache respostaCache = mock(RespostaCache.class);
+    private final List<ChatMessage> gravadas = new ArrayList<>();
+    private final CountDownLatch respostaGravada = new CountDownLatch(1);
+
+    private ChatService service;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        service = new ChatService(chatRepository, mock(ChatSessionRepository.class), historyBuilder, tenantContext,
+                llmClient, mock(IntentClassifier.class), respostaCache,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(service, "aiEnabled", true);
+        ReflectionTestUtils.setField(service, "maxStreams", 2);
+        ReflectionTestUtils.setField(service, "streamTimeoutMs", 10_000L);
+        service.iniciar();
+        mockMvc = MockMvcBuilders.standaloneSetup(new ChatController(service)).build();
+
+        when(tenantContext.getUsuarioId("oficina@x.com")).thenReturn(1L);
+        when(llmClient.isConfigurado()).thenReturn(true);
+        when(historyBuilder.montar(anyLong(), anyString(), any(), anyString(), anyString()))
+                .thenReturn(List.of(Map.of("role", "user", "content", "Motor esquentando")));
+        when(chatRepository.save(any(ChatMessage.class))).thenAnswer(inv -> {
+            ChatMessage m = inv.getArgument(0);
+            synchronized (gravadas) {
+                m.setId((long) gravadas.size() + 1);
+                gravadas.add(m);
+            }
+            if ("assistant".equals(m.getRole())) {
+                respostaGravada.countDown();
+            }
+            return m;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.encerrar();
+    }
+
+    @Test
+    void deveEntregarParcialQuandoPrazoDaIaEstoura() throws Exception {
+        when(llmClient.transmitir(any(), any(), any(LlmClient.Cancelamento.class))).thenAnswer(inv -> {
+            Consumer<String> aoReceber = inv.getArgument(1);
+            aoReceber.accept("Verifique ");
+            aoReceber.accept("o radiador");
+            throw new LlmClient.GeracaoInterrompidaException("Tempo limite da IA excedido");
+        });
+
+        MvcResult result = iniciarStream();
+        result.getAsyncResult(5000);
+
+        assertEquals(List.of("sessao", "token", "token", "erro", "fim"),
+                eventos(result.getResponse().getContentAsString()));
+        assertEquals("Verifique o radiador", textoGravado());
+    }
+
+    @Test
+    void deveFecharGeracaoAssimQueClienteDesconecta() throws Exception {
+        CountDownLatch primeiroTrecho = new CountDownLatch(1);
+        when(llmClient.transmitir(any(), any(), any(LlmClient.Cancelamento.class))).thenAnswer(inv -> {
+            Consumer<String> aoReceber = inv.getArgument(1);
+            LlmClient.Cancelamento cancelamento = inv.getArgument(2);
+            aoReceber.accept("Verifique ");
+            primeiroTrecho.countDown();
+            // Provedor parado: só o cancelamento destrava, como o fechamento do corpo no LlmClient
+            long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!cancelamento.isCancelado() && System.nanoTime() < limite) {
+                Thread.sleep(10);
+            }
+            throw new LlmClient.GeracaoInterrompidaException(
+                    cancelamento.isCancelado() ? "Cliente desconectado" : "Tempo limite da IA excedido");
+        });
+
+        MvcResult result = iniciarStream();
+        assertTrue(primeiroTrecho.await(5, TimeUnit.SECONDS));
+        MockAsyncContext contexto = (MockAsyncContext) result.getRequest().getAsyncContext();
+        for (AsyncListener listener : contexto.getListeners()) {
+            listener.onError(new AsyncEvent(contexto, new IOException("Broken pipe")));
+        }
+
+        assertTrue(respostaGravada.await(2, TimeUnit.SECONDS));
+        assertEquals("Verifique ", textoGravado());
+        assertEquals(List.of("sessao", "token"), eventos(result.getResponse().getContentAsString()));
+    }
+
+    private MvcResult iniciarStream() throws Exception {
+        return mockMvc.perform(post("/chat/stream")
+                        .principal(new TestingAuthenticationToken("oficina@x.com", null))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"message\":\"Motor esquentando\",\"sessionId\":\"s1\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    private String textoGravado() {
+        synchronized (gravadas) {
+            return gravadas.stream().filter(m -> "assistant".equals(m.getRole()))
+                    .map(ChatMessage::getContent).findFirst().orElse(null);
+        }
+    }
+
+    private static List<String> eventos(String corpo) {
+        List<String> nomes = new ArrayList<>();
+        Matcher m = Pattern.compile("^event:(\\S+)$", Pattern.MULTILINE).matcher(corpo);
+        while (m.find()) {
+            nomes.add(m.group(1));
+        }
+        return nomes;
+    }
+}
@@ -0,0 +1,99 @@
+package com.osmech.chat.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntentClassifierTest {
+
+    /** Implementação anterior (String.matches em ordem), como referência */
+    private static final Map<String, String> REGEX_ANTERIOR = new LinkedHashMap<>();
+
+    static {
+        REGEX_ANTERIOR.put("saudacao", ".*(oi|ola|bom dia|boa tarde|boa noite|eai|e ai|hey|hello).*");
+        REGEX_ANTERIOR.put("ordem_servico", ".*(ordem de servico|ordem de serviço|\\bos\\b|criar os|abrir os|status os|fechar os).*");
+        REGEX_ANTERIOR.put("estoque", ".*(estoque|peca|peça|reposicao|reposição|falt).*");
+        REGEX_ANTERIOR.put("financeiro", ".*(financ|pagamento|receita|despesa|fluxo|caixa|cobr).*");
+        REGEX_ANTERIOR.put("motor", ".*(motor|aquec|superaquec|ferveu|fumaca|fumaça|barulho motor|batendo).*");
+        REGEX_ANTERIOR.put("freios", ".*(freio|frear|frenagem|pastilha|disco|pedal duro|pedal mole).*");
+        REGEX_ANTERIOR.put("suspensao", ".*(suspens|amortec|balanc|alinhamento|barulho roda|estalo).*");
+        REGEX_ANTERIOR.put("eletrica", ".*(eletric|bateria|alternador|motor partida|nao liga|não liga|luz|farol|fusivel|fusível).*");
+        REGEX_ANTERIOR.put("planos", ".*(plano|assinatura|pro|premium|upgrade).*");
+    }
+
+    private static final List<String> CORPUS = List.of(
+            "Bom dia",
+            "Como abrir uma ordem de serviço?",
+            "Quero ver o status da OS",
+            "Falta peça no estoque",
+            "Como está o fluxo de caixa deste mês?",
+            "O carro está superaquecendo e saindo fumaça branca",
+            "Pedal mole ao frear",
+            "Barulho na suspensão quando passo no buraco",
+            "A bateria descarrega rapido",
+            "Quero fazer upgrade para o premium",
+            "Qual o melhor óleo para esse carro?"
+    );
+
+    private static IntentClassifier classifier;
+
+    @BeforeAll
+    static void setUp() {
+        classifier = new IntentClassifier(new ObjectMapper(), new DefaultResourceLoader());
+        ReflectionTestUtils.setField(classifier, "arquivo", "classpath:chat/intencoes.json");
+        classifier.carregar();
+    }
+
+    @Test
+    void deveClassificarComoImplementacaoAnterior() {
+        for (String mensagem : CORPUS) {
+            List<IntentClassifier.Intencao> intencoes = classifier.classificar(mensagem);
+            String esperado = anterior(mensagem);
+            String obtido = intencoes.isEmpty() ? null : intencoes.get(0).nome();
+            assertEquals(esperado, obtido, mensagem);
+        }
+    }
+
+    @Test
+    void deveRespeitarLimitesDePalavraEAcentos() {
+        // "oi" dentro de "dois"/"noite" e "pro" dentro de "problema" não contam (a regex anterior contava)
+        assertTrue(classifier.classificar("foi trocado dois problemas").isEmpty());
+        assertEquals("eletrica", classifier.classificar("A bateria descarrega toda noite").get(0).nome());
+        assertEquals("estoque", classifier.classificar("REPOSIÇÃO de PEÇAS").get(0).nome());
+    }
+
+    @Test
+    void deveOrdenarPorPontuacao() {
+        List<IntentClassifier.Intencao> intencoes =
+                classifier.classificar("Oi, o motor de partida não liga e a bateria é nova");
+
+        assertEquals("eletrica", intencoes.get(0).nome());
+        assertEquals(List.of("eletrica", "motor", "saudacao"),
+                intencoes.stream().map(IntentClassifier.Intencao::nome).toList());
+    }
+
+    @Test
+    void deveUsarRespostaPadraoSemIntencao() {
+        assertTrue(classifier.responder("Qual o melhor óleo?").startsWith("Entendi sua pergunta"));
+        assertTrue(classifier.responder("freio rangendo").startsWith("Sistema de Freios"));
+    }
+
+    private static String anterior(String mensagem) {
+        String lower = mensagem.toLowerCase().trim();
+        for (Map.Entry<String, String> e : REGEX_ANTERIOR.entrySet()) {
+            if (lower.matches(e.getValue())) {
+                return e.getKey();
+            }
+        }
+        return null;
+    }
+}
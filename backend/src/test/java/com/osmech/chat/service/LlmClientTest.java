@@ -0,0 +1,194 @@
+package com.osmech.chat.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.osmech.config.HttpClientProperties;
+import com.osmech.config.OutboundHttpClients;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Provedor falso em processo (HttpServer do JDK) falando o formato de chat completions.
+ */
+class LlmClientTest {
+
+    private HttpServer servidor;
+    private final CountDownLatch liberarResposta = new CountDownLatch(1);
+    private final CountDownLatch respostaIniciada = new CountDownLatch(1);
+    private volatile boolean segurarResposta;
+    private volatile boolean travarNoMeio;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        servidor.createContext("/v1/chat/completions", troca -> {
+            String corpo = new String(troca.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            if (corpo.contains("\"stream\":true")) {
+                troca.getResponseHeaders().add("Content-Type", "text/event-stream");
+                troca.sendResponseHeaders(200, 0);
+                try (OutputStream out = troca.getResponseBody()) {
+                    respostaIniciada.countDown();
+                    if (segurarResposta) {
+                        aguardar(liberarResposta);
+                    }
+                    for (String trecho : List.of("Verifique ", "o nível ", "do óleo.")) {
+                        out.write(("data: {\"choices\":[{\"delta\":{\"content\":\"" + trecho + "\"}}]}\n\n")
+                                .getBytes(StandardCharsets.UTF_8));
+                        out.flush();
+                        if (travarNoMeio) {
+                            // Provedor para de enviar sem fechar a conexão
+                            aguardar(liberarResposta);
+                        }
+                    }
+                    out.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+                }
+            } else {
+                byte[] resposta = "{\"choices\":[{\"message\":{\"role\":\"assistant\",\"content\":\"Resposta completa\"}}]}"
+                        .getBytes(StandardCharsets.UTF_8);
+                troca.getResponseHeaders().add("Content-Type", "application/json");
+                troca.sendResponseHeaders(200, resposta.length);
+                try (OutputStream out = troca.getResponseBody()) {
+                    out.write(resposta);
+                }
+            }
+        });
+        // Um handler travado não pode segurar as demais requisições
+        servidor.setExecutor(Executors.newCachedThreadPool());
+        servidor.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        liberarResposta.countDown();
+        servidor.stop(0);
+    }
+
+    @Test
+    void deveRepassarTrechosConformeChegam() {
+        LlmClient client = criar(2);
+        List<String> trechos = new ArrayList<>();
+
+        String texto = client.transmitir(mensagens(), trechos::add);
+
+        assertEquals(List.of("Verifique ", "o nível ", "do óleo."), trechos);
+        assertEquals("Verifique o nível do óleo.", texto);
+    }
+
+    @Test
+    void deveCompletarSemStreaming() {
+        assertEquals("Resposta completa", criar(2).completar(mensagens()));
+    }
+
+    @Test
+    void deveRecusarAlemDoBulkhead() throws Exception {
+        LlmClient client = criar(1);
+        segurarResposta = true;
+        Thread primeira = new Thread(() -> client.transmitir(mensagens(), t -> {}));
+        primeira.start();
+        assertTrue(respostaIniciada.await(5, TimeUnit.SECONDS));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> client.completar(mensagens()));
+        assertTrue(e.getMessage().contains("ocupado"));
+
+        liberarResposta.countDown();
+        primeira.join(5000);
+        assertEquals("Resposta completa", client.completar(mensagens()));
+    }
+
+    @Test
+    void deveFecharConexaoQuandoConsumidorDesiste() {
+        LlmClient client = criar(1);
+
+        assertThrows(LlmClient.GeracaoInterrompidaException.class, () -> client.transmitir(mensagens(), t -> {
+            throw new LlmClient.GeracaoInterrompidaException("Cliente desconectado");
+        }));
+        // A vaga do bulkhead foi devolvida
+        assertEquals("Resposta completa", client.completar(mensagens()));
+    }
+
+    @Test
+    void deveAbortarStreamParadoNoPrazo() {
+        LlmClient client = criar(1);
+        ReflectionTestUtils.setField(client, "timeoutSegundos", 1);
+        travarNoMeio = true;
+        List<String> trechos = new ArrayList<>();
+
+        long inicio = System.nanoTime();
+        LlmClient.GeracaoInterrompidaException e = assertThrows(LlmClient.GeracaoInterrompidaException.class,
+                () -> client.transmitir(mensagens(), trechos::add));
+
+        assertTrue(e.getMessage().contains("Tempo limite"));
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - inicio) < 4);
+        assertEquals(List.of("Verifique "), trechos);
+        // A vaga do bulkhead foi devolvida
+        travarNoMeio = false;
+        assertEquals("Resposta completa", client.completar(mensagens()));
+    }
+
+    @Test
+    void deveAbortarStreamParadoQuandoCancelado() throws Exception {
+        LlmClient client = criar(1);
+        travarNoMeio = true;
+        LlmClient.Cancelamento cancelamento = new LlmClient.Cancelamento();
+        CountDownLatch primeiroTrecho = new CountDownLatch(1);
+        Thread cliente = new Thread(() -> {
+            aguardar(primeiroTrecho);
+            cancelamento.cancelar();
+        });
+        cliente.start();
+
+        LlmClient.GeracaoInterrompidaException e = assertThrows(LlmClient.GeracaoInterrompidaException.class,
+                () -> client.transmitir(mensagens(), t -> primeiroTrecho.countDown(), cancelamento));
+
+        assertTrue(e.getMessage().contains("desconectado"));
+        cliente.join(5000);
+        travarNoMeio = false;
+        assertEquals("Resposta completa", client.completar(mensagens()));
+    }
+
+    private LlmClient criar(int maxConcorrentes) {
+        OutboundHttpClients httpClients = new OutboundHttpClients(
+                new HttpClientProperties(), new RestTemplateBuilder(), new SimpleMeterRegistry());
+        LlmClient client = new LlmClient(httpClients, new ObjectMapper());
+        ReflectionTestUtils.setField(client, "apiKey", "teste");
+        ReflectionTestUtils.setField(client, "model", "fake");
+        ReflectionTestUtils.setField(client, "chatCompletionsUrl",
+                "http://127.0.0.1:" + servidor.getAddress().getPort() + "/v1/chat/completions");
+        ReflectionTestUtils.setField(client, "maxConcorrentes", maxConcorrentes);
+        ReflectionTestUtils.setField(client, "esperaMs", 50L);
+        ReflectionTestUtils.setField(client, "timeoutSegundos", 10);
+        client.iniciar();
+        return client;
+    }
+
+    private static List<Map<String, String>> mensagens() {
+        return List.of(Map.of("role", "user", "content", "Motor esquentando"));
+    }
+
+    private static void aguardar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
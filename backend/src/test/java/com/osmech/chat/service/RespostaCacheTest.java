@@ -0,0 +1,58 @@
+package com.osmech.chat.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RespostaCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RespostaCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new RespostaCache(meterRegistry);
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "ttlMinutos", 60L);
+        ReflectionTestUtils.setField(cache, "maxItens", 2);
+        ReflectionTestUtils.setField(cache, "maxCaracteres", 200);
+        cache.iniciar();
+    }
+
+    @Test
+    void deveNormalizarPergunta() {
+        assertEquals(cache.chave("gemini", "flash", "Como abrir OS?"),
+                cache.chave("gemini", "flash", "  como ABRIR   os "));
+        assertEquals("pastilha de freio chiando", RespostaCache.normalizar("Pastilha de freio, chiando!!"));
+        assertNotEquals(cache.chave("gemini", "flash", "Como abrir OS?"),
+                cache.chave("openai", "gpt", "Como abrir OS?"));
+    }
+
+    @Test
+    void naoDeveCachearPerguntasEspecificas() {
+        assertNull(cache.chave("gemini", "flash", "Qual o valor da OS 1234?"));
+        assertNull(cache.chave("gemini", "flash", "x".repeat(201)));
+    }
+
+    @Test
+    void deveDescartarMenosUsadaEMedirAcertos() {
+        String a = cache.chave("gemini", "flash", "como abrir os");
+        String b = cache.chave("gemini", "flash", "pastilha chiando");
+        String c = cache.chave("gemini", "flash", "carro puxando");
+        cache.guardar(a, "resposta a");
+        cache.guardar(b, "resposta b");
+
+        assertEquals("resposta a", cache.buscar(a)); // a passa a ser a mais recente
+        cache.guardar(c, "resposta c");
+
+        assertNull(cache.buscar(b));
+        assertEquals("resposta c", cache.buscar(c));
+        assertEquals(2.0, meterRegistry.get("chat.resposta.cache").tag("resultado", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("chat.resposta.cache").tag("resultado", "miss").functionCounter().count());
+    }
+}
@@ -0,0 +1,62 @@
+package com.osmech.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MS = 1_000_000;
+
+    @Test
+    void deveRecusarRequisicoesCarasPrimeiro() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 2, 100, 0.5);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tentarAdquirir(false) > 0);
+        }
+        assertEquals(-1, limiter.tentarAdquirir(true));
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tentarAdquirir(false) > 0);
+        }
+        assertEquals(-1, limiter.tentarAdquirir(false));
+
+        limiter.liberar(0, 10);
+        assertTrue(limiter.tentarAdquirir(false) > 0);
+    }
+
+    @Test
+    void deveReduzirLimiteQuandoLatenciaSobe() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(100, 10, 1000, 0.5);
+        for (int i = 0; i < 200; i++) {
+            limiter.tentarAdquirir(false);
+            limiter.liberar(10 * MS, 80);
+        }
+        int antes = limiter.getLimite();
+
+        for (int i = 0; i < 50; i++) {
+            limiter.tentarAdquirir(false);
+            limiter.liberar(100 * MS, 80);
+        }
+
+        assertTrue(limiter.getLimite() < antes / 2, "limite deveria cair: " + limiter.getLimite());
+        assertTrue(limiter.getLimite() >= 10);
+    }
+
+    @Test
+    void deveCrescerSoComUsoAltoELatenciaEstavel() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(100, 10, 1000, 0.5);
+        for (int i = 0; i < 50; i++) {
+            limiter.tentarAdquirir(false);
+            limiter.liberar(10 * MS, 5);
+        }
+        assertEquals(100, limiter.getLimite());
+
+        for (int i = 0; i < 50; i++) {
+            limiter.tentarAdquirir(false);
+            limiter.liberar(10 * MS, 90);
+        }
+        assertTrue(limiter.getLimite() > 100);
+    }
+}
@@ -0,0 +1,137 @@
+package com.osmech.config;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OutboundHttpClientsTest {
+
+    private HttpServer servidor;
+    private final CountDownLatch liberar = new CountDownLatch(1);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private OutboundHttpClients clients;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        servidor.createContext("/ok", troca -> responder(troca, "ok"));
+        servidor.createContext("/lento", troca -> {
+            // Envia cabeçalho e um pedaço, depois trava: só o prazo total interrompe
+            troca.sendResponseHeaders(200, 0);
+            OutputStream out = troca.getResponseBody();
+            out.write("parcial".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            aguardar();
+            out.close();
+        });
+        servidor.setExecutor(java.util.concurrent.Executors.newCachedThreadPool());
+        servidor.start();
+
+        HttpClientProperties properties = new HttpClientProperties();
+        properties.getPerfis().put("teste", new HttpClientProperties.Perfil(null, 2, null, 5000, 300, null, null, null));
+        properties.getPerfis().put("longo", new HttpClientProperties.Perfil(null, 2, null, 5000, 60_000, null, null, null));
+        clients = new OutboundHttpClients(properties, new RestTemplateBuilder(), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        liberar.countDown();
+        clients.encerrar();
+        servidor.stop(0);
+    }
+
+    @Test
+    void perfilDeveHerdarCamposDoPadrao() {
+        HttpClientProperties.Perfil p = clients.perfil("teste");
+
+        assertEquals(2, p.getMaxPorHost());
+        assertEquals(300, p.getTimeoutTotalMs());
+        assertEquals(200, p.getMaxConexoes());
+        assertEquals(5000, p.getConnectTimeoutMs());
+    }
+
+    @Test
+    void deveReaproveitarClienteEMedirPool() {
+        RestTemplate rest = clients.restTemplate("teste");
+        assertSame(rest, clients.restTemplate("teste"));
+
+        assertEquals("ok", rest.getForObject(url("/ok"), String.class));
+        assertEquals("ok", rest.getForObject(url("/ok"), String.class));
+
+        assertEquals(200.0, meterRegistry.get("http.cliente.pool").tag("perfil", "teste").tag("estado", "maximo").gauge().value());
+        assertEquals(0.0, meterRegistry.get("http.cliente.pool").tag("perfil", "teste").tag("estado", "ocupadas").gauge().value());
+        // Keep-alive: a segunda chamada reaproveitou a conexão, que voltou livre ao pool
+        assertEquals(1.0, meterRegistry.get("http.cliente.pool").tag("perfil", "teste").tag("estado", "livres").gauge().value());
+    }
+
+    @Test
+    void deveCancelarAoEstourarPrazoTotal() {
+        RestTemplate rest = clients.restTemplate("teste");
+        long inicio = System.nanoTime();
+
+        assertThrows(RestClientException.class, () -> rest.getForObject(url("/lento"), String.class));
+
+        long decorridoMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+        assertTrue(decorridoMs < 3000, "read timeout (5s) não deveria ser atingido: " + decorridoMs + "ms");
+        assertEquals(1.0, meterRegistry.get("http.cliente.erros").tag("perfil", "teste").tag("tipo", "prazo_total").counter().count());
+    }
+
+    @Test
+    void deveDesagendarPrazoQuandoRequisicaoTermina() throws IOException {
+        RestTemplate rest = clients.restTemplate("longo");
+        ScheduledThreadPoolExecutor prazos = (ScheduledThreadPoolExecutor) ReflectionTestUtils.getField(clients, "prazos");
+        int portaFechada;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            portaFechada = socket.getLocalPort();
+        }
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals("ok", rest.getForObject(url("/ok"), String.class));
+        }
+        assertThrows(RestClientException.class,
+                () -> rest.getForObject("http://127.0.0.1:" + portaFechada + "/ok", String.class));
+
+        // Prazo de 60s: a fila só esvazia se cada agendamento foi cancelado e removido
+        assertEquals(0, prazos.getQueue().size());
+    }
+
+    private String url(String caminho) {
+        return "http://127.0.0.1:" + servidor.getAddress().getPort() + caminho;
+    }
+
+    private static void responder(com.sun.net.httpserver.HttpExchange troca, String corpo) throws IOException {
+        byte[] bytes = corpo.getBytes(StandardCharsets.UTF_8);
+        troca.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = troca.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private void aguardar() {
+        try {
+            liberar.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
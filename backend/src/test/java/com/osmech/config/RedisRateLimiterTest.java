@@ -0,0 +1,191 @@
+package com.osmech.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.luaj.vm2.Globals;
+import org.luaj.vm2.LuaError;
+import org.luaj.vm2.LuaTable;
+import org.luaj.vm2.LuaValue;
+import org.luaj.vm2.Varargs;
+import org.luaj.vm2.lib.VarArgFunction;
+import org.luaj.vm2.lib.jse.JsePlatform;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+/**
+ * O script redis/rate-limit.lua roda de verdade num interpretador Lua em processo (luaj),
+ * com {@code redis.call} atendido por um mapa; o Redis em si não é necessário.
+ */
+class RedisRateLimiterTest {
+
+    private StringRedisTemplate redisTemplate;
+    private final Map<String, Long> redis = new HashMap<>();
+    private final Map<String, Long> ttls = new HashMap<>();
+    private final AtomicInteger chamadas = new AtomicInteger();
+    private RateLimitProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        doAnswer(inv -> {
+            chamadas.incrementAndGet();
+            List<String> keys = inv.getArgument(1);
+            Object[] args = (Object[]) inv.getRawArguments()[2];
+            return executarScript(keys, args);
+        }).when(redisTemplate).execute(eq(RedisRateLimiter.SCRIPT), anyList(), any(Object[].class));
+
+        properties = new RateLimitProperties();
+        properties.setRegras(new ArrayList<>(List.of(
+                new RateLimitProperties.Regra("geral", List.of(""), 60, 60, "Muitas requisições."))));
+    }
+
+    @Test
+    void deveDecidirMaioriaLocalmenteSemUltrapassarLimite() throws Exception {
+        RedisRateLimiter limiter = new RedisRateLimiter(properties, redisTemplate);
+
+        int permitidas = 0;
+        for (int i = 0; i < 100; i++) {
+            if (executar(limiter, "10.0.0.1") == 200) {
+                permitidas++;
+            }
+        }
+
+        assertEquals(60, permitidas);
+        // Blocos de 3 (60 / 20): 20 chamadas concedendo + 1 recusa; o resto é recusado localmente
+        assertEquals(21, chamadas.get());
+    }
+
+    @Test
+    void regrasDeLoginUsamBlocoUnitarioNumaChamadaSo() throws Exception {
+        RedisRateLimiter limiter = new RedisRateLimiter(new RateLimitProperties(), redisTemplate);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, executar(limiter, "/api/auth/login", "10.0.0.2"));
+        }
+        assertEquals(429, executar(limiter, "/api/auth/login", "10.0.0.2"));
+        // Uma chamada por requisição, com as três regras juntas
+        assertEquals(6, chamadas.get());
+        assertEquals(1, limiter.tamanhoBloco(5));
+    }
+
+    @Test
+    void devePermitirQuandoRedisIndisponivel() throws Exception {
+        doThrow(new RedisConnectionFailureException("fora"))
+                .when(redisTemplate).execute(eq(RedisRateLimiter.SCRIPT), anyList(), any(Object[].class));
+        RedisRateLimiter limiter = new RedisRateLimiter(properties, redisTemplate);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(200, executar(limiter, "10.0.0.3"));
+        }
+    }
+
+    @Test
+    void scriptDeveEstarNoClasspath() {
+        assertTrue(RedisRateLimiter.SCRIPT.getScriptAsString().contains("PEXPIRE"));
+    }
+
+    @Test
+    void scriptNaoCobraNenhumaRegraQuandoUmaRecusa() {
+        redis.put("r2:atual", 5L);
+        List<String> keys = List.of("r1:atual", "r1:anterior", "r2:atual", "r2:anterior", "r3:atual", "r3:anterior");
+        Object[] args = {"10", "0.5", "120000", "3", "1", "5", "0.5", "120000", "1", "1", "10", "0.5", "120000", "3", "1"};
+
+        assertEquals(List.of(-1L, 0L, -1L), executarScript(keys, args));
+        assertEquals(Map.of("r2:atual", 5L), redis);
+        assertTrue(ttls.isEmpty());
+
+        redis.put("r2:atual", 4L);
+        assertEquals(List.of(3L, 1L, 3L), executarScript(keys, args));
+        assertEquals(Map.of("r1:atual", 3L, "r2:atual", 5L, "r3:atual", 3L), redis);
+        assertEquals(120000L, ttls.get("r1:atual"));
+    }
+
+    @Test
+    void scriptDeveDescontarJanelaAnteriorPonderada() {
+        redis.put("r1:anterior", 8L);
+        redis.put("r1:atual", 2L);
+
+        // 10 - 8 * 0.75 - 2 = 2 disponíveis: pede 3, recebe 2
+        assertEquals(List.of(2L), executarScript(List.of("r1:atual", "r1:anterior"),
+                new Object[]{"10", "0.75", "60000", "3", "1"}));
+        assertEquals(List.of(0L), executarScript(List.of("r1:atual", "r1:anterior"),
+                new Object[]{"10", "0.75", "60000", "3", "1"}));
+        assertEquals(4L, redis.get("r1:atual"));
+    }
+
+    private int executar(RedisRateLimiter limiter, String ip) throws Exception {
+        return executar(limiter, "/api/ordens-servico", ip);
+    }
+
+    private int executar(RedisRateLimiter limiter, String uri, String ip) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setContextPath("/api");
+        request.setRemoteAddr(ip);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        limiter.doFilter(request, response, new MockFilterChain());
+        return response.getStatus();
+    }
+
+    /** Roda redis/rate-limit.lua com a mesma conversão de retorno do Redis (números → inteiros) */
+    private List<Long> executarScript(List<String> keys, Object[] args) {
+        Globals lua = JsePlatform.standardGlobals();
+        LuaTable redisLua = new LuaTable();
+        redisLua.set("call", new VarArgFunction() {
+            @Override
+            public Varargs invoke(Varargs a) {
+                String comando = a.arg(1).tojstring();
+                String chave = a.arg(2).tojstring();
+                switch (comando) {
+                    case "GET" -> {
+                        Long valor = redis.get(chave);
+                        return valor == null ? LuaValue.FALSE : LuaValue.valueOf(String.valueOf(valor));
+                    }
+                    case "INCRBY" -> {
+                        return LuaValue.valueOf(redis.merge(chave, a.arg(3).tolong(), Long::sum));
+                    }
+                    case "PEXPIRE" -> {
+                        ttls.put(chave, a.arg(3).tolong());
+                        return LuaValue.ONE;
+                    }
+                    default -> throw new LuaError("Comando não suportado: " + comando);
+                }
+            }
+        });
+        lua.set("redis", redisLua);
+        LuaTable keysLua = new LuaTable();
+        for (int i = 0; i < keys.size(); i++) {
+            keysLua.set(i + 1, LuaValue.valueOf(keys.get(i)));
+        }
+        LuaTable argvLua = new LuaTable();
+        for (int i = 0; i < args.length; i++) {
+            argvLua.set(i + 1, LuaValue.valueOf((String) args[i]));
+        }
+        lua.set("KEYS", keysLua);
+        lua.set("ARGV", argvLua);
+
+        LuaValue retorno = lua.load(RedisRateLimiter.SCRIPT.getScriptAsString(), "rate-limit.lua").call();
+        List<Long> resultado = new ArrayList<>();
+        for (int i = 1; i <= retorno.length(); i++) {
+            resultado.add(retorno.get(i).tolong());
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,101 @@
+package com.osmech.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlidingWindowRateLimiterTest {
+
+    private static final long MINUTO = 60_000;
+
+    @Test
+    void deveLimitarPorJanelaEPorChave() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(1024);
+        long a = SlidingWindowRateLimiter.chave("10.0.0.1", 0);
+        long b = SlidingWindowRateLimiter.chave("10.0.0.2", 0);
+        long t = 100 * MINUTO;
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tentarConsumir(a, 5, MINUTO, 1, t));
+        }
+        assertFalse(limiter.tentarConsumir(a, 5, MINUTO, 1, t));
+        assertTrue(limiter.tentarConsumir(b, 5, MINUTO, 1, t));
+        // Mesma origem, outra regra: contador independente
+        assertTrue(limiter.tentarConsumir(SlidingWindowRateLimiter.chave("10.0.0.1", 1), 5, MINUTO, 1, t));
+    }
+
+    @Test
+    void deveDeslizarJanelaAnteriorProporcionalmente() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(1024);
+        long chave = SlidingWindowRateLimiter.chave("10.0.0.1", 0);
+        long inicio = 100 * MINUTO;
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tentarConsumir(chave, 10, MINUTO, 1, inicio));
+        }
+        // 25% da janela seguinte: a anterior ainda pesa 7.5 -> cabem 2
+        long t = inicio + MINUTO + MINUTO / 4;
+        assertTrue(limiter.tentarConsumir(chave, 10, MINUTO, 1, t));
+        assertTrue(limiter.tentarConsumir(chave, 10, MINUTO, 1, t));
+        assertFalse(limiter.tentarConsumir(chave, 10, MINUTO, 1, t));
+        // Duas janelas depois o histórico some
+        assertTrue(limiter.tentarConsumir(chave, 1, MINUTO, 1, inicio + 3 * MINUTO));
+    }
+
+    @Test
+    void deveRespeitarCustoPorRequisicao() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(64);
+        long chave = SlidingWindowRateLimiter.chave("10.0.0.1", 0);
+
+        assertTrue(limiter.tentarConsumir(chave, 10, MINUTO, 6, 0));
+        assertFalse(limiter.tentarConsumir(chave, 10, MINUTO, 6, 0));
+        assertTrue(limiter.tentarConsumir(chave, 10, MINUTO, 4, 0));
+    }
+
+    @Test
+    void deveReaproveitarSlotsVencidosComTabelaCheia() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(16);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(limiter.tentarConsumir(SlidingWindowRateLimiter.chave("ip-" + i, 0), 1, MINUTO, 1, 0));
+        }
+        assertEquals(16, limiter.removerVencidos(10 * MINUTO));
+    }
+
+    /** Contenção: muitas threads na mesma chave nunca ultrapassam o limite */
+    @Test
+    void naoDeveUltrapassarLimiteSobContencao() throws Exception {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(1024);
+        long chave = SlidingWindowRateLimiter.chave("10.0.0.1", 0);
+        int threads = 16;
+        int tentativasPorThread = 2_000;
+        int limite = 5_000;
+        AtomicInteger permitidas = new AtomicInteger();
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+        for (int t = 0; t < threads; t++) {
+            pool.submit(() -> {
+                largada.await();
+                for (int i = 0; i < tentativasPorThread; i++) {
+                    if (limiter.tentarConsumir(chave, limite, MINUTO, 1, 0)) {
+                        permitidas.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        largada.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(limite, permitidas.get());
+    }
+}
@@ -0,0 +1,103 @@
+package com.osmech.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TtlCacheTest {
+
+    @Test
+    void cheioDescartaAUsadaHaMaisTempo() {
+        TtlCache<String, Integer> cache = new TtlCache<>(60_000, 3);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("c", 3);
+        assertEquals(1, cache.get("a"));
+        assertEquals(3, cache.getStale("c"));
+
+        cache.put("d", 4);
+
+        assertNull(cache.get("b"));
+        assertEquals(3, cache.size());
+        assertEquals(1, cache.get("a"));
+        assertEquals(4, cache.get("d"));
+    }
+
+    @Test
+    void regravarChaveExistenteNaoDescartaOutras() {
+        TtlCache<String, Integer> cache = new TtlCache<>(60_000, 2);
+        cache.put("a", 1);
+        cache.put("b", 2);
+
+        cache.put("a", 10);
+        cache.put("a", null);
+
+        assertEquals(2, cache.size());
+        assertEquals(10, cache.get("a"));
+        assertEquals(2, cache.get("b"));
+        assertEquals(2, cache.hits());
+    }
+
+    @Test
+    void leiturasNaoEsperamOLockDaOrdemDeUso() throws Exception {
+        TtlCache<String, Integer> cache = new TtlCache<>(60_000, 100);
+        cache.put("a", 1);
+        ReentrantLock lock = (ReentrantLock) ReflectionTestUtils.getField(cache, "lock");
+        ExecutorService leitores = Executors.newFixedThreadPool(4);
+        lock.lock();
+        try {
+            List<Future<Integer>> lidos = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                lidos.add(leitores.submit(() -> {
+                    int soma = 0;
+                    for (int j = 0; j < 1_000; j++) {
+                        soma += cache.get("a");
+                    }
+                    return soma;
+                }));
+            }
+            // Com o lock preso por outra thread, todas as leituras terminam mesmo assim
+            for (Future<Integer> lido : lidos) {
+                assertEquals(1_000, lido.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            lock.unlock();
+            leitores.shutdownNow();
+        }
+        assertEquals(4_000, cache.hits());
+    }
+
+    @Test
+    void escritasConcorrentesRespeitamOTamanhoMaximo() throws Exception {
+        TtlCache<Integer, Integer> cache = new TtlCache<>(60_000, 50);
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int base = t * 1_000;
+                tarefas.add(threads.submit(() -> {
+                    for (int i = 0; i < 1_000; i++) {
+                        cache.put(base + i, i);
+                        cache.get(base + i / 2);
+                    }
+                }));
+            }
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+        assertEquals(50, cache.size());
+    }
+}
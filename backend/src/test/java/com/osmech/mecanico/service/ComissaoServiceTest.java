@@ -0,0 +1,102 @@
+package com.osmech.mecanico.service;
+
+import com.osmech.mecanico.dto.ComissaoFolhaResponse;
+import com.osmech.mecanico.entity.ComissaoLancamento;
+import com.osmech.mecanico.repository.ComissaoLancamentoRepository;
+import com.osmech.mecanico.repository.MecanicoRepository;
+import com.osmech.os.entity.OrdemServico;
+import com.osmech.os.entity.ServicoOS;
+import com.osmech.security.TenantContext;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ComissaoServiceTest {
+
+    private final ComissaoLancamentoRepository lancamentoRepository = mock(ComissaoLancamentoRepository.class);
+    private final TenantContext tenantContext = mock(TenantContext.class);
+    private final ComissaoService service = new ComissaoService(
+            lancamentoRepository, mock(MecanicoRepository.class), tenantContext);
+
+    @SuppressWarnings("unchecked")
+    private List<ComissaoLancamento> salvos() {
+        ArgumentCaptor<List<ComissaoLancamento>> captor = ArgumentCaptor.forClass(List.class);
+        verify(lancamentoRepository).saveAll(captor.capture());
+        return captor.getValue();
+    }
+
+    @Test
+    void lancaUmCreditoPorServicoComMecanicoUmaVezSo() {
+        OrdemServico os = OrdemServico.builder().id(10L).usuarioId(1L).build();
+        ServicoOS comMecanico = ServicoOS.builder().id(100L).descricao("Troca de oleo").quantidade(2)
+                .valorUnitario(new BigDecimal("150.00")).mecanicoId(7L).mecanicoNome("Joao")
+                .percentualComissao(new BigDecimal("10")).build();
+        comMecanico.calcularTotal();
+        ServicoOS semMecanico = ServicoOS.builder().id(101L).descricao("Lavagem")
+                .valorUnitario(new BigDecimal("40.00")).build();
+        semMecanico.calcularTotal();
+
+        assertEquals(1, service.lancar(os, List.of(comMecanico, semMecanico)));
+        ComissaoLancamento credito = salvos().get(0);
+        assertEquals(ComissaoLancamento.CREDITO, credito.getTipo());
+        assertEquals(7L, credito.getMecanicoId());
+        assertEquals(new BigDecimal("300.00"), credito.getValorServico());
+        assertEquals(new BigDecimal("30.00"), credito.getValorComissao());
+        assertEquals(LocalDate.now(), credito.getCompetencia());
+
+        ComissaoLancamentoRepository repo2 = mock(ComissaoLancamentoRepository.class);
+        when(repo2.existsCreditoAtivo(10L)).thenReturn(true);
+        ComissaoService outro = new ComissaoService(repo2, mock(MecanicoRepository.class), mock(TenantContext.class));
+        assertEquals(0, outro.lancar(os, List.of(comMecanico)));
+        verify(repo2, never()).saveAll(any());
+    }
+
+    @Test
+    void estornoAnulaCreditoComValoresNegativos() {
+        ComissaoLancamento credito = ComissaoLancamento.builder().id(5L).usuarioId(1L).mecanicoId(7L)
+                .ordemServicoId(10L).servicoOsId(100L).tipo(ComissaoLancamento.CREDITO)
+                .valorServico(new BigDecimal("300.00")).percentualComissao(new BigDecimal("10"))
+                .valorComissao(new BigDecimal("30.00")).competencia(LocalDate.now().minusMonths(1)).build();
+        when(lancamentoRepository.findCreditosAtivos(10L)).thenReturn(new ArrayList<>(List.of(credito)));
+
+        assertEquals(1, service.estornar(10L));
+
+        List<ComissaoLancamento> salvos = salvos();
+        assertTrue(credito.getEstornado());
+        ComissaoLancamento estorno = salvos.get(1);
+        assertEquals(ComissaoLancamento.ESTORNO, estorno.getTipo());
+        assertEquals(5L, estorno.getEstornoDe());
+        assertEquals(new BigDecimal("-30.00"), estorno.getValorComissao());
+        assertEquals(new BigDecimal("-300.00"), estorno.getValorServico());
+        // Estorno entra na folha corrente; a do credito original nao muda
+        assertEquals(LocalDate.now(), estorno.getCompetencia());
+    }
+
+    @Test
+    void folhaGeralUsaNomeDosLancamentosMesmoDeMecanicoExcluido() {
+        when(tenantContext.getUsuarioId("oficina@x.com")).thenReturn(1L);
+        LocalDate inicio = LocalDate.of(2026, 5, 1);
+        LocalDate fim = LocalDate.of(2026, 5, 31);
+        when(lancamentoRepository.somarPeriodoPorMecanico(1L, inicio, fim)).thenReturn(List.of(
+                new Object[]{7L, "Joao", 2L, new BigDecimal("300.00"), new BigDecimal("30.00")},
+                new Object[]{8L, "Pedro (excluido)", 1L, new BigDecimal("500.00"), new BigDecimal("75.00")}));
+
+        List<ComissaoFolhaResponse> folha = service.folhaGeral("oficina@x.com", inicio, fim);
+
+        assertEquals(List.of("Pedro (excluido)", "Joao"), folha.stream().map(ComissaoFolhaResponse::getMecanicoNome).toList());
+        assertEquals(1L, folha.get(0).getServicos());
+        assertEquals(new BigDecimal("75.00"), folha.get(0).getValorComissao());
+    }
+}
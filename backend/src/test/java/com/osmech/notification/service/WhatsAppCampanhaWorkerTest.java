@@ -0,0 +1,74 @@
+package com.osmech.notification.service;
+
+import com.osmech.notification.repository.WhatsAppCampanhaRepository;
+import com.osmech.notification.repository.WhatsAppOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WhatsAppCampanhaWorkerTest {
+
+    private final WhatsAppCampanhaRepository campanhaRepository = mock(WhatsAppCampanhaRepository.class);
+    private final WhatsAppOutboxRepository outboxRepository = mock(WhatsAppOutboxRepository.class);
+    private final WhatsAppCampanhaService campanhaService = mock(WhatsAppCampanhaService.class);
+    private WhatsAppCampanhaWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        worker = new WhatsAppCampanhaWorker(campanhaRepository, outboxRepository, campanhaService);
+        ReflectionTestUtils.setField(worker, "tamanhoLote", 100);
+        ReflectionTestUtils.setField(worker, "maxNaFila", 150);
+    }
+
+    @Test
+    void naoLeNovoLoteComFilaCheia() {
+        when(outboxRepository.countNaFila(1L)).thenReturn(150L);
+
+        worker.alimentar(1L, System.currentTimeMillis() + 1000);
+
+        verify(campanhaService, never()).processarLote(anyLong(), anyInt());
+    }
+
+    @Test
+    void limitaLoteAsVagasDaFilaEParaNoFim() {
+        when(outboxRepository.countNaFila(1L)).thenReturn(0L, 100L);
+        when(campanhaService.processarLote(1L, 100)).thenReturn(new WhatsAppCampanhaService.Lote(100, 100, false));
+        when(campanhaService.processarLote(1L, 50)).thenReturn(new WhatsAppCampanhaService.Lote(20, 20, true));
+
+        worker.alimentar(1L, System.currentTimeMillis() + 1000);
+
+        verify(campanhaService).processarLote(1L, 100);
+        verify(campanhaService).processarLote(1L, 50);
+        verify(campanhaService, times(2)).processarLote(eq(1L), anyInt());
+    }
+
+    @Test
+    void templateCompiladoSubstituiMarcadoresERecusaDesconhecidos() {
+        MensagemTemplate template = MensagemTemplate.compilar(
+                "Olá {cliente}, seu {modelo} ({placa}) está há {meses} meses sem revisão.",
+                WhatsAppCampanhaService.MARCADORES);
+
+        String texto = template.renderizar(Map.of(
+                "cliente", "Ana", "modelo", "Gol", "placa", "ABC1D23", "meses", "12"));
+
+        assertEquals(
+                "Olá Ana, seu Gol (ABC1D23) está há 12 meses sem revisão.", texto);
+        assertThrows(IllegalArgumentException.class,
+                () -> MensagemTemplate.compilar("Olá {nome}", WhatsAppCampanhaService.MARCADORES));
+        assertEquals("Maria",
+                WhatsAppCampanhaService.primeiroNome("  Maria da Silva "));
+    }
+}
@@ -0,0 +1,156 @@
+package com.osmech.notification.service;
+
+import com.osmech.notification.entity.WhatsAppOutbox;
+import com.osmech.notification.repository.WhatsAppOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WhatsAppDispatcherTest {
+
+    private final WhatsAppOutboxRepository repository = mock(WhatsAppOutboxRepository.class);
+    private final WhatsAppService whatsAppService = mock(WhatsAppService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private WhatsAppDispatcher dispatcher;
+    private WhatsAppOutbox mensagem;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new WhatsAppDispatcher(repository, whatsAppService, meterRegistry);
+        ReflectionTestUtils.setField(dispatcher, "maxConcorrentes", 4);
+        ReflectionTestUtils.setField(dispatcher, "maxTentativas", 3);
+        ReflectionTestUtils.setField(dispatcher, "backoffInicialSegundos", 30L);
+        ReflectionTestUtils.setField(dispatcher, "backoffMaxSegundos", 1800L);
+        ReflectionTestUtils.setField(dispatcher, "taxaTwilio", 100);
+        dispatcher.iniciar();
+
+        mensagem = WhatsAppOutbox.builder().id(1L).usuarioId(7L).destino("5511999990000").mensagem("recibo").build();
+        when(repository.reivindicar(anyLong(), any())).thenReturn(1);
+        when(repository.findById(1L)).thenReturn(Optional.of(mensagem));
+        when(whatsAppService.getProvider()).thenReturn("twilio");
+    }
+
+    @Test
+    void deveMarcarComoEnviada() {
+        resultado(new WhatsAppService.ResultadoEnvio(true, "5511999990000", "ok", "SM123", false));
+
+        dispatcher.processar(1L);
+
+        assertEquals("ENVIADA", mensagem.getStatus());
+        assertEquals("SM123", mensagem.getIdExterno());
+        assertEquals("twilio", mensagem.getProvider());
+        assertNotNull(mensagem.getEnviadoEm());
+        assertEquals(1.0, meterRegistry.get("whatsapp.outbox.envios").tag("status", "ENVIADA").counter().count());
+        verify(repository).save(mensagem);
+    }
+
+    @Test
+    void deveReagendarFalhaTemporariaComBackoff() {
+        resultado(new WhatsAppService.ResultadoEnvio(false, "5511999990000", "Falha Twilio: 503", null, true));
+
+        dispatcher.processar(1L);
+
+        assertEquals("PENDENTE", mensagem.getStatus());
+        assertEquals(1, mensagem.getTentativas());
+        assertTrue(mensagem.getProximaTentativa().isAfter(LocalDateTime.now().plusSeconds(25)));
+    }
+
+    @Test
+    void naoDeveRetentarRecusaDefinitiva() {
+        resultado(new WhatsAppService.ResultadoEnvio(false, "5511999990000", "Falha Twilio: 400", null, false));
+
+        dispatcher.processar(1L);
+
+        assertEquals("FALHA", mensagem.getStatus());
+        assertEquals("Falha Twilio: 400", mensagem.getUltimoErro());
+    }
+
+    @Test
+    void deveIrParaDeadLetterAposEsgotarTentativas() {
+        mensagem.setTentativas(2);
+        when(whatsAppService.enviarMensagem("5511999990000", "recibo")).thenThrow(new RuntimeException("timeout"));
+
+        dispatcher.processar(1L);
+
+        assertEquals("DEAD_LETTER", mensagem.getStatus());
+        assertEquals(3, mensagem.getTentativas());
+    }
+
+    @Test
+    void naoDeveEnviarMensagemJaReivindicada() {
+        when(repository.reivindicar(anyLong(), any())).thenReturn(0);
+
+        dispatcher.processar(1L);
+
+        verify(whatsAppService, never()).enviarMensagem(any(), any());
+    }
+
+    @Test
+    void campanhaAguardaCotaAntesDeReivindicar() throws Exception {
+        dispatcher = new WhatsAppDispatcher(repository, whatsAppService, meterRegistry);
+        ReflectionTestUtils.setField(dispatcher, "maxConcorrentes", 4);
+        ReflectionTestUtils.setField(dispatcher, "taxaTwilio", 1);
+        ReflectionTestUtils.setField(dispatcher, "fracaoTaxaCampanha", 1.0);
+        dispatcher.iniciar();
+        when(repository.findCampanhaIdById(1L)).thenReturn(Optional.of(9L));
+        resultado(new WhatsAppService.ResultadoEnvio(true, "5511999990000", "ok", "SM123", false));
+
+        dispatcher.processar(1L); // consome a cota de campanha deste segundo
+        verify(repository, times(1)).reivindicar(anyLong(), any());
+
+        CountDownLatch fim = new CountDownLatch(1);
+        Thread.ofVirtual().start(() -> {
+            dispatcher.processar(1L);
+            fim.countDown();
+        });
+        // Esperando a cota: a mensagem continua PENDENTE (não reivindicada)
+        assertFalse(fim.await(300, TimeUnit.MILLISECONDS));
+        verify(repository, times(1)).reivindicar(anyLong(), any());
+
+        assertTrue(fim.await(3, TimeUnit.SECONDS));
+        verify(repository, times(2)).reivindicar(anyLong(), any());
+    }
+
+    @Test
+    void limiteDeTravadaCobreOPiorCasoDeEnvio() {
+        dispatcher = new WhatsAppDispatcher(repository, whatsAppService, meterRegistry);
+        ReflectionTestUtils.setField(dispatcher, "maxConcorrentes", 16);
+        ReflectionTestUtils.setField(dispatcher, "taxaTwilio", 10);
+        ReflectionTestUtils.setField(dispatcher, "taxaMeta", 50);
+        ReflectionTestUtils.setField(dispatcher, "travadaSegundos", 10L);
+        ReflectionTestUtils.setField(dispatcher, "timeoutEnvioMs", 20_000L);
+        dispatcher.iniciar();
+        ArgumentCaptor<LocalDateTime> limite = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> agora = ArgumentCaptor.forClass(LocalDateTime.class);
+
+        dispatcher.varrerPendentes();
+
+        verify(repository).liberarTravadas(limite.capture(), agora.capture());
+        // 16 vagas a 10/s = 2s na fila da taxa + 20s de envio + 1s, em dobro
+        assertEquals(46, Duration.between(limite.getValue(), agora.getValue()).toSeconds());
+    }
+
+    private void resultado(WhatsAppService.ResultadoEnvio resultado) {
+        when(whatsAppService.enviarMensagem("5511999990000", "recibo")).thenReturn(resultado);
+    }
+}
@@ -0,0 +1,83 @@
+package com.osmech.os.service;
+
+import com.osmech.os.entity.LembreteManutencao;
+import com.osmech.os.repository.LembreteManutencaoExecucaoRepository;
+import com.osmech.os.repository.LembreteManutencaoRepository;
+import com.osmech.os.repository.OrdemServicoRepository;
+import com.osmech.os.repository.ServicoOSRepository;
+import com.osmech.security.TenantContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class LembreteManutencaoServiceTest {
+
+    private LembreteManutencaoService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new LembreteManutencaoService(mock(LembreteManutencaoRepository.class),
+                mock(LembreteManutencaoExecucaoRepository.class), mock(OrdemServicoRepository.class),
+                mock(ServicoOSRepository.class), mock(TenantContext.class), mock(JdbcTemplate.class));
+        ReflectionTestUtils.setField(service, "kmPorDiaPadrao", 35.0);
+        ReflectionTestUtils.setField(service, "minDiasRitmo", 30);
+    }
+
+    @Test
+    void ritmoIgnoraLeituraMenorQueAnterior() {
+        LembreteManutencaoService.Ritmo ritmo = service.ritmo(List.of(
+                visita(1, 50_000, "2026-01-01", null, ""),
+                visita(2, 5_000, "2026-02-01", null, ""), // hodômetro digitado errado
+                visita(3, 53_000, "2026-03-02", null, "")));
+
+        assertFalse(ritmo.estimado());
+        assertEquals(50.0, ritmo.kmPorDia(), 0.001);
+        assertEquals(53_000, ritmo.kmReferencia());
+        assertEquals(LocalDate.parse("2026-03-02"), ritmo.kmReferenciaEm());
+    }
+
+    @Test
+    void servicoVencePeloQueChegarPrimeiro() {
+        // 100 km/dia: troca de óleo com 50.000 km vence aos 60.000 km, 40 dias após a leitura de 56.000 km
+        List<LembreteManutencao> lembretes = service.calcular(7L, "ABC1D23", List.of(
+                visita(1, 50_000, "2026-01-01", "2026-01-01", LembreteManutencaoService.normalizar("Troca de ÓLEO")),
+                visita(2, 56_000, "2026-03-02", "2026-03-02", "alinhamento")), LocalDate.parse("2026-03-10"));
+
+        assertEquals(1, lembretes.size());
+        LembreteManutencao oleo = lembretes.get(0);
+        assertEquals("OLEO", oleo.getServico());
+        assertEquals(1L, oleo.getUltimaOsId());
+        assertEquals(60_000, oleo.getProximoKm());
+        assertEquals(LocalDate.parse("2026-03-02").plusDays(40), oleo.getPrevistoEm());
+        assertFalse(oleo.getKmEstimado());
+    }
+
+    @Test
+    void semQuilometragemUsaIntervaloDeTempo() {
+        List<LembreteManutencao> lembretes = service.calcular(7L, "ABC1D23", List.of(
+                visita(1, null, "2026-01-10", "2026-01-12", "troca de pastilha de freio")), LocalDate.parse("2026-02-01"));
+
+        assertEquals(1, lembretes.size());
+        assertEquals("FREIOS", lembretes.get(0).getServico());
+        assertNull(lembretes.get(0).getProximoKm());
+        assertEquals(LocalDate.parse("2028-01-12"), lembretes.get(0).getPrevistoEm());
+        assertTrue(lembretes.get(0).getKmEstimado());
+    }
+
+    private static LembreteManutencaoService.Visita visita(long id, Integer km, String criado, String concluido,
+                                                           String texto) {
+        return new LembreteManutencaoService.Visita(id, km, LocalDate.parse(criado).atStartOfDay(),
+                concluido != null ? LocalDateTime.parse(concluido + "T10:00") : null, texto, "Ana", "11999990000", "Gol");
+    }
+}
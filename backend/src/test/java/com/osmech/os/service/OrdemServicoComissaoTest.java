@@ -0,0 +1,181 @@
+package com.osmech.os.service;
+
+import com.osmech.finance.service.FinanceiroService;
+import com.osmech.mecanico.entity.ComissaoLancamento;
+import com.osmech.mecanico.entity.Mecanico;
+import com.osmech.mecanico.repository.ComissaoLancamentoRepository;
+import com.osmech.mecanico.repository.MecanicoRepository;
+import com.osmech.mecanico.service.ComissaoService;
+import com.osmech.notification.service.WhatsAppOutboxService;
+import com.osmech.os.dto.EncerrarOsRequest;
+import com.osmech.os.dto.OrdemServicoRequest;
+import com.osmech.os.dto.ServicoOSRequest;
+import com.osmech.os.entity.OrdemServico;
+import com.osmech.os.entity.ServicoOS;
+import com.osmech.os.repository.OrdemServicoRepository;
+import com.osmech.os.repository.ServicoOSRepository;
+import com.osmech.security.TenantContext;
+import com.osmech.stock.service.StockService;
+import com.osmech.user.entity.Usuario;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+/**
+ * Ganchos de comissão da OS contra o schema real (Flyway): encerrar, trocar os serviços
+ * de uma OS concluída e excluir. Estorno e novo crédito acontecem na mesma transação, e o
+ * novo crédito depende do flush automático antes do existsCreditoAtivo (JPQL) e do índice
+ * único parcial uk_comissoes_mecanicos_credito_ativo.
+ */
+@DataJpaTest(properties = {"spring.flyway.enabled=true", "spring.jpa.hibernate.ddl-auto=none"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({OrdemServicoService.class, ComissaoService.class})
+@Testcontainers(disabledWithoutDocker = true)
+class OrdemServicoComissaoTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final String EMAIL = "oficina@x.com";
+    private static final Long USUARIO_ID = 1L;
+
+    @MockBean
+    private TenantContext tenantContext;
+    @MockBean
+    private FinanceiroService financeiroService;
+    @MockBean
+    private StockService stockService;
+    @MockBean
+    private WhatsAppOutboxService whatsAppOutboxService;
+
+    @Autowired
+    private OrdemServicoService service;
+    @Autowired
+    private OrdemServicoRepository osRepository;
+    @Autowired
+    private ServicoOSRepository servicoOSRepository;
+    @Autowired
+    private MecanicoRepository mecanicoRepository;
+    @Autowired
+    private ComissaoLancamentoRepository lancamentoRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    private Mecanico joao;
+    private Mecanico ana;
+
+    @BeforeEach
+    void setUp() {
+        when(tenantContext.getUsuarioId(EMAIL)).thenReturn(USUARIO_ID);
+        when(tenantContext.getUsuario(EMAIL)).thenReturn(Usuario.builder()
+                .id(USUARIO_ID).nome("Oficina").email(EMAIL).telefone("11999999999").build());
+        joao = mecanicoRepository.save(Mecanico.builder().usuarioId(USUARIO_ID).nome("Joao")
+                .percentualComissao(new BigDecimal("10")).build());
+        ana = mecanicoRepository.save(Mecanico.builder().usuarioId(USUARIO_ID).nome("Ana")
+                .percentualComissao(new BigDecimal("20")).build());
+    }
+
+    @Test
+    void encerrarTrocarServicosEExcluirDeixamUmCreditoLiquidoPorServico() {
+        OrdemServico os = osRepository.save(OrdemServico.builder().usuarioId(USUARIO_ID).clienteNome("Cliente")
+                .placa("ABC1D23").modelo("Gol").descricao("Revisao").status("EM_ANDAMENTO").build());
+        salvarServico(os, "Troca de oleo", "100.00", joao);
+        salvarServico(os, "Freios", "200.00", ana);
+
+        EncerrarOsRequest encerrar = new EncerrarOsRequest();
+        encerrar.setMetodoPagamento("PIX");
+        encerrar.setEnviarReciboWhatsapp(false);
+        service.encerrar(EMAIL, os.getId(), encerrar);
+        sincronizar();
+
+        assertEquals(Map.of(joao.getId(), new BigDecimal("10.00"), ana.getId(), new BigDecimal("40.00")),
+                comissaoAtivaPorMecanico(os.getId()));
+        assertEquals(comissaoAtivaPorServico(os.getId()), liquidoPorServico(os.getId()));
+
+        // Troca dos serviços com a OS concluída: estorna e relança na mesma transação
+        OrdemServicoRequest troca = new OrdemServicoRequest();
+        troca.setServicos(List.of(servicoRequest("Troca de oleo", "100.00", joao), servicoRequest("Suspensao", "500.00", ana)));
+        service.atualizar(EMAIL, os.getId(), troca);
+        sincronizar();
+
+        List<Long> servicosAtuais = servicoOSRepository.findByOrdemServicoId(os.getId()).stream()
+                .map(ServicoOS::getId).toList();
+        Map<Long, BigDecimal> ativos = comissaoAtivaPorServico(os.getId());
+        assertEquals(servicosAtuais.stream().sorted().toList(), ativos.keySet().stream().sorted().toList());
+        assertEquals(Map.of(joao.getId(), new BigDecimal("10.00"), ana.getId(), new BigDecimal("100.00")),
+                comissaoAtivaPorMecanico(os.getId()));
+        // Serviços removidos ficaram zerados; cada serviço atual tem exatamente um crédito líquido
+        Map<Long, BigDecimal> liquido = liquidoPorServico(os.getId());
+        liquido.forEach((servicoId, valor) -> assertEquals(
+                ativos.getOrDefault(servicoId, BigDecimal.ZERO.setScale(2)), valor, "servico " + servicoId));
+
+        service.excluir(EMAIL, os.getId());
+        sincronizar();
+
+        assertTrue(comissaoAtivaPorServico(os.getId()).isEmpty());
+        liquidoPorServico(os.getId()).values().forEach(v -> assertEquals(0, v.signum()));
+    }
+
+    private void salvarServico(OrdemServico os, String descricao, String valor, Mecanico mecanico) {
+        ServicoOS servico = ServicoOS.builder().ordemServico(os).descricao(descricao).quantidade(1)
+                .valorUnitario(new BigDecimal(valor)).mecanicoId(mecanico.getId()).mecanicoNome(mecanico.getNome())
+                .percentualComissao(mecanico.getPercentualComissao()).build();
+        servico.calcularTotal();
+        servicoOSRepository.save(servico);
+    }
+
+    private static ServicoOSRequest servicoRequest(String descricao, String valor, Mecanico mecanico) {
+        ServicoOSRequest request = new ServicoOSRequest();
+        request.setDescricao(descricao);
+        request.setQuantidade(1);
+        request.setValorUnitario(new BigDecimal(valor));
+        request.setMecanicoId(mecanico.getId());
+        return request;
+    }
+
+    /** Grava no banco e descarta o cache da sessão: as leituras abaixo vêm do Postgres */
+    private void sincronizar() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private List<ComissaoLancamento> lancamentos(Long osId) {
+        return lancamentoRepository.findAll().stream().filter(l -> l.getOrdemServicoId().equals(osId)).toList();
+    }
+
+    private Map<Long, BigDecimal> comissaoAtivaPorServico(Long osId) {
+        return lancamentoRepository.findCreditosAtivos(osId).stream()
+                .collect(Collectors.toMap(ComissaoLancamento::getServicoOsId, ComissaoLancamento::getValorComissao));
+    }
+
+    private Map<Long, BigDecimal> comissaoAtivaPorMecanico(Long osId) {
+        return lancamentoRepository.findCreditosAtivos(osId).stream()
+                .collect(Collectors.toMap(ComissaoLancamento::getMecanicoId, ComissaoLancamento::getValorComissao,
+                        BigDecimal::add));
+    }
+
+    private Map<Long, BigDecimal> liquidoPorServico(Long osId) {
+        return lancamentos(osId).stream()
+                .collect(Collectors.toMap(ComissaoLancamento::getServicoOsId, ComissaoLancamento::getValorComissao,
+                        BigDecimal::add));
+    }
+}
@@ -0,0 +1,91 @@
+package com.osmech.payment.repository;
+
+import com.osmech.payment.entity.Pagamento;
+import com.osmech.payment.entity.StatusPagamento;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Seleção dos pendentes da reconciliação contra o schema real (Flyway): sem preferência,
+ * parados além da idade máxima ou ainda no backoff ficam de fora.
+ */
+@DataJpaTest(properties = {"spring.flyway.enabled=true", "spring.jpa.hibernate.ddl-auto=none"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class PagamentoRepositoryTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private PagamentoRepository repository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void reconciliacaoSelecionaSoPendentesComPreferenciaDentroDaIdadeEForaDoBackoff() {
+        LocalDateTime agora = LocalDateTime.of(2026, 3, 10, 12, 0);
+        Long elegivel = salvar("pref-1", agora.minusHours(3), null);
+        salvar(null, agora.minusHours(3), null);                          // renovação sem checkout
+        Long antigo = salvar("pref-2", agora.minusDays(30), null);        // parado há 30 dias
+        salvar("pref-3", agora.minusHours(3), agora.plusMinutes(30));     // ainda no backoff
+        Long backoffVencido = salvar("pref-4", agora.minusHours(3), agora.minusMinutes(1));
+        salvar("pref-5", agora.minusMinutes(10), null);                   // novo demais
+
+        // Checkout reaberto há 2 dias traz o pendente antigo de volta
+        jdbcTemplate.update("UPDATE pagamentos SET atualizado_em = ? WHERE id = ?", agora.minusDays(2), antigo);
+
+        List<Long> ids = repository.findPendentesParaReconciliar(agora.minusHours(1), agora.minusDays(7), agora,
+                        0L, PageRequest.of(0, 10)).stream()
+                .map(linha -> (Long) linha[0]).toList();
+
+        assertEquals(List.of(elegivel, antigo, backoffVencido), ids);
+    }
+
+    @Test
+    void registrarReconciliacaoContaTentativaSoEnquantoPendente() {
+        LocalDateTime agora = LocalDateTime.of(2026, 3, 10, 12, 0);
+        Long pendente = salvar("pref-1", agora.minusHours(3), null);
+        Long pago = salvar("pref-2", agora.minusHours(3), null);
+        jdbcTemplate.update("UPDATE pagamentos SET status = 'PAGO' WHERE id = ?", pago);
+
+        assertEquals(1, repository.registrarReconciliacao(pendente, agora, agora.plusMinutes(30)));
+        assertEquals(1, repository.registrarReconciliacao(pendente, agora.plusMinutes(30), agora.plusHours(2)));
+        assertEquals(0, repository.registrarReconciliacao(pago, agora, agora.plusMinutes(30)));
+
+        List<Object[]> linhas = repository.findPendentesParaReconciliar(agora.minusHours(1), agora.minusDays(7),
+                agora.plusHours(2), 0L, PageRequest.of(0, 10));
+        assertEquals(1, linhas.size());
+        assertEquals(2, ((Number) linhas.get(0)[1]).intValue());
+        assertEquals(0, repository.findPendentesParaReconciliar(agora.minusHours(1), agora.minusDays(7),
+                agora.plusHours(1), 0L, PageRequest.of(0, 10)).size());
+    }
+
+    private Long salvar(String preferenceId, LocalDateTime criadoEm, LocalDateTime proximaReconciliacao) {
+        return repository.saveAndFlush(Pagamento.builder()
+                .usuarioId(1L)
+                .tipo("ASSINATURA")
+                .metodoPagamento("MERCADO_PAGO_CHECKOUT")
+                .valor(new BigDecimal("99.90"))
+                .status(StatusPagamento.PENDENTE)
+                .transacaoExternaId(preferenceId)
+                .criadoEm(criadoEm)
+                .proximaReconciliacao(proximaReconciliacao)
+                .build()).getId();
+    }
+}
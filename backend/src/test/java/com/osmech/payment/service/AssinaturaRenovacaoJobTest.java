@@ -0,0 +1,199 @@
+package com.osmech.payment.service;
+
+import com.osmech.payment.entity.Assinatura;
+import com.osmech.payment.entity.Pagamento;
+import com.osmech.payment.repository.AssinaturaRepository;
+import com.osmech.payment.repository.PagamentoRepository;
+import com.osmech.security.PrincipalCache;
+import com.osmech.user.repository.UsuarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Régua de cobrança ponta a ponta sobre um "banco" em memória: cada lote lê cópias das
+ * linhas e só grava no fim (falha no meio = rollback), como a transação real.
+ */
+class AssinaturaRenovacaoJobTest {
+
+    private static final LocalDate HOJE = LocalDate.of(2026, 5, 10);
+
+    private final Map<Long, Assinatura> assinaturas = new ConcurrentHashMap<>();
+    private final List<Pagamento> cobrancas = new CopyOnWriteArrayList<>();
+    /** Lote que deve falhar ao gravar (simula queda no meio da execução) */
+    private volatile Long falharLoteCom;
+
+    private final AssinaturaRepository assinaturaRepository = mock(AssinaturaRepository.class);
+    private final PagamentoRepository pagamentoRepository = mock(PagamentoRepository.class);
+    private AssinaturaRenovacaoJob job;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(assinaturaRepository.findVencidasAposCursor(any(), any(), any(), anyLong(), any(Pageable.class)))
+                .thenAnswer(inv -> pagina(inv.getArgument(0), inv.getArgument(1), inv.getArgument(2),
+                        inv.getArgument(3), ((Pageable) inv.getArgument(4)).getPageSize()));
+        when(assinaturaRepository.findByIdInForUpdate(anyList())).thenAnswer(inv ->
+                ((List<Long>) inv.getArgument(0)).stream().map(id -> copia(assinaturas.get(id))).toList());
+        doAnswer(inv -> {
+            for (Assinatura a : (Iterable<Assinatura>) inv.getArgument(0)) {
+                assinaturas.put(a.getId(), copia(a));
+            }
+            return null;
+        }).when(assinaturaRepository).saveAll(any());
+
+        when(pagamentoRepository.findCompetenciasCobradas(anyList())).thenAnswer(inv -> {
+            Collection<Long> ids = inv.getArgument(0);
+            return cobrancas.stream().filter(p -> ids.contains(p.getReferenciaId()))
+                    .map(p -> new Object[]{p.getReferenciaId(), p.getCompetencia()})
+                    .collect(Collectors.toList());
+        });
+        doAnswer(inv -> {
+            List<Pagamento> novas = new ArrayList<>();
+            ((Iterable<Pagamento>) inv.getArgument(0)).forEach(novas::add);
+            if (falharLoteCom != null && novas.stream().anyMatch(p -> p.getReferenciaId().equals(falharLoteCom))) {
+                throw new DataAccessResourceFailureException("conexao perdida");
+            }
+            cobrancas.addAll(novas);
+            return novas;
+        }).when(pagamentoRepository).saveAll(any());
+
+        UsuarioRepository usuarioRepository = mock(UsuarioRepository.class);
+        when(usuarioRepository.findById(anyLong())).thenReturn(Optional.empty());
+        AssinaturaRenovacaoService service = new AssinaturaRenovacaoService(
+                assinaturaRepository, pagamentoRepository, usuarioRepository, mock(PrincipalCache.class));
+
+        job = new AssinaturaRenovacaoJob(assinaturaRepository, service);
+        ReflectionTestUtils.setField(job, "enabled", true);
+        ReflectionTestUtils.setField(job, "tamanhoLote", 2);
+        ReflectionTestUtils.setField(job, "paralelismo", 2);
+
+        for (long id = 1; id <= 5; id++) {
+            assinaturas.put(id, Assinatura.builder().id(id).usuarioId(100 + id).planoId(1L).planoCodigo("PRO")
+                    .status("ACTIVE").valorMensal(new BigDecimal("49.90"))
+                    .proximaCobranca(HOJE.minusDays(id % 3)).diasCarencia(5).build());
+        }
+    }
+
+    private void executar(LocalDate hoje) {
+        job.processarStatus(AssinaturaRenovacaoService.STATUS_PAST_DUE, hoje);
+        job.processarStatus(AssinaturaRenovacaoService.STATUS_ACTIVE, hoje);
+    }
+
+    private long cobrancasDa(long assinaturaId) {
+        return cobrancas.stream().filter(p -> p.getReferenciaId() == assinaturaId).count();
+    }
+
+    @Test
+    void reexecutarNoMesmoDiaNaoDuplicaCobrancas() {
+        executar(HOJE);
+        executar(HOJE);
+
+        assertEquals(5, cobrancas.size());
+        for (long id = 1; id <= 5; id++) {
+            assertEquals(1, cobrancasDa(id));
+            assertEquals("PAST_DUE", assinaturas.get(id).getStatus());
+        }
+        // Competência da cobrança = vencimento cobrado
+        for (Pagamento p : cobrancas) {
+            assertEquals(assinaturas.get(p.getReferenciaId()).getProximaCobranca(), p.getCompetencia());
+        }
+    }
+
+    @Test
+    void loteComFalhaEhRetomadoNaProximaExecucao() {
+        falharLoteCom = 3L;
+        executar(HOJE);
+
+        // O lote com a assinatura 3 voltou atrás inteiro; os demais foram gravados
+        assertEquals("ACTIVE", assinaturas.get(3L).getStatus());
+        assertEquals(0, cobrancasDa(3));
+        // Lotes por vencimento: [2, 5], [1, 4], [3]
+        assertEquals(4, cobrancas.size());
+
+        falharLoteCom = null;
+        executar(HOJE);
+
+        assertEquals(5, cobrancas.size());
+        for (long id = 1; id <= 5; id++) {
+            assertEquals(1, cobrancasDa(id));
+            assertEquals("PAST_DUE", assinaturas.get(id).getStatus());
+        }
+    }
+
+    @Test
+    void execucaoInterrompidaNaPaginacaoRecomecaSemRepetir() {
+        AtomicBoolean caiu = new AtomicBoolean();
+        when(assinaturaRepository.findVencidasAposCursor(any(), any(), any(), anyLong(), any(Pageable.class)))
+                .thenAnswer(inv -> {
+                    Long ultimoId = inv.getArgument(3);
+                    if (ultimoId != 0L && caiu.compareAndSet(false, true)) {
+                        throw new DataAccessResourceFailureException("processo encerrado");
+                    }
+                    return pagina(inv.getArgument(0), inv.getArgument(1), inv.getArgument(2), ultimoId,
+                            ((Pageable) inv.getArgument(4)).getPageSize());
+                });
+
+        assertThrows(DataAccessResourceFailureException.class, () -> executar(HOJE));
+        assertEquals(2, cobrancas.size());
+
+        executar(HOJE);
+        assertEquals(5, cobrancas.size());
+        for (long id = 1; id <= 5; id++) {
+            assertEquals(1, cobrancasDa(id));
+        }
+    }
+
+    @Test
+    void passadaACarenciaSuspende() {
+        executar(HOJE);
+        executar(HOJE.plusDays(10));
+
+        for (long id = 1; id <= 5; id++) {
+            assertEquals("SUSPENDED", assinaturas.get(id).getStatus());
+            assertEquals(1, cobrancasDa(id));
+        }
+    }
+
+    /** Mesma semântica de findVencidasAposCursor */
+    private List<Object[]> pagina(String status, LocalDate ate, LocalDate ultimaData, Long ultimoId, int tamanho) {
+        return assinaturas.values().stream()
+                .filter(a -> a.getStatus().equals(status) && !a.getProximaCobranca().isAfter(ate))
+                .filter(a -> a.getProximaCobranca().isAfter(ultimaData)
+                        || (a.getProximaCobranca().equals(ultimaData) && a.getId() > ultimoId))
+                .sorted(Comparator.comparing(Assinatura::getProximaCobranca).thenComparing(Assinatura::getId))
+                .limit(tamanho)
+                .map(a -> new Object[]{a.getId(), a.getProximaCobranca()})
+                .collect(Collectors.toList());
+    }
+
+    private static Assinatura copia(Assinatura a) {
+        return Assinatura.builder().id(a.getId()).usuarioId(a.getUsuarioId()).planoId(a.getPlanoId())
+                .planoCodigo(a.getPlanoCodigo()).status(a.getStatus()).valorMensal(a.getValorMensal())
+                .proximaCobranca(a.getProximaCobranca()).diasCarencia(a.getDiasCarencia()).build();
+    }
+}
@@ -0,0 +1,96 @@
+package com.osmech.payment.service;
+
+import com.mercadopago.resources.preference.Preference;
+import com.osmech.config.ResourceNotFoundException;
+import com.osmech.payment.dto.AssinaturaResponse;
+import com.osmech.payment.entity.Assinatura;
+import com.osmech.payment.entity.Pagamento;
+import com.osmech.payment.entity.StatusPagamento;
+import com.osmech.payment.repository.AssinaturaRepository;
+import com.osmech.payment.repository.PagamentoRepository;
+import com.osmech.plan.entity.Plano;
+import com.osmech.plan.repository.PlanoRepository;
+import com.osmech.security.PrincipalCache;
+import com.osmech.security.TenantContext;
+import com.osmech.user.repository.UsuarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AssinaturaServicePagarRenovacaoTest {
+
+    private final AssinaturaRepository assinaturaRepository = mock(AssinaturaRepository.class);
+    private final PagamentoRepository pagamentoRepository = mock(PagamentoRepository.class);
+    private final PlanoRepository planoRepository = mock(PlanoRepository.class);
+    private final MercadoPagoService mercadoPagoService = mock(MercadoPagoService.class);
+    private final TenantContext tenantContext = mock(TenantContext.class);
+    private final AssinaturaService service = new AssinaturaService(mock(UsuarioRepository.class), planoRepository,
+            assinaturaRepository, pagamentoRepository, mercadoPagoService, mock(PrincipalCache.class), tenantContext);
+
+    private final Assinatura assinatura = Assinatura.builder().id(7L).usuarioId(1L).planoId(2L).planoCodigo("PRO")
+            .status("PAST_DUE").valorMensal(new BigDecimal("49.90")).proximaCobranca(LocalDate.of(2026, 5, 1)).build();
+    private final Pagamento cobranca = Pagamento.builder().id(30L).usuarioId(1L).tipo("ASSINATURA").referenciaId(7L)
+            .metodoPagamento("MERCADO_PAGO_CHECKOUT").valor(new BigDecimal("49.90"))
+            .status(StatusPagamento.PENDENTE).competencia(LocalDate.of(2026, 5, 1))
+            .reconciliacaoTentativas(4).proximaReconciliacao(LocalDateTime.of(2026, 5, 3, 0, 0)).build();
+
+    @BeforeEach
+    void setUp() {
+        when(tenantContext.getUsuarioId("oficina@x.com")).thenReturn(1L);
+        when(assinaturaRepository.findByUsuarioIdAndStatusIn(eq(1L), anyList())).thenReturn(Optional.of(assinatura));
+        when(planoRepository.findByCodigo("PRO")).thenReturn(Optional.of(Plano.builder().id(2L).codigo("PRO").nome("Pro").build()));
+    }
+
+    @Test
+    void criaPreferenciaNaPrimeiraTentativaEReaproveitaDepois() {
+        Pagamento antiga = Pagamento.builder().id(20L).usuarioId(1L).tipo("ASSINATURA").referenciaId(7L)
+                .status(StatusPagamento.PAGO).competencia(LocalDate.of(2026, 4, 1)).build();
+        when(pagamentoRepository.findByUsuarioIdAndTipoAndReferenciaId(1L, "ASSINATURA", 7L))
+                .thenReturn(List.of(antiga, cobranca));
+        Preference preference = mock(Preference.class);
+        when(preference.getId()).thenReturn("pref-1");
+        when(mercadoPagoService.criarPreferenciaAssinatura(eq("oficina@x.com"), any(), eq(assinatura), eq(cobranca)))
+                .thenReturn(preference);
+        when(mercadoPagoService.resolverCheckoutUrl(preference)).thenReturn("https://mp/checkout/pref-1");
+
+        AssinaturaResponse resposta = service.pagarRenovacao("oficina@x.com");
+
+        assertEquals("https://mp/checkout/pref-1", resposta.getCheckoutUrl());
+        assertEquals("pref-1", cobranca.getTransacaoExternaId());
+        // Checkout novo zera o backoff da reconciliação
+        assertEquals(0, cobranca.getReconciliacaoTentativas());
+        assertNull(cobranca.getProximaReconciliacao());
+        verify(pagamentoRepository).save(cobranca);
+
+        // Segunda chamada: a preferência gravada é reaproveitada
+        when(mercadoPagoService.resolverCheckoutUrlPorPreferenciaId("pref-1")).thenReturn("https://mp/checkout/pref-1");
+        assertEquals("pref-1", service.pagarRenovacao("oficina@x.com").getPreferenceId());
+        verify(mercadoPagoService).criarPreferenciaAssinatura(any(), any(), any(), any());
+    }
+
+    @Test
+    void semCobrancaPendenteRetorna404() {
+        cobranca.setStatus(StatusPagamento.PAGO);
+        when(pagamentoRepository.findByUsuarioIdAndTipoAndReferenciaId(1L, "ASSINATURA", 7L)).thenReturn(List.of(cobranca));
+
+        assertThrows(ResourceNotFoundException.class, () -> service.pagarRenovacao("oficina@x.com"));
+        verify(mercadoPagoService, never()).criarPreferenciaAssinatura(any(), any(), any(), any());
+    }
+}
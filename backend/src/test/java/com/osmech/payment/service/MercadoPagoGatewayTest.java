@@ -0,0 +1,103 @@
+package com.osmech.payment.service;
+
+import com.mercadopago.client.payment.PaymentClient;
+import com.mercadopago.client.preference.PreferenceClient;
+import com.mercadopago.exceptions.MPApiException;
+import com.mercadopago.exceptions.MPException;
+import com.mercadopago.net.MPResponse;
+import com.mercadopago.resources.payment.Payment;
+import com.mercadopago.resources.preference.Preference;
+import com.osmech.config.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * O SDK usa URL fixa da API do Mercado Pago, então os clients do SDK são substituídos
+ * por mocks que fazem o papel do servidor stub.
+ */
+class MercadoPagoGatewayTest {
+
+    private final PaymentClient paymentClient = mock(PaymentClient.class);
+    private final PreferenceClient preferenceClient = mock(PreferenceClient.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private MercadoPagoGateway gateway;
+
+    @BeforeEach
+    void setUp() {
+        gateway = new MercadoPagoGateway(meterRegistry);
+        ReflectionTestUtils.setField(gateway, "paymentClient", paymentClient);
+        ReflectionTestUtils.setField(gateway, "preferenceClient", preferenceClient);
+        ReflectionTestUtils.setField(gateway, "cacheTtlSegundos", 30L);
+        ReflectionTestUtils.setField(gateway, "cacheFallbackSegundos", 600L);
+        ReflectionTestUtils.setField(gateway, "cacheMaxItens", 100);
+        ReflectionTestUtils.setField(gateway, "limiteFalhas", 3);
+        ReflectionTestUtils.setField(gateway, "tempoAbertoSegundos", 60L);
+        gateway.iniciar();
+    }
+
+    @Test
+    void deveUsarCacheEmConsultasRepetidas() throws Exception {
+        Payment payment = mock(Payment.class);
+        when(paymentClient.get(10L)).thenReturn(payment);
+
+        assertSame(payment, gateway.buscarPagamento(10L));
+        assertSame(payment, gateway.buscarPagamento(10L));
+
+        verify(paymentClient, times(1)).get(10L);
+        assertEquals(1, meterRegistry.get("mercadopago.client.requests")
+                .tags("operacao", "payment.get", "resultado", "sucesso").timer().count());
+    }
+
+    @Test
+    void deveAbrirCircuitoAposFalhasConsecutivas() throws Exception {
+        when(paymentClient.get(anyLong())).thenThrow(new MPException("timeout"));
+
+        for (long id = 1; id <= 3; id++) {
+            long paymentId = id;
+            assertThrows(MPException.class, () -> gateway.buscarPagamento(paymentId));
+        }
+        assertEquals(CircuitBreaker.Estado.ABERTO, gateway.getEstadoCircuito());
+
+        assertThrows(CircuitBreaker.CircuitoAbertoException.class, () -> gateway.buscarPagamento(99L));
+        verify(paymentClient, times(3)).get(anyLong());
+    }
+
+    @Test
+    void naoDeveAbrirCircuitoPorErro4xx() throws Exception {
+        when(paymentClient.get(anyLong()))
+                .thenThrow(new MPApiException("not found", new MPResponse(404, Map.of(), "{}")));
+
+        for (long id = 1; id <= 5; id++) {
+            long paymentId = id;
+            assertThrows(MPApiException.class, () -> gateway.buscarPagamento(paymentId));
+        }
+        assertEquals(CircuitBreaker.Estado.FECHADO, gateway.getEstadoCircuito());
+    }
+
+    @Test
+    void deveUsarPreferenciaEmCacheQuandoGatewayFalha() throws Exception {
+        Preference preference = mock(Preference.class);
+        when(preferenceClient.get("pref-1")).thenReturn(preference);
+        assertSame(preference, gateway.buscarPreferencia("pref-1"));
+
+        // Expira o TTL curto, mantendo a janela de fallback
+        ReflectionTestUtils.setField(ReflectionTestUtils.getField(gateway, "preferencias"), "ttlMs", -1L);
+        when(preferenceClient.get("pref-1")).thenThrow(new MPException("indisponivel"));
+
+        assertSame(preference, gateway.buscarPreferencia("pref-1"));
+        verify(preferenceClient, times(2)).get("pref-1");
+    }
+}
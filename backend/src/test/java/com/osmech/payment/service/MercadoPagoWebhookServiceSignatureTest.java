@@ -2,9 +2,12 @@ package com.osmech.payment.service;
 
 import com.osmech.payment.repository.AssinaturaRepository;
 import com.osmech.payment.repository.MercadoPagoWebhookEventRepository;
+import com.osmech.payment.repository.MercadoPagoWebhookInboxRepository;
 import com.osmech.payment.repository.PagamentoRepository;
+import com.osmech.security.PrincipalCache;
 import com.osmech.user.repository.UsuarioRepository;
 import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.env.Environment;
 import org.springframework.test.util.ReflectionTestUtils;
 
@@ -74,6 +77,10 @@ class MercadoPagoWebhookServiceSignatureTest {
         AssinaturaRepository assinaturaRepository = mock(AssinaturaRepository.class);
         MercadoPagoWebhookEventRepository webhookEventRepository = mock(MercadoPagoWebhookEventRepository.class);
         UsuarioRepository usuarioRepository = mock(UsuarioRepository.class);
+        MercadoPagoWebhookInboxRepository inboxRepository = mock(MercadoPagoWebhookInboxRepository.class);
+        ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+        MercadoPagoGateway gateway = mock(MercadoPagoGateway.class);
+        PrincipalCache principalCache = mock(PrincipalCache.class);
         Environment environment = mock(Environment.class);
         
         // Return "dev" profile so @PostConstruct doesn't fail
@@ -84,6 +91,10 @@ class MercadoPagoWebhookServiceSignatureTest {
                 assinaturaRepository,
                 webhookEventRepository,
                 usuarioRepository,
+                inboxRepository,
+                eventPublisher,
+                gateway,
+                principalCache,
                 environment
         );
     }
@@ -0,0 +1,266 @@
+package com.osmech.payment.service;
+
+import com.mercadopago.resources.payment.Payment;
+import com.osmech.payment.entity.MercadoPagoWebhookInbox;
+import com.osmech.payment.repository.MercadoPagoWebhookInboxRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Worker de webhooks contra uma caixa de entrada em memória com a mesma semântica das
+ * queries (reivindicação atômica e bloqueada por evento anterior pendente do pagamento).
+ */
+class MercadoPagoWebhookWorkerTest {
+
+    private final Map<Long, MercadoPagoWebhookInbox> inbox = new ConcurrentHashMap<>();
+    private final MercadoPagoWebhookInboxRepository repository = inboxEmMemoria();
+    private final MercadoPagoWebhookService webhookService = mock(MercadoPagoWebhookService.class);
+    private final List<MercadoPagoWebhookWorker> workers = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        for (MercadoPagoWebhookWorker worker : workers) {
+            worker.encerrar();
+        }
+    }
+
+    @Test
+    void doisWorkersDisputandoOMesmoEventoProcessamUmaVez() throws Exception {
+        inbox.put(1L, evento(1L, 100L));
+        AtomicInteger consultas = new AtomicInteger();
+        when(webhookService.consultarPagamento(100L)).thenAnswer(inv -> {
+            consultas.incrementAndGet();
+            Thread.sleep(50);
+            return payment(100L);
+        });
+        MercadoPagoWebhookWorker a = worker(2, 10);
+        MercadoPagoWebhookWorker b = worker(2, 10);
+
+        CountDownLatch largada = new CountDownLatch(1);
+        Thread ta = Thread.ofPlatform().start(() -> aguardarEProcessar(largada, a, 1L));
+        Thread tb = Thread.ofPlatform().start(() -> aguardarEProcessar(largada, b, 1L));
+        largada.countDown();
+        ta.join(5000);
+        tb.join(5000);
+
+        assertEquals(1, consultas.get());
+        assertEquals("PROCESSADO", inbox.get(1L).getStatus());
+    }
+
+    @Test
+    void falhaReagendaComBackoffExponencialEDepoisVaiParaDeadLetter() {
+        inbox.put(1L, evento(1L, 100L));
+        when(webhookService.consultarPagamento(100L)).thenThrow(new RuntimeException("gateway 503"));
+        MercadoPagoWebhookWorker worker = worker(1, 10);
+
+        worker.processar(1L);
+        MercadoPagoWebhookInbox e = inbox.get(1L);
+        assertEquals("PENDENTE", e.getStatus());
+        assertEquals(1, e.getTentativas());
+        assertEquals("gateway 503", e.getUltimoErro());
+        assertEquals(30, segundosAte(e.getProximaTentativa()), 2);
+
+        worker.processar(1L);
+        assertEquals(2, e.getTentativas());
+        assertEquals(60, segundosAte(e.getProximaTentativa()), 2);
+
+        // Teto do backoff (3600s) antes de esgotar as tentativas
+        e.setTentativas(10);
+        worker.processar(1L);
+        assertEquals("PENDENTE", e.getStatus());
+        assertEquals(3600, segundosAte(e.getProximaTentativa()), 2);
+
+        e.setTentativas(15); // a próxima falha é a 16ª (max-tentativas)
+        worker.processar(1L);
+        assertEquals("DEAD_LETTER", e.getStatus());
+        assertEquals(16, e.getTentativas());
+
+        worker.processar(1L); // DEAD_LETTER não é reivindicado de novo
+        assertEquals(16, e.getTentativas());
+    }
+
+    @Test
+    void eventosDoMesmoPagamentoSaoAplicadosEmOrdem() throws Exception {
+        List<Long> aplicados = new CopyOnWriteArrayList<>();
+        CountDownLatch todos = new CountDownLatch(12);
+        long id = 1;
+        for (int rodada = 0; rodada < 3; rodada++) {
+            for (long paymentId = 100; paymentId < 104; paymentId++) {
+                inbox.put(id, evento(id, paymentId));
+                id++;
+            }
+        }
+        when(webhookService.consultarPagamento(anyLong())).thenAnswer(inv -> {
+            Thread.sleep(5);
+            return payment(inv.getArgument(0));
+        });
+        // Cada aplicação registra qual evento da caixa de entrada estava em processamento
+        doAnswer(inv -> {
+            Long paymentId = inv.<Payment>getArgument(0).getId();
+            inbox.values().stream()
+                    .filter(e -> e.getPaymentId().equals(paymentId) && "PROCESSANDO".equals(e.getStatus()))
+                    .forEach(e -> aplicados.add(e.getId()));
+            todos.countDown();
+            return null;
+        }).when(webhookService).aplicarPagamento(any(Payment.class));
+        MercadoPagoWebhookWorker worker = worker(2, 50);
+
+        for (long i = 1; i < id; i++) {
+            worker.onWebhookRecebido(new MercadoPagoWebhookService.WebhookRecebidoEvent(i, inbox.get(i).getPaymentId()));
+        }
+
+        assertTrue(todos.await(5, TimeUnit.SECONDS));
+        for (long paymentId = 100; paymentId < 104; paymentId++) {
+            long p = paymentId;
+            List<Long> doPagamento = aplicados.stream().filter(e -> inbox.get(e).getPaymentId() == p).toList();
+            assertEquals(doPagamento.stream().sorted().toList(), doPagamento, "pagamento " + p);
+            assertEquals(3, doPagamento.size());
+        }
+    }
+
+    @Test
+    void eventoPosteriorEsperaOAnteriorPendenteDoMesmoPagamento() {
+        MercadoPagoWebhookInbox anterior = evento(1L, 100L);
+        anterior.setProximaTentativa(LocalDateTime.now().plusMinutes(1)); // reagendado após falha
+        inbox.put(1L, anterior);
+        inbox.put(2L, evento(2L, 100L));
+        Payment payment = payment(100L);
+        when(webhookService.consultarPagamento(100L)).thenReturn(payment);
+        MercadoPagoWebhookWorker worker = worker(1, 10);
+
+        worker.processar(2L);
+        assertEquals("PENDENTE", inbox.get(2L).getStatus());
+
+        anterior.setProximaTentativa(LocalDateTime.now().minusSeconds(1));
+        worker.processar(1L);
+        worker.processar(2L);
+        assertEquals("PROCESSADO", inbox.get(1L).getStatus());
+        assertEquals("PROCESSADO", inbox.get(2L).getStatus());
+    }
+
+    @Test
+    void pollerRecuperaEventosQueNaoCouberamNaFila() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        for (long i = 1; i <= 4; i++) {
+            inbox.put(i, evento(i, 100L + i));
+        }
+        when(webhookService.consultarPagamento(anyLong())).thenAnswer(inv -> {
+            if (inv.<Long>getArgument(0) == 101L) {
+                liberar.await(5, TimeUnit.SECONDS); // segura a única thread da partição
+            }
+            return payment(inv.getArgument(0));
+        });
+        MercadoPagoWebhookWorker worker = worker(1, 1);
+
+        for (long i = 1; i <= 4; i++) {
+            worker.onWebhookRecebido(new MercadoPagoWebhookService.WebhookRecebidoEvent(i, inbox.get(i).getPaymentId()));
+        }
+        liberar.countDown();
+        aguardar(() -> inbox.values().stream().noneMatch(e -> "PROCESSANDO".equals(e.getStatus()))
+                && inbox.get(2L).getStatus().equals("PROCESSADO"));
+        // 1 em execução + 1 na fila; 3 e 4 foram recusados pela fila cheia e seguem PENDENTE
+        assertEquals("PENDENTE", inbox.get(3L).getStatus());
+        assertEquals("PENDENTE", inbox.get(4L).getStatus());
+
+        // Poller periódico: cada rodada devolve à partição o que ainda estiver PENDENTE
+        aguardar(() -> {
+            worker.varrerPendentes();
+            return inbox.values().stream().allMatch(e -> "PROCESSADO".equals(e.getStatus()));
+        });
+    }
+
+    private MercadoPagoWebhookWorker worker(int particoes, int fila) {
+        MercadoPagoWebhookWorker worker = new MercadoPagoWebhookWorker(webhookService, repository);
+        ReflectionTestUtils.setField(worker, "numeroParticoes", particoes);
+        ReflectionTestUtils.setField(worker, "capacidadeFila", fila);
+        ReflectionTestUtils.setField(worker, "maxTentativas", 16);
+        ReflectionTestUtils.setField(worker, "backoffInicialSegundos", 30L);
+        ReflectionTestUtils.setField(worker, "backoffMaxSegundos", 3600L);
+        worker.iniciar();
+        workers.add(worker);
+        return worker;
+    }
+
+    /** Mesma semântica das queries do repositório; o UPDATE condicional é atômico */
+    private MercadoPagoWebhookInboxRepository inboxEmMemoria() {
+        MercadoPagoWebhookInboxRepository repo = mock(MercadoPagoWebhookInboxRepository.class);
+        when(repo.findById(anyLong())).thenAnswer(inv -> Optional.ofNullable(inbox.get(inv.<Long>getArgument(0))));
+        when(repo.save(any(MercadoPagoWebhookInbox.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(repo.reivindicar(anyLong(), any())).thenAnswer(inv -> {
+            synchronized (inbox) {
+                MercadoPagoWebhookInbox e = inbox.get(inv.<Long>getArgument(0));
+                boolean anteriorAberto = inbox.values().stream().anyMatch(o -> o.getPaymentId().equals(e.getPaymentId())
+                        && o.getId() < e.getId() && List.of("PENDENTE", "PROCESSANDO").contains(o.getStatus()));
+                if (!"PENDENTE".equals(e.getStatus()) || anteriorAberto) {
+                    return 0;
+                }
+                e.setStatus("PROCESSANDO");
+                e.setAtualizadoEm(inv.getArgument(1));
+                return 1;
+            }
+        });
+        when(repo.findProntos(any(), any(Pageable.class))).thenAnswer(inv -> {
+            LocalDateTime agora = inv.getArgument(0);
+            return inbox.values().stream()
+                    .filter(e -> "PENDENTE".equals(e.getStatus()) && !e.getProximaTentativa().isAfter(agora))
+                    .sorted((x, y) -> Long.compare(x.getId(), y.getId()))
+                    .map(e -> new Object[]{e.getId(), e.getPaymentId()})
+                    .toList();
+        });
+        return repo;
+    }
+
+    private static MercadoPagoWebhookInbox evento(Long id, Long paymentId) {
+        return MercadoPagoWebhookInbox.builder().id(id).paymentId(paymentId).tipoEvento("payment")
+                .proximaTentativa(LocalDateTime.now().minusSeconds(1)).build();
+    }
+
+    private static Payment payment(Long id) {
+        Payment p = mock(Payment.class);
+        when(p.getId()).thenReturn(id);
+        return p;
+    }
+
+    private static long segundosAte(LocalDateTime instante) {
+        return Duration.between(LocalDateTime.now(), instante).toSeconds();
+    }
+
+    private static void aguardarEProcessar(CountDownLatch largada, MercadoPagoWebhookWorker worker, Long inboxId) {
+        try {
+            largada.await();
+            worker.processar(inboxId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void aguardar(java.util.function.BooleanSupplier condicao) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condicao.getAsBoolean()) {
+            assertTrue(System.nanoTime() < limite, "condição não atingida em 5s");
+            Thread.sleep(10);
+        }
+    }
+}
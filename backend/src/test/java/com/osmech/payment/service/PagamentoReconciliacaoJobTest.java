@@ -0,0 +1,190 @@
+package com.osmech.payment.service;
+
+import com.mercadopago.exceptions.MPException;
+import com.mercadopago.resources.payment.Payment;
+import com.osmech.payment.entity.PagamentoReconciliacao;
+import com.osmech.payment.entity.StatusPagamento;
+import com.osmech.payment.repository.PagamentoReconciliacaoRepository;
+import com.osmech.payment.repository.PagamentoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Reconciliação ponta a ponta contra um gateway stub local: paginação, concorrência
+ * limitada, aplicação via webhook service e relatório.
+ */
+class PagamentoReconciliacaoJobTest {
+
+    /** Gateway stub: respostas por external_reference, contando chamadas simultâneas */
+    static class GatewayStub extends MercadoPagoGateway {
+        final Map<String, List<Payment>> respostas = new ConcurrentHashMap<>();
+        final AtomicInteger emAndamento = new AtomicInteger();
+        final AtomicInteger picoConcorrencia = new AtomicInteger();
+
+        GatewayStub() {
+            super(new SimpleMeterRegistry());
+        }
+
+        @Override
+        public List<Payment> buscarPagamentosPorReferencia(String externalReference) throws Exception {
+            int atual = emAndamento.incrementAndGet();
+            picoConcorrencia.accumulateAndGet(atual, Math::max);
+            try {
+                Thread.sleep(5);
+                if ("13".equals(externalReference)) {
+                    throw new MPException("timeout");
+                }
+                return respostas.getOrDefault(externalReference, List.of());
+            } finally {
+                emAndamento.decrementAndGet();
+            }
+        }
+    }
+
+    private final PagamentoRepository pagamentoRepository = mock(PagamentoRepository.class);
+    private final PagamentoReconciliacaoRepository reconciliacaoRepository = mock(PagamentoReconciliacaoRepository.class);
+    private final MercadoPagoWebhookService webhookService = mock(MercadoPagoWebhookService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final GatewayStub gateway = new GatewayStub();
+
+    private final Map<Long, StatusPagamento> statusLocal = new ConcurrentHashMap<>();
+    private final Map<Long, PagamentoReconciliacao> relatorio = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> tentativas = new ConcurrentHashMap<>();
+    private PagamentoReconciliacaoService service;
+    private PagamentoReconciliacaoJob job;
+
+    @BeforeEach
+    void setUp() {
+        // 25 pendentes (ids 1..25), lidos em páginas de 10
+        List<Long> pendentes = LongStream.rangeClosed(1, 25).boxed().toList();
+        pendentes.forEach(id -> statusLocal.put(id, StatusPagamento.PENDENTE));
+        when(pagamentoRepository.findPendentesParaReconciliar(any(), any(), any(), anyLong(), any(Pageable.class)))
+                .thenAnswer(inv -> {
+                    long aposId = inv.getArgument(3);
+                    Pageable pageable = inv.getArgument(4);
+                    return pendentes.stream().filter(id -> id > aposId).limit(pageable.getPageSize())
+                            .map(id -> new Object[]{id, tentativas.getOrDefault(id, 0)}).toList();
+                });
+        when(pagamentoRepository.findStatusById(anyLong()))
+                .thenAnswer(inv -> Optional.ofNullable(statusLocal.get(inv.<Long>getArgument(0))));
+        when(reconciliacaoRepository.save(any(PagamentoReconciliacao.class))).thenAnswer(inv -> {
+            PagamentoReconciliacao linha = inv.getArgument(0);
+            relatorio.put(linha.getPagamentoId(), linha);
+            return linha;
+        });
+
+        // Mesmo efeito do webhook: aprovado -> PAGO, rejeitado -> FALHOU
+        doAnswer(inv -> {
+            Payment p = inv.getArgument(0);
+            Long pagamentoId = Long.valueOf(p.getExternalReference());
+            if ("approved".equals(p.getStatus())) statusLocal.put(pagamentoId, StatusPagamento.PAGO);
+            if ("rejected".equals(p.getStatus())) statusLocal.put(pagamentoId, StatusPagamento.FALHOU);
+            return null;
+        }).when(webhookService).aplicarPagamento(any(Payment.class));
+
+        service = new PagamentoReconciliacaoService(
+                gateway, webhookService, pagamentoRepository, reconciliacaoRepository, meterRegistry);
+        ReflectionTestUtils.setField(service, "backoffInicialMinutos", 30L);
+        ReflectionTestUtils.setField(service, "backoffMaximoMinutos", 1440L);
+        job = new PagamentoReconciliacaoJob(pagamentoRepository, service, meterRegistry);
+        ReflectionTestUtils.setField(job, "enabled", true);
+        ReflectionTestUtils.setField(job, "idadeMinimaMinutos", 60L);
+        ReflectionTestUtils.setField(job, "tamanhoPagina", 10);
+        ReflectionTestUtils.setField(job, "concorrencia", 3);
+        ReflectionTestUtils.setField(job, "requisicoesPorSegundo", 1000.0);
+    }
+
+    @Test
+    void deveReconciliarPendentesERegistrarRelatorio() {
+        gateway.respostas.put("2", List.of(payment(902L, "2", "pending"), payment(901L, "2", "approved")));
+        gateway.respostas.put("7", List.of(payment(907L, "7", "rejected")));
+        gateway.respostas.put("20", List.of(payment(920L, "20", "in_process")));
+
+        job.executar();
+
+        assertEquals(25, relatorio.size());
+        assertEquals(StatusPagamento.PAGO, statusLocal.get(2L));
+        assertEquals(901L, relatorio.get(2L).getMpPaymentId());
+        assertEquals(StatusPagamento.FALHOU, statusLocal.get(7L));
+
+        Map<String, Long> porResultado = relatorio.values().stream()
+                .collect(Collectors.groupingBy(PagamentoReconciliacao::getResultado, Collectors.counting()));
+        assertEquals(2L, porResultado.get(PagamentoReconciliacaoService.RESULTADO_ATUALIZADO));
+        assertEquals(1L, porResultado.get(PagamentoReconciliacaoService.RESULTADO_INALTERADO));
+        assertEquals(1L, porResultado.get(PagamentoReconciliacaoService.RESULTADO_ERRO));
+        assertEquals(21L, porResultado.get(PagamentoReconciliacaoService.RESULTADO_NAO_ENCONTRADO));
+        assertEquals("timeout", relatorio.get(13L).getErro());
+
+        assertEquals(2.0, meterRegistry.get("pagamentos.reconciliacao")
+                .tag("resultado", PagamentoReconciliacaoService.RESULTADO_ATUALIZADO).counter().count());
+        assertTrue(gateway.picoConcorrencia.get() <= 3, "concorrência acima do limite");
+    }
+
+    @Test
+    void deveRespeitarLimiteDeRequisicoesPorSegundo() {
+        ReflectionTestUtils.setField(job, "requisicoesPorSegundo", 100.0);
+
+        long inicio = System.nanoTime();
+        job.executar();
+        long decorridoMs = (System.nanoTime() - inicio) / 1_000_000;
+
+        // 25 chamadas a 100/s: a última sai ~240ms após a primeira
+        assertTrue(decorridoMs >= 230, "chamadas não foram espaçadas: " + decorridoMs + "ms");
+    }
+
+    @Test
+    void deveAdiarSoOsQueContinuamPendentesComBackoffExponencial() {
+        gateway.respostas.put("2", List.of(payment(901L, "2", "approved")));
+        tentativas.put(3L, 1);
+        tentativas.put(4L, 10);
+        Map<Long, LocalDateTime[]> adiados = new ConcurrentHashMap<>();
+        when(pagamentoRepository.registrarReconciliacao(anyLong(), any(), any())).thenAnswer(inv -> {
+            adiados.put(inv.getArgument(0), new LocalDateTime[]{inv.getArgument(1), inv.getArgument(2)});
+            return 1;
+        });
+
+        job.executar();
+
+        // Resolvido não é adiado; pendentes (inclusive o ERRO do id 13) são
+        assertEquals(24, adiados.size());
+        assertFalse(adiados.containsKey(2L));
+        assertTrue(adiados.containsKey(13L));
+        assertEquals(30, minutos(adiados.get(1L)));
+        assertEquals(60, minutos(adiados.get(3L)));
+        assertEquals(1440, minutos(adiados.get(4L)));
+    }
+
+    private static long minutos(LocalDateTime[] execucaoEProxima) {
+        return Duration.between(execucaoEProxima[0], execucaoEProxima[1]).toMinutes();
+    }
+
+    private static Payment payment(Long id, String externalReference, String status) {
+        Payment p = mock(Payment.class);
+        when(p.getId()).thenReturn(id);
+        when(p.getExternalReference()).thenReturn(externalReference);
+        when(p.getStatus()).thenReturn(status);
+        return p;
+    }
+}
@@ -0,0 +1,119 @@
+package com.osmech.security;
+
+import com.osmech.user.entity.Usuario;
+import com.osmech.user.repository.UsuarioRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JwtAuthFilterTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef-test";
+
+    private final UsuarioRepository usuarioRepository = mock(UsuarioRepository.class);
+    private final JwtUtil jwtUtil = spy(new JwtUtil(SECRET, 60_000));
+    private final Usuario usuario = Usuario.builder().id(1L).email("oficina@teste.com").role("OFICINA").ativo(true).build();
+    private PrincipalCache principalCache;
+    private JwtAuthFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        principalCache = new PrincipalCache(usuarioRepository, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(principalCache, "ttlSegundos", 60L);
+        ReflectionTestUtils.setField(principalCache, "maxItens", 100);
+        principalCache.iniciar();
+        filter = new JwtAuthFilter(jwtUtil, principalCache);
+        when(usuarioRepository.findByEmail("oficina@teste.com")).thenReturn(Optional.of(usuario));
+    }
+
+    @AfterEach
+    void limparContexto() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void deveAutenticarComUmaVerificacaoDoTokenEUsuarioEmCache() throws Exception {
+        String token = jwtUtil.generateToken("oficina@teste.com", "OFICINA", 1L);
+
+        for (int i = 0; i < 3; i++) {
+            SecurityContextHolder.clearContext();
+            filtrar(token);
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            assertNotNull(auth);
+            assertEquals("oficina@teste.com", auth.getName());
+            assertEquals("ROLE_OFICINA", auth.getAuthorities().iterator().next().getAuthority());
+        }
+
+        verify(jwtUtil, times(3)).parseToken(token);
+        verify(jwtUtil, never()).validateToken(anyString());
+        verify(jwtUtil, never()).getEmailFromToken(anyString());
+        verify(usuarioRepository, times(1)).findByEmail("oficina@teste.com");
+    }
+
+    @Test
+    void deveRecarregarUsuarioAposInvalidacao() throws Exception {
+        String token = jwtUtil.generateToken("oficina@teste.com", "OFICINA", 1L);
+        filtrar(token);
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+
+        usuario.setAtivo(false);
+        principalCache.invalidar("oficina@teste.com");
+
+        SecurityContextHolder.clearContext();
+        filtrar(token);
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(usuarioRepository, times(2)).findByEmail("oficina@teste.com");
+    }
+
+    @Test
+    void deveExporTenantDaRequisicaoSemConsultarBanco() throws Exception {
+        filtrar(jwtUtil.generateToken("oficina@teste.com", "OFICINA", 1L));
+        TenantContext tenantContext = new TenantContext(usuarioRepository);
+
+        assertEquals(1L, tenantContext.getUsuarioId("oficina@teste.com"));
+        assertEquals(1L, TenantContext.atual().id());
+        verify(usuarioRepository, never()).findIdByEmail(anyString());
+        verify(usuarioRepository, times(1)).findByEmail("oficina@teste.com");
+    }
+
+    @Test
+    void naoDeveAutenticarTokenDeOutraContaComMesmoEmail() throws Exception {
+        filtrar(jwtUtil.generateToken("oficina@teste.com", "OFICINA", 99L));
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    void naoDeveAutenticarTokenInvalido() throws Exception {
+        filtrar("token.invalido.x");
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(usuarioRepository, never()).findByEmail(anyString());
+    }
+
+    private void filtrar(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/os");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+    }
+}
@@ -0,0 +1,94 @@
+package com.osmech.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PasswordHasherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PasswordHasher hasher;
+
+    @AfterEach
+    void tearDown() {
+        if (hasher != null) {
+            hasher.encerrar();
+        }
+    }
+
+    @Test
+    void deveConferirERefazerHashComCustoAntigo() {
+        hasher = criar(new BCryptPasswordEncoder(5), 1, 4);
+        String antigo = new BCryptPasswordEncoder(4).encode("segredo");
+
+        assertTrue(hasher.confere("segredo", antigo));
+        assertFalse(hasher.confere("errada", antigo));
+
+        String novo = hasher.rehashSeNecessario("segredo", antigo);
+        assertNotNull(novo);
+        assertTrue(novo.startsWith("$2a$05$"));
+        assertNull(hasher.rehashSeNecessario("segredo", novo));
+        assertEquals(3, meterRegistry.get("auth.senha.tempo").tag("operacao", "verificar").timer().count()
+                + meterRegistry.get("auth.senha.tempo").tag("operacao", "hash").timer().count());
+    }
+
+    @Test
+    void deveRecusarNaHoraComPoolEFilaCheios() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        CountDownLatch ocupado = new CountDownLatch(2);
+        PasswordEncoder lento = new BCryptPasswordEncoder(4) {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                ocupado.countDown();
+                try {
+                    liberar.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.encode(rawPassword);
+            }
+        };
+        hasher = criar(lento, 1, 1);
+
+        Thread a = new Thread(() -> hasher.hash("a"));
+        a.start();
+        Thread b = new Thread(() -> hasher.hash("b")); // fica na fila
+        b.start();
+        while (((ThreadPoolExecutor) ReflectionTestUtils.getField(hasher, "executor"))
+                .getQueue().isEmpty()) {
+            Thread.onSpinWait();
+        }
+
+        long inicio = System.nanoTime();
+        assertThrows(IllegalStateException.class, () -> hasher.hash("c"));
+        assertTrue(System.nanoTime() - inicio < TimeUnit.SECONDS.toNanos(1));
+        assertEquals(1.0, meterRegistry.get("auth.senha.rejeitadas").counter().count());
+
+        liberar.countDown();
+        a.join();
+        b.join();
+    }
+
+    private PasswordHasher criar(PasswordEncoder encoder, int threads, int fila) {
+        PasswordHasher h = new PasswordHasher(encoder, meterRegistry);
+        ReflectionTestUtils.setField(h, "threads", threads);
+        ReflectionTestUtils.setField(h, "fila", fila);
+        ReflectionTestUtils.setField(h, "timeoutMs", 5000L);
+        h.iniciar();
+        return h;
+    }
+}
@@ -0,0 +1,132 @@
+package com.osmech.stock.service;
+
+import com.osmech.stock.entity.StockAlerta;
+import com.osmech.stock.entity.StockItem;
+import com.osmech.stock.repository.StockAlertaRepository;
+import com.osmech.stock.repository.StockItemRepository;
+import com.osmech.stock.repository.StockResumoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Garante que o resumo incremental nunca diverge de um recálculo completo,
+ * aplicando uma sequência aleatória de alterações de itens.
+ */
+class StockResumoServiceTest {
+
+    private static final Long USUARIO_ID = 1L;
+
+    private final StockResumoRepository resumoRepository = mock(StockResumoRepository.class);
+    private final StockAlertaRepository alertaRepository = mock(StockAlertaRepository.class);
+    private final StockItemRepository itemRepository = mock(StockItemRepository.class);
+    private StockResumoService service;
+
+    // Estado "persistido" simulado
+    private long itens, zerados, alertas, quantidade;
+    private BigDecimal custo = BigDecimal.ZERO, venda = BigDecimal.ZERO;
+    private final Set<Long> alertaIds = new HashSet<>();
+
+    @BeforeEach
+    void setUp() {
+        service = new StockResumoService(resumoRepository, alertaRepository, itemRepository);
+
+        when(resumoRepository.aplicarDelta(eq(USUARIO_ID), anyLong(), anyLong(), anyLong(), anyLong(),
+                any(BigDecimal.class), any(BigDecimal.class))).thenAnswer(inv -> {
+            itens += inv.<Long>getArgument(1);
+            zerados += inv.<Long>getArgument(2);
+            alertas += inv.<Long>getArgument(3);
+            quantidade += inv.<Long>getArgument(4);
+            custo = custo.add(inv.getArgument(5));
+            venda = venda.add(inv.getArgument(6));
+            return 1;
+        });
+        when(alertaRepository.existsByUsuarioIdAndStockItemId(eq(USUARIO_ID), anyLong()))
+                .thenAnswer(inv -> alertaIds.contains(inv.<Long>getArgument(1)));
+        when(alertaRepository.save(any(StockAlerta.class))).thenAnswer(inv -> {
+            alertaIds.add(inv.<StockAlerta>getArgument(0).getStockItemId());
+            return inv.getArgument(0);
+        });
+        when(alertaRepository.deleteByUsuarioIdAndStockItemId(eq(USUARIO_ID), anyLong()))
+                .thenAnswer(inv -> alertaIds.remove(inv.<Long>getArgument(1)) ? 1 : 0);
+    }
+
+    @Test
+    void resumoIncrementalDeveIgualarRecalculoCompleto() {
+        Random random = new Random(42);
+        List<StockItem> estoque = new ArrayList<>();
+
+        for (int passo = 0; passo < 500; passo++) {
+            int op = estoque.isEmpty() ? 0 : random.nextInt(5);
+            if (op == 0) {
+                StockItem item = StockItem.builder()
+                        .id((long) estoque.size() + 1)
+                        .usuarioId(USUARIO_ID)
+                        .quantidade(random.nextInt(20))
+                        .quantidadeMinima(random.nextInt(5))
+                        .precoCusto(preco(random))
+                        .precoVenda(preco(random))
+                        .build();
+                estoque.add(item);
+                service.registrarAlteracao(StockResumoService.Snapshot.VAZIO, item);
+                continue;
+            }
+
+            StockItem item = estoque.get(random.nextInt(estoque.size()));
+            Consumer<StockItem> alteracao = switch (op) {
+                case 1 -> i -> i.setQuantidade(Math.max(0, i.getQuantidade() + random.nextInt(11) - 5));
+                case 2 -> i -> i.setQuantidadeMinima(random.nextInt(8));
+                case 3 -> i -> {
+                    i.setPrecoCusto(preco(random));
+                    i.setPrecoVenda(preco(random));
+                };
+                default -> i -> i.setAtivo(!i.getAtivo());
+            };
+            StockResumoService.Snapshot antes = StockResumoService.Snapshot.de(item);
+            alteracao.accept(item);
+            service.registrarAlteracao(antes, item);
+
+            assertIgualAoRecalculo(estoque);
+        }
+    }
+
+    private void assertIgualAoRecalculo(List<StockItem> estoque) {
+        long esperadoZerados = 0, esperadoQuantidade = 0;
+        BigDecimal esperadoCusto = BigDecimal.ZERO, esperadoVenda = BigDecimal.ZERO;
+        Set<Long> esperadoAlertas = new HashSet<>();
+        for (StockItem item : estoque) {
+            boolean ativo = item.getAtivo();
+            if (ativo && item.getQuantidade() <= 0) esperadoZerados++;
+            if (ativo && item.getQuantidade() <= item.getQuantidadeMinima()) esperadoAlertas.add(item.getId());
+            esperadoQuantidade += item.getQuantidade();
+            esperadoCusto = esperadoCusto.add(item.getPrecoCusto().multiply(BigDecimal.valueOf(item.getQuantidade())));
+            esperadoVenda = esperadoVenda.add(item.getPrecoVenda().multiply(BigDecimal.valueOf(item.getQuantidade())));
+        }
+
+        assertEquals(estoque.size(), itens);
+        assertEquals(esperadoZerados, zerados);
+        assertEquals(esperadoAlertas.size(), alertas);
+        assertEquals(esperadoQuantidade, quantidade);
+        assertEquals(0, esperadoCusto.compareTo(custo));
+        assertEquals(0, esperadoVenda.compareTo(venda));
+        assertEquals(esperadoAlertas, alertaIds);
+    }
+
+    private static BigDecimal preco(Random random) {
+        return BigDecimal.valueOf(random.nextInt(10_000), 2);
+    }
+}